@@ -10,19 +10,30 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import pokeraidbot.BotService;
 import pokeraidbot.Utils;
+import pokeraidbot.commands.CommandExecutor;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.PokemonRaidStrategyService;
+import pokeraidbot.domain.raid.RaidExpirySweeper;
 import pokeraidbot.domain.raid.RaidRepository;
+import pokeraidbot.domain.raid.signup.SignUpExecutor;
+import pokeraidbot.domain.tracking.TrackingNotifier;
 import pokeraidbot.domain.tracking.TrackingService;
+import pokeraidbot.infrastructure.MessageRefreshScheduler;
 import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingAreaSubscriptionRepository;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingSubscriptionRepository;
 import pokeraidbot.infrastructure.jpa.raid.RaidEntityRepository;
+import pokeraidbot.infrastructure.jpa.raid.RaidStore;
+import pokeraidbot.jda.OrderedEventManager;
 
 import javax.security.auth.login.LoginException;
 import java.io.IOException;
@@ -57,8 +68,14 @@ public class BotServerMain {
     }
 
     @Bean
-    public LocaleService getLocaleService(UserConfigRepository userConfigRepository, @Value("${locale:sv}")String locale) {
-        return new LocaleService(locale, userConfigRepository);
+    public LocaleService getLocaleService(UserConfigRepository userConfigRepository, @Value("${locale:sv}")String locale,
+                                          @Value("${userLocaleCacheTtlInSeconds:600}") long userLocaleTtl) {
+        return new LocaleService(locale, userConfigRepository, userLocaleTtl);
+    }
+
+    @Bean
+    public ServerConfigService getServerConfigService(ServerConfigRepository serverConfigRepository) {
+        return new ServerConfigService(serverConfigRepository);
     }
 
     @Bean
@@ -70,22 +87,68 @@ public class BotServerMain {
         return clockService;
     }
 
-    @Bean
+    @Bean(initMethod = "loadTracking")
     public TrackingService getTrackingService(LocaleService localeService,
                                               UserConfigRepository userConfigRepository,
-                                              PokemonRepository pokemonRepository) {
-        return new TrackingService(localeService, userConfigRepository,
-                pokemonRepository);
+                                              TrackingSubscriptionRepository trackingSubscriptionRepository,
+                                              TrackingAreaSubscriptionRepository areaSubscriptionRepository,
+                                              PokemonRepository pokemonRepository,
+                                              TrackingNotifier trackingNotifier) {
+        return new TrackingService(localeService, userConfigRepository, trackingSubscriptionRepository,
+                areaSubscriptionRepository, pokemonRepository, trackingNotifier);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public TrackingNotifier getTrackingNotifier(@Value("${trackingDmsPerSecond:5}") int dmsPerSecond,
+                                                @Value("${trackingDmCoalescingWindowInSeconds:10}") long window,
+                                                @Value("${trackingDmMaxQueuedUsers:20000}") int maxQueuedUsers) {
+        return new TrackingNotifier(dmsPerSecond, TimeUnit.SECONDS.toMillis(window), maxQueuedUsers);
     }
 
     @Bean
     public BotService getBotService(LocaleService localeService, GymRepository gymRepository, RaidRepository raidRepository,
                                     PokemonRepository pokemonRepository, PokemonRaidStrategyService raidInfoService,
-                                    ServerConfigRepository serverConfigRepository,
+                                    ServerConfigService serverConfigService,
                                     UserConfigRepository userConfigRepository, ClockService clockService,
-                                    ExecutorService executorService, TrackingService trackingService) {
+                                    ExecutorService executorService, TrackingService trackingService,
+                                    SignUpExecutor signUpExecutor,
+                                    MessageRefreshScheduler messageRefreshScheduler,
+                                    OrderedEventManager eventManager,
+                                    CommandExecutor commandExecutor,
+                                    @Value("${asyncCommands:true}") boolean asyncCommands) {
         return new BotService(localeService, gymRepository, raidRepository, pokemonRepository, raidInfoService,
-                serverConfigRepository, userConfigRepository, executorService, clockService, trackingService, ownerId, token);
+                serverConfigService, userConfigRepository, executorService, clockService, trackingService,
+                signUpExecutor, messageRefreshScheduler, eventManager, asyncCommands ? commandExecutor : null,
+                ownerId, token);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public CommandExecutor getCommandExecutor(@Value("${commandThreads:16}") int threads,
+                                              @Value("${commandTimeoutInSeconds:30}") long timeout) {
+        return new CommandExecutor(threads, TimeUnit.SECONDS.toMillis(timeout));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public OrderedEventManager getEventManager(@Value("${eventThreads:8}") int threads,
+                                               @Value("${eventQueueCapacityPerThread:10000}") int queueCapacity) {
+        return new OrderedEventManager(threads, queueCapacity);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public MessageRefreshScheduler getMessageRefreshScheduler(
+            @Value("${messageRefreshThreads:4}") int threads,
+            @Value("${messageRefreshJitter:0.1}") double jitter,
+            @Value("${messageRefreshMaxBackOffInSeconds:300}") long maxBackOff,
+            @Value("${messageRefreshMaxUnchangedInSeconds:300}") long maxUnchanged) {
+        return new MessageRefreshScheduler(threads, jitter, TimeUnit.SECONDS.toMillis(maxBackOff),
+                TimeUnit.SECONDS.toMillis(maxUnchanged));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public SignUpExecutor getSignUpExecutor(RaidRepository raidRepository,
+                                            @Value("${signUpStripes:8}") int stripes,
+                                            @Value("${signUpCoalescingWindowInMillis:250}") long window) {
+        return new SignUpExecutor(raidRepository, stripes, window);
     }
 
     @Bean
@@ -96,16 +159,32 @@ public class BotServerMain {
     }
 
     @Bean
-    public GymRepository getGymRepository(LocaleService localeService, ServerConfigRepository serverConfigRepository) {
-        return new GymRepository(serverConfigRepository, localeService);
+    public GymRepository getGymRepository(LocaleService localeService, ServerConfigRepository serverConfigRepository,
+                                          @Value("${gymSearchCacheSize:10000}") int searchCacheSize) {
+        return new GymRepository(serverConfigRepository, localeService, searchCacheSize);
     }
 
     @Bean
-    public RaidRepository getRaidRepository(LocaleService localeService, RaidEntityRepository entityRepository,
+    public RaidStore getRaidStore(RaidEntityRepository entityRepository,
+                                  @Value("${raidStoreMode:memory}") String raidStoreMode) {
+        return RaidStore.create(RaidStore.Mode.valueOf(raidStoreMode.toUpperCase()), entityRepository);
+    }
+
+    @Bean
+    public RaidRepository getRaidRepository(LocaleService localeService, RaidStore raidStore,
                                             PokemonRepository pokemonRepository, GymRepository gymRepository,
-                                            ClockService clockService, TrackingService trackingService) {
-        return new RaidRepository(clockService, localeService, entityRepository, pokemonRepository, gymRepository,
-                trackingService);
+                                            ClockService clockService, TrackingService trackingService,
+                                            PlatformTransactionManager transactionManager) {
+        return new RaidRepository(clockService, localeService, raidStore, pokemonRepository, gymRepository,
+                trackingService, transactionManager);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public RaidExpirySweeper getRaidExpirySweeper(RaidRepository raidRepository,
+                                                  @Value("${raidExpirySweepIntervalInSeconds:60}") long interval) {
+        final RaidExpirySweeper sweeper = new RaidExpirySweeper(raidRepository, interval);
+        sweeper.start();
+        return sweeper;
     }
 
     @Bean
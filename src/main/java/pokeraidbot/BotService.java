@@ -1,5 +1,6 @@
 package pokeraidbot;
 
+import com.jagrosh.jdautilities.commandclient.Command;
 import com.jagrosh.jdautilities.commandclient.CommandClient;
 import com.jagrosh.jdautilities.commandclient.CommandClientBuilder;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
@@ -15,18 +16,22 @@ import org.springframework.transaction.annotation.Transactional;
 import pokeraidbot.commands.*;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.emote.Emotes;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.PokemonRaidStrategyService;
+import pokeraidbot.domain.raid.RaidOverviewSnapshots;
 import pokeraidbot.domain.raid.RaidRepository;
-import pokeraidbot.domain.raid.signup.EmoticonSignUpMessageListener;
+import pokeraidbot.domain.raid.signup.RaidGroupReactionRouter;
+import pokeraidbot.domain.raid.signup.SignUpExecutor;
 import pokeraidbot.domain.tracking.TrackingService;
+import pokeraidbot.infrastructure.MessageRefreshScheduler;
 import pokeraidbot.infrastructure.botsupport.gymhuntr.GymHuntrRaidEventListener;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
 import pokeraidbot.jda.AggregateCommandListener;
+import pokeraidbot.jda.OrderedEventManager;
 import pokeraidbot.jda.SignupWithPlusCommandListener;
 import pokeraidbot.jda.StartUpEventListener;
 import pokeraidbot.jda.UnsignWithMinusCommandListener;
@@ -53,8 +58,12 @@ public class BotService {
     private CommandClient commandClient;
     private CommandListener aggregateCommandListener;
     private GymRepository gymRepository;
-    private ServerConfigRepository serverConfigRepository;
+    private ServerConfigService serverConfigService;
     private UserConfigRepository userConfigRepository;
+    private SignUpExecutor signUpExecutor;
+    private MessageRefreshScheduler messageRefreshScheduler;
+    private RaidOverviewSnapshots raidOverviewSnapshots;
+    private final RaidGroupReactionRouter raidGroupReactionRouter = new RaidGroupReactionRouter();
     public static List<String> currentTier5Bosses = new CopyOnWriteArrayList<>();
     static {
         if (LocalDate.now().isAfter(LocalDate.of(2018, Month.DECEMBER, 18)) &&
@@ -65,13 +74,20 @@ public class BotService {
 
     public BotService(LocaleService localeService, GymRepository gymRepository, RaidRepository raidRepository,
                       PokemonRepository pokemonRepository, PokemonRaidStrategyService raidInfoService,
-                      ServerConfigRepository serverConfigRepository, UserConfigRepository userConfigRepository,
+                      ServerConfigService serverConfigService, UserConfigRepository userConfigRepository,
                       ExecutorService executorService, ClockService clockService, TrackingService trackingService,
+                      SignUpExecutor signUpExecutor, MessageRefreshScheduler messageRefreshScheduler,
+                      OrderedEventManager eventManager, CommandExecutor commandExecutor,
                       String ownerId, String token) {
         this.gymRepository = gymRepository;
-        this.serverConfigRepository = serverConfigRepository;
+        this.serverConfigService = serverConfigService;
         this.userConfigRepository = userConfigRepository;
         this.trackingService = trackingService;
+        this.signUpExecutor = signUpExecutor;
+        this.messageRefreshScheduler = messageRefreshScheduler;
+        this.raidOverviewSnapshots = new RaidOverviewSnapshots(raidRepository.getChangeEvents(),
+                (region, locale) -> RaidOverviewCommand.getRaidOverviewMessagesMap(region, locale, localeService,
+                        raidRepository, raidInfoService));
         this.ownerId = ownerId;
         this.token = token;
         if (!System.getProperty("file.encoding").equals("UTF-8")) {
@@ -85,16 +101,16 @@ public class BotService {
         // For detailed logging - used during debugging/development
 //        EventLoggingListener eventLoggingListener = new EventLoggingListener();
         GymHuntrRaidEventListener gymHuntrRaidEventListener = new GymHuntrRaidEventListener(
-                serverConfigRepository, raidRepository, gymRepository, pokemonRepository, localeService,
+                serverConfigService, raidRepository, gymRepository, pokemonRepository, localeService,
                 executorService,
                 clockService, this, raidInfoService);
-        StartUpEventListener startUpEventListener = new StartUpEventListener(serverConfigRepository,
-                raidRepository, localeService, clockService, executorService, this, gymRepository,
-                pokemonRepository, raidInfoService);
+        StartUpEventListener startUpEventListener = new StartUpEventListener(serverConfigService,
+                raidRepository, localeService, clockService, this, gymRepository,
+                pokemonRepository);
         SignupWithPlusCommandListener plusCommandEventListener = new SignupWithPlusCommandListener(raidRepository,
-                pokemonRepository, serverConfigRepository, this, localeService);
+                pokemonRepository, serverConfigService, this, localeService);
         UnsignWithMinusCommandListener minusCommandEventListener = new UnsignWithMinusCommandListener(raidRepository,
-                pokemonRepository, serverConfigRepository, this, localeService);
+                pokemonRepository, serverConfigService, this, localeService);
         aggregateCommandListener = new AggregateCommandListener(Arrays.asList());
 
         CommandClientBuilder client = new CommandClientBuilder();
@@ -103,67 +119,78 @@ public class BotService {
         client.setPrefix("!raid ");
         client.setAlternativePrefix("!r ");
         client.setGame(Game.of(Game.GameType.DEFAULT, "Type !raid usage"));
-        client.addCommands(
-                new WhatsNewCommand(serverConfigRepository, aggregateCommandListener, localeService),
-                new HelpManualCommand(localeService, serverConfigRepository, aggregateCommandListener),
+        final Command[] commands = {
+                new WhatsNewCommand(serverConfigService, aggregateCommandListener, localeService),
+                new HelpManualCommand(localeService, serverConfigService, aggregateCommandListener),
                 new AboutCommand(
                         Color.BLUE, localeService.getMessageFor(LocaleService.AT_YOUR_SERVICE, LocaleService.DEFAULT),
                         new String[]{LocaleService.featuresString_SV}, Permission.ADMINISTRATOR
                 ),
                 new PingCommand(),
-                new UsageCommand(localeService, serverConfigRepository, aggregateCommandListener),
-                new GettingStartedCommand(localeService, serverConfigRepository, aggregateCommandListener),
-                new AdminCommands(userConfigRepository, serverConfigRepository, gymRepository,
+                new UsageCommand(localeService, serverConfigService, aggregateCommandListener),
+                new GettingStartedCommand(localeService, serverConfigService, aggregateCommandListener),
+                new AdminCommands(userConfigRepository, serverConfigService, gymRepository,
                         this, trackingService, localeService, pokemonRepository, raidRepository),
                 new NewRaidCommand(gymRepository, raidRepository, pokemonRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener),
+                        serverConfigService, aggregateCommandListener),
                 new NewRaidStartsAtCommand(gymRepository, raidRepository, pokemonRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener),
+                        serverConfigService, aggregateCommandListener),
                 new NewRaidExCommand(gymRepository, raidRepository, pokemonRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener),
-                new UserConfigCommand(serverConfigRepository, aggregateCommandListener, localeService,
+                        serverConfigService, aggregateCommandListener),
+                new UserConfigCommand(serverConfigService, aggregateCommandListener, localeService,
                         userConfigRepository),
                 new RaidStatusCommand(gymRepository, raidRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener),
-                new RaidListCommand(raidRepository, localeService, serverConfigRepository, pokemonRepository,
+                        serverConfigService, aggregateCommandListener),
+                new RaidListCommand(raidRepository, localeService, serverConfigService, pokemonRepository,
                         aggregateCommandListener),
-                new PotentialExRaidListCommand(raidRepository, localeService, serverConfigRepository,
+                new NearRaidsCommand(gymRepository, raidRepository, localeService, serverConfigService,
+                        aggregateCommandListener),
+                new PotentialExRaidListCommand(raidRepository, localeService, serverConfigService,
                         gymRepository, aggregateCommandListener),
-                new ExRaidListCommand(localeService, serverConfigRepository,
+                new ExRaidListCommand(localeService, serverConfigService,
                         gymRepository, aggregateCommandListener),
                 new SignUpCommand(gymRepository, raidRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener),
+                        serverConfigService, aggregateCommandListener),
                 new WhereIsGymCommand(gymRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener),
+                        serverConfigService, aggregateCommandListener),
                 new WhereIsGymInChatCommand(gymRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener),
+                        serverConfigService, aggregateCommandListener),
                 new RemoveSignUpCommand(gymRepository, raidRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener),
-                new PokemonVsCommand(pokemonRepository, raidInfoService, localeService, serverConfigRepository,
+                        serverConfigService, aggregateCommandListener),
+                new PokemonVsCommand(pokemonRepository, raidInfoService, localeService, serverConfigService,
                         aggregateCommandListener),
-                new ServerInfoCommand(serverConfigRepository, localeService, aggregateCommandListener, clockService),
-                new DonateCommand(localeService, serverConfigRepository, aggregateCommandListener),
-                new TrackPokemonCommand(serverConfigRepository, localeService, pokemonRepository,
+                new ServerInfoCommand(serverConfigService, localeService, aggregateCommandListener, clockService),
+                new DonateCommand(localeService, serverConfigService, aggregateCommandListener),
+                new TrackPokemonCommand(serverConfigService, localeService, pokemonRepository,
                         trackingService, aggregateCommandListener),
-                new UnTrackPokemonCommand(serverConfigRepository, localeService, pokemonRepository,
+                new UnTrackPokemonCommand(serverConfigService, localeService, pokemonRepository,
                         aggregateCommandListener, trackingService),
-                new InstallCommand(serverConfigRepository, gymRepository),
+                new InstallCommand(serverConfigService, gymRepository),
                 new InstallEmotesCommand(localeService),
-                new AlterRaidCommand(gymRepository, raidRepository, pokemonRepository, localeService, serverConfigRepository,
+                new AlterRaidCommand(gymRepository, raidRepository, pokemonRepository, localeService, serverConfigService,
                         aggregateCommandListener, this),
                 new NewRaidGroupCommand(gymRepository, raidRepository, pokemonRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener, this, clockService,
+                        serverConfigService, aggregateCommandListener, this, clockService,
                         executorService, raidInfoService),
                 new StartRaidAndCreateGroupCommand(gymRepository, raidRepository, pokemonRepository, localeService,
-                        serverConfigRepository, aggregateCommandListener, this, clockService,
+                        serverConfigService, aggregateCommandListener, this, clockService,
                         executorService, raidInfoService),
                 new EggHatchedCommand(gymRepository, raidRepository, pokemonRepository, localeService,
-                        serverConfigRepository,
+                        serverConfigService,
                         aggregateCommandListener, raidInfoService),
-                new RaidOverviewCommand(raidRepository, localeService, serverConfigRepository,
-                        aggregateCommandListener, clockService, executorService, raidInfoService),
-                new GymCommands(localeService, serverConfigRepository, gymRepository, aggregateCommandListener)
-        );
+                new RaidOverviewCommand(raidRepository, localeService, serverConfigService,
+                        aggregateCommandListener, clockService, executorService, messageRefreshScheduler,
+                        raidOverviewSnapshots),
+                new GymCommands(localeService, serverConfigService, gymRepository, aggregateCommandListener)
+        };
+        if (commandExecutor != null) {
+            for (Command command : commands) {
+                if (command instanceof ConfigAwareCommand) {
+                    ((ConfigAwareCommand) command).executeAsync(commandExecutor);
+                }
+            }
+        }
+        client.addCommands(commands);
 
         try {
             commandClient = client.build();
@@ -179,9 +206,13 @@ public class BotService {
                     .setRequestTimeoutRetry(true)
                     .setAutoReconnect(true)
 
+                    // handle events on our own threads, in order per server
+                    .setEventManager(eventManager)
+
                     // add the listeners
                     .addEventListener(waiter)
                     .addEventListener(commandClient)
+                    .addEventListener(raidGroupReactionRouter)
 //                    .addEventListener(eventLoggingListener)
                     .addEventListener(startUpEventListener)
                     .addEventListener(plusCommandEventListener)
@@ -201,16 +232,16 @@ public class BotService {
 
     @Transactional
     public void initializeConfig() {
-        if (serverConfigRepository.findAll().size() == 0) {
+        if (serverConfigService.getAllConfig().isEmpty()) {
             LOGGER.warn("Could not find any configuration in database, assuming fresh install. " +
                     "Creating basic server configurations..");
             // My test servers
-            serverConfigRepository.save(new Config("manhattan_new_york", false,
+            serverConfigService.save(new Config("manhattan_new_york", false,
                     Locale.ENGLISH, "pokeraidbot_us_test"));
-            serverConfigRepository.save(new Config("uppsala", "zhorhn tests stuff"));
-            serverConfigRepository.save(new Config("uppsala", "pokeraidbot_lab2"));
-            serverConfigRepository.save(new Config("uppsala", "pokeraidbot_stage"));
-            serverConfigRepository.save(new Config("uppsala", "pokeraidbot_test"));
+            serverConfigService.save(new Config("uppsala", "zhorhn tests stuff"));
+            serverConfigService.save(new Config("uppsala", "pokeraidbot_lab2"));
+            serverConfigService.save(new Config("uppsala", "pokeraidbot_stage"));
+            serverConfigService.save(new Config("uppsala", "pokeraidbot_test"));
 
             LOGGER.info("Server configurations created. Add more via the command for an administrator " +
                     "in a server where pokeraidbot has been added: !raid install");
@@ -233,11 +264,19 @@ public class BotService {
         extraListeners.add(listener);
     }
 
-    public void addEmoticonEventListener(EmoticonSignUpMessageListener emoticonSignUpMessageListener) {
-        if (botInstance == null) {
-            addExtraListenerToBeAddedAfterStartUp(emoticonSignUpMessageListener);
-        } else {
-            botInstance.addEventListener(emoticonSignUpMessageListener);
-        }
+    public SignUpExecutor getSignUpExecutor() {
+        return signUpExecutor;
+    }
+
+    public RaidGroupReactionRouter getRaidGroupReactionRouter() {
+        return raidGroupReactionRouter;
+    }
+
+    public MessageRefreshScheduler getMessageRefreshScheduler() {
+        return messageRefreshScheduler;
+    }
+
+    public RaidOverviewSnapshots getRaidOverviewSnapshots() {
+        return raidOverviewSnapshots;
     }
 }
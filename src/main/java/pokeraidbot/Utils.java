@@ -34,7 +34,8 @@ public class Utils {
     public static final DateTimeFormatter dateAndTimePrintFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     public static final int HIGH_LIMIT_FOR_SIGNUPS = 20;
     public static final int RAID_DURATION_IN_MINUTES = 45;
-    private static final String EX_RAID_BOSS = "deoxys";
+    public static final String EX_RAID_BOSS = "deoxys";
+    public static final double EARTH_RADIUS_IN_KM = 6371.0;
     private static ClockService clockService = new ClockService();
     private static ResistanceTable resistanceTable = new ResistanceTable();
 
@@ -171,6 +172,16 @@ public class Utils {
         return url;
     }
 
+    // Great-circle distance between two coordinates (gym x is latitude, y is longitude)
+    public static double distanceInKm(double latitude, double longitude, double otherLatitude,
+                                      double otherLongitude) {
+        final double dLat = Math.toRadians(otherLatitude - latitude);
+        final double dLon = Math.toRadians(otherLongitude - longitude);
+        final double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(latitude)) *
+                Math.cos(Math.toRadians(otherLatitude)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return EARTH_RADIUS_IN_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
     public static String printWeaknesses(Pokemon pokemon) {
         Set<String> weaknessesToPrint = new LinkedHashSet<>();
         final Set<String> typeSet = pokemon.getTypes().getTypeSet();
@@ -323,7 +334,8 @@ public class Utils {
     }
 
     public static boolean isExceptionOrCauseNetworkIssues(Throwable t) {
-        return t != null && (t.getMessage().contains("SocketTimeoutException") || (isInstanceOfSocketException(t) ||
+        return t != null && ((t.getMessage() != null && t.getMessage().contains("SocketTimeoutException")) ||
+                (isInstanceOfSocketException(t) ||
                 (t.getCause() != null && isInstanceOfSocketException(t.getCause()))));
     }
 
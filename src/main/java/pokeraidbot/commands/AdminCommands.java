@@ -13,14 +13,15 @@ import org.apache.commons.lang3.StringUtils;
 import pokeraidbot.BotService;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.domain.tracking.TrackingService;
+import pokeraidbot.infrastructure.BotMetrics;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.config.UserConfig;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
 
@@ -42,10 +43,11 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * List what guilds a certain user is member of: !raid admin member {userid}
  * Create a test raid: !raid admin test {pokemon} {start time} {gym}
  * Set current tier 5 raid boss list: !raid admin tier5 {list of bosses ;-separated}
+ * List bot metrics: !raid admin metrics
  */
 public class AdminCommands extends Command {
     private final UserConfigRepository userConfigRepository;
-    private final ServerConfigRepository serverConfigRepository;
+    private final ServerConfigService serverConfigService;
     private final GymRepository gymRepository;
     private final BotService botService;
     private final TrackingService trackingCommandListener;
@@ -53,12 +55,12 @@ public class AdminCommands extends Command {
     private final PokemonRepository pokemonRepository;
     private final RaidRepository raidRepository;
 
-    public AdminCommands(UserConfigRepository userConfigRepository, ServerConfigRepository serverConfigRepository,
+    public AdminCommands(UserConfigRepository userConfigRepository, ServerConfigService serverConfigService,
                          GymRepository gymRepository, BotService botService,
                          TrackingService trackingCommandListener, LocaleService localeService,
                          PokemonRepository pokemonRepository, RaidRepository raidRepository) {
         this.userConfigRepository = userConfigRepository;
-        this.serverConfigRepository = serverConfigRepository;
+        this.serverConfigService = serverConfigService;
         this.gymRepository = gymRepository;
         this.botService = botService;
         this.trackingCommandListener = trackingCommandListener;
@@ -87,6 +89,7 @@ public class AdminCommands extends Command {
                     return;
                 } else {
                     userConfigRepository.delete(userConfig);
+                    localeService.invalidateLocaleForUser(userId);
                     event.replyInDM("Removed user configuration for user with ID " + userId);
                     return;
                 }
@@ -192,8 +195,7 @@ public class AdminCommands extends Command {
                 event.reply(sb.toString());
                 return;
             }  else if (eventArgs.startsWith("test")) {
-                final Config configForServer =
-                        serverConfigRepository.getConfigForServer(event.getGuild().getName().toLowerCase());
+                final Config configForServer = serverConfigService.getConfigForGuild(event.getGuild());
                 String[] args = eventArgs.replaceAll("test\\s{1,3}", "").trim().split(" ");
                 String pokemon = args[0];
                 LocalDateTime startsAt = LocalDateTime.of(LocalDate.now(),
@@ -220,10 +222,14 @@ public class AdminCommands extends Command {
                     event.reply("Set current tier5 boss list: " + StringUtils.join(bosses, ", "));
                     return;
                 }
+            } else if (eventArgs.startsWith("metrics")) {
+                event.replyInDM("**Metrics:**\n\n" + BotMetrics.print());
+                return;
             }
         }
         event.reply("No such command. Existing ones are:\n- userconfig {userid}\n- permissions\n" +
                 "- clear tracking\n- announce {message}\n- ismember {userid} {guild name}\n- guilds\n" +
-                " - member {userid}\n - test {pokemon} {start time} {gym}\n- tier5 {list of bosses ;-separated}");
+                " - member {userid}\n - test {pokemon} {start time} {gym}\n- tier5 {list of bosses ;-separated}\n" +
+                "- metrics");
     }
 }
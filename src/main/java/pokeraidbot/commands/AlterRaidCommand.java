@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import pokeraidbot.BotService;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.gym.GymRepository;
@@ -21,7 +22,6 @@ import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.domain.raid.signup.EmoticonSignUpMessageListener;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.raid.RaidGroup;
 
 import java.time.LocalDateTime;
@@ -50,9 +50,9 @@ public class AlterRaidCommand extends ConfigAwareCommand {
 
     public AlterRaidCommand(GymRepository gymRepository, RaidRepository raidRepository,
                             PokemonRepository pokemonRepository, LocaleService localeService,
-                            ServerConfigRepository serverConfigRepository,
+                            ServerConfigService serverConfigService,
                             CommandListener commandListener, BotService botService) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.pokemonRepository = pokemonRepository;
         this.localeService = localeService;
         this.botService = botService;
@@ -261,15 +261,12 @@ public class AlterRaidCommand extends ConfigAwareCommand {
     private Set<EmoticonSignUpMessageListener> getListenersAdminCanChange(CommandEvent commandEvent,
                                                                           Config config, Raid raid) {
         Set<EmoticonSignUpMessageListener> listenersToCheck = new HashSet<>();
-        for (Object o : botService.getBot().getRegisteredListeners()) {
-            if (o instanceof EmoticonSignUpMessageListener) {
-                EmoticonSignUpMessageListener listener = (EmoticonSignUpMessageListener) o;
-                final String raidId = raid.getId();
-                final boolean isCorrectRaid = raidId.equals(listener.getRaidId());
-                if (isCorrectRaid && (isUserAdministrator(commandEvent) ||
-                        isUserServerMod(commandEvent, config))) {
-                    listenersToCheck.add(listener);
-                }
+        for (EmoticonSignUpMessageListener listener : botService.getRaidGroupReactionRouter().getGroups()) {
+            final String raidId = raid.getId();
+            final boolean isCorrectRaid = raidId.equals(listener.getRaidId());
+            if (isCorrectRaid && (isUserAdministrator(commandEvent) ||
+                    isUserServerMod(commandEvent, config))) {
+                listenersToCheck.add(listener);
             }
         }
         return listenersToCheck;
@@ -278,33 +275,24 @@ public class AlterRaidCommand extends ConfigAwareCommand {
     private Set<EmoticonSignUpMessageListener> getListenersForUser(User user, Raid raid) {
         Set<EmoticonSignUpMessageListener> listenersToCheck;
         listenersToCheck = new HashSet<>();
-        for (Object o : botService.getBot().getRegisteredListeners()) {
-            if (o instanceof EmoticonSignUpMessageListener) {
-                EmoticonSignUpMessageListener listener = (EmoticonSignUpMessageListener) o;
-                final String raidId = raid.getId();
-                final boolean isCorrectRaid = raidId.equals(listener.getRaidId());
-                final boolean isUsersGroup = user.getId().equals(listener.getUserId());
-                if (isCorrectRaid && isUsersGroup) {
-                    listenersToCheck.add(listener);
-                    break; // If we found user's group, that's the one to change primarily
-                }
+        for (EmoticonSignUpMessageListener listener : botService.getRaidGroupReactionRouter().getGroups()) {
+            final String raidId = raid.getId();
+            final boolean isCorrectRaid = raidId.equals(listener.getRaidId());
+            final boolean isUsersGroup = user.getId().equals(listener.getUserId());
+            if (isCorrectRaid && isUsersGroup) {
+                listenersToCheck.add(listener);
+                break; // If we found user's group, that's the one to change primarily
             }
         }
         return listenersToCheck;
     }
 
     private EmoticonSignUpMessageListener getListenerForGroup(Raid raid, RaidGroup raidGroup) {
-        for (Object o : botService.getBot().getRegisteredListeners()) {
-            if (o instanceof EmoticonSignUpMessageListener) {
-                EmoticonSignUpMessageListener listener = (EmoticonSignUpMessageListener) o;
-                final String raidId = raid.getId();
-                final boolean isCorrectRaid = raidId.equals(listener.getRaidId());
-                final boolean isCorrectGroup = raidGroup.getEmoteMessageId().equals(listener.getEmoteMessageId()) &&
-                        raidGroup.getInfoMessageId().equals(listener.getInfoMessageId());
-                if (isCorrectRaid && isCorrectGroup) {
-                    return listener;
-                }
-            }
+        final EmoticonSignUpMessageListener listener =
+                botService.getRaidGroupReactionRouter().getGroupForEmoteMessage(raidGroup.getEmoteMessageId());
+        final boolean isCorrectRaid = listener != null && raid.getId().equals(listener.getRaidId());
+        if (isCorrectRaid && raidGroup.getInfoMessageId().equals(listener.getInfoMessageId())) {
+            return listener;
         }
         return null;
     }
@@ -0,0 +1,159 @@
+package pokeraidbot.commands;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs commands off the event thread, for commands in async mode (see ConfigAwareCommand).
+ *
+ * Commands in a channel run one at a time, in the order they came in, while commands in different channels run in
+ * parallel, up to the number of threads. A command that hasn't finished within the timeout is interrupted and
+ * reported as timed out, and the next command in its channel is started once the interrupted one has stopped.
+ */
+public class CommandExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandExecutor.class);
+    public static final String COMMANDS_RUNNING = "commands.running";
+    public static final String COMMANDS_WAIT = "commands.wait";
+    public static final String COMMANDS_TIME = "commands.time";
+    public static final String COMMANDS_TIMEOUTS = "commands.timeouts";
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timeouts;
+    private final long timeoutInMillis;
+    // Last command submitted per channel, completed when it has stopped running, the next one starts after that
+    private final Map<String, CompletableFuture<Void>> lastCommandByChannel = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * @param threads         max number of commands running at the same time
+     * @param timeoutInMillis how long a command may run
+     */
+    public CommandExecutor(int threads, long timeoutInMillis) {
+        Validate.isTrue(threads > 0, "Need at least one thread");
+        Validate.isTrue(timeoutInMillis > 0, "Timeout must be positive");
+        this.timeoutInMillis = timeoutInMillis;
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "command-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "command-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the command after the commands submitted before it for the channel.
+     * @return completes when the command is done, exceptionally with a TimeoutException if it timed out or with a
+     * RejectedExecutionException if the executor is shut down
+     */
+    public CompletableFuture<Void> submit(String channelId, Runnable command) {
+        Validate.notNull(command, "Command");
+        final long submittedAt = System.currentTimeMillis();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        // Unlike done, which completes on timeout, this waits for the command to stop
+        final CompletableFuture<Void> stopped = new CompletableFuture<>();
+        final CompletableFuture<Void> previous = channelId == null ? null :
+                lastCommandByChannel.put(channelId, stopped);
+        if (previous == null) {
+            start(command, done, stopped, submittedAt);
+        } else {
+            previous.whenComplete((result, t) -> start(command, done, stopped, submittedAt));
+        }
+        if (channelId != null) {
+            stopped.whenComplete((result, t) -> lastCommandByChannel.remove(channelId, stopped));
+        }
+        return done;
+    }
+
+    public void shutdown() {
+        final List<Runnable> notStarted = workers.shutdownNow();
+        timeouts.shutdownNow();
+        for (Runnable execution : notStarted) {
+            ((Future<?>) execution).cancel(false);
+        }
+    }
+
+    private void start(Runnable command, CompletableFuture<Void> done, CompletableFuture<Void> stopped,
+                       long submittedAt) {
+        final AtomicBoolean started = new AtomicBoolean();
+        final AtomicReference<Future<?>> execution = new AtomicReference<>();
+        final FutureTask<Void> task = new FutureTask<Void>(() -> {
+            started.set(true);
+            final long startedAt = System.currentTimeMillis();
+            BotMetrics.recordTime(COMMANDS_WAIT, startedAt - submittedAt);
+            BotMetrics.setGauge(COMMANDS_RUNNING, running.incrementAndGet());
+            try {
+                // The timeout counts from here, waiting for a thread or for earlier commands in the channel doesn't
+                // count
+                final ScheduledFuture<?> timeout = timeouts.schedule(() -> timedOut(done, execution.get()),
+                        timeoutInMillis, TimeUnit.MILLISECONDS);
+                try {
+                    command.run();
+                    done.complete(null);
+                } catch (Throwable t) {
+                    done.completeExceptionally(t);
+                } finally {
+                    timeout.cancel(false);
+                }
+            } catch (RejectedExecutionException e) {
+                notRun(done);
+            } finally {
+                BotMetrics.setGauge(COMMANDS_RUNNING, running.decrementAndGet());
+                BotMetrics.recordTime(COMMANDS_TIME, System.currentTimeMillis() - startedAt);
+                stopped.complete(null);
+            }
+        }, null) {
+            @Override
+            protected void done() {
+                // Cancelled on shutdown before it got a thread, so the command never runs
+                if (!started.get()) {
+                    notRun(done);
+                    stopped.complete(null);
+                }
+            }
+        };
+        execution.set(task);
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            notRun(done);
+            stopped.complete(null);
+        }
+    }
+
+    private static void notRun(CompletableFuture<Void> done) {
+        LOGGER.debug("Command executor is shut down, not running command.");
+        done.completeExceptionally(new RejectedExecutionException("Command executor is shut down"));
+    }
+
+    private void timedOut(CompletableFuture<Void> done, Future<?> execution) {
+        if (done.completeExceptionally(new TimeoutException("Command timed out after " + timeoutInMillis + " ms"))) {
+            BotMetrics.increment(COMMANDS_TIMEOUTS);
+            LOGGER.warn("Command timed out after " + timeoutInMillis + " ms, interrupting it.");
+            execution.cancel(true);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package pokeraidbot.commands;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
 import org.apache.commons.lang3.Validate;
 import pokeraidbot.domain.config.LocaleService;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
+import pokeraidbot.domain.config.ServerConfigService;
 
 import java.util.concurrent.ExecutorService;
 
@@ -13,10 +13,10 @@ import java.util.concurrent.ExecutorService;
 public abstract class ConcurrencyAndConfigAwareCommand extends ConfigAwareCommand {
     protected final ExecutorService executorService;
 
-    public ConcurrencyAndConfigAwareCommand(ServerConfigRepository serverConfigRepository,
+    public ConcurrencyAndConfigAwareCommand(ServerConfigService serverConfigService,
                                             CommandListener commandListener, LocaleService localeService,
                                             ExecutorService executorService) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         Validate.notNull(executorService);
         this.executorService = executorService;
     }
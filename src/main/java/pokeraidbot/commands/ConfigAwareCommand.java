@@ -15,6 +15,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.util.StringUtils;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.feedback.CleanUpMostFeedbackStrategy;
 import pokeraidbot.domain.feedback.DefaultFeedbackStrategy;
@@ -22,23 +23,26 @@ import pokeraidbot.domain.feedback.FeedbackStrategy;
 import pokeraidbot.domain.feedback.KeepAllFeedbackStrategy;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class ConfigAwareCommand extends Command {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConfigAwareCommand.class);
 
     private static final DefaultFeedbackStrategy defaultFeedbackStrategy = new DefaultFeedbackStrategy();
-    protected final ServerConfigRepository serverConfigRepository;
+    protected final ServerConfigService serverConfigService;
     protected final CommandListener commandListener;
     protected final LocaleService localeService;
+    private CommandExecutor commandExecutor;
 
-    public ConfigAwareCommand(ServerConfigRepository serverConfigRepository,
+    public ConfigAwareCommand(ServerConfigService serverConfigService,
                               CommandListener commandListener,
                               LocaleService localeService) {
-        Validate.notNull(serverConfigRepository);
+        Validate.notNull(serverConfigService);
         this.localeService = localeService;
         this.commandListener = commandListener;
-        this.serverConfigRepository = serverConfigRepository;
+        this.serverConfigService = serverConfigService;
     }
 
     public static void replyBasedOnConfig(Config config, CommandEvent commandEvent, String message) {
@@ -101,14 +105,47 @@ public abstract class ConfigAwareCommand extends Command {
         getFeedbackStrategy(config).replyError(config, commandEvent, t, localeService);
     }
 
+    /**
+     * Async mode: run this command with the executor instead of on the event thread, one command at a time per
+     * channel.
+     */
+    public void executeAsync(CommandExecutor commandExecutor) {
+        this.commandExecutor = commandExecutor;
+    }
+
     @Override
     protected void execute(CommandEvent commandEvent) {
+        final AtomicBoolean timedOut = new AtomicBoolean(false);
+        if (commandExecutor == null) {
+            executeAndGiveFeedback(commandEvent, timedOut);
+            return;
+        }
+        commandExecutor.submit(commandEvent.getChannel().getId(), () -> executeAndGiveFeedback(commandEvent, timedOut))
+                .whenComplete((result, t) -> {
+                    // Other errors are handled by the command
+                    if (t instanceof TimeoutException) {
+                        timedOut.set(true);
+                        LOGGER.warn("Command " + this.getClass().getSimpleName() + " with input message \"" +
+                                commandEvent.getMessage().getContentRaw() + "\" timed out.");
+                        try {
+                            commandEvent.reactError();
+                            if (commandListener != null) {
+                                commandListener.onTerminatedCommand(commandEvent, this);
+                            }
+                        } catch (Throwable tt) {
+                            LOGGER.warn("Exception when trying to give feedback about a timed out command: " +
+                                    tt.getMessage());
+                        }
+                    }
+                });
+    }
+
+    private void executeAndGiveFeedback(CommandEvent commandEvent, AtomicBoolean timedOut) {
         Config configForServer = null;
         try {
             final Guild guild = commandEvent.getGuild();
             if (guild != null) {
-                final String server = guild.getName().trim().toLowerCase();
-                configForServer = serverConfigRepository.getConfigForServer(server);
+                configForServer = serverConfigService.getConfigForGuild(guild);
                 if (configForServer == null) {
                     final String noConfigText = localeService.getMessageFor(LocaleService.NO_CONFIG,
                             localeService.getLocaleForUser(commandEvent.getAuthor()));
@@ -120,7 +157,8 @@ public abstract class ConfigAwareCommand extends Command {
                 }
             }
             executeWithConfig(commandEvent, configForServer);
-            if (commandListener != null) {
+            // A command that didn't stop when interrupted has already been reported as failed
+            if (commandListener != null && !timedOut.get()) {
                 commandListener.onCompletedCommand(commandEvent, this);
             }
         } catch (Throwable t) {
@@ -133,6 +171,9 @@ public abstract class ConfigAwareCommand extends Command {
                     LOGGER.debug("Dumping stacktrace, since exception was null.", t);
                 }
             }
+            if (timedOut.get()) {
+                return;
+            }
             try {
                 if (t instanceof IllegalArgumentException) {
                     getFeedbackStrategy(configForServer).replyError(configForServer, commandEvent,
@@ -3,15 +3,15 @@ package pokeraidbot.commands;
 import com.jagrosh.jdautilities.commandclient.CommandEvent;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 public class DonateCommand extends ConfigAwareCommand {
     private static final String link = "https://www.paypal.com/pools/c/821lf4bmi6";
 
-    public DonateCommand(LocaleService localeService, ServerConfigRepository serverConfigRepository,
+    public DonateCommand(LocaleService localeService, ServerConfigService serverConfigService,
                          CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.name = "donate";
         this.help = localeService.getMessageFor(LocaleService.DONATE, LocaleService.DEFAULT);
     }
@@ -8,6 +8,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.gym.GymRepository;
@@ -18,7 +19,6 @@ import pokeraidbot.domain.raid.PokemonRaidStrategyService;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 /**
  * !raid hatch [Pokemon] [Pokestop name]
@@ -33,10 +33,10 @@ public class EggHatchedCommand extends ConfigAwareCommand {
 
     public EggHatchedCommand(GymRepository gymRepository, RaidRepository raidRepository,
                              PokemonRepository pokemonRepository, LocaleService localeService,
-                             ServerConfigRepository serverConfigRepository,
+                             ServerConfigService serverConfigService,
                              CommandListener commandListener,
                              PokemonRaidStrategyService raidStrategyService) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.pokemonRepository = pokemonRepository;
         this.localeService = localeService;
         this.raidStrategyService = raidStrategyService;
@@ -4,9 +4,9 @@ import com.jagrosh.jdautilities.commandclient.CommandEvent;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
 import net.dv8tion.jda.core.entities.User;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.util.Locale;
 import java.util.Set;
@@ -19,9 +19,9 @@ public class ExRaidListCommand extends ConfigAwareCommand {
     private final GymRepository gymRepository;
 
     public ExRaidListCommand(LocaleService localeService,
-                             ServerConfigRepository serverConfigRepository,
+                             ServerConfigService serverConfigService,
                              GymRepository gymRepository, CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.localeService = localeService;
         this.gymRepository = gymRepository;
         this.name = "list-ex";
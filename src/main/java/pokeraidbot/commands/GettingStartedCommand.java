@@ -4,15 +4,15 @@ import com.jagrosh.jdautilities.commandclient.CommandEvent;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
 import net.dv8tion.jda.core.entities.User;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 /**
  * !raid getting-started
  */
 public class GettingStartedCommand extends ConfigAwareCommand {
-    public GettingStartedCommand(LocaleService localeService, ServerConfigRepository serverConfigRepository, CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+    public GettingStartedCommand(LocaleService localeService, ServerConfigService serverConfigService, CommandListener commandListener) {
+        super(serverConfigService, commandListener, localeService);
         this.name = "getting-started";
         this.aliases = new String[]{"get-started"};
         this.guildOnly = false;
@@ -5,8 +5,8 @@ import com.jagrosh.jdautilities.commandclient.CommandListener;
 import main.BotServerMain;
 import org.apache.commons.lang3.StringUtils;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -21,8 +21,8 @@ public class HelpManualCommand extends ConfigAwareCommand {
     private final Map<String, Map<String, String>> helpTopicsMap = new LinkedHashMap<>();
     private String helpText;
 
-    public HelpManualCommand(LocaleService localeService, ServerConfigRepository serverConfigRepository, CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+    public HelpManualCommand(LocaleService localeService, ServerConfigService serverConfigService, CommandListener commandListener) {
+        super(serverConfigService, commandListener, localeService);
         this.localeService = localeService;
         this.name = "man";
         helpText = localeService.getMessageFor(LocaleService.HELP_MANUAL_HELP_TEXT, LocaleService.DEFAULT);
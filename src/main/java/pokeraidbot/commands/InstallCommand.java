@@ -4,9 +4,9 @@ import com.jagrosh.jdautilities.commandclient.Command;
 import com.jagrosh.jdautilities.commandclient.CommandEvent;
 import net.dv8tion.jda.core.Permission;
 import org.apache.commons.lang3.StringUtils;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.util.HashMap;
 import java.util.Locale;
@@ -17,11 +17,11 @@ import java.util.Map;
  * todo: make this command easier and with better error handling
  */
 public class InstallCommand extends Command {
-    private final ServerConfigRepository serverConfigRepository;
+    private final ServerConfigService serverConfigService;
     private final GymRepository gymRepository;
 
-    public InstallCommand(ServerConfigRepository serverConfigRepository, GymRepository gymRepository) {
-        this.serverConfigRepository = serverConfigRepository;
+    public InstallCommand(ServerConfigService serverConfigService, GymRepository gymRepository) {
+        this.serverConfigService = serverConfigService;
         this.gymRepository = gymRepository;
         this.name = "install";
         this.help = "Installation command, only meant for server administrator.";
@@ -67,7 +67,7 @@ public class InstallCommand extends Command {
 
             final String server = settingsToSet.get("server");
             try {
-                Config config = serverConfigRepository.getConfigForServer(server);
+                Config config = serverConfigService.getConfigForServerToChange(server);
                 final Locale locale = new Locale(settingsToSet.get("locale"));
                 final String region = settingsToSet.get("region");
                 final String modGroup = settingsToSet.get("mods");
@@ -103,7 +103,7 @@ public class InstallCommand extends Command {
                 config.setGroupCreationChannel(groupChannel);
                 config.setUseBotIntegration(botIntegration);
                 config.setPinGroups(pinGroups);
-                event.replyInDM("Configuration complete. Saved configuration: " + serverConfigRepository.save(config));
+                event.replyInDM("Configuration complete. Saved configuration: " + serverConfigService.save(config));
                 event.replyInDM("Now, run \"!raid install-emotes\" in your server's text chat to install the custom " +
                         "emotes the bot needs.");
                 event.reactSuccess();
@@ -0,0 +1,97 @@
+package pokeraidbot.commands;
+
+import com.jagrosh.jdautilities.commandclient.CommandEvent;
+import com.jagrosh.jdautilities.commandclient.CommandListener;
+import net.dv8tion.jda.core.entities.User;
+import org.apache.commons.lang3.StringUtils;
+import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
+import pokeraidbot.domain.emote.Emotes;
+import pokeraidbot.domain.gym.Gym;
+import pokeraidbot.domain.gym.GymRepository;
+import pokeraidbot.domain.gym.NearbyGym;
+import pokeraidbot.domain.raid.Raid;
+import pokeraidbot.domain.raid.RaidRepository;
+import pokeraidbot.infrastructure.jpa.config.Config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static pokeraidbot.Utils.*;
+
+/**
+ * !raid near [gym name] [optional: distance in km]
+ */
+public class NearRaidsCommand extends ConfigAwareCommand {
+    static final double DEFAULT_DISTANCE_IN_KM = 2.0;
+    static final double MAX_DISTANCE_IN_KM = 10.0;
+    private final GymRepository gymRepository;
+    private final RaidRepository raidRepository;
+    private final LocaleService localeService;
+
+    public NearRaidsCommand(GymRepository gymRepository, RaidRepository raidRepository, LocaleService localeService,
+                            ServerConfigService serverConfigService, CommandListener commandListener) {
+        super(serverConfigService, commandListener, localeService);
+        this.gymRepository = gymRepository;
+        this.raidRepository = raidRepository;
+        this.localeService = localeService;
+        this.name = "near";
+        this.help = localeService.getMessageFor(LocaleService.NEAR_HELP, LocaleService.DEFAULT);
+    }
+
+    @Override
+    protected void executeWithConfig(CommandEvent commandEvent, Config config) {
+        final User user = commandEvent.getAuthor();
+        final Locale locale = localeService.getLocaleForUser(user);
+        final String[] args = commandEvent.getArgs().trim().split(" ");
+        double distanceInKm = DEFAULT_DISTANCE_IN_KM;
+        String gymName = commandEvent.getArgs().trim();
+        final String lastArgument = args[args.length - 1];
+        if (args.length > 1 && lastArgument.matches("[0-9]+([.,][0-9]+)?")) {
+            distanceInKm = Math.min(MAX_DISTANCE_IN_KM, Double.parseDouble(lastArgument.replace(',', '.')));
+            gymName = StringUtils.join(args, " ", 0, args.length - 1);
+        }
+        final Gym gym = gymRepository.search(user, gymName, config.getRegion());
+        final List<NearbyGym> nearbyGyms = gymRepository.findNear(gym, distanceInKm, config.getRegion());
+        Map<Gym, Double> distanceByGym = new HashMap<>();
+        List<Gym> gyms = new ArrayList<>(nearbyGyms.size());
+        for (NearbyGym nearbyGym : nearbyGyms) {
+            distanceByGym.put(nearbyGym.getGym(), nearbyGym.getDistanceInKm());
+            gyms.add(nearbyGym.getGym());
+        }
+        final List<Raid> raids = raidRepository.getActiveRaidsAt(gyms, config.getRegion());
+        // Raids are found by gym name, so a raid at another gym with the same name can come along
+        raids.removeIf(raid -> !distanceByGym.containsKey(raid.getGym()));
+        final String distance = String.format(locale, "%.1f", distanceInKm);
+        if (raids.isEmpty()) {
+            replyBasedOnConfig(config, commandEvent, localeService.getMessageFor(LocaleService.NEAR_NO_RAIDS,
+                    locale, distance, gym.getName()));
+            return;
+        }
+        // Raids come ordered by end of raid, a stable sort keeps that order for raids equally far away
+        raids.sort(Comparator.comparing(raid -> distanceByGym.get(raid.getGym())));
+
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("**").append(localeService.getMessageFor(LocaleService.NEAR_RAIDS, locale,
+                distance, gym.getName())).append(":**\n");
+        for (Raid raid : raids) {
+            final Gym raidGym = raid.getGym();
+            if (raidGym.isExGym()) {
+                stringBuilder.append("**").append(raidGym.getName()).append(Emotes.STAR + "**");
+            } else {
+                stringBuilder.append("*").append(raidGym.getName()).append("*");
+            }
+            stringBuilder.append(" (").append(String.format(locale, "%.1f", distanceByGym.get(raidGym)))
+                    .append(" km) **").append(raid.getPokemon().getName()).append("** ")
+                    .append(localeService.getMessageFor(LocaleService.RAID_BETWEEN, locale,
+                            printTimeIfSameDay(getStartOfRaid(raid.getEndOfRaid(), raid.isExRaid())),
+                            printTime(raid.getEndOfRaid().toLocalTime())))
+                    .append("\n");
+        }
+        replyBasedOnConfig(config, commandEvent, stringBuilder.toString());
+    }
+}
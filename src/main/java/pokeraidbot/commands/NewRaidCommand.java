@@ -6,6 +6,7 @@ import main.BotServerMain;
 import net.dv8tion.jda.core.entities.User;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.gym.GymRepository;
@@ -14,7 +15,6 @@ import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -34,9 +34,9 @@ public class NewRaidCommand extends ConfigAwareCommand {
 
     public NewRaidCommand(GymRepository gymRepository, RaidRepository raidRepository,
                           PokemonRepository pokemonRepository, LocaleService localeService,
-                          ServerConfigRepository serverConfigRepository,
+                          ServerConfigService serverConfigService,
                           CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.pokemonRepository = pokemonRepository;
         this.localeService = localeService;
         this.name = "new";
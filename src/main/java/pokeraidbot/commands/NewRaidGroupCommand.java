@@ -15,6 +15,7 @@ import pokeraidbot.BotService;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.emote.Emotes;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.gym.Gym;
@@ -26,8 +27,8 @@ import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.domain.raid.signup.EmoticonSignUpMessageListener;
 import pokeraidbot.domain.raid.signup.SignUp;
+import pokeraidbot.infrastructure.MessageRefreshScheduler;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.raid.RaidGroup;
 
 import java.time.LocalDate;
@@ -36,8 +37,6 @@ import java.time.LocalTime;
 import java.util.ConcurrentModificationException;
 import java.util.Locale;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -59,11 +58,11 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
 
     public NewRaidGroupCommand(GymRepository gymRepository, RaidRepository raidRepository,
                                PokemonRepository pokemonRepository, LocaleService localeService,
-                               ServerConfigRepository serverConfigRepository,
+                               ServerConfigService serverConfigService,
                                CommandListener commandListener, BotService botService,
                                ClockService clockService, ExecutorService executorService,
                                PokemonRaidStrategyService pokemonRaidStrategyService) {
-        super(serverConfigRepository, commandListener, localeService, executorService);
+        super(serverConfigService, commandListener, localeService, executorService);
         this.pokemonRepository = pokemonRepository;
         this.localeService = localeService;
         this.botService = botService;
@@ -100,7 +99,7 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
         final Raid raid = raidRepository.getActiveRaidOrFallbackToExRaid(gym, config.getRegion(), user);
         createRaidGroup(commandEvent.getChannel(), commandEvent.getGuild(),
                 config, user, locale, startAtTime, raid.getId(),
-                localeService, raidRepository, botService, serverConfigRepository, pokemonRepository, gymRepository,
+                localeService, raidRepository, botService, serverConfigService, pokemonRepository, gymRepository,
                 clockService, executorService, pokemonRaidStrategyService);
         commandEvent.reactSuccess();
         removeOriginMessageIfConfigSaysSo(config, commandEvent);
@@ -109,12 +108,12 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
     public static void createRaidGroup(MessageChannel channel, Guild guild, Config config, User user,
                                        Locale locale, LocalTime startAtTime, String raidId, LocaleService localeService,
                                        RaidRepository raidRepository, BotService botService,
-                                       ServerConfigRepository serverConfigRepository,
+                                       ServerConfigService serverConfigService,
                                        PokemonRepository pokemonRepository, GymRepository gymRepository,
                                        ClockService clockService, ExecutorService executorService,
                                        PokemonRaidStrategyService pokemonRaidStrategyService) {
         assertAllParametersNotNullOrEmpty(channel, config, user, locale, startAtTime, raidId, localeService,
-                raidRepository, botService, serverConfigRepository, pokemonRepository, gymRepository,
+                raidRepository, botService, serverConfigService, pokemonRepository, gymRepository,
                 clockService, executorService);
 
         Raid raid = raidRepository.getById(raidId);
@@ -125,12 +124,13 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
 
         final EmoticonSignUpMessageListener emoticonSignUpMessageListener =
                 new EmoticonSignUpMessageListener(botService, localeService,
-                        serverConfigRepository, raidRepository, pokemonRepository, gymRepository,
+                        serverConfigService, raidRepository, pokemonRepository, gymRepository,
                         raid.getId(), startAt, user);
         TimeUnit delayTimeUnit = raid.isExRaid() ? TimeUnit.MINUTES : TimeUnit.SECONDS;
         int delay = raid.isExRaid() ? 1 : 15;
         final MessageEmbed messageEmbed = getRaidGroupMessageEmbed(startAt, raid.getId(), localeService,
-                clockService, locale, delayTimeUnit, delay, raidRepository);
+                clockService, locale, botService.getMessageRefreshScheduler().getMaxUnchangedInMinutes(),
+                raidRepository);
         channel.sendMessage(messageEmbed).queue(embed -> {
             final String messageId = embed.getId();
             emoticonSignUpMessageListener.setInfoMessageId(messageId);
@@ -162,14 +162,8 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
                     LOGGER.debug("Pinning info message for raid group. ID is: " + embed.getId());
                 }
             }
-            final Callable<Boolean> refreshEditThreadTask =
-                        getMessageRefreshingTaskToSchedule(channel,
-                                raid, emoticonSignUpMessageListener, messageId,
-                                locale,
-                                raidRepository, localeService,
-                                clockService, executorService, botService,
-                                delayTimeUnit, delay, group.getId());
-            executorService.submit(refreshEditThreadTask);
+            scheduleMessageRefresh(channel, raid, emoticonSignUpMessageListener, messageId, locale,
+                    raidRepository, localeService, clockService, botService, delayTimeUnit, delay, group.getId());
         });
     }
 
@@ -201,7 +195,7 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
     private static void assertAllParametersNotNullOrEmpty(MessageChannel channel, Config config, User user, Locale locale,
                                                           LocalTime startAtTime, String raidId, LocaleService localeService,
                                                           RaidRepository raidRepository, BotService botService,
-                                                          ServerConfigRepository serverConfigRepository,
+                                                          ServerConfigService serverConfigService,
                                                           PokemonRepository pokemonRepository, GymRepository gymRepository,
                                                           ClockService clockService, ExecutorService executorService) {
         Validate.notNull(channel, "Channel");
@@ -212,7 +206,7 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
         Validate.notNull(localeService, "LocaleService");
         Validate.notNull(raidRepository, "RaidRepository");
         Validate.notNull(botService, "BotService");
-        Validate.notNull(serverConfigRepository, "ServerConfigRepository");
+        Validate.notNull(serverConfigService, "ServerConfigService");
         Validate.notNull(pokemonRepository, "PokemonRepository");
         Validate.notNull(gymRepository, "GymRepository");
         Validate.notNull(clockService, "ClockService");
@@ -220,81 +214,80 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
         Validate.notEmpty(raidId, "Raid ID");
     }
 
-    public static Callable<Boolean> getMessageRefreshingTaskToSchedule(MessageChannel messageChannel,
-                                                                       Raid raid,
-                                                                       EmoticonSignUpMessageListener emoticonSignUpMessageListener,
-                                                                       String infoMessageId, Locale locale,
-                                                                       RaidRepository raidRepository,
-                                                                       LocaleService localeService,
-                                                                       ClockService clockService,
-                                                                       ExecutorService executorService,
-                                                                       BotService botService,
-                                                                       TimeUnit delayTimeUnit, int delay,
-                                                                       String raidGroupId) {
-        Callable<Boolean> refreshEditThreadTask = () -> {
-            final String groupId = raidGroupId;
-            final Raid currentStateOfRaid = raidRepository.getById(raid.getId());
-            final Callable<Boolean> editTask = () -> {
-                delayTimeUnit.sleep(delay);
-                if (LOGGER.isTraceEnabled()) {
-                    LOGGER.trace("Thread: " + Thread.currentThread().getId() +
-                            " - Updating for group at gym " + currentStateOfRaid.getGym().getName() +
-                            ": message ID=" + infoMessageId);
-                }
-                LocalDateTime start = emoticonSignUpMessageListener.getStartAt();
-                final MessageEmbed newContent =
-                        getRaidGroupMessageEmbed(start, raid.getId(),
-                                localeService, clockService, locale, delayTimeUnit, delay, raidRepository
-                        );
-                messageChannel.editMessageById(infoMessageId,
-                        newContent)
-                        .queue(m -> {
-                            if (LOGGER.isTraceEnabled()) {
-                                LOGGER.trace("Message edit ok for " + infoMessageId);
-                            }
-                        }, m -> {
-                            LOGGER.warn(m.getClass().getName() + " occurred in edit message loop: " + m.getMessage());
-                            if (Utils.isExceptionOrCauseNetworkIssues(m)) {
-                                LOGGER.info("Exception was due to timeout, so trying again soon. Could be temporary.");
-                                try {
-                                    // If we get a timeout, it's probably due to discord having issues.
-                                    // Try to delay 60 seconds and try again.
-                                    LOGGER.debug("Since we had a timeout, trying to wait 60 seconds before trying again.");
-                                    delayTimeUnit.sleep(60000);
-                                } catch (InterruptedException e) {
-                                }
-                            } else {
-                                LOGGER.info("Exception was not due to timeout, so terminating this group.");
-                                emoticonSignUpMessageListener.setStartAt(null);
-                                LOGGER.info("Raid group will now be cleaned up for raid: " +
-                                        raidCleanUpInfo(raid, emoticonSignUpMessageListener));
-                                cleanUpRaidGroupAndDeleteSignUpsIfPossible(messageChannel,
-                                        emoticonSignUpMessageListener.getStartAt(),
-                                        currentStateOfRaid != null ? currentStateOfRaid.getId() : null,
-                                        emoticonSignUpMessageListener, raidRepository, botService, groupId);
-                            }
-                        });
-                return true;
-            };
-            while (raidIsActiveAndRaidGroupNotExpired(currentStateOfRaid.getEndOfRaid(),
-                    emoticonSignUpMessageListener.getStartAt(), clockService)) {
-                try {
-                    executorService.submit(editTask).get();
+    /**
+     * Keeps the raid group message up to date until the group has started or the raid is over, then cleans up the
+     * group.
+     */
+    public static MessageRefreshScheduler.ScheduledRefresh scheduleMessageRefresh(MessageChannel messageChannel,
+                                                                                  Raid raid,
+                                                                                  EmoticonSignUpMessageListener emoticonSignUpMessageListener,
+                                                                                  String infoMessageId, Locale locale,
+                                                                                  RaidRepository raidRepository,
+                                                                                  LocaleService localeService,
+                                                                                  ClockService clockService,
+                                                                                  BotService botService,
+                                                                                  TimeUnit delayTimeUnit, int delay,
+                                                                                  String raidGroupId) {
+        final String groupId = raidGroupId;
+        final Raid currentStateOfRaid = raidRepository.getById(raid.getId());
+        return botService.getMessageRefreshScheduler().schedule("raid group " + groupId, delay, delayTimeUnit,
+                refresh -> {
+                    if (!raidIsActiveAndRaidGroupNotExpired(currentStateOfRaid.getEndOfRaid(),
+                            emoticonSignUpMessageListener.getStartAt(), clockService)) {
+                        LOGGER.info("Raid group will now be cleaned up for raid: " +
+                                raidCleanUpInfo(raid, emoticonSignUpMessageListener));
+                        cleanUpRaidGroupAndDeleteSignUpsIfPossible(messageChannel,
+                                emoticonSignUpMessageListener.getStartAt(),
+                                raid != null ? raid.getId() : null,
+                                emoticonSignUpMessageListener, raidRepository, botService, groupId);
+                        return false;
+                    }
                     if (LOGGER.isTraceEnabled()) {
-                        LOGGER.trace("Edit task done for now: " + infoMessageId);
+                        LOGGER.trace("Thread: " + Thread.currentThread().getId() +
+                                " - Updating for group at gym " + currentStateOfRaid.getGym().getName() +
+                                ": message ID=" + infoMessageId);
                     }
-                } catch (InterruptedException | ExecutionException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            LOGGER.info("Raid group will now be cleaned up for raid: " +
-                    raidCleanUpInfo(raid, emoticonSignUpMessageListener));
-            cleanUpRaidGroupAndDeleteSignUpsIfPossible(messageChannel, emoticonSignUpMessageListener.getStartAt(),
-                    raid != null ? raid.getId() : null,
-                    emoticonSignUpMessageListener, raidRepository, botService, groupId);
-            return true;
-        };
-        return refreshEditThreadTask;
+                    LocalDateTime start = emoticonSignUpMessageListener.getStartAt();
+                    final MessageEmbed newContent =
+                            getRaidGroupMessageEmbed(start, raid.getId(),
+                                    localeService, clockService, locale,
+                                    botService.getMessageRefreshScheduler().getMaxUnchangedInMinutes(),
+                                    raidRepository
+                            );
+                    final int contentHash = MessageRefreshScheduler.contentHashIgnoringFooter(newContent);
+                    if (!refresh.needsEdit(contentHash)) {
+                        // Only the time of update in the footer would change
+                        return true;
+                    }
+                    messageChannel.editMessageById(infoMessageId,
+                            newContent)
+                            .queue(m -> {
+                                if (LOGGER.isTraceEnabled()) {
+                                    LOGGER.trace("Message edit ok for " + infoMessageId);
+                                }
+                                refresh.edited(contentHash);
+                            }, m -> {
+                                LOGGER.warn(m.getClass().getName() + " occurred in edit message loop: " +
+                                        m.getMessage());
+                                if (Utils.isExceptionOrCauseNetworkIssues(m)) {
+                                    // If we get a timeout, it's probably due to discord having issues.
+                                    LOGGER.info("Exception was due to timeout, so backing off and trying again. " +
+                                            "Could be temporary.");
+                                    refresh.failed();
+                                } else {
+                                    LOGGER.info("Exception was not due to timeout, so terminating this group.");
+                                    emoticonSignUpMessageListener.setStartAt(null);
+                                    refresh.cancel();
+                                    LOGGER.info("Raid group will now be cleaned up for raid: " +
+                                            raidCleanUpInfo(raid, emoticonSignUpMessageListener));
+                                    cleanUpRaidGroupAndDeleteSignUpsIfPossible(messageChannel,
+                                            emoticonSignUpMessageListener.getStartAt(),
+                                            currentStateOfRaid != null ? currentStateOfRaid.getId() : null,
+                                            emoticonSignUpMessageListener, raidRepository, botService, groupId);
+                                }
+                            });
+                    return true;
+                });
     }
 
     private static String raidCleanUpInfo(Raid raid, EmoticonSignUpMessageListener emoticonSignUpMessageListener) {
@@ -351,7 +344,7 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
             try {
                 messageChannel.deleteMessageById(infoMessageId).queue(m -> {}, t -> {
                     LOGGER.warn("Exception occurred when removing group message: " + t.getMessage());
-                    botService.getBot().removeEventListener(emoticonSignUpMessageListener);
+                    botService.getRaidGroupReactionRouter().unregister(emoticonSignUpMessageListener);
                     raidRepository.deleteGroupInNewTransaction(raidId, groupId);
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("Cleaned up listener related to this group.");
@@ -364,7 +357,7 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
             LOGGER.warn("Group message Id was null for raid group for raid: " +
                     emoticonSignUpMessageListener.getRaidId());
         }
-        botService.getBot().removeEventListener(emoticonSignUpMessageListener);
+        botService.getRaidGroupReactionRouter().unregister(emoticonSignUpMessageListener);
         raidRepository.deleteGroupInNewTransaction(raidId, groupId);
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Cleaned up listener and message related to the group with ID " + groupId +
@@ -374,8 +367,8 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
 
     private static MessageEmbed getRaidGroupMessageEmbed(LocalDateTime startAt, String raidId,
                                                          LocaleService localeService, ClockService clockService,
-                                                         Locale locale, TimeUnit delayTimeUnit,
-                                                         int delay, RaidRepository raidRepository) {
+                                                         Locale locale, long updatedAtLeastEveryMinutes,
+                                                         RaidRepository raidRepository) {
         Raid currentStateOfRaid = raidRepository.getById(raidId);
         final Gym gym = currentStateOfRaid.getGym();
         final Pokemon pokemon = currentStateOfRaid.getPokemon();
@@ -413,9 +406,9 @@ public class NewRaidGroupCommand extends ConcurrencyAndConfigAwareCommand {
         }
         embedBuilder.setDescription("**Start: " + printTimeIfSameDay(startAt) + "** " + descriptionAppendixText);
         embedBuilder.addField(totalSignUpsText + ". " + thoseWhoAreComingText, allSignUpNames, true);
-        final String updatedMessage = localeService.getMessageFor(LocaleService.UPDATED_EVERY_X,
-                locale, LocaleService.asString(delayTimeUnit, locale),
-                String.valueOf(delay)) + " " + localeService.getMessageFor(LocaleService.LAST_UPDATE,
+        final String updatedMessage = localeService.getMessageFor(LocaleService.UPDATED_ON_CHANGE,
+                locale, String.valueOf(updatedAtLeastEveryMinutes)) + " " +
+                localeService.getMessageFor(LocaleService.LAST_UPDATE,
                 locale,
                 printTime(clockService.getCurrentTime())) + ".";
 
@@ -5,13 +5,13 @@ import com.jagrosh.jdautilities.commandclient.CommandListener;
 import org.apache.commons.lang3.StringUtils;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.pokemon.Pokemon;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.PokemonRaidStrategyService;
 import pokeraidbot.domain.raid.RaidBossCounters;
 import pokeraidbot.infrastructure.CounterPokemon;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -25,8 +25,8 @@ public class PokemonVsCommand extends ConfigAwareCommand {
     private final PokemonRepository repo;
 
     public PokemonVsCommand(PokemonRepository repo, PokemonRaidStrategyService raidInfoService,
-                            LocaleService localeService, ServerConfigRepository serverConfigRepository, CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+                            LocaleService localeService, ServerConfigService serverConfigService, CommandListener commandListener) {
+        super(serverConfigService, commandListener, localeService);
         this.raidInfoService = raidInfoService;
         this.localeService = localeService;
         this.name = "vs";
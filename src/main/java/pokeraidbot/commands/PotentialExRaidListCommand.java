@@ -5,11 +5,11 @@ import com.jagrosh.jdautilities.commandclient.CommandListener;
 import net.dv8tion.jda.core.entities.User;
 import org.apache.commons.collections4.CollectionUtils;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -25,9 +25,9 @@ public class PotentialExRaidListCommand extends ConfigAwareCommand {
     private final GymRepository gymRepository;
 
     public PotentialExRaidListCommand(RaidRepository raidRepository, LocaleService localeService,
-                                      ServerConfigRepository serverConfigRepository,
+                                      ServerConfigService serverConfigService,
                                       GymRepository gymRepository, CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.localeService = localeService;
         this.gymRepository = gymRepository;
         this.name = "potential-ex";
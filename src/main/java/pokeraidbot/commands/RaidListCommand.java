@@ -5,18 +5,18 @@ import com.jagrosh.jdautilities.commandclient.CommandListener;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.entities.User;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.emote.Emotes;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.pokemon.Pokemon;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
+import pokeraidbot.domain.raid.RaidSummary;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
-import pokeraidbot.infrastructure.jpa.raid.RaidGroup;
 
+import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 
 import static pokeraidbot.Utils.*;
 
@@ -29,8 +29,8 @@ public class RaidListCommand extends ConfigAwareCommand {
     private final PokemonRepository pokemonRepository;
 
     public RaidListCommand(RaidRepository raidRepository, LocaleService localeService,
-                           ServerConfigRepository serverConfigRepository, PokemonRepository pokemonRepository, CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+                           ServerConfigService serverConfigService, PokemonRepository pokemonRepository, CommandListener commandListener) {
+        super(serverConfigService, commandListener, localeService);
         this.localeService = localeService;
         this.pokemonRepository = pokemonRepository;
         this.name = "list";
@@ -44,11 +44,12 @@ public class RaidListCommand extends ConfigAwareCommand {
         final User user = commandEvent.getAuthor();
         final String args = commandEvent.getArgs();
         final Locale locale = localeService.getLocaleForUser(user);
-        Set<Raid> raids;
+        List<RaidSummary> raids;
         if (args != null && args.length() > 0) {
-            raids = raidRepository.getRaidsInRegionForPokemon(config.getRegion(), pokemonRepository.search(args, user));
+            raids = raidRepository.getRaidSummariesForRegionAndPokemon(config.getRegion(),
+                    pokemonRepository.search(args, user));
         } else {
-            raids = raidRepository.getAllRaidsForRegion(config.getRegion());
+            raids = raidRepository.getRaidSummariesForRegion(config.getRegion());
         }
 
         if (raids.size() == 0) {
@@ -68,15 +69,15 @@ public class RaidListCommand extends ConfigAwareCommand {
             stringBuilder.append("\n").append(localeService.getMessageFor(LocaleService.RAID_DETAILS,
                     localeService.getLocaleForUser(user))).append("\n");
             Pokemon currentPokemon = null;
-            for (Raid raid : raids) {
+            for (RaidSummary raidSummary : raids) {
+                final Raid raid = raidSummary.getRaid();
                 final Pokemon raidBoss = raid.getPokemon();
                 if (!raid.isExRaid() && (currentPokemon == null || (!currentPokemon.equals(raidBoss)))) {
                     currentPokemon = raid.getPokemon();
                     stringBuilder.append("\n**").append(currentPokemon.getName()).append("**\n");
                 }
-                final int numberOfPeople = raid.getNumberOfPeopleSignedUp();
+                final int numberOfPeople = raidSummary.getNumberOfPeople();
                 final Gym raidGym = raid.getGym();
-                final Set<RaidGroup> groups = raidRepository.getGroups(raid);
                 if (!raid.isExRaid()) {
                     if (raidGym.isExGym()) {
                         stringBuilder.append("**").append(raidGym.getName()).append(Emotes.STAR + "**");
@@ -87,11 +88,11 @@ public class RaidListCommand extends ConfigAwareCommand {
                             .append(printTimeIfSameDay(getStartOfRaid(raid.getEndOfRaid(), false)))
                             .append("-")
                             .append(printTime(raid.getEndOfRaid().toLocalTime()));
-                    if (groups.size() < 1) {
+                    if (!raidSummary.hasGroups()) {
                         stringBuilder.append(" (**").append(numberOfPeople)
                                 .append("**)");
                     } else {
-                        stringBuilder.append(raidRepository.listGroupsForRaid(raid, groups));
+                        stringBuilder.append(raidRepository.listGroupsForRaid(raidSummary));
                     }
                     stringBuilder.append("\n");
                 } else {
@@ -100,11 +101,11 @@ public class RaidListCommand extends ConfigAwareCommand {
                             .append(localeService.getMessageFor(LocaleService.RAID_BETWEEN, locale,
                                     printTimeIfSameDay(getStartOfRaid(raid.getEndOfRaid(), true)),
                                     printTime(raid.getEndOfRaid().toLocalTime())));
-                    if (groups.size() < 1) {
+                    if (!raidSummary.hasGroups()) {
                         exRaids.append(" (**").append(numberOfPeople)
                                 .append("**)");
                     } else {
-                        exRaids.append(raidRepository.listGroupsForRaid(raid, groups));
+                        exRaids.append(raidRepository.listGroupsForRaid(raidSummary));
                     }
                 }
             }
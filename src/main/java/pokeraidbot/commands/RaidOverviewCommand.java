@@ -3,7 +3,6 @@ package pokeraidbot.commands;
 import com.jagrosh.jdautilities.commandclient.CommandEvent;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
 import net.dv8tion.jda.core.EmbedBuilder;
-import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.entities.MessageChannel;
 import net.dv8tion.jda.core.entities.MessageEmbed;
 import net.dv8tion.jda.core.entities.User;
@@ -13,25 +12,26 @@ import org.slf4j.LoggerFactory;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.emote.Emotes;
-import pokeraidbot.domain.errors.OverviewException;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.pokemon.Pokemon;
 import pokeraidbot.domain.pokemon.PokemonRaidInfo;
 import pokeraidbot.domain.raid.PokemonRaidStrategyService;
 import pokeraidbot.domain.raid.Raid;
+import pokeraidbot.domain.raid.RaidChangeEvents;
+import pokeraidbot.domain.raid.RaidOverviewSnapshots;
 import pokeraidbot.domain.raid.RaidRepository;
+import pokeraidbot.domain.raid.RaidSummary;
+import pokeraidbot.infrastructure.MessageRefreshScheduler;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
-import pokeraidbot.infrastructure.jpa.raid.RaidGroup;
 
 import java.net.SocketTimeoutException;
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static pokeraidbot.Utils.*;
 
@@ -40,20 +40,26 @@ import static pokeraidbot.Utils.*;
  */
 public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
     private static final Logger LOGGER = LoggerFactory.getLogger(RaidOverviewCommand.class);
+    private static final long FALLBACK_REFRESH_IN_SECONDS = 300;
+    // Changes within this time are shown in one edit
+    private static final long REFRESH_AFTER_CHANGE_IN_MILLIS = 3000;
 
     private final RaidRepository raidRepository;
     private final LocaleService localeService;
     private final ClockService clockService;
-    private final PokemonRaidStrategyService strategyService;
+    private final MessageRefreshScheduler refreshScheduler;
+    private final RaidOverviewSnapshots overviewSnapshots;
 
     public RaidOverviewCommand(RaidRepository raidRepository, LocaleService localeService,
-                               ServerConfigRepository serverConfigRepository,
+                               ServerConfigService serverConfigService,
                                CommandListener commandListener, ClockService clockService,
-                               ExecutorService executorService, PokemonRaidStrategyService strategyService) {
-        super(serverConfigRepository, commandListener, localeService, executorService);
+                               ExecutorService executorService, MessageRefreshScheduler refreshScheduler,
+                               RaidOverviewSnapshots overviewSnapshots) {
+        super(serverConfigService, commandListener, localeService, executorService);
+        this.refreshScheduler = refreshScheduler;
+        this.overviewSnapshots = overviewSnapshots;
         this.localeService = localeService;
         this.clockService = clockService;
-        this.strategyService = strategyService;
         this.name = "overview";
         this.help = localeService.getMessageFor(LocaleService.OVERVIEW_HELP, LocaleService.DEFAULT);
         this.raidRepository = raidRepository;
@@ -78,7 +84,7 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
                     // Ignore, just means the message couldn't be cleared/deleted and have to be manually purged
                     LOGGER.debug("We couldn't find and delete overview for server " + server + ": " + t.getMessage());
                 }
-                serverConfigRepository.setOverviewMessageIdForServer(server, null);
+                serverConfigService.setOverviewMessageIdForServer(server, null);
                 LOGGER.info("Cleared overview message for server " + server + ".");
                 replyBasedOnConfig(config, commandEvent,
                         localeService.getMessageFor(LocaleService.OVERVIEW_CLEARED, locale));
@@ -88,8 +94,8 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
                         localeService.getMessageFor(LocaleService.OVERVIEW_EXISTS, locale));
             }
         } else {
-            final Map<String, String> messages = getOverviewMessagesMap(config,
-                    localeService, raidRepository, clockService, locale, strategyService);
+            final Map<String, String> messages = getOverviewMessagesMap(config, overviewSnapshots,
+                    localeService, clockService, locale, refreshScheduler.getMaxUnchangedInMinutes());
             final EmbedBuilder embedBuilder = new EmbedBuilder();
             for (String boss : messages.keySet()) {
                 embedBuilder.addField(boss, messages.get(boss), false);
@@ -97,81 +103,130 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
             final MessageEmbed messageEmbed = embedBuilder.build();
             commandEvent.getChannel().sendMessage(messageEmbed).queue(msg -> {
                 final String messageId = msg.getId();
-                serverConfigRepository.setOverviewMessageIdForServer(server, messageId);
-                final Callable<Boolean> refreshEditThreadTask =
-                        getMessageRefreshingTaskToSchedule(user, server, messageId,
-                                localeService, locale, serverConfigRepository, raidRepository, clockService,
-                                commandEvent.getChannel(), executorService, strategyService);
-                executorService.submit(refreshEditThreadTask);
+                serverConfigService.setOverviewMessageIdForServer(server, messageId);
+                scheduleOverviewRefresh(refreshScheduler, overviewSnapshots, server, messageId, localeService,
+                        locale, serverConfigService, raidRepository, clockService, commandEvent.getChannel());
             });
         }
     }
 
-    public static Callable<Boolean> getMessageRefreshingTaskToSchedule(User user,
-                                                                       String server,
-                                                                       String messageId, LocaleService localeService,
-                                                                       Locale locale, ServerConfigRepository serverConfigRepository,
-                                                                       RaidRepository raidRepository,
-                                                                       ClockService clockService,
-                                                                       MessageChannel messageChannel,
-                                                                       final ExecutorService executorService,
-                                                                       PokemonRaidStrategyService strategyService) {
-        final Callable<Boolean> refreshEditThreadTask = () -> {
-            final Callable<Boolean> editTask = () -> {
-                TimeUnit.SECONDS.sleep(60); // Update once a minute
-                final Config config = serverConfigRepository.getConfigForServer(server);
-                if (LOGGER.isTraceEnabled()) {
-                    LOGGER.trace("Thread: " + Thread.currentThread().getId() +
-                            " - Updating for server " + config.getServer() + " with ID " + messageId);
-                }
-                final Message message = messageChannel.getMessageById(messageId).complete();
-                if (config.getOverviewMessageId() != null &&
-                        message != null) {
-                    final Map<String, String> messages = getOverviewMessagesMap(config,
-                            localeService, raidRepository, clockService, locale, strategyService);
-                    final EmbedBuilder embedBuilder = new EmbedBuilder();
-                    for (String boss : messages.keySet()) {
-                        final String bossMessage = messages.get(boss);
-                        addFieldSplitMessageIfNeeded(embedBuilder, boss, bossMessage);
+    /**
+     * Keeps the overview message up to date until the message or the server's overview is gone. It's refreshed
+     * shortly after raids in the server's region change, and every few minutes in case we missed something.
+     */
+    public static MessageRefreshScheduler.ScheduledRefresh scheduleOverviewRefresh(
+            MessageRefreshScheduler refreshScheduler, RaidOverviewSnapshots overviewSnapshots, String server,
+            String messageId, LocaleService localeService, Locale locale, ServerConfigService serverConfigService,
+            RaidRepository raidRepository, ClockService clockService, MessageChannel messageChannel) {
+        final AtomicReference<MessageRefreshScheduler.ScheduledRefresh> scheduledRefresh = new AtomicReference<>();
+        final RegionChangeListener changeListener = new RegionChangeListener(raidRepository.getChangeEvents(), () -> {
+            final MessageRefreshScheduler.ScheduledRefresh refresh = scheduledRefresh.get();
+            if (refresh != null) {
+                refresh.refreshSoon(REFRESH_AFTER_CHANGE_IN_MILLIS);
+            }
+        });
+        final MessageRefreshScheduler.ScheduledRefresh overviewRefresh = refreshScheduler.schedule(
+                "overview for server " + server, FALLBACK_REFRESH_IN_SECONDS, TimeUnit.SECONDS, refresh -> {
+                    final Config config = serverConfigService.getConfigForServer(server);
+                    // The region can be changed by !raid install while the overview is up
+                    changeListener.listenTo(config.getRegion());
+                    if (LOGGER.isTraceEnabled()) {
+                        LOGGER.trace("Thread: " + Thread.currentThread().getId() +
+                                " - Updating for server " + config.getServer() + " with ID " + messageId);
                     }
-                    final MessageEmbed newEmbed = embedBuilder.build();
-                    messageChannel.editMessageById(messageId, newEmbed)
-                            .queue(m -> {
-                            }, m -> {
-                                LOGGER.warn(m.getClass().getSimpleName() + " thrown: " + m.getMessage());
-                                if (m instanceof SocketTimeoutException) {
-                                    LOGGER.debug("We got a socket timeout, which could be that the server is temporarily " +
-                                            "down. Let's not clean up things before we know if it works or not.");
-                                }
-                            });
-                    return true;
-                } else {
-                    LOGGER.warn("Could not find message for overview - config ID: " +
-                            config.getOverviewMessageId() + ", message: " +
-                            (message == null ? "null" : message.getId()) + ". Cleaning up...");
-                    cleanUp(config, messageId, serverConfigRepository,
-                            messageChannel);
-                    return false;
-                }
-            };
-            boolean overviewOk = true;
-            do {
-                try {
-                    overviewOk = executorService.submit(editTask).get();
-                } catch (InterruptedException | ExecutionException | OverviewException e) {
-                    LOGGER.warn("Exception when running edit task: " + e.getMessage() + ".");
-                    if (Utils.isExceptionOrCauseNetworkIssues(e)) {
-                        LOGGER.info("Exception was due to timeout, so trying again later. Could be temporary.");
-                        overviewOk = true;
-                    } else {
-                        LOGGER.info("Exception was not due to timeout, so terminating this overview.");
-                        overviewOk = false;
+                    final Map<String, String> messages = config.getOverviewMessageId() == null ? null :
+                            new LinkedHashMap<>(overviewSnapshots.getOverview(config.getRegion(), locale));
+                    final int contentHash = messages == null ? 0 : messages.hashCode();
+                    if (messages != null && !refresh.needsEdit(contentHash)) {
+                        // Only the time of update would change, leave the message as it is
+                        return true;
                     }
-                }
-            } while (overviewOk);
-            return false;
-        };
-        return refreshEditThreadTask;
+                    if (config.getOverviewMessageId() == null) {
+                        LOGGER.warn("No overview message in config for server " + config.getServer() +
+                                ", message: " + messageId + ". Cleaning up...");
+                        cleanUp(config, messageId, serverConfigService, messageChannel);
+                        return false;
+                    }
+                    // Asynchronous, so a slow or rate limited Discord doesn't hold up the other refreshes
+                    messageChannel.getMessageById(messageId).queue(message -> {
+                        if (refresh.isCancelled()) {
+                            return;
+                        }
+                        addLastUpdateMessage(messages, localeService, clockService, locale,
+                                refreshScheduler.getMaxUnchangedInMinutes());
+                        final EmbedBuilder embedBuilder = new EmbedBuilder();
+                        for (String boss : messages.keySet()) {
+                            final String bossMessage = messages.get(boss);
+                            addFieldSplitMessageIfNeeded(embedBuilder, boss, bossMessage);
+                        }
+                        final MessageEmbed newEmbed = embedBuilder.build();
+                        messageChannel.editMessageById(messageId, newEmbed)
+                                .queue(m -> refresh.edited(contentHash), m -> {
+                                    LOGGER.warn(m.getClass().getSimpleName() + " thrown: " + m.getMessage());
+                                    if (m instanceof SocketTimeoutException) {
+                                        LOGGER.debug("We got a socket timeout, which could be that the server " +
+                                                "is temporarily down. Let's not clean up things before we know if " +
+                                                "it works or not.");
+                                    }
+                                    refresh.failed();
+                                });
+                    }, t -> {
+                        if (Utils.isExceptionOrCauseNetworkIssues(t)) {
+                            LOGGER.info("Network issue when getting overview message " + messageId + " for server " +
+                                    server + ", backing off and trying again later: " + t.getMessage());
+                            refresh.failed();
+                        } else {
+                            LOGGER.warn(t.getClass().getSimpleName() + " when getting overview message " +
+                                    messageId + " for server " + server + ", so stopping to refresh it: " +
+                                    t.getMessage());
+                            refresh.cancel();
+                        }
+                    });
+                    return true;
+                });
+        scheduledRefresh.set(overviewRefresh);
+        changeListener.listenTo(serverConfigService.getConfigForServer(server).getRegion());
+        overviewRefresh.onCancel(changeListener::stop);
+        return overviewRefresh;
+    }
+
+    /**
+     * Listens for raid changes in the region a server currently has, moving along when the region is changed.
+     */
+    static class RegionChangeListener implements RaidChangeEvents.Listener {
+        private final RaidChangeEvents changeEvents;
+        private final Runnable onChange;
+        private String region;
+        private boolean stopped = false;
+
+        RegionChangeListener(RaidChangeEvents changeEvents, Runnable onChange) {
+            this.changeEvents = changeEvents;
+            this.onChange = onChange;
+        }
+
+        synchronized void listenTo(String region) {
+            if (stopped || region == null || region.equals(this.region)) {
+                return;
+            }
+            if (this.region != null) {
+                changeEvents.removeListener(this.region, this);
+            }
+            this.region = region;
+            changeEvents.addListener(region, this);
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            if (region != null) {
+                changeEvents.removeListener(region, this);
+                region = null;
+            }
+        }
+
+        @Override
+        public void raidsChanged(String changedRegion) {
+            onChange.run();
+        }
     }
 
     protected static void addFieldSplitMessageIfNeeded(final EmbedBuilder embedBuilder, final String boss, final String bossMessage) {
@@ -202,7 +257,7 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
     }
 
     private static void cleanUp(Config config, String messageId,
-                                ServerConfigRepository serverConfigRepository,
+                                ServerConfigService serverConfigService,
                                 MessageChannel messageChannel) {
         try {
             if (!StringUtils.isEmpty(messageId)) {
@@ -218,7 +273,7 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
         } finally {
             try {
                 LOGGER.debug("Trying to reset overview message for server: " + config.getServer());
-                serverConfigRepository.setOverviewMessageIdForServer(config.getServer(), null);
+                serverConfigService.setOverviewMessageIdForServer(config.getServer(), null);
             } catch (Throwable t) {
                 LOGGER.warn(t.getClass().getSimpleName() + " while resetting overview message for server " +
                         config.getServer() + ": " + t.getMessage());
@@ -230,11 +285,26 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
     }
 
     private static Map<String, String> getOverviewMessagesMap(Config config,
+                                                              RaidOverviewSnapshots overviewSnapshots,
                                                               LocaleService localeService,
-                                                              RaidRepository raidRepository,
                                                               ClockService clockService, Locale locale,
-                                                              PokemonRaidStrategyService strategyService) {
-        Set<Raid> raids = raidRepository.getAllRaidsForRegion(config.getRegion());
+                                                              long updatedAtLeastEveryMinutes) {
+        final Map<String, String> overviewMessagePerBoss =
+                new LinkedHashMap<>(overviewSnapshots.getOverview(config.getRegion(), locale));
+        addLastUpdateMessage(overviewMessagePerBoss, localeService, clockService, locale,
+                updatedAtLeastEveryMinutes);
+        return overviewMessagePerBoss;
+    }
+
+    /**
+     * Everything in the overview for a region except the time of update, see {@link RaidOverviewSnapshots}.
+     */
+    public static Map<String, String> getRaidOverviewMessagesMap(String region,
+                                                                 Locale locale,
+                                                                 LocaleService localeService,
+                                                                 RaidRepository raidRepository,
+                                                                 PokemonRaidStrategyService strategyService) {
+        List<RaidSummary> raids = raidRepository.getRaidSummariesForRegion(region);
         final Map<String, String> overviewMessagePerBoss = new LinkedHashMap<>();
         StringBuilder stringBuilder = new StringBuilder();
         if (raids.size() == 0) {
@@ -250,7 +320,8 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
 //                    locale));
             overviewMessagePerBoss.put(raidHeadline, stringBuilder.toString());
 
-            for (Raid raid : raids) {
+            for (RaidSummary raidSummary : raids) {
+                final Raid raid = raidSummary.getRaid();
                 final Pokemon raidBoss = raid.getPokemon();
                 final PokemonRaidInfo raidInfo = strategyService.getRaidInfo(raidBoss);
                 String pokemonName = "**" + raidBoss.getName();
@@ -262,9 +333,8 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
                 if (!Utils.isRaidEx(raid)) {
                     overviewMessagePerBoss.putIfAbsent(pokemonName, "");
                 }
-                final int numberOfPeople = raid.getNumberOfPeopleSignedUp();
+                final int numberOfPeople = raidSummary.getNumberOfPeople();
                 final Gym raidGym = raid.getGym();
-                final Set<RaidGroup> groups = raidRepository.getGroups(raid);
                 if (!raid.isExRaid()) {
                     if (raidGym.isExGym()) {
                         bossStringBuilder.append("*").append(raidGym.getName()).append(Emotes.STAR + "*");
@@ -274,11 +344,11 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
                     bossStringBuilder.append(" ")
                             .append(printTimeIfSameDay(getStartOfRaid(raid.getEndOfRaid(), false))).append("-")
                             .append(printTime(raid.getEndOfRaid().toLocalTime()));
-                    if (groups.size() < 1) {
+                    if (!raidSummary.hasGroups()) {
                         bossStringBuilder.append(" (**").append(numberOfPeople)
                                 .append("**)");
                     } else {
-                        bossStringBuilder.append(raidRepository.listGroupsForRaid(raid, groups));
+                        bossStringBuilder.append(raidRepository.listGroupsForRaid(raidSummary));
                     }
                     bossStringBuilder.append("\n");
                     overviewMessagePerBoss.put(pokemonName,
@@ -289,11 +359,11 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
                             .append(localeService.getMessageFor(LocaleService.RAID_BETWEEN, locale,
                                     printTimeIfSameDay(getStartOfRaid(raid.getEndOfRaid(), true)),
                                     printTime(raid.getEndOfRaid().toLocalTime())));
-                    if (groups.size() < 1) {
+                    if (!raidSummary.hasGroups()) {
                         exRaids.append(" (**").append(numberOfPeople)
                                 .append("**)");
                     } else {
-                        exRaids.append(raidRepository.listGroupsForRaid(raid, groups));
+                        exRaids.append(raidRepository.listGroupsForRaid(raidSummary));
                     }
                 }
             }
@@ -302,16 +372,20 @@ public class RaidOverviewCommand extends ConcurrencyAndConfigAwareCommand {
                 overviewMessagePerBoss.put("\n**Raid-EX:**", exRaidList);
             }
         }
-        stringBuilder = new StringBuilder();
+        return overviewMessagePerBoss;
+    }
+
+    private static void addLastUpdateMessage(Map<String, String> overviewMessagePerBoss,
+                                             LocaleService localeService, ClockService clockService,
+                                             Locale locale, long updatedAtLeastEveryMinutes) {
+        final StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("\n")
-                .append(localeService.getMessageFor(LocaleService.UPDATED_EVERY_X,
-                        locale, LocaleService.asString(TimeUnit.SECONDS, locale),
-                        String.valueOf(60)))
+                .append(localeService.getMessageFor(LocaleService.UPDATED_ON_CHANGE,
+                        locale, String.valueOf(updatedAtLeastEveryMinutes)))
                 .append(" ")
                 .append(localeService.getMessageFor(LocaleService.LAST_UPDATE,
                         locale,
                         printTime(clockService.getCurrentTime())));
         overviewMessagePerBoss.put("", stringBuilder.toString());
-        return overviewMessagePerBoss;
     }
 }
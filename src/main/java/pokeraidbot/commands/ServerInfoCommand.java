@@ -6,15 +6,15 @@ import main.BotServerMain;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 public class ServerInfoCommand extends ConfigAwareCommand {
     private final ClockService clockService;
 
-    public ServerInfoCommand(ServerConfigRepository serverConfigRepository, LocaleService localeService,
+    public ServerInfoCommand(ServerConfigService serverConfigService, LocaleService localeService,
                              CommandListener commandListener, ClockService clockService) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.clockService = clockService;
         this.name = "server";
         this.help = localeService.getMessageFor(LocaleService.SERVER_HELP, LocaleService.DEFAULT);
@@ -9,6 +9,7 @@ import pokeraidbot.BotService;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.gym.GymRepository;
@@ -18,7 +19,6 @@ import pokeraidbot.domain.raid.PokemonRaidStrategyService;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -45,11 +45,11 @@ public class StartRaidAndCreateGroupCommand extends ConcurrencyAndConfigAwareCom
 
     public StartRaidAndCreateGroupCommand(GymRepository gymRepository, RaidRepository raidRepository,
                                           PokemonRepository pokemonRepository, LocaleService localeService,
-                                          ServerConfigRepository serverConfigRepository,
+                                          ServerConfigService serverConfigService,
                                           CommandListener commandListener, BotService botService,
                                           ClockService clockService, ExecutorService executorService,
                                           PokemonRaidStrategyService pokemonRaidStrategyService) {
-        super(serverConfigRepository, commandListener, localeService, executorService);
+        super(serverConfigService, commandListener, localeService, executorService);
         this.pokemonRepository = pokemonRepository;
         this.localeService = localeService;
         this.botService = botService;
@@ -98,7 +98,7 @@ public class StartRaidAndCreateGroupCommand extends ConcurrencyAndConfigAwareCom
         }
         createRaidGroup(commandEvent.getChannel(), commandEvent.getGuild(),
                 config, user, locale, startAtTime, raid.getId(),
-                localeService, raidRepository, botService, serverConfigRepository, pokemonRepository, gymRepository,
+                localeService, raidRepository, botService, serverConfigService, pokemonRepository, gymRepository,
                 clockService, executorService, pokemonRaidStrategyService);
         commandEvent.reactSuccess();
         removeOriginMessageIfConfigSaysSo(config, commandEvent);
@@ -4,23 +4,28 @@ import com.jagrosh.jdautilities.commandclient.CommandEvent;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
 import net.dv8tion.jda.core.entities.User;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
+import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.pokemon.Pokemon;
 import pokeraidbot.domain.pokemon.PokemonRepository;
+import pokeraidbot.domain.tracking.TrackingArea;
 import pokeraidbot.domain.tracking.TrackingService;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 /**
  * !raid track [pokemon name]
+ * !raid track area [lat,lon km]
+ * !raid track area [lat,lon lat,lon lat,lon ...]
  */
 public class TrackPokemonCommand extends ConfigAwareCommand {
+    static final String AREA = "area";
     private final PokemonRepository pokemonRepository;
     private final TrackingService trackingService;
 
-    public TrackPokemonCommand(ServerConfigRepository serverConfigRepository, LocaleService localeService,
+    public TrackPokemonCommand(ServerConfigService serverConfigService, LocaleService localeService,
                                PokemonRepository pokemonRepository, TrackingService trackingService,
                                CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.trackingService = trackingService;
         this.pokemonRepository = pokemonRepository;
         this.name = "track";
@@ -30,9 +35,20 @@ public class TrackPokemonCommand extends ConfigAwareCommand {
     @Override
     protected void executeWithConfig(CommandEvent commandEvent, Config config) {
         String args = commandEvent.getArgs();
-        Pokemon pokemon = pokemonRepository.search(args, commandEvent.getAuthor());
         final User user = commandEvent.getAuthor();
-        trackingService.add(pokemon, user, config);
+        if (args != null && args.toLowerCase().startsWith(AREA + " ")) {
+            final TrackingArea area;
+            try {
+                area = TrackingArea.parse(args.substring(AREA.length()));
+            } catch (IllegalArgumentException e) {
+                throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.TRACKING_AREA_INVALID,
+                        localeService.getLocaleForUser(user), e.getMessage()));
+            }
+            trackingService.addArea(area, user, config);
+        } else {
+            Pokemon pokemon = pokemonRepository.search(args, user);
+            trackingService.add(pokemon, user, config);
+        }
         commandEvent.reactSuccess();
         removeOriginMessageIfConfigSaysSo(config, commandEvent);
     }
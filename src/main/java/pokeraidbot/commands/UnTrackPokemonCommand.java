@@ -4,21 +4,21 @@ import com.jagrosh.jdautilities.commandclient.CommandEvent;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
 import net.dv8tion.jda.core.entities.User;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.pokemon.Pokemon;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.tracking.PokemonTrackingTarget;
 import pokeraidbot.domain.tracking.TrackingService;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 public class UnTrackPokemonCommand extends ConfigAwareCommand {
     private final PokemonRepository pokemonRepository;
     private final TrackingService trackingService;
 
-    public UnTrackPokemonCommand(ServerConfigRepository serverConfigRepository,
+    public UnTrackPokemonCommand(ServerConfigService serverConfigService,
                                  LocaleService localeService,
                                  PokemonRepository pokemonRepository, CommandListener commandListener, TrackingService trackingService) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.trackingService = trackingService;
         this.pokemonRepository = pokemonRepository;
         this.name = "untrack";
@@ -33,6 +33,9 @@ public class UnTrackPokemonCommand extends ConfigAwareCommand {
         if (args == null || args.length() < 1) {
             trackingService.removeAllForUser(user);
             commandEvent.reactSuccess();
+        } else if (args.trim().equalsIgnoreCase(TrackPokemonCommand.AREA)) {
+            trackingService.removeAreasForUser(user);
+            commandEvent.reactSuccess();
         } else {
             Pokemon pokemon = pokemonRepository.search(args, user);
             trackingService.removeForUser(new PokemonTrackingTarget(userId, pokemon), user);
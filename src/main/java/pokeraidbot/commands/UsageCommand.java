@@ -3,8 +3,8 @@ package pokeraidbot.commands;
 import com.jagrosh.jdautilities.commandclient.CommandEvent;
 import com.jagrosh.jdautilities.commandclient.CommandListener;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.util.Locale;
 
@@ -14,9 +14,9 @@ import java.util.Locale;
 public class UsageCommand extends ConfigAwareCommand {
     private final LocaleService localeService;
 
-    public UsageCommand(LocaleService localeService, ServerConfigRepository serverConfigRepository,
+    public UsageCommand(LocaleService localeService, ServerConfigService serverConfigService,
                         CommandListener commandListener) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.localeService = localeService;
         this.name = "usage";
         this.help = localeService.getMessageFor(LocaleService.USAGE_HELP, LocaleService.DEFAULT);
@@ -6,9 +6,9 @@ import main.BotServerMain;
 import net.dv8tion.jda.core.entities.User;
 import org.apache.commons.lang3.StringUtils;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.config.UserConfig;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
 
@@ -17,9 +17,9 @@ import java.util.Locale;
 public class UserConfigCommand extends ConfigAwareCommand {
     private final UserConfigRepository userConfigRepository;
 
-    public UserConfigCommand(ServerConfigRepository serverConfigRepository, CommandListener commandListener,
+    public UserConfigCommand(ServerConfigService serverConfigService, CommandListener commandListener,
                              LocaleService localeService, UserConfigRepository userConfigRepository) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.userConfigRepository = userConfigRepository;
         this.name = "config";
         this.help = localeService.getMessageFor(LocaleService.HELP_USER_CONFIG, LocaleService.DEFAULT);
@@ -40,6 +40,7 @@ public class UserConfigCommand extends ConfigAwareCommand {
             if (userConfig == null) {
                 userConfig = userConfigRepository.save(new UserConfig(user.getId(), null,
                         null, null, serverConfig.getLocale()));
+                localeService.invalidateLocaleForUser(user.getId());
             }
             replyBasedOnConfig(serverConfig, commandEvent, String.valueOf(userConfig));
         }
@@ -89,6 +90,7 @@ public class UserConfigCommand extends ConfigAwareCommand {
             userConfig.setNick(value);
             userConfig = userConfigRepository.save(userConfig);
         }
+        localeService.invalidateLocaleForUser(user.getId());
         return userConfig;
     }
 
@@ -102,6 +104,7 @@ public class UserConfigCommand extends ConfigAwareCommand {
         }
         userConfig.setLocale(newLocale);
         userConfigRepository.save(userConfig);
+        localeService.invalidateLocaleForUser(user.getId());
         return newLocale;
     }
 }
@@ -5,16 +5,16 @@ import com.jagrosh.jdautilities.commandclient.CommandListener;
 import main.BotServerMain;
 import net.dv8tion.jda.core.entities.User;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 /**
  * !raid whatsnew
  */
 public class WhatsNewCommand extends ConfigAwareCommand {
-    public WhatsNewCommand(ServerConfigRepository serverConfigRepository, CommandListener commandListener,
+    public WhatsNewCommand(ServerConfigService serverConfigService, CommandListener commandListener,
                            LocaleService localeService) {
-        super(serverConfigRepository, commandListener, localeService);
+        super(serverConfigService, commandListener, localeService);
         this.name = "whatsnew";
         this.aliases = new String[]{"latest", "version"};
         this.help = localeService.getMessageFor(LocaleService.WHATS_NEW_HELP, localeService.getLocaleForUser((User) null));
@@ -5,11 +5,14 @@ import net.dv8tion.jda.core.entities.User;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pokeraidbot.infrastructure.BotMetrics;
 import pokeraidbot.infrastructure.jpa.config.UserConfig;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class LocaleService {
     private static final Logger LOGGER = LoggerFactory.getLogger(LocaleService.class);
@@ -41,6 +44,7 @@ public class LocaleService {
     public static final String TRACKING_ADDED = "TRACKING_ADDED";
     public static final String TRACKING_NOT_EXISTS = "TRACKING_NOT_EXISTS";
     public static final String TRACK_HELP = "TRACK_HELP";
+    public static final String TRACKING_AREA_INVALID = "TRACKING_AREA_INVALID";
     public static final String UNTRACK_HELP = "UNTRACK_HELP";
     public static final String TRACKING_REMOVED = "TRACKING_REMOVED";
     public static final String SIGN_BEFORE_RAID = "SIGN_BEFORE_RAID";
@@ -60,6 +64,9 @@ public class LocaleService {
     public static final String IF_CORRECT_MOVESET = "IF_CORRECT_MOVESET";
     public static final String LIST_HELP = "LIST_HELP";
     public static final String LIST_NO_RAIDS = "LIST_NO_RAIDS";
+    public static final String NEAR_HELP = "NEAR_HELP";
+    public static final String NEAR_RAIDS = "NEAR_RAIDS";
+    public static final String NEAR_NO_RAIDS = "NEAR_NO_RAIDS";
     public static final String RAID_BETWEEN = "RAID_BETWEEN";
     public static final String CURRENT_RAIDS = "CURRENT_RAIDS";
     public static final String SIGNED_UP = "SIGNED_UP";
@@ -69,7 +76,6 @@ public class LocaleService {
     public static final Locale SWEDISH = new Locale("sv");
     public static final String WHERE_GYM_IN_CHAT_HELP = "WHERE_GYM_IN_CHAT_HELP";
     public static final String NEXT_ETA = "NEXT_ETA";
-    public static final String TRACKING_NONE_FREE = "TRACKING_NONE_FREE";
     public static final String LAST_UPDATE = "LAST_UPDATE";
     public static final String MOVED_GROUP = "MOVED_GROUP";
     public static final String OVERVIEW_HELP = "OVERVIEW_HELP";
@@ -149,24 +155,49 @@ public class LocaleService {
     public static final String BAD_SYNTAX = "BAD_SYNTAX";
     public static final String BAD_DATETIME_FORMAT = "BAD_DATETIME_FORMAT";
     public static final String RAID_DETAILS = "RAID_DETAILS";
-    public static final String UPDATED_EVERY_X = "UPDATED_EVERY_X";
+    public static final String UPDATED_ON_CHANGE = "UPDATED_ON_CHANGE";
     public static final String NO_PERMISSION = "NO_PERMISSION";
     public static final String GOOGLE_MAPS = "GOOGLE_MAPS";
     public static final String KEEP_CHAT_CLEAN = "KEEP_CHAT_CLEAN";
     public static final String ERROR_KEEP_CHAT_CLEAN = "ERROR_KEEP_CHAT_CLEAN";
     public static final String WHATS_NEW_HELP = "WHATS_NEW_HELP";
     public static final String NO_CONFIG = "NO_CONFIG";
+    public static final String USER_LOCALE_CACHE_HITS = "locale.userCache.hits";
+    public static final String USER_LOCALE_CACHE_MISSES = "locale.userCache.misses";
+    public static final long DEFAULT_USER_LOCALE_TTL_IN_SECONDS = 600;
+    public static final int USER_LOCALE_CACHE_MAX_SIZE = 10000;
     private final UserConfigRepository userConfigRepository;
+    private final long userLocaleTtlInMillis;
+    // Locale per user ID, so we don't have to go to the database for every message we write to a user.
+    // Least recently used first, which is dropped when the cache is full or when it has expired.
+    private final LinkedHashMap<String, CachedUserLocale> userLocales =
+            new LinkedHashMap<String, CachedUserLocale>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedUserLocale> eldest) {
+                    return size() > USER_LOCALE_CACHE_MAX_SIZE ||
+                            eldest.getValue().expiresAt <= System.currentTimeMillis();
+                }
+            };
+    private final AtomicLong userLocaleInvalidations = new AtomicLong();
 
     private Map<I18nLookup, String> i18nMessages = new HashMap<>();
+    // Parsed texts per locale and upper case message key, which is what we render messages from
+    private final Map<Locale, Map<String, MessageTemplate>> messageTemplates = new ConcurrentHashMap<>();
 
     public LocaleService(Map<I18nLookup, String> i18nMessages, UserConfigRepository userConfigRepository) {
         this.i18nMessages = i18nMessages;
         this.userConfigRepository = userConfigRepository;
+        this.userLocaleTtlInMillis = TimeUnit.SECONDS.toMillis(DEFAULT_USER_LOCALE_TTL_IN_SECONDS);
+        compileTemplates();
     }
 
     public LocaleService(String locale, UserConfigRepository userConfigRepository) {
+        this(locale, userConfigRepository, DEFAULT_USER_LOCALE_TTL_IN_SECONDS);
+    }
+
+    public LocaleService(String locale, UserConfigRepository userConfigRepository, long userLocaleTtlInSeconds) {
         this.userConfigRepository = userConfigRepository;
+        this.userLocaleTtlInMillis = TimeUnit.SECONDS.toMillis(userLocaleTtlInSeconds);
         LOGGER.info("Initialize with server default locale: " + locale);
         final Locale forLanguageTag = Locale.forLanguageTag(locale);
         if (!new HashSet<>(Arrays.asList(SUPPORTED_LOCALES)).contains(forLanguageTag)) {
@@ -175,6 +206,7 @@ public class LocaleService {
         }
         DEFAULT = forLanguageTag;
         initTexts();
+        compileTemplates();
         LOGGER.info("Initialized. Got " + i18nMessages.keySet().size() + " texts for " + SUPPORTED_LOCALES.length + " locales.");
     }
 
@@ -412,13 +444,6 @@ public class LocaleService {
                 "Skapa ett meddelande med en !raid list översikt som automatiskt uppdateras: !raid overview"
         );
 
-        i18nMessages.put(new I18nLookup(TRACKING_NONE_FREE, Locale.ENGLISH),
-                "There are no free spots for pokemon tracking in your user configuration (3 spots filled). " +
-                        "Please remove one or more via *!raid untrack {pokemon}*"
-        );
-        i18nMessages.put(new I18nLookup(TRACKING_NONE_FREE, SWEDISH),
-                "Alla dina 3 trackingpokemon är upptagna. Ta bort en eller fler via *!raid untrack*"
-        );
 
         i18nMessages.put(new I18nLookup(NEXT_ETA, Locale.ENGLISH),
                 "next ETA: %1"
@@ -468,11 +493,11 @@ public class LocaleService {
         i18nMessages.put(new I18nLookup(NO_PERMISSION, SWEDISH),
                 "Du saknar behörighet för att göra det du försökte göra. Be hjälp av en admin."
         );
-        i18nMessages.put(new I18nLookup(UPDATED_EVERY_X, Locale.ENGLISH),
-                "Updated every %2 %1."
+        i18nMessages.put(new I18nLookup(UPDATED_ON_CHANGE, Locale.ENGLISH),
+                "Updated on changes, and at least every %1 minutes."
         );
-        i18nMessages.put(new I18nLookup(UPDATED_EVERY_X, SWEDISH),
-                "Uppdateras var %2:e %1."
+        i18nMessages.put(new I18nLookup(UPDATED_ON_CHANGE, SWEDISH),
+                "Uppdateras vid ändringar, och minst var %1:e minut."
         );
 
         i18nMessages.put(new I18nLookup(RAID_DETAILS, Locale.ENGLISH),
@@ -641,14 +666,18 @@ public class LocaleService {
                         "Skriv \"!raid man\" för att få hjälp");
 
         i18nMessages.put(new I18nLookup(UNTRACK_HELP, Locale.ENGLISH),
-                "Remove an active Pokemon tracking - !raid untrack [Pokemon]");
+                "Remove an active Pokemon tracking - !raid untrack [Pokemon], or your tracked areas - " +
+                        "!raid untrack area");
         i18nMessages.put(new I18nLookup(UNTRACK_HELP, SWEDISH),
-                "Ta bort övervakning för viss Pokemon - !raid untrack [Pokemon]");
+                "Ta bort övervakning för viss Pokemon - !raid untrack [Pokemon], eller för dina områden - " +
+                        "!raid untrack area");
 
         i18nMessages.put(new I18nLookup(TRACK_HELP, Locale.ENGLISH),
-                "Track new raids for a certain Pokemon (message in DM) - !raid track [Pokemon]");
+                "Track new raids for a certain Pokemon (message in DM) - !raid track [Pokemon], or within an area - " +
+                        "!raid track area [lat,lon km] or !raid track area [lat,lon lat,lon lat,lon ...]");
         i18nMessages.put(new I18nLookup(TRACK_HELP, SWEDISH),
-                "Håll koll efter nya raider för en viss Pokemon (via DM) - !raid track [Pokemon]");
+                "Håll koll efter nya raider för en viss Pokemon (via DM) - !raid track [Pokemon], eller inom ett " +
+                        "område - !raid track area [lat,lon km] eller !raid track area [lat,lon lat,lon lat,lon ...]");
 
         i18nMessages.put(new I18nLookup(TRACKING_ADDED, Locale.ENGLISH),
                 "Added tracking for pokemon %1 for user %2.");
@@ -670,6 +699,15 @@ public class LocaleService {
         i18nMessages.put(new I18nLookup(TRACKING_NOT_EXISTS, SWEDISH),
                 "Det fanns ingen sådan övervakning för dig.");
 
+        i18nMessages.put(new I18nLookup(TRACKING_AREA_INVALID, Locale.ENGLISH),
+                "Couldn't read the area (%1). Give a centre and a radius in km, like *!raid track area " +
+                        "59.858,17.639 2*, or at least three corners, like *!raid track area 59.91,17.60 " +
+                        "59.84,17.52 59.78,17.59*");
+        i18nMessages.put(new I18nLookup(TRACKING_AREA_INVALID, SWEDISH),
+                "Kunde inte tolka området (%1). Ange en mittpunkt och radie i km, t.ex. *!raid track area " +
+                        "59.858,17.639 2*, eller minst tre hörn, t.ex. *!raid track area 59.91,17.60 " +
+                        "59.84,17.52 59.78,17.59*");
+
         i18nMessages.put(new I18nLookup(TRACKING_EXISTS, Locale.ENGLISH),
                 "You're already tracking that pokemon.");
         i18nMessages.put(new I18nLookup(TRACKING_EXISTS, SWEDISH),
@@ -825,6 +863,17 @@ public class LocaleService {
         i18nMessages.put(new I18nLookup(LIST_HELP, SWEDISH), "Visa aktuella raids - " +
                 "!raid list [Pokemon (frivilligt att ange)]");
 
+        i18nMessages.put(new I18nLookup(NEAR_HELP, Locale.ENGLISH),
+                "Check current raids close to a gym - !raid near [gym] [optional: distance in km, default 2]");
+        i18nMessages.put(new I18nLookup(NEAR_HELP, SWEDISH), "Visa aktuella raids nära ett gym - " +
+                "!raid near [gym] [avstånd i km (frivilligt att ange, annars 2)]");
+        i18nMessages.put(new I18nLookup(NEAR_RAIDS, Locale.ENGLISH), "Current raids within %1 km of %2");
+        i18nMessages.put(new I18nLookup(NEAR_RAIDS, SWEDISH), "Aktuella raids inom %1 km från %2");
+        i18nMessages.put(new I18nLookup(NEAR_NO_RAIDS, Locale.ENGLISH),
+                "There are currently no active raids within %1 km of %2.");
+        i18nMessages.put(new I18nLookup(NEAR_NO_RAIDS, SWEDISH),
+                "Det finns just nu inga registrerade raids inom %1 km från %2.");
+
 
         i18nMessages.put(new I18nLookup(IF_CORRECT_MOVESET, Locale.ENGLISH), "(if correct moveset)");
         i18nMessages.put(new I18nLookup(IF_CORRECT_MOVESET, SWEDISH), "(om bra \"moves\")");
@@ -1095,15 +1144,40 @@ public class LocaleService {
             return DEFAULT;
         }
 
+        final long now = System.currentTimeMillis();
+        final CachedUserLocale cachedUserLocale;
+        synchronized (userLocales) {
+            cachedUserLocale = userLocales.get(user.getId());
+        }
+        if (cachedUserLocale != null && cachedUserLocale.expiresAt > now) {
+            BotMetrics.increment(USER_LOCALE_CACHE_HITS);
+            return cachedUserLocale.locale == null ? DEFAULT : cachedUserLocale.locale;
+        }
+        BotMetrics.increment(USER_LOCALE_CACHE_MISSES);
+        final long invalidationsBeforeLoad = userLocaleInvalidations.get();
         final UserConfig userConfig = userConfigRepository.findOne(user.getId());
-        if (userConfig == null) {
+        final Locale userLocale = userConfig == null ? null : userConfig.getLocale();
+        // If the user's config was changed while we loaded it, what we have may already be stale
+        if (userLocaleInvalidations.get() == invalidationsBeforeLoad) {
+            synchronized (userLocales) {
+                userLocales.put(user.getId(), new CachedUserLocale(userLocale, now + userLocaleTtlInMillis));
+            }
+        }
+        if (userLocale == null) {
             return DEFAULT;
         } else {
-            final Locale userLocale = userConfig.getLocale();
-            if (userLocale == null) {
-                return DEFAULT;
-            } else {
-                return userLocale;
+            return userLocale;
+        }
+    }
+
+    /**
+     * Has to be called when a user's config has been changed, so the next lookup of the locale reads it again.
+     */
+    public void invalidateLocaleForUser(String userId) {
+        if (userId != null) {
+            userLocaleInvalidations.incrementAndGet();
+            synchronized (userLocales) {
+                userLocales.remove(userId);
             }
         }
     }
@@ -1114,32 +1188,47 @@ public class LocaleService {
 
     public void storeMessage(String messageKey, Locale locale, String message) {
         i18nMessages.put(new I18nLookup(messageKey.toUpperCase(), locale), message);
+        compileTemplate(messageKey, locale, message);
     }
 
     public String getMessageFor(String messageKey, Locale locale, String ... parameters) {
-        String messageWithParameters = getMessageTextToInjectParametersIn(messageKey, locale);
-        int i = 1;
-        for (String param : parameters) {
-            messageWithParameters = messageWithParameters.replaceAll("[%][" + i + "]", param);
-            i++;
+        MessageTemplate template = findTemplate(messageKey, locale == null ? DEFAULT : locale);
+        if (template == null) {
+            template = findTemplate(messageKey, DEFAULT);
         }
-        return messageWithParameters;
+        if (template == null) {
+            throw new RuntimeException("Could not find text for message key " + messageKey +
+                    " - an admin needs to add it to the LocaleService!");
+        }
+        return template.render(parameters);
     }
 
-    private String getMessageTextToInjectParametersIn(String messageKey, Locale locale) {
-        Locale actualLocale = locale;
-        if (locale == null) {
-            actualLocale = DEFAULT;
+    private MessageTemplate findTemplate(String messageKey, Locale locale) {
+        final Map<String, MessageTemplate> templatesForLocale = messageTemplates.get(locale);
+        if (templatesForLocale == null) {
+            return null;
         }
-        String message = i18nMessages.get(new I18nLookup(messageKey.toUpperCase(), actualLocale));
-        if (message == null || message.length() < 1) {
-            message = i18nMessages.get(new I18nLookup(messageKey.toUpperCase(), DEFAULT));
+        // Keys are almost always one of our (upper case) constants, so only upper case them if we have to
+        final MessageTemplate template = templatesForLocale.get(messageKey);
+        return template != null ? template : templatesForLocale.get(messageKey.toUpperCase());
+    }
+
+    private void compileTemplates() {
+        for (Map.Entry<I18nLookup, String> entry : i18nMessages.entrySet()) {
+            compileTemplate(entry.getKey().getMessageKey(), entry.getKey().getLocale(), entry.getValue());
         }
+    }
+
+    private void compileTemplate(String messageKey, Locale locale, String message) {
+        final Map<String, MessageTemplate> templatesForLocale =
+                messageTemplates.computeIfAbsent(locale, l -> new ConcurrentHashMap<>());
+        final String key = messageKey.toUpperCase().intern();
         if (message == null || message.length() < 1) {
-            throw new RuntimeException("Could not find text for message key " + messageKey +
-                    " - an admin needs to add it to the LocaleService!");
+            // Same as no text at all, so we fall back to the default locale
+            templatesForLocale.remove(key);
+        } else {
+            templatesForLocale.put(key, new MessageTemplate(message));
         }
-        return message;
     }
 
     public static boolean isSupportedLocale(Locale locale) {
@@ -1157,6 +1246,16 @@ public class LocaleService {
         }
     }
 
+    private static class CachedUserLocale {
+        private final Locale locale;
+        private final long expiresAt;
+
+        private CachedUserLocale(Locale locale, long expiresAt) {
+            this.locale = locale;
+            this.expiresAt = expiresAt;
+        }
+    }
+
     private class I18nLookup {
         private String messageKey;
         private Locale locale;
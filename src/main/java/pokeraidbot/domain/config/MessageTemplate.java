@@ -0,0 +1,60 @@
+package pokeraidbot.domain.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message text parsed into literal text and parameter placeholders (%1 to %9), so it can be rendered in a single
+ * pass. A placeholder without a matching parameter is kept as it is.
+ */
+class MessageTemplate {
+    private static final char PLACEHOLDER = '%';
+
+    private final String text;
+    // literals[i] comes before placeholder i, the last literal after the last placeholder
+    private final String[] literals;
+    // Zero based parameter index of each placeholder
+    private final int[] parameterIndexes;
+    private final int literalLength;
+
+    MessageTemplate(String text) {
+        this.text = text;
+        List<String> literals = new ArrayList<>();
+        List<Integer> parameterIndexes = new ArrayList<>();
+        int literalStart = 0;
+        for (int i = 0; i + 1 < text.length(); i++) {
+            final char next = text.charAt(i + 1);
+            if (text.charAt(i) == PLACEHOLDER && next >= '1' && next <= '9') {
+                literals.add(text.substring(literalStart, i));
+                parameterIndexes.add(next - '1');
+                literalStart = i + 2;
+                i++;
+            }
+        }
+        literals.add(text.substring(literalStart));
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.parameterIndexes = parameterIndexes.stream().mapToInt(i -> i).toArray();
+        this.literalLength = text.length() - 2 * this.parameterIndexes.length;
+    }
+
+    String render(String... parameters) {
+        if (parameterIndexes.length == 0) {
+            return text;
+        }
+        int length = literalLength;
+        for (int parameterIndex : parameterIndexes) {
+            length += parameterIndex < parameters.length ? String.valueOf(parameters[parameterIndex]).length() : 2;
+        }
+        final StringBuilder message = new StringBuilder(length);
+        for (int i = 0; i < parameterIndexes.length; i++) {
+            message.append(literals[i]);
+            final int parameterIndex = parameterIndexes[i];
+            if (parameterIndex < parameters.length) {
+                message.append(parameters[parameterIndex]);
+            } else {
+                message.append(PLACEHOLDER).append(parameterIndex + 1);
+            }
+        }
+        return message.append(literals[literals.length - 1]).toString();
+    }
+}
@@ -0,0 +1,120 @@
+package pokeraidbot.domain.config;
+
+import net.dv8tion.jda.core.entities.Guild;
+import org.apache.commons.lang3.Validate;
+import pokeraidbot.infrastructure.BotMetrics;
+import pokeraidbot.infrastructure.jpa.config.Config;
+import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server configuration, cached in front of the ServerConfigRepository since it's needed for every command and bot
+ * message.
+ *
+ * Configs are cached by server name (which is what they're stored by), and guild lookups are cached by guild ID on
+ * top of that. Servers without a config are cached as well. All changes to server configs must go through this
+ * service, so the cache is kept up to date.
+ */
+public class ServerConfigService {
+    public static final String CACHE_HITS = "serverConfig.cache.hits";
+    public static final String CACHE_MISSES = "serverConfig.cache.misses";
+
+    private final ServerConfigRepository serverConfigRepository;
+    private final Map<String, Optional<Config>> configsByServer = new ConcurrentHashMap<>();
+    private final Map<String, GuildConfig> configsByGuildId = new ConcurrentHashMap<>();
+    // Bumped on every change, so lookups that started before a change don't cache what they read
+    private final AtomicLong changes = new AtomicLong();
+
+    public ServerConfigService(ServerConfigRepository serverConfigRepository) {
+        Validate.notNull(serverConfigRepository, "ServerConfigRepository");
+        this.serverConfigRepository = serverConfigRepository;
+    }
+
+    /**
+     * @return config for the guild, or null if the server hasn't been configured
+     */
+    public Config getConfigForGuild(Guild guild) {
+        final GuildConfig cached = configsByGuildId.get(guild.getId());
+        final long changesBeforeLookup = changes.get();
+        // A renamed guild has to be looked up again, since configs are stored by server name
+        if (cached != null && cached.changes == changesBeforeLookup && cached.guildName.equals(guild.getName())) {
+            BotMetrics.increment(CACHE_HITS);
+            return cached.config;
+        }
+        final Config config = getConfigForServer(guild.getName().trim().toLowerCase());
+        configsByGuildId.put(guild.getId(), new GuildConfig(guild.getName(), changesBeforeLookup, config));
+        return config;
+    }
+
+    /**
+     * @return config for the server name (lower case), or null if the server hasn't been configured
+     */
+    public Config getConfigForServer(String server) {
+        if (server == null) {
+            return null;
+        }
+        final Optional<Config> cached = configsByServer.get(server);
+        if (cached != null) {
+            BotMetrics.increment(CACHE_HITS);
+            return cached.orElse(null);
+        }
+        BotMetrics.increment(CACHE_MISSES);
+        final long changesBeforeLoad = changes.get();
+        final Config config = serverConfigRepository.getConfigForServer(server);
+        if (changes.get() == changesBeforeLoad) {
+            configsByServer.putIfAbsent(server, Optional.ofNullable(config));
+        }
+        return config;
+    }
+
+    /**
+     * @return a copy of the config for the server name (lower case) read from the database, to be changed and saved,
+     * or null if the server hasn't been configured. The cached config is shared with other threads, so it must not
+     * be changed.
+     */
+    public Config getConfigForServerToChange(String server) {
+        return server == null ? null : serverConfigRepository.getConfigForServer(server);
+    }
+
+    public Map<String, Config> getAllConfig() {
+        return serverConfigRepository.getAllConfig();
+    }
+
+    public Config save(Config config) {
+        final String server = config.getServer();
+        try {
+            final Config savedConfig = serverConfigRepository.save(config);
+            changes.incrementAndGet();
+            configsByServer.put(server, Optional.of(savedConfig));
+            return savedConfig;
+        } catch (RuntimeException e) {
+            // The config may have been changed before it was saved, and could be the cached instance
+            changes.incrementAndGet();
+            configsByServer.remove(server);
+            throw e;
+        }
+    }
+
+    public void setOverviewMessageIdForServer(String server, String overviewMessageId) {
+        final Config config = getConfigForServerToChange(server);
+        Validate.notNull(config, "No config for server " + server);
+        config.setOverviewMessageId(overviewMessageId);
+        save(config);
+    }
+
+    private static class GuildConfig {
+        private final String guildName;
+        private final long changes;
+        private final Config config;
+
+        private GuildConfig(String guildName, long changes, Config config) {
+            this.guildName = guildName;
+            this.changes = changes;
+            this.config = config;
+        }
+    }
+}
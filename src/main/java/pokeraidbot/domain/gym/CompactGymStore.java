@@ -0,0 +1,307 @@
+package pokeraidbot.domain.gym;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.*;
+
+/**
+ * The gyms of a region as arrays instead of one object per gym, so regions with 100k+ gyms fit in a reasonable heap.
+ *
+ * Names and IDs are kept in one shared char pool, coordinates as fixed point ints (1e-7 degrees, about a centimeter),
+ * areas as indexes into a table of the distinct areas and EX gyms in a BitSet. Coordinates that don't come back as
+ * the same string from fixed point, like "17.6400" or anything that isn't a number, are also kept as they were, so
+ * gyms read from the store are equal to the gyms it was built from. Gyms are looked up by case folded name and by ID
+ * in open addressing hash tables of gym positions, and Gym objects are only created for the gyms that are read.
+ *
+ * Immutable.
+ */
+public class CompactGymStore {
+    static final int NO_COORDINATE = Integer.MIN_VALUE;
+    private static final long FIXED_POINT_SCALE = 10_000_000L;
+    private static final int EMPTY = -1;
+
+    private final int size;
+    // Name of gym i is chars stringOffsets[2i] to stringOffsets[2i + 1] of the pool, its ID the chars after that up
+    // to stringOffsets[2i + 2]
+    private final char[] charPool;
+    private final int[] stringOffsets;
+    private final int[] latitudes;
+    private final int[] longitudes;
+    private final Map<Integer, String> rawLatitudes = new HashMap<>();
+    private final Map<Integer, String> rawLongitudes = new HashMap<>();
+    private final String[] areas;
+    private final int[] areaIndexes;
+    private final BitSet exGyms;
+    // Gym positions, EMPTY for a free slot. Only the first gym with a name can be found by name, like before, while
+    // every gym is in the ID table so gyms sharing an ID can still be told apart
+    private final int[] nameTable;
+    private final int[] idTable;
+
+    public CompactGymStore(Collection<Gym> gyms) {
+        size = gyms.size();
+        int poolSize = 0;
+        for (Gym gym : gyms) {
+            Validate.notNull(gym.getName(), "Gym name is null: " + gym.toStringDetails());
+            Validate.notNull(gym.getId(), "Gym ID is null: " + gym.toStringDetails());
+            poolSize += gym.getName().length() + gym.getId().length();
+        }
+        charPool = new char[poolSize];
+        stringOffsets = new int[size * 2 + 1];
+        latitudes = new int[size];
+        longitudes = new int[size];
+        areaIndexes = new int[size];
+        exGyms = new BitSet(size);
+        final Map<String, Integer> areaIndexByArea = new LinkedHashMap<>();
+        int offset = 0;
+        int index = 0;
+        for (Gym gym : gyms) {
+            stringOffsets[2 * index] = offset;
+            offset = copyToPool(gym.getName(), offset);
+            stringOffsets[2 * index + 1] = offset;
+            offset = copyToPool(gym.getId(), offset);
+            latitudes[index] = toFixedPoint(gym.getX(), index, rawLatitudes);
+            longitudes[index] = toFixedPoint(gym.getY(), index, rawLongitudes);
+            areaIndexes[index] = areaIndexByArea.computeIfAbsent(gym.getArea(), a -> areaIndexByArea.size());
+            exGyms.set(index, gym.isExGym());
+            index++;
+        }
+        stringOffsets[2 * size] = offset;
+        areas = areaIndexByArea.keySet().toArray(new String[0]);
+
+        final int tableSize = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+        nameTable = new int[tableSize];
+        idTable = new int[tableSize];
+        Arrays.fill(nameTable, EMPTY);
+        Arrays.fill(idTable, EMPTY);
+        for (int i = 0; i < size; i++) {
+            final int nameStart = stringOffsets[2 * i];
+            final int nameEnd = stringOffsets[2 * i + 1];
+            int slot = foldedHash(charPool, nameStart, nameEnd) & (tableSize - 1);
+            boolean nameTaken = false;
+            while (nameTable[slot] != EMPTY && !nameTaken) {
+                final int other = nameTable[slot];
+                nameTaken = foldedEquals(stringOffsets[2 * other], stringOffsets[2 * other + 1], charPool,
+                        nameStart, nameEnd);
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            if (!nameTaken) {
+                nameTable[slot] = i;
+            }
+            slot = hash(charPool, nameEnd, stringOffsets[2 * i + 2]) & (tableSize - 1);
+            while (idTable[slot] != EMPTY) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            idTable[slot] = i;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Gym get(int index) {
+        return new Gym(nameOf(index), idOf(index), coordinate(latitudes, rawLatitudes, index),
+                coordinate(longitudes, rawLongitudes, index), areas[areaIndexes[index]], exGyms.get(index));
+    }
+
+    public String nameOf(int index) {
+        return new String(charPool, stringOffsets[2 * index], stringOffsets[2 * index + 1] - stringOffsets[2 * index]);
+    }
+
+    /**
+     * @return position of the gym with the name, ignoring case, or -1 if there is none
+     */
+    public int indexOfName(String name) {
+        if (name == null) {
+            return -1;
+        }
+        final char[] chars = name.toCharArray();
+        final int mask = nameTable.length - 1;
+        for (int slot = foldedHash(chars, 0, chars.length) & mask; nameTable[slot] != EMPTY;
+             slot = (slot + 1) & mask) {
+            final int index = nameTable[slot];
+            if (foldedEquals(stringOffsets[2 * index], stringOffsets[2 * index + 1], chars, 0, chars.length)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return position of the first gym with the ID, or -1 if there is none
+     */
+    public int indexOfId(String id) {
+        return id == null ? -1 : indexOf(id, null);
+    }
+
+    /**
+     * @return position of a gym equal to the given one, or -1 if there is none
+     */
+    public int indexOf(Gym gym) {
+        return gym == null || gym.getId() == null ? -1 : indexOf(gym.getId(), gym);
+    }
+
+    boolean hasLocation(int index) {
+        return latitudes[index] != NO_COORDINATE && longitudes[index] != NO_COORDINATE;
+    }
+
+    double latitudeOf(int index) {
+        return latitudes[index] / (double) FIXED_POINT_SCALE;
+    }
+
+    double longitudeOf(int index) {
+        return longitudes[index] / (double) FIXED_POINT_SCALE;
+    }
+
+    /**
+     * @return the gyms, created as they are read
+     */
+    public Set<Gym> asSet() {
+        return new AbstractSet<Gym>() {
+            @Override
+            public Iterator<Gym> iterator() {
+                return new Iterator<Gym>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Gym next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        return get(next++);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Gym && indexOf((Gym) o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(String id, Gym gym) {
+        final char[] chars = id.toCharArray();
+        final int mask = idTable.length - 1;
+        for (int slot = hash(chars, 0, chars.length) & mask; idTable[slot] != EMPTY; slot = (slot + 1) & mask) {
+            final int index = idTable[slot];
+            final int idStart = stringOffsets[2 * index + 1];
+            if (equals(idStart, stringOffsets[2 * index + 2], chars) && (gym == null || get(index).equals(gym))) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private String idOf(int index) {
+        return new String(charPool, stringOffsets[2 * index + 1],
+                stringOffsets[2 * index + 2] - stringOffsets[2 * index + 1]);
+    }
+
+    private int copyToPool(String string, int offset) {
+        string.getChars(0, string.length(), charPool, offset);
+        return offset + string.length();
+    }
+
+    private boolean equals(int start, int end, char[] chars) {
+        if (end - start != chars.length) {
+            return false;
+        }
+        for (int i = 0; i < chars.length; i++) {
+            if (charPool[start + i] != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean foldedEquals(int start, int end, char[] chars, int otherStart, int otherEnd) {
+        if (end - start != otherEnd - otherStart) {
+            return false;
+        }
+        for (int i = 0; i < end - start; i++) {
+            if (fold(charPool[start + i]) != fold(chars[otherStart + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(char[] chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return spread(hash);
+    }
+
+    private static int foldedHash(char[] chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(chars[i]);
+        }
+        return spread(hash);
+    }
+
+    // Linear probing needs the low bits to differ, so mix in the high ones
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    // Same folding as String.equalsIgnoreCase and RegionGyms.fold
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int toFixedPoint(String coordinate, int index, Map<Integer, String> rawCoordinates) {
+        int fixedPoint = NO_COORDINATE;
+        try {
+            final long value = Math.round(Double.parseDouble(coordinate) * FIXED_POINT_SCALE);
+            if (Math.abs(value) <= Integer.MAX_VALUE) {
+                fixedPoint = (int) value;
+            }
+        } catch (NumberFormatException | NullPointerException e) {
+            // Kept as it is below
+        }
+        if (fixedPoint == NO_COORDINATE || !formatFixedPoint(fixedPoint).equals(coordinate)) {
+            rawCoordinates.put(index, coordinate);
+        }
+        return fixedPoint;
+    }
+
+    private static String coordinate(int[] coordinates, Map<Integer, String> rawCoordinates, int index) {
+        return rawCoordinates.containsKey(index) ? rawCoordinates.get(index) : formatFixedPoint(coordinates[index]);
+    }
+
+    // Shortest decimal form, e.g. 598445420 as "59.844542"
+    static String formatFixedPoint(int fixedPoint) {
+        StringBuilder formatted = new StringBuilder(12);
+        long value = fixedPoint;
+        if (value < 0) {
+            formatted.append('-');
+            value = -value;
+        }
+        formatted.append(value / FIXED_POINT_SCALE);
+        final long fraction = value % FIXED_POINT_SCALE;
+        if (fraction != 0) {
+            final String digits = Long.toString(FIXED_POINT_SCALE + fraction).substring(1);
+            int end = digits.length();
+            while (digits.charAt(end - 1) == '0') {
+                end--;
+            }
+            formatted.append('.').append(digits, 0, end);
+        }
+        return formatted.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package pokeraidbot.domain.gym;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Square cells over latitude and longitude, so what's near a point can be found by looking at the cells around it.
+ * A cell is its row (from latitude) and column (from longitude) packed into one long.
+ *
+ * Distances are turned into degrees as on a sphere, which is close enough for the few kilometers we look at.
+ */
+public class CoordinateGrid {
+    public static final double KM_PER_DEGREE_OF_LATITUDE = 111.32;
+
+    private final double cellSizeInDegrees;
+
+    public CoordinateGrid(double cellSizeInDegrees) {
+        Validate.isTrue(cellSizeInDegrees > 0, "Cell size must be positive");
+        this.cellSizeInDegrees = cellSizeInDegrees;
+    }
+
+    public long row(double latitude) {
+        return (long) Math.floor(latitude / cellSizeInDegrees);
+    }
+
+    public long column(double longitude) {
+        return (long) Math.floor(longitude / cellSizeInDegrees);
+    }
+
+    public long cellFor(double latitude, double longitude) {
+        return cell(row(latitude), column(longitude));
+    }
+
+    public static long cell(long row, long column) {
+        return (row << 32) | (column & 0xffffffffL);
+    }
+
+    public static double latitudeDelta(double distanceInKm) {
+        return distanceInKm / KM_PER_DEGREE_OF_LATITUDE;
+    }
+
+    /**
+     * @return degrees of longitude the distance covers at the latitude, more the further from the equator
+     */
+    public static double longitudeDelta(double distanceInKm, double latitude) {
+        return distanceInKm / (KM_PER_DEGREE_OF_LATITUDE * Math.cos(Math.toRadians(latitude)));
+    }
+}
@@ -0,0 +1,89 @@
+package pokeraidbot.domain.gym;
+
+import pokeraidbot.Utils;
+
+import java.util.*;
+
+/**
+ * Gyms in a grid of cells over latitude and longitude, so finding the gyms near a gym only looks at the cells
+ * around it instead of every gym in the region. Gym positions in the store are sorted by cell, with a sorted array
+ * of the cells that have gyms pointing out where each cell starts. Immutable, built along with the rest of
+ * RegionGyms.
+ */
+class GymLocationIndex {
+    // Cells of about 1.1 km north to south, and around 0.6 km east to west at Swedish latitudes
+    private static final CoordinateGrid GRID = new CoordinateGrid(0.01);
+
+    private final CompactGymStore store;
+    private final long[] cells;
+    // Gyms in cells[i] are gymIndexes[cellStarts[i]] up to gymIndexes[cellStarts[i + 1]]
+    private final int[] cellStarts;
+    private final int[] gymIndexes;
+
+    GymLocationIndex(CompactGymStore store) {
+        this.store = store;
+        final List<Integer> located = new ArrayList<>(store.size());
+        final long[] cellByGym = new long[store.size()];
+        for (int i = 0; i < store.size(); i++) {
+            // Gyms without valid coordinates are left out
+            if (store.hasLocation(i)) {
+                cellByGym[i] = GRID.cellFor(store.latitudeOf(i), store.longitudeOf(i));
+                located.add(i);
+            }
+        }
+        located.sort(Comparator.comparingLong(i -> cellByGym[i]));
+        gymIndexes = new int[located.size()];
+        final long[] distinctCells = new long[located.size()];
+        final int[] starts = new int[located.size() + 1];
+        int numberOfCells = 0;
+        for (int i = 0; i < gymIndexes.length; i++) {
+            gymIndexes[i] = located.get(i);
+            final long cell = cellByGym[gymIndexes[i]];
+            if (numberOfCells == 0 || distinctCells[numberOfCells - 1] != cell) {
+                distinctCells[numberOfCells] = cell;
+                starts[numberOfCells] = i;
+                numberOfCells++;
+            }
+        }
+        starts[numberOfCells] = gymIndexes.length;
+        this.cells = Arrays.copyOf(distinctCells, numberOfCells);
+        this.cellStarts = Arrays.copyOf(starts, numberOfCells + 1);
+    }
+
+    /**
+     * @return gyms within the distance from the gym, itself included, closest first. Empty if the gym has no
+     * coordinates.
+     */
+    List<NearbyGym> findWithin(Gym gym, double distanceInKm) {
+        final int from = store.indexOf(gym);
+        if (from < 0 || !store.hasLocation(from)) {
+            return Collections.emptyList();
+        }
+        final double latitude = store.latitudeOf(from);
+        final double longitude = store.longitudeOf(from);
+        final double latitudeDelta = CoordinateGrid.latitudeDelta(distanceInKm);
+        final double longitudeDelta = CoordinateGrid.longitudeDelta(distanceInKm, latitude);
+        final long maxRow = GRID.row(latitude + latitudeDelta);
+        final long minColumn = GRID.column(longitude - longitudeDelta);
+        final long maxColumn = GRID.column(longitude + longitudeDelta);
+        List<NearbyGym> nearbyGyms = new ArrayList<>();
+        for (long row = GRID.row(latitude - latitudeDelta); row <= maxRow; row++) {
+            for (long column = minColumn; column <= maxColumn; column++) {
+                final int cell = Arrays.binarySearch(cells, CoordinateGrid.cell(row, column));
+                if (cell < 0) {
+                    continue;
+                }
+                for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                    final int index = gymIndexes[i];
+                    final double distance = Utils.distanceInKm(latitude, longitude,
+                            store.latitudeOf(index), store.longitudeOf(index));
+                    if (distance <= distanceInKm) {
+                        nearbyGyms.add(new NearbyGym(store.get(index), distance));
+                    }
+                }
+            }
+        }
+        nearbyGyms.sort(Comparator.comparingDouble(NearbyGym::getDistanceInKm));
+        return nearbyGyms;
+    }
+}
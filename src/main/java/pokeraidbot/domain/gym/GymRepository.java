@@ -18,29 +18,34 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
-import static me.xdrop.fuzzywuzzy.FuzzySearch.extractTop;
 import static org.apache.commons.lang3.StringUtils.containsIgnoreCase;
 
 public class GymRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(GymRepository.class);
+    public static final int DEFAULT_SEARCH_CACHE_SIZE = 10000;
 
-    private Map<String, Set<Gym>> gymsPerRegion = new ConcurrentHashMap<>();
+    // Each region is swapped as a whole, see RegionGyms
+    private Map<String, RegionGyms> gymsPerRegion = new ConcurrentHashMap<>();
     private Map<String, Set<String>> exGymsPerRegion = new ConcurrentHashMap<>();
     private final ServerConfigRepository serverConfigRepository;
     private final LocaleService localeService;
+    private final GymSearchCache searchCache;
 
-    public GymRepository(ServerConfigRepository serverConfigRepository, LocaleService localeService) {
+    public GymRepository(ServerConfigRepository serverConfigRepository, LocaleService localeService,
+                         int searchCacheSize) {
         this.serverConfigRepository = serverConfigRepository;
         this.localeService = localeService;
+        this.searchCache = new GymSearchCache(searchCacheSize);
     }
 
     // Only used for testing!
     public GymRepository(Map<String, Set<Gym>> gyms, LocaleService localeService) {
         this.localeService = localeService;
         this.serverConfigRepository = null;
+        this.searchCache = new GymSearchCache(DEFAULT_SEARCH_CACHE_SIZE);
         for (String region : gyms.keySet()) {
             Set<Gym> gymsForRegion = gyms.get(region);
-            this.gymsPerRegion.put(region, gymsForRegion);
+            this.gymsPerRegion.put(region, new RegionGyms(gymsForRegion));
         }
     }
 
@@ -66,7 +71,8 @@ public class GymRepository {
 
             for (String region : gymsPerRegion.keySet()) {
                 Set<Gym> gymsForRegion = gymsPerRegion.get(region);
-                this.gymsPerRegion.put(region, gymsForRegion);
+                this.gymsPerRegion.put(region, new RegionGyms(gymsForRegion));
+                searchCache.invalidate(region);
             }
         }
     }
@@ -77,35 +83,50 @@ public class GymRepository {
                     LocaleService.DEFAULT));
         }
 
-        final Set<Gym> gyms = getAllGymsForRegion(region);
+        final RegionGyms regionGyms = getRegionGyms(region);
 
+        final Gym gym = regionGyms.findByName(query);
+        if (gym != null) {
+            return gym;
+        }
+        GymSearchResult result = searchCache.get(region, query, regionGyms);
+        if (result == null) {
+            result = fuzzySearch(query, regionGyms);
+            searchCache.put(region, query, regionGyms, result);
+        }
         final Locale localeForUser = localeService.getLocaleForUser(user);
-        final Optional<Gym> gym = get(query, region);
-        if (gym.isPresent()) {
-            return gym.get();
-        } else {
-            //70 seems like a reasonable cutoff here...
-            List<ExtractedResult> candidates = extractTop(query, gyms.stream().map(
-                    s -> s.getName()).collect(Collectors.toList()), 6, 70);
-            if (candidates.size() == 1) {
-                return findByName(candidates.iterator().next().getString(), region);
-            } else if (candidates.size() < 1) {
+        switch (result.getType()) {
+            case FOUND:
+                return result.getGym();
+            case NOT_FOUND:
                 throw new GymNotFoundException(query, localeService, LocaleService.SWEDISH, region);
+            case OPTIONS:
+                throw new UserMessedUpException(user,
+                        localeService.getMessageFor(LocaleService.GYM_SEARCH_OPTIONS, localeForUser,
+                                StringUtils.join(result.getOptions(), ", ")));
+            default:
+                throw new UserMessedUpException(user,
+                        localeService.getMessageFor(LocaleService.GYM_SEARCH_MANY_RESULTS, localeForUser));
+        }
+    }
+
+    private GymSearchResult fuzzySearch(String query, RegionGyms regionGyms) {
+        //70 seems like a reasonable cutoff here...
+        List<ExtractedResult> candidates = regionGyms.getSearchIndex().extractTopMatches(query, 6, 70);
+        if (candidates.size() == 1) {
+            return GymSearchResult.found(regionGyms.findByName(candidates.iterator().next().getString()));
+        } else if (candidates.size() < 1) {
+            return GymSearchResult.notFound();
+        } else {
+            List<Gym> matchingPartial = getMatchingPartial(query, regionGyms, candidates);
+            if (matchingPartial.size() == 1) {
+                return GymSearchResult.found(matchingPartial.get(0));
+            }
+            if (candidates.size() <= 5) {
+                return GymSearchResult.options(candidates.stream().map(s -> regionGyms.findByName(s.getString())
+                        .getName()).collect(Collectors.toList()));
             } else {
-                List<Gym> matchingPartial = getMatchingPartial(query, region, candidates);
-                if (matchingPartial.size() == 1) {
-                    return matchingPartial.get(0);
-                }
-                if (candidates.size() <= 5) {
-                    String possibleMatches = candidates.stream().map(s -> findByName(s.getString(), region)
-                            .getName()).collect(Collectors.joining(", "));
-                    throw new UserMessedUpException(user,
-                            localeService.getMessageFor(LocaleService.GYM_SEARCH_OPTIONS, localeForUser,
-                                    possibleMatches));
-                } else {
-                    throw new UserMessedUpException(user,
-                            localeService.getMessageFor(LocaleService.GYM_SEARCH_MANY_RESULTS, localeForUser));
-                }
+                return GymSearchResult.tooMany();
             }
         }
     }
@@ -126,44 +147,59 @@ public class GymRepository {
                     LocaleService.COULD_NOT_ADD_GYM,
                     localeService.getLocaleForUser(user)));
         }
-        final Set<Gym> gymsForRegion = new HashSet<>(gymsPerRegion.get(region));
-        gymsForRegion.add(gym);
-        gymsPerRegion.put(region, gymsForRegion);
+        getRegionGyms(region);
+        gymsPerRegion.computeIfPresent(region, (r, regionGyms) -> regionGyms.with(gym));
+        searchCache.invalidate(region);
     }
 
     public Gym findById(String id, String region) {
-        for (Gym gym : getAllGymsForRegion(region)) {
-            if (gym.getId().equals(id))
-                return gym;
+        final Gym gym = getRegionGyms(region).findById(id);
+        if (gym == null) {
+            throw new GymNotFoundException("[No entry]", localeService, LocaleService.SWEDISH, region);
         }
-        throw new GymNotFoundException("[No entry]", localeService, LocaleService.SWEDISH, region);
+        return gym;
+    }
+
+    /**
+     * @return gyms in the region within the distance from the gym, the gym itself included, closest first
+     */
+    public List<NearbyGym> findNear(Gym gym, double distanceInKm, String region) {
+        return getRegionGyms(region).getLocationIndex().findWithin(gym, distanceInKm);
     }
 
     public Set<Gym> getAllGymsForRegion(String region) {
-        final Set<Gym> gyms = gymsPerRegion.get(region);
-        if (gyms == null || gyms.size() < 1) {
+        return getRegionGyms(region).getGyms();
+    }
+
+    private RegionGyms getRegionGyms(String region) {
+        final RegionGyms regionGyms = region == null ? null : gymsPerRegion.get(region);
+        if (regionGyms == null || regionGyms.size() < 1) {
             throw new RuntimeException(localeService.getMessageFor(LocaleService.GYM_CONFIG_ERROR, LocaleService.DEFAULT));
         }
-        return gyms;
+        return regionGyms;
     }
 
     private Optional<Gym> get(String name, String region) {
-        return getAllGymsForRegion(region).stream().filter(s -> s.getName().equalsIgnoreCase(name)).findFirst();
+        return Optional.ofNullable(getRegionGyms(region).findByName(name));
     }
 
-    private List<Gym> getMatchingPartial(String query, String region, List<ExtractedResult> candidates) {
+    private List<Gym> getMatchingPartial(String query, RegionGyms regionGyms, List<ExtractedResult> candidates) {
         String cleanQuery = query.trim().replaceAll(" +", " ");
         List<Gym> mathingGyms = new ArrayList<>();
         for (ExtractedResult result : candidates) {
             if (containsIgnoreCase(result.getString(), cleanQuery)) {
-                mathingGyms.add(findByName(result.getString(), region));
+                mathingGyms.add(regionGyms.findByName(result.getString()));
             }
         }
         return mathingGyms;
     }
 
     public Map<String, Set<Gym>> getAllGymData() {
-        return Collections.unmodifiableMap(gymsPerRegion);
+        Map<String, Set<Gym>> gymData = new HashMap<>();
+        for (Map.Entry<String, RegionGyms> entry : gymsPerRegion.entrySet()) {
+            gymData.put(entry.getKey(), entry.getValue().getGyms());
+        }
+        return Collections.unmodifiableMap(gymData);
     }
 
     public Set<String> getExGyms(String region) {
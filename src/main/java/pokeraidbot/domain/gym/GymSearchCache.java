@@ -0,0 +1,88 @@
+package pokeraidbot.domain.gym;
+
+import org.apache.commons.lang3.Validate;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of fuzzy gym search results, keyed by region and case folded query.
+ *
+ * Entries remember which snapshot of the region's gyms they were computed from, and only count as hits for that
+ * snapshot. So a search that finishes after the region was reloaded can't put a stale result back in.
+ */
+class GymSearchCache {
+    static final String HITS = "gyms.searchCache.hits";
+    static final String MISSES = "gyms.searchCache.misses";
+    static final String EVICTIONS = "gyms.searchCache.evictions";
+    static final String SIZE = "gyms.searchCache.size";
+
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+
+    GymSearchCache(int maxSize) {
+        Validate.isTrue(maxSize >= 0, "Cache size can't be negative");
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > GymSearchCache.this.maxSize) {
+                    BotMetrics.increment(EVICTIONS);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    GymSearchResult get(String region, String query, RegionGyms regionGyms) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.get(key(region, query));
+        }
+        if (entry == null || entry.regionGyms != regionGyms) {
+            BotMetrics.increment(MISSES);
+            return null;
+        }
+        BotMetrics.increment(HITS);
+        return entry.result;
+    }
+
+    synchronized void put(String region, String query, RegionGyms regionGyms, GymSearchResult result) {
+        if (maxSize == 0) {
+            return;
+        }
+        entries.put(key(region, query), new Entry(regionGyms, result));
+        BotMetrics.setGauge(SIZE, entries.size());
+    }
+
+    synchronized void invalidate(String region) {
+        final String prefix = region + "\n";
+        for (Iterator<String> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+            if (keys.next().startsWith(prefix)) {
+                keys.remove();
+            }
+        }
+        BotMetrics.setGauge(SIZE, entries.size());
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static String key(String region, String query) {
+        return region + "\n" + RegionGyms.fold(query);
+    }
+
+    private static class Entry {
+        private final RegionGyms regionGyms;
+        private final GymSearchResult result;
+
+        private Entry(RegionGyms regionGyms, GymSearchResult result) {
+            this.regionGyms = regionGyms;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package pokeraidbot.domain.gym;
+
+import me.xdrop.fuzzywuzzy.model.ExtractedResult;
+
+import java.util.*;
+
+import static me.xdrop.fuzzywuzzy.FuzzySearch.extractTop;
+
+/**
+ * Trigram inverted index over gym names, used to shortlist the names worth scoring before running the fuzzy search.
+ *
+ * Names are normalized like the fuzzy search does it (anything but letters and digits as space, lower case) and
+ * padded with a space on each side before they are split into trigrams. A name sharing at least one trigram with the
+ * query is a candidate, which covers every name sharing a word with the query. A name sharing no trigram is still a
+ * candidate if its characters could give it a score at the cutoff: every ratio the fuzzy search takes compares
+ * strings built from the characters of the query and the name, and is at most 2c / (c + m), where c is the number
+ * of characters the two have in common and m the length of the shorter one. Candidates keep the order of the names
+ * the index was built from, so the fuzzy search ranks ties the same way it would over all names, and gives the same
+ * matches at the cutoff. Short queries are scored against all names.
+ */
+public class GymSearchIndex {
+    private static final int MIN_QUERY_LENGTH = 4;
+
+    private final List<String> names;
+    private final Map<String, int[]> namePositionsByTrigram;
+    private final BitSet shortNames;
+    private final CharacterCounts[] characterCounts;
+
+    public GymSearchIndex(Collection<String> names) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+        Map<String, List<Integer>> positionsByTrigram = new HashMap<>();
+        shortNames = new BitSet(this.names.size());
+        characterCounts = new CharacterCounts[this.names.size()];
+        for (int i = 0; i < this.names.size(); i++) {
+            final String processedName = process(this.names.get(i));
+            characterCounts[i] = new CharacterCounts(processedName);
+            final String normalizedName = normalize(processedName);
+            if (normalizedName.length() < MIN_QUERY_LENGTH) {
+                shortNames.set(i);
+            }
+            for (String trigram : trigramsOf(normalizedName)) {
+                positionsByTrigram.computeIfAbsent(trigram, t -> new ArrayList<>()).add(i);
+            }
+        }
+        namePositionsByTrigram = new HashMap<>(positionsByTrigram.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : positionsByTrigram.entrySet()) {
+            namePositionsByTrigram.put(entry.getKey(), entry.getValue().stream().mapToInt(i -> i).toArray());
+        }
+    }
+
+    /**
+     * Same as FuzzySearch.extractTop over all names, but only scores the candidates for the query.
+     */
+    public List<ExtractedResult> extractTopMatches(String query, int limit, int cutoff) {
+        return extractTop(query, candidatesFor(query, cutoff), limit, cutoff);
+    }
+
+    /**
+     * @return names sharing at least one trigram with the query, names too short to have any to share and names that
+     * could score at least the cutoff by their characters, or all names if the query is too short
+     */
+    public List<String> candidatesFor(String query, int cutoff) {
+        final String processedQuery = process(query);
+        final String normalizedQuery = normalize(processedQuery);
+        if (normalizedQuery.length() < MIN_QUERY_LENGTH) {
+            return names;
+        }
+        final BitSet candidates = (BitSet) shortNames.clone();
+        for (String trigram : trigramsOf(normalizedQuery)) {
+            final int[] positions = namePositionsByTrigram.get(trigram);
+            if (positions != null) {
+                for (int position : positions) {
+                    candidates.set(position);
+                }
+            }
+        }
+        final CharacterCounts queryCounts = new CharacterCounts(processedQuery);
+        for (int i = candidates.nextClearBit(0); i < names.size(); i = candidates.nextClearBit(i + 1)) {
+            if (queryCounts.maxScoreAgainst(characterCounts[i]) >= cutoff) {
+                candidates.set(i);
+            }
+        }
+        List<String> candidateNames = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            candidateNames.add(names.get(i));
+        }
+        return candidateNames;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    // Same as the fuzzy search's default string processor
+    private static String process(String text) {
+        final StringBuilder processed = new StringBuilder(text.length());
+        text.codePoints().forEach(c -> {
+            if (Character.isAlphabetic(c) || Character.isDigit(c)) {
+                processed.appendCodePoint(c);
+            } else {
+                processed.append(' ');
+            }
+        });
+        return processed.toString().toLowerCase().trim();
+    }
+
+    private static String normalize(String processedText) {
+        return processedText.replaceAll(" +", " ");
+    }
+
+    private static Set<String> trigramsOf(String normalizedText) {
+        final String padded = " " + normalizedText + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * The characters of a processed string, in the three forms the fuzzy search compares: as it is, with its words
+     * sorted and with its distinct words sorted.
+     */
+    private static class CharacterCounts {
+        // All but spaces, sorted
+        private final char[] characters;
+        private final char[] distinctWordCharacters;
+        private final int length;
+        private final int words;
+        private final int distinctWords;
+
+        private CharacterCounts(String processedText) {
+            final String[] allWords = processedText.isEmpty() ? new String[0] : processedText.split("\\s+");
+            final Set<String> uniqueWords = new HashSet<>(Arrays.asList(allWords));
+            this.characters = sortedCharacters(Arrays.asList(allWords));
+            this.distinctWordCharacters = uniqueWords.size() == allWords.length ? characters :
+                    sortedCharacters(uniqueWords);
+            this.length = processedText.length();
+            this.words = allWords.length;
+            this.distinctWords = uniqueWords.size();
+        }
+
+        /**
+         * @return at least the score the fuzzy search gives the two, if they share no word
+         */
+        private int maxScoreAgainst(CharacterCounts other) {
+            if (length == 0 || other.length == 0) {
+                return 0;
+            }
+            final int common = commonCount(characters, other.characters);
+            final int commonDistinct = characters == distinctWordCharacters &&
+                    other.characters == other.distinctWordCharacters ? common :
+                    commonCount(distinctWordCharacters, other.distinctWordCharacters);
+            final double maxRatio = Math.max(
+                    Math.max(maxRatio(common + Math.min(length - characters.length,
+                            other.length - other.characters.length), length, other.length),
+                            maxRatio(common + Math.min(words, other.words) - 1, characters.length + words - 1,
+                                    other.characters.length + other.words - 1)),
+                    maxRatio(commonDistinct + Math.min(distinctWords, other.distinctWords) - 1,
+                            distinctWordCharacters.length + distinctWords - 1,
+                            other.distinctWordCharacters.length + other.distinctWords - 1));
+            // Scores are rounded, up to twice on the way
+            return (int) Math.ceil(maxRatio * 100) + 1;
+        }
+
+        private static double maxRatio(int common, int length, int otherLength) {
+            return common <= 0 ? 0 : 2.0 * common / (common + Math.min(length, otherLength));
+        }
+
+        private static int commonCount(char[] sorted, char[] otherSorted) {
+            int common = 0;
+            for (int i = 0, j = 0; i < sorted.length && j < otherSorted.length; ) {
+                if (sorted[i] == otherSorted[j]) {
+                    common++;
+                    i++;
+                    j++;
+                } else if (sorted[i] < otherSorted[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return common;
+        }
+
+        private static char[] sortedCharacters(Collection<String> words) {
+            StringBuilder characters = new StringBuilder();
+            for (String word : words) {
+                characters.append(word);
+            }
+            final char[] sorted = characters.toString().toCharArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package pokeraidbot.domain.gym;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a fuzzy gym search, independent of who searched, so it can be cached and turned into the right reply
+ * for each user.
+ */
+class GymSearchResult {
+    enum Type {
+        FOUND, NOT_FOUND, OPTIONS, TOO_MANY
+    }
+
+    private static final GymSearchResult NOT_FOUND = new GymSearchResult(Type.NOT_FOUND, null,
+            Collections.emptyList());
+    private static final GymSearchResult TOO_MANY = new GymSearchResult(Type.TOO_MANY, null,
+            Collections.emptyList());
+
+    private final Type type;
+    private final Gym gym;
+    private final List<String> options;
+
+    private GymSearchResult(Type type, Gym gym, List<String> options) {
+        this.type = type;
+        this.gym = gym;
+        this.options = options;
+    }
+
+    static GymSearchResult found(Gym gym) {
+        return new GymSearchResult(Type.FOUND, gym, Collections.emptyList());
+    }
+
+    static GymSearchResult notFound() {
+        return NOT_FOUND;
+    }
+
+    static GymSearchResult options(List<String> gymNames) {
+        return new GymSearchResult(Type.OPTIONS, null, Collections.unmodifiableList(gymNames));
+    }
+
+    static GymSearchResult tooMany() {
+        return TOO_MANY;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    Gym getGym() {
+        return gym;
+    }
+
+    List<String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public String toString() {
+        return "GymSearchResult{" +
+                "type=" + type +
+                ", gym=" + gym +
+                ", options=" + options +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package pokeraidbot.domain.gym;
+
+/**
+ * A gym and its distance from the gym that was searched from.
+ */
+public class NearbyGym {
+    private final Gym gym;
+    private final double distanceInKm;
+
+    public NearbyGym(Gym gym, double distanceInKm) {
+        this.gym = gym;
+        this.distanceInKm = distanceInKm;
+    }
+
+    public Gym getGym() {
+        return gym;
+    }
+
+    public double getDistanceInKm() {
+        return distanceInKm;
+    }
+
+    @Override
+    public String toString() {
+        return gym + " (" + distanceInKm + " km)";
+    }
+}
@@ -0,0 +1,70 @@
+package pokeraidbot.domain.gym;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the gyms in a region, kept in a CompactGymStore that also does the lookups by case folded
+ * name and by ID, with the trigram index for fuzzy search and the location index. A region is updated by building a
+ * new snapshot and swapping it in, so readers always see a complete set of indexes.
+ */
+class RegionGyms {
+    private final CompactGymStore store;
+    private final Set<Gym> gyms;
+    private final GymSearchIndex searchIndex;
+    private final GymLocationIndex locationIndex;
+
+    RegionGyms(Set<Gym> gyms) {
+        this.store = new CompactGymStore(gyms);
+        this.gyms = Collections.unmodifiableSet(store.asSet());
+        final List<String> names = new ArrayList<>(store.size());
+        for (int i = 0; i < store.size(); i++) {
+            names.add(store.nameOf(i));
+        }
+        this.searchIndex = new GymSearchIndex(names);
+        this.locationIndex = new GymLocationIndex(store);
+    }
+
+    RegionGyms with(Gym gym) {
+        final Set<Gym> gymsWithNewGym = new LinkedHashSet<>(gyms);
+        gymsWithNewGym.add(gym);
+        return new RegionGyms(gymsWithNewGym);
+    }
+
+    /**
+     * @return the gyms, read from the store as they are iterated
+     */
+    Set<Gym> getGyms() {
+        return gyms;
+    }
+
+    Gym findByName(String name) {
+        final int index = store.indexOfName(name);
+        return index < 0 ? null : store.get(index);
+    }
+
+    Gym findById(String id) {
+        final int index = store.indexOfId(id);
+        return index < 0 ? null : store.get(index);
+    }
+
+    GymSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    GymLocationIndex getLocationIndex() {
+        return locationIndex;
+    }
+
+    int size() {
+        return store.size();
+    }
+
+    // Same folding as String.equalsIgnoreCase, char by char
+    static String fold(String name) {
+        final char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,87 @@
+package pokeraidbot.domain.raid;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells listeners for a region when raids, signups or groups in it have changed, so they don't have to poll.
+ *
+ * If the change is made in a transaction, listeners are told after it has been committed, so what they read is the
+ * changed state. Listeners are called on the thread making the change, so they should only schedule work.
+ */
+public class RaidChangeEvents {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RaidChangeEvents.class);
+    public static final String CHANGE_EVENTS = "raids.changeEvents";
+
+    private final Map<String, Set<Listener>> listenersByRegion = new ConcurrentHashMap<>();
+
+    public interface Listener {
+        void raidsChanged(String region);
+    }
+
+    public void addListener(String region, Listener listener) {
+        // Added under the map's lock, so a remove emptying the set can't drop it from the map at the same time
+        listenersByRegion.compute(region, (r, listeners) -> {
+            if (listeners == null) {
+                listeners = ConcurrentHashMap.newKeySet();
+            }
+            listeners.add(listener);
+            return listeners;
+        });
+    }
+
+    public void removeListener(String region, Listener listener) {
+        listenersByRegion.computeIfPresent(region, (r, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * @param region region of the changed raid, or null if raids in any region may have changed
+     */
+    public void raidsChanged(String region) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    notifyListeners(region);
+                }
+            });
+        } else {
+            notifyListeners(region);
+        }
+    }
+
+    private void notifyListeners(String region) {
+        BotMetrics.increment(CHANGE_EVENTS);
+        if (region == null) {
+            for (Map.Entry<String, Set<Listener>> regionListeners : listenersByRegion.entrySet()) {
+                notifyListeners(regionListeners.getKey(), regionListeners.getValue());
+            }
+        } else {
+            final Set<Listener> listeners = listenersByRegion.get(region);
+            if (listeners != null) {
+                notifyListeners(region, listeners);
+            }
+        }
+    }
+
+    private static void notifyListeners(String region, Set<Listener> listeners) {
+        for (Listener listener : listeners) {
+            try {
+                listener.raidsChanged(region);
+            } catch (Throwable t) {
+                LOGGER.warn(t.getClass().getSimpleName() + " when telling listener about changes in region " +
+                        region + ": " + t.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package pokeraidbot.domain.raid;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes expired raids in the background, at a fixed interval, with one bulk delete per sweep.
+ * Reads in RaidRepository only filter away expired raids and never delete them.
+ */
+public class RaidExpirySweeper {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RaidExpirySweeper.class);
+    public static final String RAIDS_REMOVED = "raids.expired.removed";
+    public static final String RAIDS_REMOVED_LAST_SWEEP = "raids.expired.removedLastSweep";
+    public static final String SWEEP_TIME = "raids.expired.sweepTime";
+    public static final String SWEEP_FAILURES = "raids.expired.sweepFailures";
+
+    private final RaidRepository raidRepository;
+    private final long intervalInSeconds;
+    private final ScheduledExecutorService scheduler;
+
+    public RaidExpirySweeper(RaidRepository raidRepository, long intervalInSeconds) {
+        Validate.isTrue(intervalInSeconds > 0, "Sweep interval must be positive");
+        this.raidRepository = raidRepository;
+        this.intervalInSeconds = intervalInSeconds;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "raid-expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sweep, 0, intervalInSeconds, TimeUnit.SECONDS);
+        LOGGER.info("Sweeping expired raids every " + intervalInSeconds + " seconds.");
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public int sweep() {
+        final long start = System.currentTimeMillis();
+        try {
+            final int removed = raidRepository.removeExpiredRaids();
+            final long duration = System.currentTimeMillis() - start;
+            BotMetrics.add(RAIDS_REMOVED, removed);
+            BotMetrics.setGauge(RAIDS_REMOVED_LAST_SWEEP, removed);
+            BotMetrics.recordTime(SWEEP_TIME, duration);
+            if (removed > 0) {
+                LOGGER.info("Removed " + removed + " expired raids in " + duration + " ms.");
+            }
+            return removed;
+        } catch (Throwable t) {
+            // Must not propagate, or the scheduler will stop running the sweep
+            BotMetrics.increment(SWEEP_FAILURES);
+            LOGGER.warn("Sweeping expired raids failed: " + t.getMessage(), t);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package pokeraidbot.domain.raid;
+
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Rendered raid overviews per region and locale, shared by the overviews of all servers with that region and locale.
+ * The first overview refreshed after a change renders the region, the others reuse what it rendered, so each
+ * server only costs its own message edit.
+ *
+ * A snapshot is dropped when raids in its region change, and is at most a short while old, for what changes with
+ * time alone. Rendering is done outside the map of snapshots, so a slow render doesn't hold up other regions;
+ * overviews asked for while a region is being rendered wait for that render instead of starting their own.
+ */
+public class RaidOverviewSnapshots {
+    public static final String RENDERS = "overview.renders";
+    public static final String REUSES = "overview.reuses";
+    private static final long MAX_AGE_IN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final RaidChangeEvents changeEvents;
+    private final BiFunction<String, Locale, Map<String, String>> renderer;
+    private final Map<Key, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> changesPerRegion = new ConcurrentHashMap<>();
+    private final Set<String> regionsListenedTo = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param renderer renders the overview for a region and locale, as a map of field name to field text
+     */
+    public RaidOverviewSnapshots(RaidChangeEvents changeEvents,
+                                 BiFunction<String, Locale, Map<String, String>> renderer) {
+        this.changeEvents = changeEvents;
+        this.renderer = renderer;
+    }
+
+    /**
+     * @return the overview fields for the region and locale, can't be modified
+     */
+    public Map<String, String> getOverview(String region, Locale locale) {
+        if (regionsListenedTo.add(region)) {
+            changeEvents.addListener(region, this::raidsChanged);
+        }
+        final long changes = changesFor(region).get();
+        final long now = System.currentTimeMillis();
+        final Key key = new Key(region, locale);
+        while (true) {
+            final Snapshot current = snapshots.get(key);
+            if (current != null && current.changes == changes && now - current.renderedAt < MAX_AGE_IN_MILLIS) {
+                BotMetrics.increment(REUSES);
+                return overviewOf(current);
+            }
+            final Snapshot rendering = new Snapshot(changes, now);
+            final boolean ours = current == null ? snapshots.putIfAbsent(key, rendering) == null :
+                    snapshots.replace(key, current, rendering);
+            if (!ours) {
+                // Someone else got there first, see if what they store will do
+                continue;
+            }
+            BotMetrics.increment(RENDERS);
+            try {
+                final Map<String, String> overview =
+                        Collections.unmodifiableMap(new LinkedHashMap<>(renderer.apply(region, locale)));
+                rendering.overview.complete(overview);
+                return overview;
+            } catch (RuntimeException | Error e) {
+                snapshots.remove(key, rendering);
+                rendering.overview.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private static Map<String, String> overviewOf(Snapshot snapshot) {
+        try {
+            return snapshot.overview.join();
+        } catch (CompletionException e) {
+            // The render we waited for failed, fail like it did
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void raidsChanged(String region) {
+        // Snapshots rendered before this count as old, even if they're stored after it
+        changesFor(region).incrementAndGet();
+    }
+
+    private AtomicLong changesFor(String region) {
+        return changesPerRegion.computeIfAbsent(region, r -> new AtomicLong());
+    }
+
+    private static class Key {
+        private final String region;
+        private final Locale locale;
+
+        private Key(String region, Locale locale) {
+            this.region = region;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(region, key.region) && Objects.equals(locale, key.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(region, locale);
+        }
+    }
+
+    private static class Snapshot {
+        // Completed when the render is done
+        private final CompletableFuture<Map<String, String>> overview = new CompletableFuture<>();
+        private final long changes;
+        private final long renderedAt;
+
+        private Snapshot(long changes, long renderedAt) {
+            this.changes = changes;
+            this.renderedAt = renderedAt;
+        }
+    }
+}
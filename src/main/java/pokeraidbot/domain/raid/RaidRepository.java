@@ -7,8 +7,12 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
@@ -22,30 +26,40 @@ import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.Pokemon;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.signup.SignUp;
+import pokeraidbot.domain.raid.signup.SignUpChange;
 import pokeraidbot.domain.tracking.TrackingService;
+import pokeraidbot.infrastructure.BotMetrics;
 import pokeraidbot.infrastructure.jpa.config.Config;
 import pokeraidbot.infrastructure.jpa.raid.RaidEntity;
-import pokeraidbot.infrastructure.jpa.raid.RaidEntityRepository;
 import pokeraidbot.infrastructure.jpa.raid.RaidEntitySignUp;
 import pokeraidbot.infrastructure.jpa.raid.RaidGroup;
+import pokeraidbot.infrastructure.jpa.raid.RaidStore;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 import static pokeraidbot.Utils.*;
 
 @Transactional
 public class RaidRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(RaidRepository.class);
+    private static final int MAX_ATTEMPTS_ON_CONFLICT = 8;
+    public static final String SIGNUP_CONFLICTS = "raids.signups.conflicts";
+    public static final String SIGNUP_RETRIES = "raids.signups.retries";
+    public static final String SIGNUP_CONFLICTS_UNRESOLVED = "raids.signups.conflictsUnresolved";
 
     private ClockService clockService;
     private LocaleService localeService;
-    private RaidEntityRepository raidEntityRepository;
+    private RaidStore raidStore;
     private PokemonRepository pokemonRepository;
     private GymRepository gymRepository;
     private TrackingService trackingService;
+    private TransactionTemplate transactionTemplate;
+    private final RaidChangeEvents changeEvents = new RaidChangeEvents();
 
     // Byte code instrumentation
     protected RaidRepository() {
@@ -53,15 +67,16 @@ public class RaidRepository {
 
     @Autowired
     public RaidRepository(ClockService clockService, LocaleService localeService,
-                          RaidEntityRepository raidEntityRepository, PokemonRepository pokemonRepository,
-                          GymRepository gymRepository, TrackingService trackingService) {
+                          RaidStore raidStore, PokemonRepository pokemonRepository,
+                          GymRepository gymRepository, TrackingService trackingService,
+                          PlatformTransactionManager transactionManager) {
         this.clockService = clockService;
         this.localeService = localeService;
-        this.raidEntityRepository = raidEntityRepository;
+        this.raidStore = raidStore;
         this.pokemonRepository = pokemonRepository;
         this.gymRepository = gymRepository;
         this.trackingService = trackingService;
-        removeAllExpiredRaids();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public String executeSignUpCommand(Config config,
@@ -152,13 +167,17 @@ public class RaidRepository {
         }
 
         final Raid raidInstance = getRaidInstance(saveRaid(raidCreator, raid));
+        changeEvents.raidsChanged(raidInstance.getRegion());
         trackingService.notifyTrackers(guild, raidInstance, config, raidCreator, rawMessage);
         return raidInstance;
     }
 
+    // Returns null if raid is expired, expired raids are removed by RaidExpirySweeper
     private RaidEntity findEntityByRaidId(String raidId) {
-        final RaidEntity raidEntity = raidId == null ? null : raidEntityRepository.findOne(raidId);
-        removeRaidIfExpired(raidEntity);
+        final RaidEntity raidEntity = raidId == null ? null : raidStore.findById(raidId);
+        if (raidEntity != null && raidEntity.isExpired(clockService)) {
+            return null;
+        }
         return raidEntity;
     }
 
@@ -172,7 +191,7 @@ public class RaidRepository {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Creating raid: " + toBeSaved);
         }
-        return raidEntityRepository.save(toBeSaved);
+        return raidStore.save(toBeSaved);
 
     }
 
@@ -204,12 +223,11 @@ public class RaidRepository {
 
     private RaidEntity getActiveOrFallbackToExRaidEntity(Gym gym, String region) {
         RaidEntity raidEntity = null;
-        List<RaidEntity> raidEntities = raidEntityRepository.findByGymAndRegionOrderByEndOfRaidAsc(gym.getName(), region);
+        List<RaidEntity> raidEntities = raidStore.findByGymAndRegion(gym.getName(), region);
         RaidEntity exEntity = null;
         for (RaidEntity entity : raidEntities) {
             if (entity.isExpired(clockService)) {
-                LOGGER.info("Removing expired raid: " + entity.getId());
-                raidEntityRepository.delete(entity);
+                // Will be removed by the next sweep
             } else if (Utils.isRaidExPokemon(entity.getPokemon())) {
                 exEntity = entity;
                 break;
@@ -231,45 +249,77 @@ public class RaidRepository {
     }
 
     public Set<Raid> getAllRaidsForRegion(String region) {
-        removeExpiredRaids(region);
-        List<RaidEntity> raidEntityList = raidEntityRepository.findByRegionOrderByPokemonAscEndOfRaidAsc(region);
+        List<RaidEntity> raidEntityList = raidStore.findByRegion(region);
         Set<Raid> activeRaids = new LinkedHashSet<>();
         for (RaidEntity entity : raidEntityList) {
-            activeRaids.add(getRaidInstance(entity));
+            if (!entity.isExpired(clockService)) {
+                activeRaids.add(getRaidInstance(entity));
+            }
         }
         return activeRaids;
     }
 
-    private void removeAllExpiredRaids() {
-        List<RaidEntity> raidEntityList = raidEntityRepository.findAll();
-        for (RaidEntity entity : raidEntityList) {
-            removeRaidIfExpired(entity);
+    /**
+     * Active raids at any of the gyms, ordered by end of raid.
+     */
+    public List<Raid> getActiveRaidsAt(Collection<Gym> gyms, String region) {
+        Set<String> gymNames = new HashSet<>();
+        for (Gym gym : gyms) {
+            gymNames.add(gym.getName());
         }
+        final List<RaidEntity> raidEntities = raidStore.findActiveByGymsAndRegion(gymNames, region,
+                clockService.getCurrentDateTime());
+        List<Raid> raids = new ArrayList<>(raidEntities.size());
+        for (RaidEntity entity : raidEntities) {
+            raids.add(getRaidInstance(entity));
+        }
+        return raids;
     }
 
-    private void removeExpiredRaids(String region) {
-        List<RaidEntity> raidEntityList = raidEntityRepository.findByRegion(region);
+    /**
+     * Active raids in the region with their signup and group counts, read in one go. Ordered by pokemon and end of
+     * raid, like getAllRaidsForRegion.
+     */
+    public List<RaidSummary> getRaidSummariesForRegion(String region) {
+        final List<RaidEntity> raidEntityList = raidStore.findActiveByRegion(region,
+                clockService.getCurrentDateTime());
+        List<RaidSummary> raidSummaries = new ArrayList<>(raidEntityList.size());
         for (RaidEntity entity : raidEntityList) {
-            removeRaidIfExpired(entity);
+            raidSummaries.add(new RaidSummary(getRaidInstance(entity), groupStartTimes(entity.getGroupsAsSet())));
         }
+        return raidSummaries;
     }
 
-    // Returns null if raid is expired
-    private RaidEntity removeRaidIfExpired(RaidEntity raidEntity) {
-        if (raidEntity != null && raidEntity.isExpired(clockService)) {
-            final String id = raidEntity.getId();
-            // Clean up expired raid
-            raidEntityRepository.delete(raidEntity);
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Removed expired raid with ID: " + id);
-            }
-            return null;
-        } else {
-            return raidEntity;
+    public List<RaidSummary> getRaidSummariesForRegionAndPokemon(String region, Pokemon pokemon) {
+        final List<RaidSummary> raidSummaries = getRaidSummariesForRegion(region);
+        raidSummaries.removeIf(summary -> !summary.getRaid().getPokemon().getName().equals(pokemon.getName()));
+        return raidSummaries;
+    }
+
+    /**
+     * Removes all expired raids, along with their signups and groups, in one go.
+     * @return number of raids removed
+     */
+    public int removeExpiredRaids() {
+        final int removed = raidStore.deleteRaidsEndedBefore(clockService.getCurrentDateTime());
+        if (removed > 0) {
+            changeEvents.raidsChanged(null);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Removed " + removed + " expired raids.");
         }
+        return removed;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void addSignUp(User user, Raid raid, SignUp theSignUp) {
+        retryOnConflict(() -> {
+            doAddSignUp(user, raid, theSignUp);
+            return null;
+        });
+    }
+
+    private void doAddSignUp(User user, Raid raid, SignUp theSignUp) {
         RaidEntity entity = findEntityByRaidId(raid.getId());
 
         RaidEntitySignUp entitySignUp = entity.getSignUp(user.getName());
@@ -280,22 +330,33 @@ public class RaidRepository {
             entitySignUp.setNumberOfPeople(theSignUp.getHowManyPeople(), localeService, user);
             entitySignUp.setEta(Utils.printTime(theSignUp.getArrivalTime()));
         }
-        raidEntityRepository.save(entity);
+        raidStore.save(entity);
+        raidsChanged(entity);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeSignUp(User user, Raid raid, SignUp theSignUp) {
+        retryOnConflict(() -> {
+            doRemoveSignUp(user, raid, theSignUp);
+            return null;
+        });
+    }
+
+    private void doRemoveSignUp(User user, Raid raid, SignUp theSignUp) {
         RaidEntity entity = findEntityByRaidId(raid.getId());
         entity.removeSignUp(new RaidEntitySignUp(user.getName(), theSignUp.getHowManyPeople(),
                 Utils.printTime(theSignUp.getArrivalTime())));
-        raidEntityRepository.save(entity);
+        raidStore.save(entity);
+        raidsChanged(entity);
     }
 
     public Set<Raid> getRaidsInRegionForPokemon(String region, Pokemon pokemon) {
-        removeExpiredRaids(region);
-        List<RaidEntity> raidEntityList = raidEntityRepository.findByPokemonAndRegionOrderByEndOfRaidAsc(pokemon.getName(), region);
+        List<RaidEntity> raidEntityList = raidStore.findByPokemonAndRegion(pokemon.getName(), region);
         Set<Raid> activeRaids = new LinkedHashSet<>();
         for (RaidEntity entity : raidEntityList) {
-            activeRaids.add(getRaidInstance(entity));
+            if (!entity.isExpired(clockService)) {
+                activeRaids.add(getRaidInstance(entity));
+            }
         }
         return activeRaids;
     }
@@ -307,7 +368,8 @@ public class RaidRepository {
                     "magnus.mickelsson@gmail.com and describe what happened.");
         }
         raidEntity.setPokemon(pokemon.getName());
-        raidEntity = raidEntityRepository.save(raidEntity);
+        raidEntity = raidStore.save(raidEntity);
+        raidsChanged(raidEntity);
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Changed pokemon for raid " + raid + " to " + pokemon + ".");
         }
@@ -320,7 +382,8 @@ public class RaidRepository {
                                 User user, String rawMessage) {
         RaidEntity raidEntity = findEntityByRaidId(raidId);
         raidEntity.setEndOfRaid(newEndOfRaid);
-        raidEntity = raidEntityRepository.save(raidEntity);
+        raidEntity = raidStore.save(raidEntity);
+        raidsChanged(raidEntity);
         final Raid raidInstance = getRaidInstance(raidEntity);
         trackingService.notifyTrackers(guild, raidInstance, config, user, rawMessage);
         return raidInstance;
@@ -329,7 +392,8 @@ public class RaidRepository {
     public boolean delete(Raid raid) {
         RaidEntity raidEntity = getActiveOrFallbackToExRaidEntity(raid.getGym(), raid.getRegion());
         if (raidEntity != null) {
-            raidEntityRepository.delete(raidEntity);
+            raidStore.delete(raidEntity);
+            raidsChanged(raidEntity);
             return true;
         } else {
             return false;
@@ -337,13 +401,28 @@ public class RaidRepository {
     }
 
     public Raid getById(String id) {
-        final RaidEntity entity = raidEntityRepository.findOne(id);
+        final RaidEntity entity = raidStore.findById(id);
         return getRaidInstance(entity);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Raid modifySignUp(String raidId, User user, int mystic, int instinct, int valor, int plebs,
                              LocalDateTime startAt) {
+        return retryOnConflict(() -> doModifySignUp(raidId, user, mystic, instinct, valor, plebs, startAt));
+    }
+
+    private Raid doModifySignUp(String raidId, User user, int mystic, int instinct, int valor, int plebs,
+                                LocalDateTime startAt) {
         RaidEntity raidEntity = findEntityByRaidId(raidId);
+        modifySignUpOf(raidEntity, user, mystic, instinct, valor, plebs, startAt);
+        raidEntity = raidStore.save(raidEntity);
+        raidsChanged(raidEntity);
+
+        return getRaidInstance(raidEntity);
+    }
+
+    private void modifySignUpOf(RaidEntity raidEntity, User user, int mystic, int instinct, int valor, int plebs,
+                                LocalDateTime startAt) {
         RaidEntitySignUp signUp = raidEntity.getSignUp(user.getName());
         final String startAtTime = Utils.printTime(startAt.toLocalTime());
         if (signUp == null) {
@@ -362,11 +441,86 @@ public class RaidRepository {
             assertSumNotLessThanOne(user, sum);
             signUp.setNumberOfPeople(sum, localeService, user);
         }
-        raidEntity = raidEntityRepository.save(raidEntity);
+    }
 
+    /**
+     * Applies a batch of signup changes for a raid, in order, and saves the raid once. A change that can't be
+     * applied gets its error set and is skipped, without affecting the other changes.
+     * @return the raid after the changes, or null if there is no active raid with that ID
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Raid applySignUpChanges(String raidId, List<SignUpChange> changes) {
+        Validate.notEmpty(changes, "Changes");
+        return retryOnConflict(() -> doApplySignUpChanges(raidId, changes));
+    }
+
+    private Raid doApplySignUpChanges(String raidId, List<SignUpChange> changes) {
+        RaidEntity raidEntity = findEntityByRaidId(raidId);
+        if (raidEntity == null) {
+            for (SignUpChange change : changes) {
+                change.setError(new UserMessedUpException(change.getUser(),
+                        localeService.getMessageFor(LocaleService.NO_RAID_AT_GYM,
+                                localeService.getLocaleForUser(change.getUser()))));
+            }
+            return null;
+        }
+        boolean changed = false;
+        for (SignUpChange change : changes) {
+            change.setError(null);
+            // Apply to a copy, so a change that fails half way doesn't leave anything behind
+            final RaidEntity changedEntity = raidEntity.copy();
+            try {
+                if (change.getType() == SignUpChange.Type.ADD) {
+                    modifySignUpOf(changedEntity, change.getUser(), change.getMystic(), change.getInstinct(),
+                            change.getValor(), change.getPlebs(), change.getStartAt());
+                } else if (!removeFromSignUpOf(changedEntity, change.getUser(), change.getMystic(),
+                        change.getInstinct(), change.getValor(), change.getPlebs(), change.getStartAt())) {
+                    continue;
+                }
+                raidEntity = changedEntity;
+                changed = true;
+            } catch (RuntimeException e) {
+                change.setError(e);
+            }
+        }
+        if (changed) {
+            raidEntity = raidStore.save(raidEntity);
+            raidsChanged(raidEntity);
+        }
         return getRaidInstance(raidEntity);
     }
 
+    /*
+     * Runs a signup mutation in its own transaction, and runs it again from a fresh read if someone else changed
+     * the raid in the meantime. If the caller already has a transaction, that transaction is rolled back on conflict
+     * anyway, so then we just let the conflict through.
+     */
+    private <T> T retryOnConflict(Supplier<T> mutation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> mutation.get());
+            } catch (OptimisticLockingFailureException e) {
+                BotMetrics.increment(SIGNUP_CONFLICTS);
+                if (attempt >= MAX_ATTEMPTS_ON_CONFLICT || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    BotMetrics.increment(SIGNUP_CONFLICTS_UNRESOLVED);
+                    throw e;
+                }
+                BotMetrics.increment(SIGNUP_RETRIES);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Conflicting signup change, retrying (attempt " + (attempt + 1) + "): " +
+                            e.getMessage());
+                }
+                try {
+                    // Random back off, so the ones that conflicted don't all collide again
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(5, 25) * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
     private void assertSumNotLessThanOne(User user, int sum) {
         if (sum <= 0) {
             throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.ERROR_PARSE_PLAYERS,
@@ -375,17 +529,34 @@ public class RaidRepository {
         }
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Raid removeFromSignUp(String raidId, User user, int mystic, int instinct, int valor, int plebs,
                                  LocalDateTime startAt) {
+        return retryOnConflict(() -> doRemoveFromSignUp(raidId, user, mystic, instinct, valor, plebs, startAt));
+    }
+
+    private Raid doRemoveFromSignUp(String raidId, User user, int mystic, int instinct, int valor, int plebs,
+                                    LocalDateTime startAt) {
         RaidEntity raidEntity = findEntityByRaidId(raidId);
         if (raidEntity == null) {
             throw new UserMessedUpException(user,
                     localeService.getMessageFor(LocaleService.NO_RAID_AT_GYM, localeService.getLocaleForUser(user)));
         }
+        if (removeFromSignUpOf(raidEntity, user, mystic, instinct, valor, plebs, startAt)) {
+            raidEntity = raidStore.save(raidEntity);
+            raidsChanged(raidEntity);
+        }
+        return getRaidInstance(raidEntity);
+    }
+
+    // Returns true if the raid was changed
+    private boolean removeFromSignUpOf(RaidEntity raidEntity, User user, int mystic, int instinct, int valor,
+                                       int plebs, LocalDateTime startAt) {
         RaidEntitySignUp signUp = raidEntity.getSignUp(user.getName());
         final String startAtTime = Utils.printTime(startAt.toLocalTime());
         if (signUp == null) {
             // Ignore this case, when there is no signup to remove from. Silent ignore.
+            return false;
         } else if (startAtTime.equals(signUp.getEta())) {
             final int sum = signUp.getNumberOfPeople() - mystic - instinct - valor - plebs;
             if (sum <= 0) {
@@ -394,11 +565,11 @@ public class RaidRepository {
             } else {
                 signUp.setNumberOfPeople(sum, localeService, user);
             }
-            raidEntity = raidEntityRepository.save(raidEntity);
+            return true;
         } else {
             // Ignore if they're trying to remove signups for a group they're no longer signed up for - we let them untick their emote
+            return false;
         }
-        return getRaidInstance(raidEntity);
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -418,18 +589,28 @@ public class RaidRepository {
                     }
                 }
             }
-            entity = raidEntityRepository.save(entity);
+            entity = raidStore.save(entity);
+            raidsChanged(entity);
         }
 
         return getRaidInstance(entity);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void moveAllSignUpsForTimeToNewTime(String raidId, LocalDateTime currentStartAt, LocalDateTime newDateTime, User user) {
+        retryOnConflict(() -> {
+            doMoveAllSignUpsForTimeToNewTime(raidId, currentStartAt, newDateTime, user);
+            return null;
+        });
+    }
+
+    private void doMoveAllSignUpsForTimeToNewTime(String raidId, LocalDateTime currentStartAt,
+                                                  LocalDateTime newDateTime, User user) {
         Validate.notNull(raidId, "Raid ID cannot be null");
         Validate.notNull(currentStartAt, "Current start time cannot be null");
         Validate.notNull(newDateTime, "New start time cannot be null");
         Validate.notNull(user, "User cannot be null");
-        RaidEntity entity = raidEntityRepository.findOne(raidId);
+        RaidEntity entity = raidStore.findById(raidId);
         if (entity != null) {
             for (RaidEntitySignUp signUp : entity.getSignUpsAsSet()) {
                 if (signUp.getArrivalTime().equals(currentStartAt.toLocalTime())) {
@@ -439,7 +620,8 @@ public class RaidRepository {
                     }
                 }
             }
-            raidEntityRepository.save(entity);
+            raidStore.save(entity);
+            raidsChanged(entity);
         } else {
             throw new UserMessedUpException(user,
                     localeService.getMessageFor(LocaleService.NO_RAID_AT_GYM, localeService.getLocaleForUser(user)));
@@ -457,6 +639,8 @@ public class RaidRepository {
             throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.GROUP_NOT_ADDED,
                     localeService.getLocaleForUser(user), String.valueOf(raid)));
         }
+        raidStore.save(raidEntity);
+        raidsChanged(raidEntity);
         // todo: special message for new group?
 //        trackingService.notifyTrackers(guild, raid, config, user);
 
@@ -465,7 +649,7 @@ public class RaidRepository {
 
     public List<RaidGroup> getGroupsForServer(String server) {
         Validate.notEmpty(server, "Server is empty");
-        return raidEntityRepository.findGroupsForServer(server);
+        return raidStore.findGroupsForServer(server);
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -475,6 +659,9 @@ public class RaidRepository {
             final RaidGroup removedGroup = entity.removeGroup(groupId);
             if (removedGroup == null) {
                 LOGGER.debug("Didn't delete group, it has already been been deleted.");
+            } else {
+                raidStore.save(entity);
+                raidsChanged(entity);
             }
             return removedGroup;
         } else {
@@ -492,6 +679,8 @@ public class RaidRepository {
         if (removedGroup == null) {
             throw new RuntimeException("No group with ID " + groupId + " for raid " + entity);
         }
+        raidStore.save(entity);
+        raidsChanged(entity);
         return removedGroup;
     }
 
@@ -538,21 +727,20 @@ public class RaidRepository {
     }
 
     public String listGroupsForRaid(Raid raid, Set<RaidGroup> groups) {
+        return listGroupsForRaid(new RaidSummary(raid, groupStartTimes(groups)));
+    }
+
+    public String listGroupsForRaid(RaidSummary raidSummary) {
         StringBuilder sb = new StringBuilder();
-        if (groups.size() > 0) {
+        if (raidSummary.hasGroups()) {
             sb.append(" " + Emotes.GROUP + " ");
-            Set<String> times = new LinkedHashSet<>();
-            int signUpsInGroups = 0;
-            for (RaidGroup group : groups) {
-                final LocalTime groupTime = group.getStartsAt().toLocalTime();
-                final int numberOfPeopleInGroup = countSignups(raid.getSignUpsAt(groupTime));
-                times.add(printTime(groupTime) + " (**" + numberOfPeopleInGroup + "**)");
-                signUpsInGroups += numberOfPeopleInGroup;
+            List<String> times = new ArrayList<>();
+            for (RaidSummary.GroupSummary group : raidSummary.getGroups()) {
+                times.add(printTime(group.getStartsAt()) + " (**" + group.getNumberOfPeople() + "**)");
             }
             sb.append(StringUtils.join(times, ", "));
-            RaidEntity entity = findEntityByRaidId(raid.getId());
-            final Set<RaidEntitySignUp> signUpsAsSet = entity.getSignUpsAsSet();
-            final long totalSignUps = signUpsAsSet.stream().mapToInt(RaidEntitySignUp::getNumberOfPeople).sum();
+            final int signUpsInGroups = raidSummary.getNumberOfPeopleInGroups();
+            final int totalSignUps = raidSummary.getNumberOfPeople();
             if (totalSignUps > signUpsInGroups) {
                 sb.append(", -:- (**").append(totalSignUps - signUpsInGroups).append("**)");
             }
@@ -560,12 +748,12 @@ public class RaidRepository {
         return sb.toString();
     }
 
-    private int countSignups(Set<SignUp> signUpsAt) {
-        int i = 0;
-        for (SignUp s : signUpsAt) {
-            i += s.getHowManyPeople();
+    private static List<LocalDateTime> groupStartTimes(Collection<RaidGroup> groups) {
+        List<LocalDateTime> startTimes = new ArrayList<>(groups.size());
+        for (RaidGroup group : groups) {
+            startTimes.add(group.getStartsAt());
         }
-        return i;
+        return startTimes;
     }
 
     public RaidGroup changeGroup(User user, String raidId, String groupCreatorId, LocalDateTime currentStartAt,
@@ -581,37 +769,29 @@ public class RaidRepository {
                     localeService.getLocaleForUser(user)));
         }
         group.setStartsAt(newDateTime);
-        raidEntityRepository.save(entityByRaidId);
+        raidStore.save(entityByRaidId);
+        raidsChanged(entityByRaidId);
         // todo: notify !raid track listeners?
 
         return group;
     }
 
-    // todo: do a select count(*) instead of actually getting the list
-    public boolean isActiveRaidAt(Gym raidGym, String region) {
-        List<RaidEntity> entities =
-                raidEntityRepository.findByGymAndRegionOrderByEndOfRaidAsc(raidGym.getName(), region);
+    /**
+     * Changes to raids, their signups and groups, per region.
+     */
+    public RaidChangeEvents getChangeEvents() {
+        return changeEvents;
+    }
 
-        if (entities.size() == 0) {
-            return false;
-        }
+    private void raidsChanged(RaidEntity raidEntity) {
+        changeEvents.raidsChanged(raidEntity.getRegion());
+    }
 
-        for (RaidEntity entity : entities) {
-            if (!entity.isExRaid()) {
-                return true;
-            }
-        }
-        return false;
+    public boolean isActiveRaidAt(Gym raidGym, String region) {
+        return raidStore.existsActiveRaidAt(raidGym.getName(), region, clockService.getCurrentDateTime(), false);
     }
 
     public boolean isActiveOrExRaidAt(Gym raidGym, String region) {
-        List<RaidEntity> entities =
-                raidEntityRepository.findByGymAndRegionOrderByEndOfRaidAsc(raidGym.getName(), region);
-
-        if (entities.size() == 0) {
-            return false;
-        } else {
-            return true;
-        }
+        return raidStore.existsActiveRaidAt(raidGym.getName(), region, clockService.getCurrentDateTime(), true);
     }
 }
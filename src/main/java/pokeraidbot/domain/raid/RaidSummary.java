@@ -0,0 +1,93 @@
+package pokeraidbot.domain.raid;
+
+import org.apache.commons.lang3.Validate;
+import pokeraidbot.domain.raid.signup.SignUp;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Read model for raid overviews and lists: a raid, how many are signed up in total and how many are signed up for
+ * each group start time, so rendering doesn't have to go back to the repository for every raid.
+ */
+public class RaidSummary {
+    private final Raid raid;
+    private final int numberOfPeople;
+    private final List<GroupSummary> groups;
+
+    public RaidSummary(Raid raid, Collection<LocalDateTime> groupStartTimes) {
+        Validate.notNull(raid, "Raid");
+        Validate.notNull(groupStartTimes, "Group start times");
+        this.raid = raid;
+        this.numberOfPeople = raid.getNumberOfPeopleSignedUp();
+        final Set<LocalTime> startTimes = new TreeSet<>();
+        for (LocalDateTime startsAt : groupStartTimes) {
+            startTimes.add(startsAt.toLocalTime());
+        }
+        final List<GroupSummary> groupSummaries = new ArrayList<>(startTimes.size());
+        for (LocalTime startTime : startTimes) {
+            int numberOfPeopleInGroup = 0;
+            for (SignUp signUp : raid.getSignUpsAt(startTime)) {
+                numberOfPeopleInGroup += signUp.getHowManyPeople();
+            }
+            groupSummaries.add(new GroupSummary(startTime, numberOfPeopleInGroup));
+        }
+        this.groups = Collections.unmodifiableList(groupSummaries);
+    }
+
+    public Raid getRaid() {
+        return raid;
+    }
+
+    public int getNumberOfPeople() {
+        return numberOfPeople;
+    }
+
+    public boolean hasGroups() {
+        return groups.size() > 0;
+    }
+
+    /**
+     * @return one entry per group start time, in order of start time
+     */
+    public List<GroupSummary> getGroups() {
+        return groups;
+    }
+
+    public int getNumberOfPeopleInGroups() {
+        return groups.stream().mapToInt(GroupSummary::getNumberOfPeople).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RaidSummary{" +
+                "raid=" + raid +
+                ", numberOfPeople=" + numberOfPeople +
+                ", groups=" + groups +
+                '}';
+    }
+
+    public static class GroupSummary {
+        private final LocalTime startsAt;
+        private final int numberOfPeople;
+
+        public GroupSummary(LocalTime startsAt, int numberOfPeople) {
+            this.startsAt = startsAt;
+            this.numberOfPeople = numberOfPeople;
+        }
+
+        public LocalTime getStartsAt() {
+            return startsAt;
+        }
+
+        public int getNumberOfPeople() {
+            return numberOfPeople;
+        }
+
+        @Override
+        public String toString() {
+            return startsAt + " (" + numberOfPeople + ")";
+        }
+    }
+}
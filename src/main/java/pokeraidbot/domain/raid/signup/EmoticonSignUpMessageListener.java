@@ -13,12 +13,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pokeraidbot.BotService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.emote.Emotes;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.PokemonRepository;
-import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.time.LocalDateTime;
 import java.util.concurrent.TimeUnit;
@@ -27,53 +26,61 @@ public class EmoticonSignUpMessageListener implements EventListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(EmoticonSignUpMessageListener.class);
     private final BotService botService;
     private final LocaleService localeService;
-    private final ServerConfigRepository serverConfigRepository;
+    private final ServerConfigService serverConfigService;
     private final RaidRepository raidRepository;
     private final PokemonRepository pokemonRepository;
     private final GymRepository gymRepository;
+    private final SignUpExecutor signUpExecutor;
+    private final RaidGroupReactionRouter reactionRouter;
     private String emoteMessageId;
     private final String raidId;
     private String infoMessageId;
     private LocalDateTime startAt;
-    private String userHadError = null;
+    private volatile String userHadError = null;
     private String userId;
 
     public EmoticonSignUpMessageListener(BotService botService, LocaleService localeService,
-                                         ServerConfigRepository serverConfigRepository,
+                                         ServerConfigService serverConfigService,
                                          RaidRepository raidRepository, PokemonRepository pokemonRepository,
                                          GymRepository gymRepository,
                                          String raidId, LocalDateTime startAt, User user) {
         this.botService = botService;
         this.localeService = localeService;
-        this.serverConfigRepository = serverConfigRepository;
+        this.serverConfigService = serverConfigService;
         this.raidRepository = raidRepository;
         this.pokemonRepository = pokemonRepository;
         this.gymRepository = gymRepository;
         this.raidId = raidId;
         this.startAt = startAt;
         this.userId = user.getId();
-        botService.addEmoticonEventListener(this);
+        this.signUpExecutor = botService.getSignUpExecutor();
+        this.reactionRouter = botService.getRaidGroupReactionRouter();
+        reactionRouter.register(this);
     }
 
     public EmoticonSignUpMessageListener(BotService botService, LocaleService localeService,
-                                         ServerConfigRepository serverConfigRepository,
+                                         ServerConfigService serverConfigService,
                                          RaidRepository raidRepository, PokemonRepository pokemonRepository,
                                          GymRepository gymRepository,
                                          String raidId, LocalDateTime startAt, String userId) {
         this.botService = botService;
         this.localeService = localeService;
-        this.serverConfigRepository = serverConfigRepository;
+        this.serverConfigService = serverConfigService;
         this.raidRepository = raidRepository;
         this.pokemonRepository = pokemonRepository;
         this.gymRepository = gymRepository;
         this.raidId = raidId;
         this.startAt = startAt;
         this.userId = userId;
-        botService.addEmoticonEventListener(this);
+        this.signUpExecutor = botService.getSignUpExecutor();
+        this.reactionRouter = botService.getRaidGroupReactionRouter();
+        reactionRouter.register(this);
     }
 
     public void setEmoteMessageId(String emoteMessageId) {
+        final String previousEmoteMessageId = this.emoteMessageId;
         this.emoteMessageId = emoteMessageId;
+        reactionRouter.emoteMessageIdChanged(this, previousEmoteMessageId);
     }
 
     public void setInfoMessageId(String infoMessageId) {
@@ -108,19 +115,19 @@ public class EmoticonSignUpMessageListener implements EventListener {
                 if (emote != null) {
                     switch (emote.getName()) {
                         case Emotes.ONE:
-                            addToSignUp(user, 0, 0, 0, 1);
+                            addToSignUp(reactionEvent, user, 0, 0, 0, 1);
                             break;
                         case Emotes.TWO:
-                            addToSignUp(user, 0, 0, 0, 2);
+                            addToSignUp(reactionEvent, user, 0, 0, 0, 2);
                             break;
                         case Emotes.THREE:
-                            addToSignUp(user, 0, 0, 0, 3);
+                            addToSignUp(reactionEvent, user, 0, 0, 0, 3);
                             break;
                         case Emotes.FOUR:
-                            addToSignUp(user, 0, 0, 0, 4);
+                            addToSignUp(reactionEvent, user, 0, 0, 0, 4);
                             break;
                         case Emotes.FIVE:
-                            addToSignUp(user, 0, 0, 0, 5);
+                            addToSignUp(reactionEvent, user, 0, 0, 0, 5);
                             break;
                         default:
                     }
@@ -144,19 +151,19 @@ public class EmoticonSignUpMessageListener implements EventListener {
                 if (emote != null) {
                     switch (emote.getName()) {
                         case Emotes.ONE:
-                            removeFromSignUp(user, 0, 0, 0, 1);
+                            removeFromSignUp(reactionEvent, user, 0, 0, 0, 1);
                             break;
                         case Emotes.TWO:
-                            removeFromSignUp(user, 0, 0, 0, 2);
+                            removeFromSignUp(reactionEvent, user, 0, 0, 0, 2);
                             break;
                         case Emotes.THREE:
-                            removeFromSignUp(user, 0, 0, 0, 3);
+                            removeFromSignUp(reactionEvent, user, 0, 0, 0, 3);
                             break;
                         case Emotes.FOUR:
-                            removeFromSignUp(user, 0, 0, 0, 4);
+                            removeFromSignUp(reactionEvent, user, 0, 0, 0, 4);
                             break;
                         case Emotes.FIVE:
-                            removeFromSignUp(user, 0, 0, 0, 5);
+                            removeFromSignUp(reactionEvent, user, 0, 0, 0, 5);
                             break;
                         default:
                     }
@@ -164,39 +171,7 @@ public class EmoticonSignUpMessageListener implements EventListener {
             }
         } catch (Throwable t) {
             if (event instanceof GenericGuildMessageReactionEvent) {
-                final GenericGuildMessageReactionEvent guildMessageReactionEvent =
-                        (GenericGuildMessageReactionEvent) event;
-                reactionMessageId = guildMessageReactionEvent.getReaction().getMessageId();
-                if (emoteMessageId == null) {
-                    LOGGER.warn("Emote message ID = null, this should get cleaned up!" +
-                            " Event: " + printInfoAbout(event));
-                    return;
-                }
-                if (!emoteMessageId.equals(reactionMessageId)) {
-                    LOGGER.warn("We got a guild reaction event throwing exception, but not one we were listening for!" +
-                            " Event: " + printInfoAbout(event));
-                    return;
-                }
-                // Since we got an error, remove last reaction
-                if (reactionMessageId != null && reactionMessageId.equals(emoteMessageId)) {
-                    // Do this with a slight delay to prevent graphical glitches client side.
-                    guildMessageReactionEvent.getReaction().removeReaction(user)
-                            .queueAfter(30, TimeUnit.MILLISECONDS);
-                    userHadError = user.getName();
-                }
-                if (user != null && t.getMessage() != null) {
-                    MessageBuilder messageBuilder = new MessageBuilder();
-                    if (!t.getMessage().contains(user.getAsMention())) {
-                        messageBuilder.append(user.getAsMention())
-                                .append(": ");
-                    }
-                    messageBuilder.append(t.getMessage());
-                    guildMessageReactionEvent.getChannel().sendMessage(messageBuilder.build()).queue();
-                } else {
-                    LOGGER.warn("We have a situation where user " + user + " or exception (of type " +
-                            t.getClass().getSimpleName() + ") message is null! Event: " +
-                            printInfoAbout(event));
-                }
+                handleSignUpError((GenericGuildMessageReactionEvent) event, user, t);
             } else {
                 LOGGER.warn("Exception in event listener! Event: " +
                         printInfoAbout(event));
@@ -207,6 +182,40 @@ public class EmoticonSignUpMessageListener implements EventListener {
         }
     }
 
+    private void handleSignUpError(GenericGuildMessageReactionEvent guildMessageReactionEvent, User user, Throwable t) {
+        final String reactionMessageId = guildMessageReactionEvent.getReaction().getMessageId();
+        if (emoteMessageId == null) {
+            LOGGER.warn("Emote message ID = null, this should get cleaned up!" +
+                    " Event: " + printInfoAbout(guildMessageReactionEvent));
+            return;
+        }
+        if (!emoteMessageId.equals(reactionMessageId)) {
+            LOGGER.warn("We got a guild reaction event throwing exception, but not one we were listening for!" +
+                    " Event: " + printInfoAbout(guildMessageReactionEvent));
+            return;
+        }
+        // Since we got an error, remove last reaction
+        if (reactionMessageId != null && reactionMessageId.equals(emoteMessageId)) {
+            // Do this with a slight delay to prevent graphical glitches client side.
+            guildMessageReactionEvent.getReaction().removeReaction(user)
+                    .queueAfter(30, TimeUnit.MILLISECONDS);
+            userHadError = user.getName();
+        }
+        if (user != null && t.getMessage() != null) {
+            MessageBuilder messageBuilder = new MessageBuilder();
+            if (!t.getMessage().contains(user.getAsMention())) {
+                messageBuilder.append(user.getAsMention())
+                        .append(": ");
+            }
+            messageBuilder.append(t.getMessage());
+            guildMessageReactionEvent.getChannel().sendMessage(messageBuilder.build()).queue();
+        } else {
+            LOGGER.warn("We have a situation where user " + user + " or exception (of type " +
+                    t.getClass().getSimpleName() + ") message is null! Event: " +
+                    printInfoAbout(guildMessageReactionEvent));
+        }
+    }
+
     private String printInfoAbout(Event event) {
         try {
             StringBuilder sb = new StringBuilder();
@@ -231,26 +240,25 @@ public class EmoticonSignUpMessageListener implements EventListener {
         }
     }
 
-    private Raid addToSignUp(User user, int mystic, int instinct, int valor, int plebs) {
-        Raid changedRaid = raidRepository.modifySignUp(raidId, user,
-                mystic, instinct, valor, plebs, startAt);
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Added signup for user " + user.getName() +
-                    " to raid: " + changedRaid + " - mystic: " + mystic + ", instinct: " + instinct + ", valor: " +
-                    valor + ", plebs: " + plebs);
-        }
-        return changedRaid;
+    // Signup changes are applied asynchronously, and coalesced with other changes for the same raid
+    private void addToSignUp(GenericGuildMessageReactionEvent event, User user,
+                             int mystic, int instinct, int valor, int plebs) {
+        submit(event, new SignUpChange(SignUpChange.Type.ADD, user, mystic, instinct, valor, plebs, startAt));
     }
 
-    private Raid removeFromSignUp(User user, int mystic, int instinct, int valor, int plebs) {
-        Raid changedRaid = raidRepository.removeFromSignUp(raidId, user,
-                mystic, instinct, valor, plebs, startAt);
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Removed from signup for user " + user.getName() +
-                    ", raid: " + changedRaid + " - mystic: " + mystic + ", instinct: " + instinct + ", valor: " +
-                    valor + ", plebs: " + plebs);
-        }
-        return changedRaid;
+    private void removeFromSignUp(GenericGuildMessageReactionEvent event, User user,
+                                  int mystic, int instinct, int valor, int plebs) {
+        submit(event, new SignUpChange(SignUpChange.Type.REMOVE, user, mystic, instinct, valor, plebs, startAt));
+    }
+
+    private void submit(GenericGuildMessageReactionEvent event, SignUpChange change) {
+        signUpExecutor.submit(raidId, change).whenComplete((changedRaid, t) -> {
+            if (t != null) {
+                handleSignUpError(event, change.getUser(), t);
+            } else if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Applied " + change + " to raid: " + changedRaid);
+            }
+        });
     }
 
     public String getEmoteMessageId() {
@@ -0,0 +1,75 @@
+package pokeraidbot.domain.raid.signup;
+
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.events.message.guild.react.GenericGuildMessageReactionEvent;
+import net.dv8tion.jda.core.hooks.EventListener;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The one JDA listener for reactions on raid group messages. Passes each reaction on to the group whose emote
+ * message it was added to, if any, so the cost per reaction doesn't grow with the number of active groups.
+ *
+ * Groups register when they're created (before their message has been sent, so they may not have an emote message
+ * ID yet), and have to be unregistered when they're cleaned up.
+ */
+public class RaidGroupReactionRouter implements EventListener {
+    public static final String ACTIVE_GROUPS = "raidGroups.active";
+
+    private final Set<EmoticonSignUpMessageListener> groups = ConcurrentHashMap.newKeySet();
+    private final Map<String, EmoticonSignUpMessageListener> groupsByEmoteMessageId = new ConcurrentHashMap<>();
+
+    @Override
+    public void onEvent(Event event) {
+        if (event instanceof GenericGuildMessageReactionEvent) {
+            final String messageId = ((GenericGuildMessageReactionEvent) event).getMessageId();
+            final EmoticonSignUpMessageListener group = messageId == null ? null :
+                    groupsByEmoteMessageId.get(messageId);
+            if (group != null) {
+                group.onEvent(event);
+            }
+        }
+    }
+
+    public void register(EmoticonSignUpMessageListener group) {
+        groups.add(group);
+        final String emoteMessageId = group.getEmoteMessageId();
+        if (emoteMessageId != null) {
+            groupsByEmoteMessageId.put(emoteMessageId, group);
+        }
+        BotMetrics.setGauge(ACTIVE_GROUPS, groups.size());
+    }
+
+    void emoteMessageIdChanged(EmoticonSignUpMessageListener group, String previousEmoteMessageId) {
+        if (previousEmoteMessageId != null) {
+            groupsByEmoteMessageId.remove(previousEmoteMessageId, group);
+        }
+        if (groups.contains(group)) {
+            register(group);
+        }
+    }
+
+    public void unregister(EmoticonSignUpMessageListener group) {
+        groups.remove(group);
+        final String emoteMessageId = group.getEmoteMessageId();
+        if (emoteMessageId != null) {
+            groupsByEmoteMessageId.remove(emoteMessageId, group);
+        }
+        BotMetrics.setGauge(ACTIVE_GROUPS, groups.size());
+    }
+
+    /**
+     * @return all registered groups, including the ones still waiting for their message to be sent
+     */
+    public Set<EmoticonSignUpMessageListener> getGroups() {
+        return Collections.unmodifiableSet(groups);
+    }
+
+    public EmoticonSignUpMessageListener getGroupForEmoteMessage(String emoteMessageId) {
+        return emoteMessageId == null ? null : groupsByEmoteMessageId.get(emoteMessageId);
+    }
+}
@@ -0,0 +1,88 @@
+package pokeraidbot.domain.raid.signup;
+
+import net.dv8tion.jda.core.entities.User;
+import org.apache.commons.lang3.Validate;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a user's signup for a raid, as made by adding or removing a signup emote. Changes are applied in
+ * batches by RaidRepository.applySignUpChanges, which sets the error of changes that couldn't be applied.
+ */
+public class SignUpChange {
+    public enum Type {
+        ADD, REMOVE
+    }
+
+    private final Type type;
+    private final User user;
+    private final int mystic;
+    private final int instinct;
+    private final int valor;
+    private final int plebs;
+    private final LocalDateTime startAt;
+    private RuntimeException error;
+
+    public SignUpChange(Type type, User user, int mystic, int instinct, int valor, int plebs,
+                        LocalDateTime startAt) {
+        Validate.notNull(type, "Type");
+        Validate.notNull(user, "User");
+        Validate.notNull(startAt, "Start at");
+        this.type = type;
+        this.user = user;
+        this.mystic = mystic;
+        this.instinct = instinct;
+        this.valor = valor;
+        this.plebs = plebs;
+        this.startAt = startAt;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public int getMystic() {
+        return mystic;
+    }
+
+    public int getInstinct() {
+        return instinct;
+    }
+
+    public int getValor() {
+        return valor;
+    }
+
+    public int getPlebs() {
+        return plebs;
+    }
+
+    public LocalDateTime getStartAt() {
+        return startAt;
+    }
+
+    public RuntimeException getError() {
+        return error;
+    }
+
+    public void setError(RuntimeException error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "SignUpChange{" +
+                "type=" + type +
+                ", user=" + user.getName() +
+                ", mystic=" + mystic +
+                ", instinct=" + instinct +
+                ", valor=" + valor +
+                ", plebs=" + plebs +
+                ", startAt=" + startAt +
+                '}';
+    }
+}
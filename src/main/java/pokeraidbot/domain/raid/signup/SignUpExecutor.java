@@ -0,0 +1,127 @@
+package pokeraidbot.domain.raid.signup;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pokeraidbot.domain.raid.Raid;
+import pokeraidbot.domain.raid.RaidRepository;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Single writer per raid for signup changes made via emotes.
+ *
+ * Raids are spread over a fixed number of stripes, each with one thread, so changes for a raid are always applied
+ * in the order they came in. Changes for a raid that arrive within the coalescing window are applied together,
+ * with one save of the raid, instead of one transaction per reaction.
+ */
+public class SignUpExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignUpExecutor.class);
+    public static final String SIGNUP_CHANGES = "raids.signups.emoteChanges";
+    public static final String SIGNUP_BATCHES = "raids.signups.emoteBatches";
+
+    private final RaidRepository raidRepository;
+    private final long windowInMillis;
+    private final ScheduledExecutorService[] stripes;
+    private final Map<String, List<PendingChange>> pendingChangesByRaidId = new ConcurrentHashMap<>();
+
+    public SignUpExecutor(RaidRepository raidRepository, int numberOfStripes, long windowInMillis) {
+        Validate.isTrue(numberOfStripes > 0, "Number of stripes must be positive");
+        Validate.isTrue(windowInMillis >= 0, "Coalescing window can't be negative");
+        this.raidRepository = raidRepository;
+        this.windowInMillis = windowInMillis;
+        this.stripes = new ScheduledExecutorService[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            final String threadName = "signup-writer-" + i;
+            stripes[i] = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Queues a signup change for a raid.
+     * @return completes with the raid after the change has been saved, or with the reason the change failed
+     */
+    public CompletableFuture<Raid> submit(String raidId, SignUpChange change) {
+        Validate.notEmpty(raidId, "Raid ID");
+        Validate.notNull(change, "Change");
+        final PendingChange pendingChange = new PendingChange(change);
+        final boolean[] firstInWindow = {false};
+        pendingChangesByRaidId.compute(raidId, (id, pendingChanges) -> {
+            if (pendingChanges == null) {
+                pendingChanges = new ArrayList<>();
+                firstInWindow[0] = true;
+            }
+            pendingChanges.add(pendingChange);
+            return pendingChanges;
+        });
+        if (firstInWindow[0]) {
+            try {
+                stripeFor(raidId).schedule(() -> flush(raidId), windowInMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shut down, so nothing will flush these. Leaving them would stop later changes from being scheduled.
+                for (PendingChange rejectedChange : pendingChangesByRaidId.remove(raidId)) {
+                    rejectedChange.result.completeExceptionally(e);
+                }
+            }
+        }
+        return pendingChange.result;
+    }
+
+    public void shutdown() {
+        for (ScheduledExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    private ScheduledExecutorService stripeFor(String raidId) {
+        return stripes[(raidId.hashCode() & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    private void flush(String raidId) {
+        final List<PendingChange> pendingChanges = pendingChangesByRaidId.remove(raidId);
+        if (pendingChanges == null || pendingChanges.isEmpty()) {
+            return;
+        }
+        final List<SignUpChange> changes = new ArrayList<>(pendingChanges.size());
+        for (PendingChange pendingChange : pendingChanges) {
+            changes.add(pendingChange.change);
+        }
+        BotMetrics.increment(SIGNUP_BATCHES);
+        BotMetrics.add(SIGNUP_CHANGES, changes.size());
+        try {
+            final Raid raid = raidRepository.applySignUpChanges(raidId, changes);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Applied " + changes.size() + " signup changes to raid " + raidId);
+            }
+            for (PendingChange pendingChange : pendingChanges) {
+                if (pendingChange.change.getError() != null) {
+                    pendingChange.result.completeExceptionally(pendingChange.change.getError());
+                } else {
+                    pendingChange.result.complete(raid);
+                }
+            }
+        } catch (Throwable t) {
+            LOGGER.warn("Could not apply signup changes for raid " + raidId + ": " + t.getMessage());
+            for (PendingChange pendingChange : pendingChanges) {
+                pendingChange.result.completeExceptionally(t);
+            }
+        }
+    }
+
+    private static class PendingChange {
+        private final SignUpChange change;
+        private final CompletableFuture<Raid> result = new CompletableFuture<>();
+
+        private PendingChange(SignUpChange change) {
+            this.change = change;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package pokeraidbot.domain.tracking;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A user tracking raids within an area of a region.
+ */
+public class AreaTracking {
+    private final String userId;
+    private final String region;
+    private final TrackingArea area;
+
+    public AreaTracking(String userId, String region, TrackingArea area) {
+        Validate.notEmpty(userId, "User ID is empty!");
+        Validate.notEmpty(region, "Region is empty!");
+        Validate.notNull(area, "Area is null!");
+        this.userId = userId;
+        this.region = region;
+        this.area = area;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public TrackingArea getArea() {
+        return area;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AreaTracking)) return false;
+
+        AreaTracking that = (AreaTracking) o;
+
+        if (!userId.equals(that.userId)) return false;
+        if (!region.equals(that.region)) return false;
+        return area.equals(that.area);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = userId.hashCode();
+        result = 31 * result + region.hashCode();
+        result = 31 * result + area.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "AreaTracking{" +
+                "userId='" + userId + '\'' +
+                ", region='" + region + '\'' +
+                ", area='" + area + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,100 @@
+package pokeraidbot.domain.tracking;
+
+import org.apache.commons.lang3.Validate;
+import pokeraidbot.domain.gym.CoordinateGrid;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Area trackings per region, in a grid of cells over latitude and longitude.
+ *
+ * An area is put in every cell its bounding box touches, so matching a gym only checks the areas in the gym's cell
+ * instead of every area in the region. Matching reads the cells without locking. Adding or removing an area updates
+ * all of its cells under the index's lock, so two changes never leave a cell half updated.
+ */
+public class AreaTrackingIndex {
+    // Cells of about 28 km north to south, and around 14 km east to west at Swedish latitudes. The largest polygon
+    // touches at most 81 cells, and the largest circle fewer than that as far north as Kiruna.
+    private static final CoordinateGrid GRID = new CoordinateGrid(0.25);
+
+    private final Map<String, Map<Long, Set<AreaTracking>>> cellsByRegion = new ConcurrentHashMap<>();
+    private final Map<String, Set<AreaTracking>> areasByUserId = new ConcurrentHashMap<>();
+
+    /**
+     * @return false if the user already tracks the area in the region
+     */
+    public synchronized boolean add(AreaTracking tracking) {
+        Validate.notNull(tracking, "Tracking is null!");
+        if (!areasByUserId.computeIfAbsent(tracking.getUserId(), id -> ConcurrentHashMap.newKeySet())
+                .add(tracking)) {
+            return false;
+        }
+        final Map<Long, Set<AreaTracking>> cells =
+                cellsByRegion.computeIfAbsent(tracking.getRegion(), r -> new ConcurrentHashMap<>());
+        forEachCell(tracking.getArea(), cell ->
+                cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(tracking));
+        return true;
+    }
+
+    /**
+     * @return false if the user didn't track the area
+     */
+    public synchronized boolean remove(AreaTracking tracking) {
+        final Set<AreaTracking> areas = areasByUserId.get(tracking.getUserId());
+        if (areas == null || !areas.remove(tracking)) {
+            return false;
+        }
+        if (areas.isEmpty()) {
+            areasByUserId.remove(tracking.getUserId());
+        }
+        final Map<Long, Set<AreaTracking>> cells = cellsByRegion.get(tracking.getRegion());
+        forEachCell(tracking.getArea(), cell -> {
+            final Set<AreaTracking> trackings = cells.get(cell);
+            trackings.remove(tracking);
+            if (trackings.isEmpty()) {
+                cells.remove(cell);
+            }
+        });
+        return true;
+    }
+
+    public Set<String> getUserIdsTracking(String region, double latitude, double longitude) {
+        final Map<Long, Set<AreaTracking>> cells = cellsByRegion.get(region);
+        if (cells == null) {
+            return Collections.emptySet();
+        }
+        final Set<AreaTracking> candidates = cells.get(GRID.cellFor(latitude, longitude));
+        if (candidates == null) {
+            return Collections.emptySet();
+        }
+        Set<String> userIds = new LinkedHashSet<>();
+        for (AreaTracking tracking : candidates) {
+            if (tracking.getArea().contains(latitude, longitude)) {
+                userIds.add(tracking.getUserId());
+            }
+        }
+        return userIds;
+    }
+
+    public Set<AreaTracking> getAreasTrackedBy(String userId) {
+        final Set<AreaTracking> areas = areasByUserId.get(userId);
+        return areas == null ? Collections.emptySet() : new LinkedHashSet<>(areas);
+    }
+
+    private static void forEachCell(TrackingArea area, LongConsumer consumer) {
+        final long minRow = GRID.row(area.getMinLatitude());
+        final long maxRow = GRID.row(area.getMaxLatitude());
+        final long minColumn = GRID.column(area.getMinLongitude());
+        final long maxColumn = GRID.column(area.getMaxLongitude());
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long column = minColumn; column <= maxColumn; column++) {
+                consumer.accept(CoordinateGrid.cell(row, column));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package pokeraidbot.domain.tracking;
+
+import org.apache.commons.lang3.Validate;
+import pokeraidbot.domain.pokemon.Pokemon;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users tracking each pokemon, so finding who to notify for a raid only touches the trackers of the raid's pokemon
+ * instead of every tracking there is. Also keeps the pokemon tracked by each user.
+ *
+ * Raids are matched against it without locking, while adding and removing tracking is synchronized so the two maps
+ * are changed together.
+ */
+public class PokemonTrackingIndex {
+    private final Map<Pokemon, Set<String>> userIdsByPokemon = new ConcurrentHashMap<>();
+    private final Map<String, Set<Pokemon>> pokemonByUserId = new ConcurrentHashMap<>();
+
+    /**
+     * @return false if the user already tracks the pokemon
+     */
+    public synchronized boolean add(String userId, Pokemon pokemon) {
+        Validate.notEmpty(userId, "User ID is empty!");
+        Validate.notNull(pokemon, "Pokemon is null!");
+        pokemonByUserId.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(pokemon);
+        return userIdsByPokemon.computeIfAbsent(pokemon, p -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    /**
+     * @return false if the user didn't track the pokemon
+     */
+    public synchronized boolean remove(String userId, Pokemon pokemon) {
+        final Set<String> userIds = userIdsByPokemon.get(pokemon);
+        if (userIds == null || !userIds.remove(userId)) {
+            return false;
+        }
+        // Drop the pokemon and user from the index along with their last tracking
+        if (userIds.isEmpty()) {
+            userIdsByPokemon.remove(pokemon);
+        }
+        final Set<Pokemon> pokemons = pokemonByUserId.get(userId);
+        pokemons.remove(pokemon);
+        if (pokemons.isEmpty()) {
+            pokemonByUserId.remove(userId);
+        }
+        return true;
+    }
+
+    public boolean contains(String userId, Pokemon pokemon) {
+        final Set<String> userIds = userIdsByPokemon.get(pokemon);
+        return userIds != null && userIds.contains(userId);
+    }
+
+    public Set<String> getUserIdsTracking(Pokemon pokemon) {
+        final Set<String> userIds = userIdsByPokemon.get(pokemon);
+        return userIds == null ? Collections.emptySet() : Collections.unmodifiableSet(userIds);
+    }
+
+    public Set<Pokemon> getPokemonTrackedBy(String userId) {
+        final Set<Pokemon> pokemons = pokemonByUserId.get(userId);
+        return pokemons == null ? Collections.emptySet() : new LinkedHashSet<>(pokemons);
+    }
+
+    public Set<PokemonTrackingTarget> getTrackingTargets() {
+        Set<PokemonTrackingTarget> trackingTargets = new LinkedHashSet<>();
+        userIdsByPokemon.forEach((pokemon, userIds) ->
+                userIds.forEach(userId -> trackingTargets.add(new PokemonTrackingTarget(userId, pokemon))));
+        return trackingTargets;
+    }
+
+    public boolean isEmpty() {
+        return userIdsByPokemon.isEmpty();
+    }
+}
@@ -3,7 +3,6 @@ package pokeraidbot.domain.tracking;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.User;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,12 +17,19 @@ public class PokemonTrackingTarget implements TrackingTarget, Comparable<Pokemon
     private static final transient Logger LOGGER = LoggerFactory.getLogger(PokemonTrackingTarget.class);
     private String userId;
     private Pokemon pokemon;
+    // Only needed by targets that are handled, not part of equality
+    private TrackingNotifier trackingNotifier;
 
     public PokemonTrackingTarget(String userId, Pokemon pokemon) {
+        this(userId, pokemon, null);
+    }
+
+    public PokemonTrackingTarget(String userId, Pokemon pokemon, TrackingNotifier trackingNotifier) {
         Validate.notEmpty(userId, "User ID is empty!");
         Validate.notNull(pokemon, "Pokemon is null!");
         this.userId = userId;
         this.pokemon = pokemon;
+        this.trackingNotifier = trackingNotifier;
     }
 
     public String getUserId() {
@@ -34,26 +40,6 @@ public class PokemonTrackingTarget implements TrackingTarget, Comparable<Pokemon
         return pokemon;
     }
 
-    private void sendPrivateMessage(User user, String content)
-    {
-        // openPrivateChannel provides a RestAction<PrivateChannel>
-        // which means it supplies you with the resulting channel
-        user.openPrivateChannel().queue((channel) ->
-        {
-            // value is a parameter for the `accept(T channel)` method of our callback.
-            // here we implement the body of that method, which will be called later by JDA automatically.
-            try {
-                channel.sendMessage(content).queue(m -> {}, m ->{
-                    LOGGER.warn("Could not send private message for tracking " + this + ": " + m.getMessage());
-                });
-                // here we access the enclosing scope variable -content-
-                // which was provided to sendPrivateMessage(User, String) as a parameter
-            } catch (Throwable t) {
-                LOGGER.warn("Could not send private message for tracking " + this + ": " + t.getMessage());
-            }
-        });
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -86,53 +72,17 @@ public class PokemonTrackingTarget implements TrackingTarget, Comparable<Pokemon
     }
 
     @Override
-    public boolean canHandle(Config config, User user, Raid raid, Guild guild) {
-        if (config == null || user == null || raid == null || guild == null) {
-            LOGGER.debug("Returning tracker can't handle this, because some input is null. Config: " +
-                    config + ", User: " + (user == null ? "null" : user.getName()) + ", Raid: " + raid +
-                    ", Guild: " + guild);
-            return false;
-        }
-        if (!config.useBotIntegration() && user.isBot()) {
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("Skipping, since server has no bot integration and message is from a bot.");
-            }
-            return false; // Skip bot messages
-        }
-        if (user.getId().equals(userId)) {
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("Skipping, since this is user's own raid.");
-            }
-            return false; // Skip raids user created
-        }
-        if (guild.getMemberById(this.userId) == null) {
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("Skipping, since user with this tracking is not a member of server " + guild.getName());
-            }
-            return false; // Skip raids for guilds where user is not a member
-        }
-
-        boolean raidIsForPokemon =
-                StringUtils.containsIgnoreCase(raid.getPokemon().getName(),
-                        pokemon.getName());
-        return raidIsForPokemon;
-    }
-
-    @Override
-    public void handle(Guild guild, LocaleService localeService, Config config, User user, Raid raid,
+    public void handle(Guild guild, Member member, LocaleService localeService, Config config, User user, Raid raid,
                        String inputMessage) {
         Validate.notNull(guild, "Guild is null");
+        Validate.notNull(member, "Member is null");
         Validate.notNull(config, "Config is null");
         Validate.notNull(raid, "Raid is null");
         Validate.notNull(user, "User is null");
         Validate.notNull(localeService, "LocaleService is null");
+        Validate.notNull(trackingNotifier, "TrackingNotifier is null, this target can't send DMs");
 
-        final Member memberById = guild.getMemberById(Long.parseLong(userId));
-        if (memberById == null) {
-            LOGGER.warn("Member with ID " + userId + " doesn't exist for server " + guild.getName() + "!");
-            return;
-        }
-        final User userToMessage = memberById.getUser();
+        final User userToMessage = member.getUser();
         if (userToMessage == null) {
             LOGGER.warn("User instance for member with ID " + userId +
                     " doesn't exist for server " + guild.getName() + "!");
@@ -146,10 +96,6 @@ public class PokemonTrackingTarget implements TrackingTarget, Comparable<Pokemon
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Sending DM to user with ID " + userId + " for tracked pokemon " + pokemon.getName());
         }
-        try {
-            sendPrivateMessage(userToMessage, message);
-        } catch (Throwable t) {
-            LOGGER.warn("Could not send private message for tracking " + this + ": " + t.getMessage());
-        }
+        trackingNotifier.send(userToMessage, message);
     }
 }
@@ -0,0 +1,174 @@
+package pokeraidbot.domain.tracking;
+
+import org.apache.commons.lang3.Validate;
+import pokeraidbot.Utils;
+import pokeraidbot.domain.gym.CoordinateGrid;
+
+import java.util.Arrays;
+
+/**
+ * An area to track raids in: a circle around a point, or a polygon.
+ *
+ * Written as "lat,lon km" for a circle and "lat,lon lat,lon lat,lon ..." for a polygon, which is also how it's
+ * stored. Circles are limited by their radius, polygons by how many degrees they span.
+ */
+public class TrackingArea {
+    public static final double MAX_RADIUS_IN_KM = 50.0;
+    public static final double MAX_SIZE_IN_DEGREES = 2.0;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    // Zero for a polygon
+    private final double radiusInKm;
+    private final double minLatitude;
+    private final double maxLatitude;
+    private final double minLongitude;
+    private final double maxLongitude;
+
+    private TrackingArea(double[] latitudes, double[] longitudes, double radiusInKm) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.radiusInKm = radiusInKm;
+        if (radiusInKm > 0) {
+            final double latitudeDelta = CoordinateGrid.latitudeDelta(radiusInKm);
+            // A degree of longitude gets shorter going north, so the box gets wider than it is high. Near the
+            // poles it would go around the earth, stop it at the date line.
+            final double longitudeDelta = CoordinateGrid.longitudeDelta(radiusInKm, latitudes[0]);
+            minLatitude = latitudes[0] - latitudeDelta;
+            maxLatitude = latitudes[0] + latitudeDelta;
+            minLongitude = Math.max(-180, longitudes[0] - longitudeDelta);
+            maxLongitude = Math.min(180, longitudes[0] + longitudeDelta);
+        } else {
+            minLatitude = Arrays.stream(latitudes).min().getAsDouble();
+            maxLatitude = Arrays.stream(latitudes).max().getAsDouble();
+            minLongitude = Arrays.stream(longitudes).min().getAsDouble();
+            maxLongitude = Arrays.stream(longitudes).max().getAsDouble();
+            Validate.isTrue(maxLatitude - minLatitude <= MAX_SIZE_IN_DEGREES &&
+                    maxLongitude - minLongitude <= MAX_SIZE_IN_DEGREES, "Area is too large");
+        }
+    }
+
+    public static TrackingArea circle(double latitude, double longitude, double radiusInKm) {
+        assertCoordinates(latitude, longitude);
+        Validate.isTrue(radiusInKm > 0 && radiusInKm <= MAX_RADIUS_IN_KM, "Radius must be between 0 and " +
+                MAX_RADIUS_IN_KM + " km");
+        return new TrackingArea(new double[]{latitude}, new double[]{longitude}, radiusInKm);
+    }
+
+    public static TrackingArea polygon(double[] latitudes, double[] longitudes) {
+        Validate.isTrue(latitudes.length >= 3 && latitudes.length == longitudes.length,
+                "A polygon needs at least three corners");
+        for (int i = 0; i < latitudes.length; i++) {
+            assertCoordinates(latitudes[i], longitudes[i]);
+        }
+        return new TrackingArea(latitudes.clone(), longitudes.clone(), 0);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the area can't be parsed
+     */
+    public static TrackingArea parse(String area) {
+        Validate.notEmpty(area, "Area is empty");
+        final String[] parts = area.trim().split("\\s+");
+        try {
+            if (parts.length == 2 && !parts[1].contains(",")) {
+                final double[] centre = parseCoordinates(parts[0]);
+                return circle(centre[0], centre[1], Double.parseDouble(parts[1]));
+            }
+            final double[] latitudes = new double[parts.length];
+            final double[] longitudes = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                final double[] corner = parseCoordinates(parts[i]);
+                latitudes[i] = corner[0];
+                longitudes[i] = corner[1];
+            }
+            return polygon(latitudes, longitudes);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a valid area: " + area);
+        }
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude ||
+                longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+        if (radiusInKm > 0) {
+            return Utils.distanceInKm(latitudes[0], longitudes[0], latitude, longitude) <= radiusInKm;
+        }
+        // Ray casting, coordinates are treated as a plane which is close enough for areas within a city
+        boolean inside = false;
+        for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+            if ((latitudes[i] > latitude) != (latitudes[j] > latitude) &&
+                    longitude < (longitudes[j] - longitudes[i]) * (latitude - latitudes[i]) /
+                            (latitudes[j] - latitudes[i]) + longitudes[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    public double getMinLatitude() {
+        return minLatitude;
+    }
+
+    public double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public double getMinLongitude() {
+        return minLongitude;
+    }
+
+    public double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    private static double[] parseCoordinates(String coordinates) {
+        final String[] latitudeAndLongitude = coordinates.split(",");
+        if (latitudeAndLongitude.length != 2) {
+            throw new IllegalArgumentException("Not valid coordinates: " + coordinates);
+        }
+        return new double[]{Double.parseDouble(latitudeAndLongitude[0]), Double.parseDouble(latitudeAndLongitude[1])};
+    }
+
+    private static void assertCoordinates(double latitude, double longitude) {
+        Validate.isTrue(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180,
+                "Not valid coordinates: " + latitude + "," + longitude);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TrackingArea)) return false;
+
+        TrackingArea that = (TrackingArea) o;
+
+        if (Double.compare(that.radiusInKm, radiusInKm) != 0) return false;
+        if (!Arrays.equals(latitudes, that.latitudes)) return false;
+        return Arrays.equals(longitudes, that.longitudes);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(latitudes);
+        result = 31 * result + Arrays.hashCode(longitudes);
+        result = 31 * result + Double.hashCode(radiusInKm);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < latitudes.length; i++) {
+            if (i > 0) {
+                sb.append(" ");
+            }
+            sb.append(latitudes[i]).append(",").append(longitudes[i]);
+        }
+        if (radiusInKm > 0) {
+            sb.append(" ").append(radiusInKm);
+        }
+        return sb.toString();
+    }
+}
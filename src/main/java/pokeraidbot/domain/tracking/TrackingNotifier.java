@@ -0,0 +1,210 @@
+package pokeraidbot.domain.tracking;
+
+import net.dv8tion.jda.core.entities.PrivateChannel;
+import net.dv8tion.jda.core.entities.User;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends the private messages for tracked raids.
+ *
+ * Messages for a user that arrive within the coalescing window are sent as one message, so a boss hatching at
+ * several gyms gives each tracker one DM instead of one per gym. DMs are sent in the order they became due, at most
+ * the configured number per second for the whole bot, so tracking doesn't use up the rate limit other bot traffic
+ * needs. Private channels are cached, so a user's channel is only opened once. If too many users are waiting for a
+ * DM, new ones are dropped.
+ */
+public class TrackingNotifier {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrackingNotifier.class);
+    public static final String DMS_QUEUED = "tracking.dms.queued";
+    public static final String DMS_SENT = "tracking.dms.sent";
+    public static final String DMS_COALESCED = "tracking.dms.coalesced";
+    public static final String DMS_DROPPED = "tracking.dms.dropped";
+    public static final String DMS_FAILED = "tracking.dms.failed";
+    static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final long TICK_IN_MILLIS = 100;
+
+    private final long windowInMillis;
+    private final int maxQueuedUsers;
+    private final double dmsPerTick;
+    private final double maxBurst;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, PendingDm> pendingByUserId = new ConcurrentHashMap<>();
+    // Same order as due time, since every user waits for the same window
+    private final Queue<PendingDm> dueOrder = new ConcurrentLinkedQueue<>();
+    private final Map<String, PrivateChannel> privateChannelsByUserId = new ConcurrentHashMap<>();
+    // Only used by the scheduler thread
+    private double budget;
+
+    /**
+     * @param dmsPerSecond   max number of DMs sent per second, for all users together
+     * @param windowInMillis how long to wait for more messages for a user before sending
+     * @param maxQueuedUsers max number of users waiting for a DM
+     */
+    public TrackingNotifier(int dmsPerSecond, long windowInMillis, int maxQueuedUsers) {
+        this(dmsPerSecond, windowInMillis, maxQueuedUsers, System::currentTimeMillis,
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    final Thread thread = new Thread(runnable, "tracking-dm");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    // For tests, which tick it themselves
+    TrackingNotifier(int dmsPerSecond, long windowInMillis, int maxQueuedUsers, LongSupplier clock) {
+        this(dmsPerSecond, windowInMillis, maxQueuedUsers, clock, null);
+    }
+
+    private TrackingNotifier(int dmsPerSecond, long windowInMillis, int maxQueuedUsers, LongSupplier clock,
+                             ScheduledExecutorService scheduler) {
+        Validate.isTrue(dmsPerSecond > 0, "DMs per second must be positive");
+        Validate.isTrue(windowInMillis >= 0, "Coalescing window can't be negative");
+        Validate.isTrue(maxQueuedUsers > 0, "Max queued users must be positive");
+        this.windowInMillis = windowInMillis;
+        this.maxQueuedUsers = maxQueuedUsers;
+        this.dmsPerTick = dmsPerSecond * TICK_IN_MILLIS / 1000.0;
+        this.maxBurst = dmsPerSecond;
+        this.budget = maxBurst;
+        this.clock = clock;
+        this.scheduler = scheduler;
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::sendDueMessages, TICK_IN_MILLIS, TICK_IN_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queues a message for the user, to be sent together with other messages for the user within the window.
+     */
+    public void send(User user, String message) {
+        Validate.notNull(user, "User");
+        Validate.notEmpty(message, "Message");
+        final boolean[] dropped = {false};
+        pendingByUserId.compute(user.getId(), (userId, pending) -> {
+            if (pending != null) {
+                BotMetrics.increment(DMS_COALESCED);
+                // The same raid can be reported more than once, e.g. when it's created and when it hatches
+                if (!pending.messages.contains(message)) {
+                    pending.messages.add(message);
+                }
+                return pending;
+            }
+            if (pendingByUserId.size() >= maxQueuedUsers) {
+                dropped[0] = true;
+                return null;
+            }
+            pending = new PendingDm(user, clock.getAsLong() + windowInMillis);
+            pending.messages.add(message);
+            dueOrder.add(pending);
+            return pending;
+        });
+        if (dropped[0]) {
+            BotMetrics.increment(DMS_DROPPED);
+            LOGGER.warn("Dropped tracking DM to user " + user.getId() + ", too many DMs waiting to be sent.");
+        }
+        BotMetrics.setGauge(DMS_QUEUED, pendingByUserId.size());
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    // One tick, run by the scheduler every TICK_IN_MILLIS
+    void sendDueMessages() {
+        try {
+            budget = Math.min(maxBurst, budget + dmsPerTick);
+            final long now = clock.getAsLong();
+            PendingDm pending;
+            while (budget >= 1 && (pending = dueOrder.peek()) != null && pending.dueAt <= now) {
+                dueOrder.poll();
+                // After this, new messages for the user start a new DM
+                pendingByUserId.remove(pending.user.getId(), pending);
+                for (String content : joinMessages(pending.messages)) {
+                    budget--;
+                    sendPrivateMessage(pending.user, content);
+                }
+            }
+            BotMetrics.setGauge(DMS_QUEUED, pendingByUserId.size());
+        } catch (Throwable t) {
+            LOGGER.warn("Could not send tracking DMs: " + t.getMessage());
+        }
+    }
+
+    // Fewest DMs that fit all messages
+    static List<String> joinMessages(List<String> messages) {
+        List<String> contents = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (String message : messages) {
+            final String messageThatFits = StringUtils.abbreviate(message, MAX_MESSAGE_LENGTH);
+            if (content.length() > 0 && content.length() + 2 + messageThatFits.length() > MAX_MESSAGE_LENGTH) {
+                contents.add(content.toString());
+                content = new StringBuilder();
+            }
+            if (content.length() > 0) {
+                content.append("\n\n");
+            }
+            content.append(messageThatFits);
+        }
+        if (content.length() > 0) {
+            contents.add(content.toString());
+        }
+        return contents;
+    }
+
+    private void sendPrivateMessage(User user, String content) {
+        final PrivateChannel privateChannel = privateChannelsByUserId.get(user.getId());
+        if (privateChannel != null) {
+            sendPrivateMessage(user, privateChannel, content);
+        } else {
+            user.openPrivateChannel().queue(channel -> {
+                privateChannelsByUserId.put(user.getId(), channel);
+                sendPrivateMessage(user, channel, content);
+            }, t -> failed(user, t));
+        }
+    }
+
+    private void sendPrivateMessage(User user, PrivateChannel channel, String content) {
+        try {
+            channel.sendMessage(content).queue(m -> BotMetrics.increment(DMS_SENT), t -> {
+                // The channel may be gone, open a new one next time
+                privateChannelsByUserId.remove(user.getId(), channel);
+                failed(user, t);
+            });
+        } catch (Throwable t) {
+            failed(user, t);
+        }
+    }
+
+    private static void failed(User user, Throwable t) {
+        BotMetrics.increment(DMS_FAILED);
+        LOGGER.warn("Could not send tracking DM to user " + user.getId() + ": " + t.getMessage());
+    }
+
+    private static class PendingDm {
+        private final User user;
+        private final long dueAt;
+        private final List<String> messages = new ArrayList<>();
+
+        private PendingDm(User user, long dueAt) {
+            this.user = user;
+            this.dueAt = dueAt;
+        }
+    }
+}
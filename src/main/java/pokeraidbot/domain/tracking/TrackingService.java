@@ -1,38 +1,60 @@
 package pokeraidbot.domain.tracking;
 
 import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.User;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pokeraidbot.domain.config.LocaleService;
 import pokeraidbot.domain.errors.UserMessedUpException;
+import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.pokemon.Pokemon;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.infrastructure.jpa.config.Config;
 import pokeraidbot.infrastructure.jpa.config.UserConfig;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingAreaSubscription;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingAreaSubscriptionRepository;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingSubscription;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingSubscriptionRepository;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
 
 @Transactional(propagation = Propagation.REQUIRES_NEW)
 public class TrackingService {
     private static final transient Logger LOGGER = LoggerFactory.getLogger(TrackingService.class);
     private final LocaleService localeService;
     private final UserConfigRepository userConfigRepository;
+    private final TrackingSubscriptionRepository trackingSubscriptionRepository;
+    private final TrackingAreaSubscriptionRepository trackingAreaSubscriptionRepository;
     private final PokemonRepository pokemonRepository;
-    private Set<PokemonTrackingTarget> trackingTargets = new ConcurrentSkipListSet<>();
+    private final TrackingNotifier trackingNotifier;
+    // Loaded from the database at startup, or on first use after the cache has been cleared
+    private volatile PokemonTrackingIndex trackingIndex;
+    // Loaded along with the pokemon tracking
+    private volatile AreaTrackingIndex areaTrackingIndex;
 
     public TrackingService(LocaleService localeService,
                            UserConfigRepository userConfigRepository,
-                           PokemonRepository pokemonRepository) {
+                           TrackingSubscriptionRepository trackingSubscriptionRepository,
+                           TrackingAreaSubscriptionRepository trackingAreaSubscriptionRepository,
+                           PokemonRepository pokemonRepository,
+                           TrackingNotifier trackingNotifier) {
         this.localeService = localeService;
         this.userConfigRepository = userConfigRepository;
+        this.trackingSubscriptionRepository = trackingSubscriptionRepository;
+        this.trackingAreaSubscriptionRepository = trackingAreaSubscriptionRepository;
         this.pokemonRepository = pokemonRepository;
+        this.trackingNotifier = trackingNotifier;
     }
 
     public void notifyTrackers(Guild guild, Raid raid, Config configForServer, User user, String rawMessage) {
@@ -40,43 +62,129 @@ public class TrackingService {
         Validate.notNull(raid, "Raid is null");
         Validate.notNull(configForServer, "Config is null");
         Validate.notNull(user, "User is null");
-        final Set<PokemonTrackingTarget> trackingTargets = getTrackingTargets();
-        for (TrackingTarget t : trackingTargets) {
-            if (t.canHandle(configForServer, user, raid, guild)) {
-                try {
-                    t.handle(guild, localeService, configForServer, user, raid, rawMessage);
-                } catch (Throwable e) {
-                    LOGGER.debug("Could not handle tracking message for server " + configForServer.getServer() +
-                            " and target " +
-                            "" + t + " due to an exception: " + e.getMessage());
-                }
+        if (!configForServer.useBotIntegration() && user.isBot()) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("Skipping, since server has no bot integration and message is from a bot.");
+            }
+            return; // Skip bot messages
+        }
+        final Pokemon pokemon = raid.getPokemon();
+        Set<String> userIdsToNotify = new LinkedHashSet<>(getTrackingIndex().getUserIdsTracking(pokemon));
+        final Gym gym = raid.getGym();
+        if (gym != null && raid.getRegion() != null) {
+            try {
+                userIdsToNotify.addAll(getAreaTrackingIndex().getUserIdsTracking(raid.getRegion(),
+                        Double.parseDouble(gym.getX()), Double.parseDouble(gym.getY())));
+            } catch (NumberFormatException e) {
+                LOGGER.debug("Can't match area tracking for gym without coordinates: " + gym.getName());
+            }
+        }
+        for (String userId : userIdsToNotify) {
+            // Skip raids user created, and raids for guilds where user is not a member
+            if (userId.equals(user.getId())) {
+                continue;
+            }
+            final Member member = guild.getMemberById(userId);
+            if (member == null) {
+                continue;
+            }
+            final TrackingTarget t = new PokemonTrackingTarget(userId, pokemon, trackingNotifier);
+            try {
+                t.handle(guild, member, localeService, configForServer, user, raid, rawMessage);
+            } catch (Throwable e) {
+                LOGGER.debug("Could not handle tracking message for server " + configForServer.getServer() +
+                        " and target " +
+                        "" + t + " due to an exception: " + e.getMessage());
             }
         }
     }
 
     public Set<PokemonTrackingTarget> getTrackingTargets() {
-        if (trackingTargets.size() == 0) {
-            // We most likely had a server restart, load saved tracking from database
-            for (UserConfig config : userConfigRepository.findAll()) {
-                if (config.getTracking1() != null) {
-                    trackingTargets.add(new PokemonTrackingTarget(config.getId(),
-                            pokemonRepository.search(config.getTracking1(), null)));
+        return getTrackingIndex().getTrackingTargets();
+    }
+
+    public void loadTracking() {
+        getTrackingIndex();
+    }
+
+    private PokemonTrackingIndex getTrackingIndex() {
+        PokemonTrackingIndex index = trackingIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = trackingIndex;
+                if (index == null) {
+                    areaTrackingIndex = loadAreaTrackingIndex();
+                    index = loadTrackingIndex();
+                    trackingIndex = index;
                 }
-                if (config.getTracking2() != null) {
-                    trackingTargets.add(new PokemonTrackingTarget(config.getId(),
-                            pokemonRepository.search(config.getTracking2(), null)));
+            }
+        }
+        return index;
+    }
+
+    private AreaTrackingIndex getAreaTrackingIndex() {
+        getTrackingIndex();
+        return areaTrackingIndex;
+    }
+
+    private AreaTrackingIndex loadAreaTrackingIndex() {
+        final AreaTrackingIndex index = new AreaTrackingIndex();
+        final List<TrackingAreaSubscription> subscriptions = trackingAreaSubscriptionRepository.findAll();
+        for (TrackingAreaSubscription subscription : subscriptions) {
+            try {
+                index.add(new AreaTracking(subscription.getUserId(), subscription.getRegion(),
+                        TrackingArea.parse(subscription.getArea())));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Skipping area tracking that can't be parsed: " + subscription);
+            }
+        }
+        LOGGER.info("Loaded " + subscriptions.size() + " area trackings.");
+        return index;
+    }
+
+    private PokemonTrackingIndex loadTrackingIndex() {
+        final PokemonTrackingIndex index = new PokemonTrackingIndex();
+        final Map<Integer, Pokemon> pokemonByNumber = new HashMap<>();
+        for (Pokemon pokemon : pokemonRepository.getAll()) {
+            pokemonByNumber.put(pokemon.getNumber(), pokemon);
+        }
+        final List<TrackingSubscription> subscriptions = trackingSubscriptionRepository.findAll();
+        for (TrackingSubscription subscription : subscriptions) {
+            final Pokemon pokemon = pokemonByNumber.get(subscription.getPokemonNumber());
+            if (pokemon != null) {
+                index.add(subscription.getUserId(), pokemon);
+            } else {
+                LOGGER.warn("Skipping tracking for unknown pokemon number: " + subscription);
+            }
+        }
+        moveTrackingColumnsToSubscriptions(index);
+        LOGGER.info("Loaded " + subscriptions.size() + " pokemon trackings.");
+        return index;
+    }
+
+    // Tracking used to be kept in three columns of the user config, move any left there to their own table
+    private void moveTrackingColumnsToSubscriptions(PokemonTrackingIndex index) {
+        for (UserConfig config : userConfigRepository.findWithTrackingColumns()) {
+            for (String tracking : new String[]{config.getTracking1(), config.getTracking2(),
+                    config.getTracking3()}) {
+                if (tracking == null) {
+                    continue;
                 }
-                if (config.getTracking3() != null) {
-                    trackingTargets.add(new PokemonTrackingTarget(config.getId(),
-                            pokemonRepository.search(config.getTracking3(), null)));
+                final Pokemon pokemon = pokemonRepository.getByName(tracking);
+                if (pokemon == null) {
+                    LOGGER.warn("Dropping tracking for unknown pokemon " + tracking + " for user " + config.getId());
+                } else if (index.add(config.getId(), pokemon)) {
+                    trackingSubscriptionRepository.save(new TrackingSubscription(config.getId(),
+                            pokemon.getNumber()));
                 }
             }
+            config.clearTrackingColumns();
+            userConfigRepository.save(config);
         }
-        return trackingTargets;
     }
 
     public void clearCache() {
-        trackingTargets = new ConcurrentSkipListSet<>();
+        trackingIndex = null;
     }
 
     public void add(Pokemon pokemon, User user, Config config) {
@@ -84,54 +192,76 @@ public class TrackingService {
         Validate.notNull(user, "User");
         Validate.notNull(config, "Config");
 
-        PokemonTrackingTarget trackingTarget = new PokemonTrackingTarget(user.getId(), pokemon);
-        if (getTrackingTargets().contains(trackingTarget)) {
+        if (getTrackingIndex().contains(user.getId(), pokemon)) {
+            throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.TRACKING_EXISTS,
+                    localeService.getLocaleForUser(user)));
+        }
+        createUserConfigIfMissing(user, config);
+        try {
+            trackingSubscriptionRepository.save(new TrackingSubscription(user.getId(), pokemon.getNumber()));
+        } catch (DataIntegrityViolationException e) {
+            // Saved by a command running at the same time, so it's tracked after all
+            getTrackingIndex().add(user.getId(), pokemon);
             throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.TRACKING_EXISTS,
                     localeService.getLocaleForUser(user)));
         }
-        addToDbAndCollection(trackingTarget, user, config);
+        getTrackingIndex().add(user.getId(), pokemon);
     }
 
-    private void addToDbAndCollection(PokemonTrackingTarget trackingTarget, User user, Config config) {
-        UserConfig userConfig = userConfigRepository.findOne(user.getId());
-        if (userConfig != null) {
-            if (userConfig.hasFreeTrackingSpot()) {
-                userConfig.setNextTrackingSpot(trackingTarget.getPokemon());
-            } else {
-                throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.TRACKING_NONE_FREE,
-                        localeService.getLocaleForUser(user)));
-            }
-        } else {
+    public void addArea(TrackingArea area, User user, Config config) {
+        Validate.notNull(area, "Area");
+        Validate.notNull(user, "User");
+        Validate.notNull(config, "Config");
+
+        final AreaTracking tracking = new AreaTracking(user.getId(), config.getRegion(), area);
+        if (getAreaTrackingIndex().getAreasTrackedBy(user.getId()).contains(tracking)) {
+            throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.TRACKING_EXISTS,
+                    localeService.getLocaleForUser(user)));
+        }
+        createUserConfigIfMissing(user, config);
+        trackingAreaSubscriptionRepository.save(new TrackingAreaSubscription(user.getId(), config.getRegion(),
+                area.toString()));
+        getAreaTrackingIndex().add(tracking);
+    }
+
+    private void createUserConfigIfMissing(User user, Config config) {
+        if (!userConfigRepository.exists(user.getId())) {
             // Per default, let user have the same locale as the server
-            userConfig = new UserConfig(user.getId(), trackingTarget.getPokemon(), null, null,
-                    config.getLocale());
+            userConfigRepository.save(new UserConfig(user.getId(), null, null, null, config.getLocale()));
+            localeService.invalidateLocaleForUser(user.getId());
         }
-        userConfigRepository.save(userConfig);
-        trackingTargets.add(trackingTarget);
     }
 
-    public void removeForUser(PokemonTrackingTarget trackingTarget, User user) {
-        if (!getTrackingTargets().contains(trackingTarget)) {
+    public void removeAreasForUser(User user) {
+        final Set<AreaTracking> areas = getAreaTrackingIndex().getAreasTrackedBy(user.getId());
+        if (areas.isEmpty()) {
             throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.TRACKING_NOT_EXISTS,
                     localeService.getLocaleForUser(user)));
         }
-        removeFromDbAndCollection(trackingTarget, user);
+        trackingAreaSubscriptionRepository.deleteByUserId(user.getId());
+        for (AreaTracking area : areas) {
+            getAreaTrackingIndex().remove(area);
+        }
     }
 
-    private void removeFromDbAndCollection(PokemonTrackingTarget trackingTarget, User user) {
-        UserConfig userConfig = userConfigRepository.findOne(user.getId());
-        if (userConfig != null) {
-            userConfig.removeTrackingFor(trackingTarget.getPokemon());
-            userConfigRepository.save(userConfig);
+    public void removeForUser(PokemonTrackingTarget trackingTarget, User user) {
+        if (!getTrackingIndex().contains(trackingTarget.getUserId(), trackingTarget.getPokemon())) {
+            throw new UserMessedUpException(user, localeService.getMessageFor(LocaleService.TRACKING_NOT_EXISTS,
+                    localeService.getLocaleForUser(user)));
         }
-        trackingTargets.remove(trackingTarget);
+        trackingSubscriptionRepository.deleteByUserIdAndPokemonNumber(trackingTarget.getUserId(),
+                trackingTarget.getPokemon().getNumber());
+        getTrackingIndex().remove(trackingTarget.getUserId(), trackingTarget.getPokemon());
     }
 
     public void removeAllForUser(User user) {
-        trackingTargets.forEach(t -> {
-            if (t.getUserId().equals(user.getId())) {
-                removeForUser(t, user);
-            }
-        });
+        trackingSubscriptionRepository.deleteByUserId(user.getId());
+        for (Pokemon pokemon : getTrackingIndex().getPokemonTrackedBy(user.getId())) {
+            getTrackingIndex().remove(user.getId(), pokemon);
+        }
+        trackingAreaSubscriptionRepository.deleteByUserId(user.getId());
+        for (AreaTracking area : getAreaTrackingIndex().getAreasTrackedBy(user.getId())) {
+            getAreaTrackingIndex().remove(area);
+        }
     }
 }
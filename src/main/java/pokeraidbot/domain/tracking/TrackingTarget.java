@@ -1,12 +1,13 @@
 package pokeraidbot.domain.tracking;
 
 import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.User;
 import pokeraidbot.domain.config.LocaleService;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.infrastructure.jpa.config.Config;
 
 public interface TrackingTarget {
-    boolean canHandle(Config config, User user, Raid raid, Guild guild);
-    void handle(Guild guild, LocaleService localeService, Config config, User user, Raid raid, String inputMessage);
+    void handle(Guild guild, Member member, LocaleService localeService, Config config, User user, Raid raid,
+                String inputMessage);
 }
@@ -0,0 +1,92 @@
+package pokeraidbot.infrastructure;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simple in-process metrics: counters, gauges and timers, identified by name. Listed by the bot creator via
+ * !raid admin metrics.
+ */
+public class BotMetrics {
+    private static final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private BotMetrics() {
+    }
+
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    public static void add(String name, long delta) {
+        counters.computeIfAbsent(name, n -> new AtomicLong()).addAndGet(delta);
+    }
+
+    public static void setGauge(String name, long value) {
+        gauges.computeIfAbsent(name, n -> new AtomicLong()).set(value);
+    }
+
+    public static void recordTime(String name, long millis) {
+        timers.computeIfAbsent(name, n -> new Timer()).record(millis);
+    }
+
+    public static long getCount(String name) {
+        final AtomicLong counter = counters.get(name);
+        return counter == null ? 0 : counter.get();
+    }
+
+    public static long getGauge(String name) {
+        final AtomicLong gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.get();
+    }
+
+    public static Map<String, String> snapshot() {
+        Map<String, String> snapshot = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> counter : counters.entrySet()) {
+            snapshot.put(counter.getKey(), String.valueOf(counter.getValue().get()));
+        }
+        for (Map.Entry<String, AtomicLong> gauge : gauges.entrySet()) {
+            snapshot.put(gauge.getKey(), String.valueOf(gauge.getValue().get()));
+        }
+        for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+            snapshot.put(timer.getKey(), timer.getValue().toString());
+        }
+        return snapshot;
+    }
+
+    public static String print() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> metric : snapshot().entrySet()) {
+            sb.append(metric.getKey()).append(": ").append(metric.getValue()).append("\n");
+        }
+        return sb.length() == 0 ? "-" : sb.toString();
+    }
+
+    public static void reset() {
+        counters.clear();
+        gauges.clear();
+        timers.clear();
+    }
+
+    private static class Timer {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        private void record(long millis) {
+            count.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        @Override
+        public String toString() {
+            final long n = count.get();
+            return "count=" + n + ", avg=" + (n == 0 ? 0 : totalMillis.get() / n) + " ms, max=" +
+                    maxMillis.get() + " ms";
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package pokeraidbot.infrastructure;
+
+import net.dv8tion.jda.core.entities.MessageEmbed;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pokeraidbot.Utils;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs the periodic refreshes of messages the bot keeps up to date (raid overviews and raid groups) on a few shared
+ * threads, instead of one thread per message sleeping between refreshes.
+ *
+ * Each refresh is rescheduled after it has run, at its period plus/minus some jitter so refreshes created at the
+ * same time spread out. After failures the delay doubles for each failure in a row, up to a max back off, until the
+ * task reports success again. A refresh stops when its task returns false, throws something that isn't a network
+ * issue, or is cancelled.
+ *
+ * Tasks can skip edits that wouldn't change anything but the time of update, see
+ * {@link ScheduledRefresh#needsEdit(int)}. Something that knows the message has changed can have it refreshed before
+ * its period is up, see {@link ScheduledRefresh#refreshSoon(long)}.
+ */
+public class MessageRefreshScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageRefreshScheduler.class);
+    public static final String ACTIVE_REFRESHES = "refresh.active";
+    public static final String REFRESH_RUNS = "refresh.runs";
+    public static final String REFRESH_FAILURES = "refresh.failures";
+    public static final String REFRESH_TIME = "refresh.time";
+    public static final String EDITS = "refresh.edits";
+    public static final String EDITS_SKIPPED = "refresh.edits.skipped";
+    public static final String EDITS_SKIPPED_PERCENT = "refresh.edits.skippedPercent";
+
+    private final ScheduledExecutorService scheduler;
+    private final LongSupplier clock;
+    private final double jitter;
+    private final long maxBackOffInMillis;
+    private final long maxUnchangedInMillis;
+    private final Set<ScheduledRefresh> activeRefreshes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param threads              number of threads running refreshes
+     * @param jitter               fraction of the period each delay is randomly changed by, 0.1 means +/- 10%
+     * @param maxBackOffInMillis   longest delay after repeated failures
+     * @param maxUnchangedInMillis longest time an unchanged message is left without edit, so its time of update
+     *                             doesn't get too old
+     */
+    public MessageRefreshScheduler(int threads, double jitter, long maxBackOffInMillis, long maxUnchangedInMillis) {
+        this(createExecutor(threads), System::currentTimeMillis, jitter, maxBackOffInMillis, maxUnchangedInMillis);
+    }
+
+    // Tests run the refreshes on a manual executor and clock
+    MessageRefreshScheduler(ScheduledExecutorService scheduler, LongSupplier clock, double jitter,
+                            long maxBackOffInMillis, long maxUnchangedInMillis) {
+        Validate.isTrue(jitter >= 0 && jitter < 1, "Jitter must be at least 0 and less than 1");
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.jitter = jitter;
+        this.maxBackOffInMillis = maxBackOffInMillis;
+        this.maxUnchangedInMillis = maxUnchangedInMillis;
+    }
+
+    private static ScheduledExecutorService createExecutor(int threads) {
+        Validate.isTrue(threads > 0, "Need at least one thread");
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "message-refresh-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return Executors.unconfigurableScheduledExecutorService(executor);
+    }
+
+    /**
+     * Schedules a refresh, first run after one period.
+     */
+    public ScheduledRefresh schedule(String description, long period, TimeUnit timeUnit, RefreshTask task) {
+        Validate.isTrue(period > 0, "Period must be positive");
+        final ScheduledRefresh refresh = new ScheduledRefresh(description, timeUnit.toMillis(period), task);
+        activeRefreshes.add(refresh);
+        BotMetrics.setGauge(ACTIVE_REFRESHES, activeRefreshes.size());
+        refresh.scheduleNext();
+        return refresh;
+    }
+
+    /**
+     * @return longest time in whole minutes between edits of a message, what we tell users about how up to date it is
+     */
+    public long getMaxUnchangedInMinutes() {
+        return Math.max(1, (maxUnchangedInMillis + TimeUnit.MINUTES.toMillis(1) - 1) / TimeUnit.MINUTES.toMillis(1));
+    }
+
+    public int getNumberOfActiveRefreshes() {
+        return activeRefreshes.size();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Hash of what an embed shows, except its footer where we put the time of update.
+     */
+    public static int contentHashIgnoringFooter(MessageEmbed embed) {
+        int hash = Objects.hash(embed.getTitle(), embed.getUrl(), embed.getDescription());
+        final MessageEmbed.AuthorInfo author = embed.getAuthor();
+        if (author != null) {
+            hash = 31 * hash + Objects.hash(author.getName(), author.getIconUrl());
+        }
+        final List<MessageEmbed.Field> fields = embed.getFields();
+        if (fields != null) {
+            for (MessageEmbed.Field field : fields) {
+                hash = 31 * hash + Objects.hash(field.getName(), field.getValue(), field.isInline());
+            }
+        }
+        return hash;
+    }
+
+    private static void updateSkippedPercent() {
+        final long edits = BotMetrics.getCount(EDITS);
+        final long skipped = BotMetrics.getCount(EDITS_SKIPPED);
+        BotMetrics.setGauge(EDITS_SKIPPED_PERCENT, skipped * 100 / Math.max(1, edits + skipped));
+    }
+
+    public interface RefreshTask {
+        /**
+         * @param refresh this task's refresh, to report how asynchronous work went or cancel it
+         * @return true to keep refreshing, false to stop
+         */
+        boolean refresh(ScheduledRefresh refresh) throws Exception;
+    }
+
+    public class ScheduledRefresh {
+        private final String description;
+        private final long periodInMillis;
+        private final RefreshTask task;
+        private final AtomicInteger failuresInARow = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile ScheduledFuture<?> nextRun;
+        private boolean running = false;
+        private long requestedDelayInMillis = -1;
+        private final List<Runnable> cancelListeners = new CopyOnWriteArrayList<>();
+        private volatile boolean edited = false;
+        private volatile int lastEditedContentHash;
+        private volatile long lastEditedAt;
+
+        private ScheduledRefresh(String description, long periodInMillis, RefreshTask task) {
+            this.description = description;
+            this.periodInMillis = periodInMillis;
+            this.task = task;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            final ScheduledFuture<?> run = nextRun;
+            if (run != null) {
+                run.cancel(false);
+            }
+            if (activeRefreshes.remove(this)) {
+                BotMetrics.setGauge(ACTIVE_REFRESHES, activeRefreshes.size());
+                for (Runnable cancelListener : cancelListeners) {
+                    cancelListener.run();
+                }
+            }
+        }
+
+        /**
+         * @param cancelListener run once when this refresh stops, for example to stop listening for changes
+         */
+        public void onCancel(Runnable cancelListener) {
+            // Both cancel() and this method can see the listener when they race, only the first one runs it
+            final AtomicBoolean ran = new AtomicBoolean();
+            final Runnable runOnce = () -> {
+                if (ran.compareAndSet(false, true)) {
+                    cancelListener.run();
+                }
+            };
+            cancelListeners.add(runOnce);
+            if (cancelled && !activeRefreshes.contains(this)) {
+                runOnce.run();
+            }
+        }
+
+        /**
+         * Runs the refresh within the given delay, unless it's due sooner anyway. Calling this many times during
+         * the delay still only gives one refresh, so changes coming in bursts are refreshed together.
+         */
+        public synchronized void refreshSoon(long delayInMillis) {
+            if (cancelled) {
+                return;
+            }
+            if (running) {
+                // Reschedule with this delay, when the current run is done
+                if (requestedDelayInMillis < 0 || delayInMillis < requestedDelayInMillis) {
+                    requestedDelayInMillis = delayInMillis;
+                }
+                return;
+            }
+            final ScheduledFuture<?> run = nextRun;
+            if (run != null && (run.getDelay(TimeUnit.MILLISECONDS) <= delayInMillis || !run.cancel(false))) {
+                return;
+            }
+            schedule(delayInMillis);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Backs off the following refreshes, until success is reported.
+         */
+        public void failed() {
+            failuresInARow.incrementAndGet();
+            BotMetrics.increment(REFRESH_FAILURES);
+        }
+
+        public void succeeded() {
+            failuresInARow.set(0);
+        }
+
+        /**
+         * @param contentHash hash of the new message content, without the time of update
+         * @return false if the content is the same as in the last edit, and that edit won't be too old by the next
+         * refresh
+         */
+        public boolean needsEdit(int contentHash) {
+            // Edit now if waiting for the next run would leave the time of update older than promised
+            final long longestDelay = periodInMillis + (long) (periodInMillis * jitter);
+            final boolean needsEdit = !edited || contentHash != lastEditedContentHash ||
+                    clock.getAsLong() - lastEditedAt + longestDelay >= maxUnchangedInMillis;
+            if (!needsEdit) {
+                BotMetrics.increment(EDITS_SKIPPED);
+                updateSkippedPercent();
+            }
+            return needsEdit;
+        }
+
+        /**
+         * Reports a successful edit of the message to content with this hash.
+         */
+        public void edited(int contentHash) {
+            lastEditedContentHash = contentHash;
+            lastEditedAt = clock.getAsLong();
+            edited = true;
+            BotMetrics.increment(EDITS);
+            updateSkippedPercent();
+            succeeded();
+        }
+
+        long nextDelayInMillis() {
+            final int failures = Math.min(failuresInARow.get(), 20);
+            long delay = periodInMillis;
+            if (failures > 0) {
+                delay = Math.min(periodInMillis << failures, Math.max(periodInMillis, maxBackOffInMillis));
+            }
+            final long maxJitter = (long) (delay * jitter);
+            if (maxJitter > 0) {
+                delay += ThreadLocalRandom.current().nextLong(-maxJitter, maxJitter + 1);
+            }
+            return Math.max(1, delay);
+        }
+
+        private synchronized void scheduleNext() {
+            running = false;
+            long delay = nextDelayInMillis();
+            if (requestedDelayInMillis >= 0) {
+                delay = Math.min(delay, requestedDelayInMillis);
+                requestedDelayInMillis = -1;
+            }
+            schedule(delay);
+        }
+
+        // Caller holds the lock
+        private void schedule(long delayInMillis) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                nextRun = scheduler.schedule(this::run, delayInMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Scheduler is shut down, not refreshing " + description + " any more.");
+                cancel();
+            }
+        }
+
+        private void run() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                running = true;
+            }
+            final long start = clock.getAsLong();
+            boolean keepRefreshing;
+            try {
+                keepRefreshing = task.refresh(this);
+            } catch (Throwable t) {
+                if (Utils.isExceptionOrCauseNetworkIssues(t)) {
+                    LOGGER.info("Network issue when refreshing " + description + ", backing off and trying " +
+                            "again later: " + t.getMessage());
+                    failed();
+                    keepRefreshing = true;
+                } else {
+                    LOGGER.warn(t.getClass().getSimpleName() + " when refreshing " + description +
+                            ", so stopping to refresh it: " + t.getMessage());
+                    keepRefreshing = false;
+                }
+            } finally {
+                BotMetrics.increment(REFRESH_RUNS);
+                BotMetrics.recordTime(REFRESH_TIME, clock.getAsLong() - start);
+            }
+            if (keepRefreshing) {
+                scheduleNext();
+            } else {
+                cancel();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "ScheduledRefresh{" +
+                    "description='" + description + '\'' +
+                    ", periodInMillis=" + periodInMillis +
+                    ", failuresInARow=" + failuresInARow +
+                    ", cancelled=" + cancelled +
+                    '}';
+        }
+    }
+}
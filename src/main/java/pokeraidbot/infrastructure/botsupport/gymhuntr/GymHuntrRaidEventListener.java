@@ -18,6 +18,7 @@ import pokeraidbot.Utils;
 import pokeraidbot.commands.NewRaidGroupCommand;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.Pokemon;
@@ -27,7 +28,6 @@ import pokeraidbot.domain.raid.PokemonRaidStrategyService;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -41,7 +41,7 @@ import static pokeraidbot.Utils.*;
 public class GymHuntrRaidEventListener implements EventListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(GymHuntrRaidEventListener.class);
 
-    private ServerConfigRepository serverConfigRepository;
+    private ServerConfigService serverConfigService;
     private RaidRepository raidRepository;
     private GymRepository gymRepository;
     private PokemonRepository pokemonRepository;
@@ -51,12 +51,12 @@ public class GymHuntrRaidEventListener implements EventListener {
     private final BotService botService;
     private final PokemonRaidStrategyService strategyService;
 
-    public GymHuntrRaidEventListener(ServerConfigRepository serverConfigRepository, RaidRepository raidRepository,
+    public GymHuntrRaidEventListener(ServerConfigService serverConfigService, RaidRepository raidRepository,
                                      GymRepository gymRepository, PokemonRepository pokemonRepository,
                                      LocaleService localeService, ExecutorService executorService,
                                      ClockService clockService, BotService botService,
                                      PokemonRaidStrategyService strategyService) {
-        this.serverConfigRepository = serverConfigRepository;
+        this.serverConfigService = serverConfigService;
         this.raidRepository = raidRepository;
         this.gymRepository = gymRepository;
         this.pokemonRepository = pokemonRepository;
@@ -74,8 +74,7 @@ public class GymHuntrRaidEventListener implements EventListener {
             final User messageAuthor = guildEvent.getAuthor();
             try {
                 if (isUserGymhuntrBot(messageAuthor) || isUserPokeAlarmBot(messageAuthor)) {
-                    final String serverName = guildEvent.getGuild().getName().toLowerCase();
-                    final Config config = serverConfigRepository.getConfigForServer(serverName);
+                    final Config config = serverConfigService.getConfigForGuild(guildEvent.getGuild());
                     if (config == null) {
                         LOGGER.warn("Server configuration is null for this guild: " + guildEvent.getGuild().getName());
                         return;
@@ -256,7 +255,7 @@ public class GymHuntrRaidEventListener implements EventListener {
                 try {
                     NewRaidGroupCommand.createRaidGroup(channelToCreateGroupIn, guildEvent.getGuild(), config, user,
                             config.getLocale(), groupStart, createdRaid.getId(), localeService, raidRepository,
-                            botService, serverConfigRepository, pokemonRepository, gymRepository,
+                            botService, serverConfigService, pokemonRepository, gymRepository,
                             clockService, executorService, strategyService);
                 } catch (Throwable t) {
                     LOGGER.warn("Could not create raid group for server " + config.getServer() + " and raid " +
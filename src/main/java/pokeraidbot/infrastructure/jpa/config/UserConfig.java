@@ -138,31 +138,10 @@ public class UserConfig {
                 '}';
     }
 
-    public boolean hasFreeTrackingSpot() {
-        return tracking1 == null || tracking2 == null || tracking3 == null;
-    }
-
-    // Yes, having a set number of tracked pokemons is yucky.
-    // However, we want to keep down the number of rows and size of the database due to Heroku limitations.
-    public void setNextTrackingSpot(Pokemon pokemon) {
-        if (tracking1 == null) {
-            setTracking1(pokemon);
-        } else if (tracking2 == null) {
-            setTracking2(pokemon);
-        } else if (tracking3 == null) {
-            setTracking3(pokemon);
-        } else {
-            throw new RuntimeException("No free pokemon tracking spots (3 spots available in total).");
-        }
-    }
-
-    public void removeTrackingFor(Pokemon pokemon) {
-        if (tracking1 != null && tracking1.equalsIgnoreCase(pokemon.getName())) {
-            tracking1 = null;
-        } else if (tracking2 != null && tracking2.equalsIgnoreCase(pokemon.getName())) {
-            tracking2 = null;
-        } else if (tracking3 != null && tracking3.equalsIgnoreCase(pokemon.getName())) {
-            tracking3 = null;
-        }
+    // Tracking is kept as TrackingSubscriptions now, these columns are only read to move old tracking over
+    public void clearTrackingColumns() {
+        tracking1 = null;
+        tracking2 = null;
+        tracking3 = null;
     }
 }
@@ -1,9 +1,16 @@
 package pokeraidbot.infrastructure.jpa.config;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Transactional(propagation = Propagation.REQUIRES_NEW)
 public interface UserConfigRepository extends JpaRepository<UserConfig, String> {
+    // Tracking from before it got its own table, see TrackingSubscription
+    @Query(value = "select u from UserConfig u where u.tracking1 is not null or u.tracking2 is not null " +
+            "or u.tracking3 is not null")
+    List<UserConfig> findWithTrackingColumns();
 }
@@ -0,0 +1,283 @@
+package pokeraidbot.infrastructure.jpa.raid;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Write-through raid store. All active raids are kept in memory, indexed by raid ID, region and gym, and reads are
+ * served from there. Writes go to the database first and then update the indexes.
+ *
+ * Callers always get copies, so they can mutate what they get without affecting the cached state until they save.
+ * Saving a copy that is older than the cached raid fails fast with an optimistic locking failure, the database
+ * version check catches the rest. If the surrounding transaction rolls back, the raids it changed are restored to
+ * what they were before, unless another transaction has written them since.
+ */
+public class InMemoryRaidStore implements RaidStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryRaidStore.class);
+
+    private static final Comparator<RaidEntity> BY_END_OF_RAID = Comparator.comparing(RaidEntity::getEndOfRaid);
+    private static final Comparator<RaidEntity> BY_POKEMON_AND_END_OF_RAID =
+            Comparator.comparing(RaidEntity::getPokemon).thenComparing(RaidEntity::getEndOfRaid);
+
+    private final RaidEntityRepository raidEntityRepository;
+    private final Map<String, RaidEntity> raidsById = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> raidIdsByRegion = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> raidIdsByRegionAndGym = new ConcurrentHashMap<>();
+
+    public InMemoryRaidStore(RaidEntityRepository raidEntityRepository) {
+        this.raidEntityRepository = raidEntityRepository;
+        final List<RaidEntity> raids = raidEntityRepository.findAll();
+        for (RaidEntity raid : raids) {
+            index(raid.copy());
+        }
+        LOGGER.info("Loaded " + raids.size() + " raids into memory.");
+    }
+
+    @Override
+    public RaidEntity findById(String id) {
+        return copyOf(raidsById.get(id));
+    }
+
+    @Override
+    public List<RaidEntity> findByGymAndRegion(String gym, String region) {
+        return copiesOf(raidIdsByRegionAndGym.get(regionAndGymKey(region, gym)), BY_END_OF_RAID);
+    }
+
+    @Override
+    public List<RaidEntity> findByPokemonAndRegion(String pokemon, String region) {
+        final List<RaidEntity> raids = copiesOf(raidIdsByRegion.get(region), BY_END_OF_RAID);
+        raids.removeIf(raid -> !raid.getPokemon().equals(pokemon));
+        return raids;
+    }
+
+    @Override
+    public List<RaidEntity> findByRegion(String region) {
+        return copiesOf(raidIdsByRegion.get(region), BY_POKEMON_AND_END_OF_RAID);
+    }
+
+    @Override
+    public List<RaidEntity> findActiveByRegion(String region, LocalDateTime now) {
+        final List<RaidEntity> raids = findByRegion(region);
+        raids.removeIf(raid -> raid.getEndOfRaid().isBefore(now));
+        return raids;
+    }
+
+    @Override
+    public List<RaidEntity> findActiveByGymsAndRegion(Collection<String> gyms, String region, LocalDateTime now) {
+        Set<String> raidIds = new HashSet<>();
+        for (String gym : gyms) {
+            final Set<String> raidIdsAtGym = raidIdsByRegionAndGym.get(regionAndGymKey(region, gym));
+            if (raidIdsAtGym != null) {
+                raidIds.addAll(raidIdsAtGym);
+            }
+        }
+        final List<RaidEntity> raids = copiesOf(raidIds, BY_END_OF_RAID);
+        raids.removeIf(raid -> raid.getEndOfRaid().isBefore(now));
+        return raids;
+    }
+
+    @Override
+    public List<RaidEntity> findAll() {
+        return copiesOf(raidsById.keySet(), BY_END_OF_RAID);
+    }
+
+    @Override
+    public RaidEntity save(RaidEntity raidEntity) {
+        Validate.notNull(raidEntity, "Raid");
+        final RaidEntity current = raidsById.get(raidEntity.getId());
+        if (current != null && isOlder(raidEntity, current)) {
+            throw new ObjectOptimisticLockingFailureException(RaidEntity.class, raidEntity.getId());
+        }
+        // Flush, so the version we cache is the one the database will have
+        final RaidEntity saved = raidEntityRepository.saveAndFlush(raidEntity);
+        final RaidEntity cached = saved.copy();
+        synchronized (this) {
+            rememberForRollback(cached.getId(), cached);
+            replace(raidsById.get(cached.getId()), cached);
+        }
+        return cached.copy();
+    }
+
+    @Override
+    public void delete(RaidEntity raidEntity) {
+        Validate.notNull(raidEntity, "Raid");
+        raidEntityRepository.delete(raidEntity);
+        synchronized (this) {
+            rememberForRollback(raidEntity.getId(), null);
+            final RaidEntity previous = raidsById.get(raidEntity.getId());
+            if (previous != null) {
+                unindex(previous);
+            }
+        }
+    }
+
+    @Override
+    public List<RaidGroup> findGroupsForServer(String server) {
+        List<RaidGroup> groups = new ArrayList<>();
+        for (RaidEntity raid : raidsById.values()) {
+            for (RaidGroup group : raid.getGroupsAsSet()) {
+                if (group.getServer().equals(server)) {
+                    groups.add(group.copy(raid.getId()));
+                }
+            }
+        }
+        return groups;
+    }
+
+    @Override
+    public boolean existsActiveRaidAt(String gym, String region, LocalDateTime now, boolean includeExRaids) {
+        final Set<String> raidIds = raidIdsByRegionAndGym.get(regionAndGymKey(region, gym));
+        if (raidIds == null) {
+            return false;
+        }
+        for (String raidId : raidIds) {
+            final RaidEntity raid = raidsById.get(raidId);
+            if (raid != null && !raid.getEndOfRaid().isBefore(now) && (includeExRaids || !raid.isExRaid())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int deleteRaidsEndedBefore(LocalDateTime now) {
+        raidEntityRepository.deleteSignUpsForRaidsEndedBefore(now);
+        raidEntityRepository.deleteGroupsForRaidsEndedBefore(now);
+        final int deleted = raidEntityRepository.deleteRaidsEndedBefore(now);
+        synchronized (this) {
+            for (RaidEntity raid : new ArrayList<>(raidsById.values())) {
+                if (raid.getEndOfRaid().isBefore(now)) {
+                    rememberForRollback(raid.getId(), null);
+                    unindex(raid);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private void index(RaidEntity raid) {
+        raidsById.put(raid.getId(), raid);
+        raidIdsByRegion.computeIfAbsent(raid.getRegion(), region -> ConcurrentHashMap.newKeySet())
+                .add(raid.getId());
+        raidIdsByRegionAndGym.computeIfAbsent(regionAndGymKey(raid.getRegion(), raid.getGym()),
+                key -> ConcurrentHashMap.newKeySet()).add(raid.getId());
+    }
+
+    // Readers don't lock, so the raid must stay findable while it is being swapped for its new state
+    private void replace(RaidEntity previous, RaidEntity replacement) {
+        index(replacement);
+        if (previous == null) {
+            return;
+        }
+        if (!previous.getRegion().equals(replacement.getRegion())) {
+            removeFromIndex(raidIdsByRegion, previous.getRegion(), previous.getId());
+        }
+        final String previousKey = regionAndGymKey(previous.getRegion(), previous.getGym());
+        if (!previousKey.equals(regionAndGymKey(replacement.getRegion(), replacement.getGym()))) {
+            removeFromIndex(raidIdsByRegionAndGym, previousKey, previous.getId());
+        }
+    }
+
+    private void unindex(RaidEntity raid) {
+        raidsById.remove(raid.getId());
+        removeFromIndex(raidIdsByRegion, raid.getRegion(), raid.getId());
+        removeFromIndex(raidIdsByRegionAndGym, regionAndGymKey(raid.getRegion(), raid.getGym()), raid.getId());
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> index, String key, String raidId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(raidId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static boolean isOlder(RaidEntity raid, RaidEntity than) {
+        return raid.getVersion() != null && than.getVersion() != null && raid.getVersion() < than.getVersion();
+    }
+
+    private static String regionAndGymKey(String region, String gym) {
+        return region + "\n" + gym;
+    }
+
+    private static RaidEntity copyOf(RaidEntity raid) {
+        return raid == null ? null : raid.copy();
+    }
+
+    private List<RaidEntity> copiesOf(Collection<String> raidIds, Comparator<RaidEntity> order) {
+        if (raidIds == null) {
+            return new ArrayList<>();
+        }
+        return raidIds.stream().map(raidsById::get).filter(Objects::nonNull).map(RaidEntity::copy)
+                .sorted(order).collect(Collectors.toList());
+    }
+
+    // Keeps the state a raid had before the current transaction touched it, so it can be put back on rollback
+    private void rememberForRollback(String raidId, RaidEntity written) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Undo> undo = (Map<String, Undo>) TransactionSynchronizationManager.getResource(this);
+        if (undo == null) {
+            final Map<String, Undo> undoForTransaction = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, undoForTransaction);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(InMemoryRaidStore.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(InMemoryRaidStore.this, undoForTransaction);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryRaidStore.this);
+                    if (status != STATUS_COMMITTED) {
+                        restore(undoForTransaction);
+                    }
+                }
+            });
+            undo = undoForTransaction;
+        }
+        undo.computeIfAbsent(raidId, id -> new Undo(raidsById.get(id))).written = written;
+    }
+
+    private synchronized void restore(Map<String, Undo> undo) {
+        for (Map.Entry<String, Undo> entry : undo.entrySet()) {
+            final RaidEntity current = raidsById.get(entry.getKey());
+            if (current != entry.getValue().written) {
+                // Someone else has written this raid after us, keep what they wrote
+                continue;
+            }
+            if (entry.getValue().before != null) {
+                replace(current, entry.getValue().before);
+            } else if (current != null) {
+                unindex(current);
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Transaction did not commit, restored raids in memory: " + undo.keySet());
+        }
+    }
+
+    private static class Undo {
+        private final RaidEntity before;
+        private RaidEntity written;
+
+        private Undo(RaidEntity before) {
+            this.before = before;
+        }
+    }
+}
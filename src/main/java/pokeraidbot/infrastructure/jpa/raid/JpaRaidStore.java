@@ -0,0 +1,88 @@
+package pokeraidbot.infrastructure.jpa.raid;
+
+import pokeraidbot.Utils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Raid store that goes straight to the database for every read and write.
+ */
+public class JpaRaidStore implements RaidStore {
+    private final RaidEntityRepository raidEntityRepository;
+
+    public JpaRaidStore(RaidEntityRepository raidEntityRepository) {
+        this.raidEntityRepository = raidEntityRepository;
+    }
+
+    @Override
+    public RaidEntity findById(String id) {
+        return raidEntityRepository.findOne(id);
+    }
+
+    @Override
+    public List<RaidEntity> findByGymAndRegion(String gym, String region) {
+        return raidEntityRepository.findByGymAndRegionOrderByEndOfRaidAsc(gym, region);
+    }
+
+    @Override
+    public List<RaidEntity> findByPokemonAndRegion(String pokemon, String region) {
+        return raidEntityRepository.findByPokemonAndRegionOrderByEndOfRaidAsc(pokemon, region);
+    }
+
+    @Override
+    public List<RaidEntity> findByRegion(String region) {
+        return raidEntityRepository.findByRegionOrderByPokemonAscEndOfRaidAsc(region);
+    }
+
+    @Override
+    public List<RaidEntity> findActiveByRegion(String region, LocalDateTime now) {
+        return raidEntityRepository.findActiveByRegionWithSignUpsAndGroups(region, now);
+    }
+
+    @Override
+    public List<RaidEntity> findActiveByGymsAndRegion(Collection<String> gyms, String region, LocalDateTime now) {
+        if (gyms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return raidEntityRepository.findActiveByGymInAndRegion(gyms, region, now);
+    }
+
+    @Override
+    public List<RaidEntity> findAll() {
+        return raidEntityRepository.findAll();
+    }
+
+    @Override
+    public RaidEntity save(RaidEntity raidEntity) {
+        return raidEntityRepository.saveAndFlush(raidEntity);
+    }
+
+    @Override
+    public void delete(RaidEntity raidEntity) {
+        raidEntityRepository.delete(raidEntity);
+    }
+
+    @Override
+    public List<RaidGroup> findGroupsForServer(String server) {
+        return raidEntityRepository.findGroupsForServer(server);
+    }
+
+    @Override
+    public boolean existsActiveRaidAt(String gym, String region, LocalDateTime now, boolean includeExRaids) {
+        if (includeExRaids) {
+            return raidEntityRepository.countActiveRaidsAt(gym, region, now) > 0;
+        } else {
+            return raidEntityRepository.countActiveNonExRaidsAt(gym, region, now, Utils.EX_RAID_BOSS) > 0;
+        }
+    }
+
+    @Override
+    public int deleteRaidsEndedBefore(LocalDateTime now) {
+        raidEntityRepository.deleteSignUpsForRaidsEndedBefore(now);
+        raidEntityRepository.deleteGroupsForRaidsEndedBefore(now);
+        return raidEntityRepository.deleteRaidsEndedBefore(now);
+    }
+}
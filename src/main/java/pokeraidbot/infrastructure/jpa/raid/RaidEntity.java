@@ -19,7 +19,7 @@ import static pokeraidbot.Utils.getStartOfRaid;
 
 @Entity
 @Table(indexes = {@Index(name = "id", columnList = "id"), @Index(name = "region", columnList = "region"),
-        @Index(name = "pokemon", columnList = "pokemon,region")}
+        @Index(name = "pokemon", columnList = "pokemon,region"), @Index(name = "gym", columnList = "gym,region")}
 ) // todo: uniqueconstraint that creator can only have one signup per id
 public class RaidEntity implements Serializable {
     @Id
@@ -48,6 +48,9 @@ public class RaidEntity implements Serializable {
     @JoinColumn(name = "raidid", referencedColumnName = "id")
     @BatchSize(size = 5)
     private Set<RaidGroup> groups = new HashSet<>();
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
 
     // JPA
     protected RaidEntity() {
@@ -62,6 +65,25 @@ public class RaidEntity implements Serializable {
         this.region = region;
     }
 
+    /**
+     * Detached copy of this raid, including sign ups and groups, with the same IDs.
+     */
+    public RaidEntity copy() {
+        final RaidEntity copy = new RaidEntity(id, pokemon, endOfRaid, gym, creator, region);
+        copy.version = version;
+        for (RaidEntitySignUp signUp : signUps) {
+            copy.signUps.add(signUp.copy());
+        }
+        for (RaidGroup group : groups) {
+            copy.groups.add(group.copy(id));
+        }
+        return copy;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     public String getCreator() {
         return creator;
     }
@@ -1,10 +1,13 @@
 package pokeraidbot.infrastructure.jpa.raid;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,6 +16,35 @@ public interface RaidEntityRepository extends JpaRepository<RaidEntity, String>
     List<RaidEntity> findByPokemonAndRegionOrderByEndOfRaidAsc(String pokemon, String region);
     List<RaidEntity> findByRegionOrderByPokemonAscEndOfRaidAsc(String region);
     List<RaidEntity> findByRegion(String region);
+    @Query(value = "select distinct r from RaidEntity r left join fetch r.signUps left join fetch r.groups " +
+            "where r.region=:region and r.endOfRaid >= :now order by r.pokemon asc, r.endOfRaid asc")
+    List<RaidEntity> findActiveByRegionWithSignUpsAndGroups(@Param("region") String region,
+                                                            @Param("now") LocalDateTime now);
+    @Query(value = "select r from RaidEntity r where r.region=:region and r.gym in :gyms and r.endOfRaid >= :now " +
+            "order by r.endOfRaid asc")
+    List<RaidEntity> findActiveByGymInAndRegion(@Param("gyms") Collection<String> gyms,
+                                                @Param("region") String region,
+                                                @Param("now") LocalDateTime now);
     @Query(value = "select distinct g from RaidGroup g where g.server=:server")
     List<RaidGroup> findGroupsForServer(@Param("server") String server);
+    @Query(value = "select count(r) from RaidEntity r where r.gym=:gym and r.region=:region and r.endOfRaid >= :now")
+    long countActiveRaidsAt(@Param("gym") String gym, @Param("region") String region,
+                            @Param("now") LocalDateTime now);
+    @Query(value = "select count(r) from RaidEntity r where r.gym=:gym and r.region=:region and r.endOfRaid >= :now " +
+            "and upper(r.pokemon) <> upper(:exRaidPokemon)")
+    long countActiveNonExRaidsAt(@Param("gym") String gym, @Param("region") String region,
+                                 @Param("now") LocalDateTime now, @Param("exRaidPokemon") String exRaidPokemon);
+
+    // Bulk deletes bypass cascades, so sign ups and groups for ended raids have to be removed before the raids
+    @Modifying
+    @Query(value = "delete from RaidEntitySignUp s where s.raidId in " +
+            "(select r.id from RaidEntity r where r.endOfRaid < :now)")
+    int deleteSignUpsForRaidsEndedBefore(@Param("now") LocalDateTime now);
+    @Modifying
+    @Query(value = "delete from RaidGroup g where g.raidId in " +
+            "(select r.id from RaidEntity r where r.endOfRaid < :now)")
+    int deleteGroupsForRaidsEndedBefore(@Param("now") LocalDateTime now);
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from RaidEntity r where r.endOfRaid < :now")
+    int deleteRaidsEndedBefore(@Param("now") LocalDateTime now);
 }
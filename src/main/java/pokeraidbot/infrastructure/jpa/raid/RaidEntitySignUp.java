@@ -21,6 +21,12 @@ public class RaidEntitySignUp implements Serializable {
     private Integer numberOfPeople;
     @Column(nullable = false)
     private String eta;
+    // Owned by the join column in RaidEntity, only mapped here so bulk deletes can refer to it
+    @Column(name = "raid", insertable = false, updatable = false)
+    private String raidId;
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
 
     // JPA
     protected RaidEntitySignUp() {
@@ -33,6 +39,14 @@ public class RaidEntitySignUp implements Serializable {
         this.eta = eta;
     }
 
+    public RaidEntitySignUp copy() {
+        final RaidEntitySignUp copy = new RaidEntitySignUp(responsible, numberOfPeople, eta);
+        copy.id = id;
+        copy.raidId = raidId;
+        copy.version = version;
+        return copy;
+    }
+
     public String getResponsible() {
         return responsible;
     }
@@ -47,6 +47,19 @@ public class RaidGroup implements Serializable, Comparable<RaidGroup> {
         setStartsAt(startsAt);
     }
 
+    public RaidGroup copy(String raidId) {
+        final RaidGroup copy = new RaidGroup();
+        copy.id = id;
+        copy.server = server;
+        copy.channel = channel;
+        copy.infoMessageId = infoMessageId;
+        copy.emoteMessageId = emoteMessageId;
+        copy.creator = creator;
+        copy.raidId = raidId;
+        copy.startsAt = startsAt;
+        return copy;
+    }
+
     public String getId() {
         return id;
     }
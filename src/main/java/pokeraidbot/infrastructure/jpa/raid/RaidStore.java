@@ -0,0 +1,66 @@
+package pokeraidbot.infrastructure.jpa.raid;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage for raids, as seen by the RaidRepository. Either goes straight to the database (JPA mode) or serves reads
+ * from memory and writes through to the database (MEMORY mode). Which one is used is set via the raidStoreMode
+ * property.
+ */
+public interface RaidStore {
+    enum Mode {
+        JPA, MEMORY
+    }
+
+    RaidEntity findById(String id);
+
+    List<RaidEntity> findByGymAndRegion(String gym, String region);
+
+    List<RaidEntity> findByPokemonAndRegion(String pokemon, String region);
+
+    List<RaidEntity> findByRegion(String region);
+
+    /**
+     * Raids in the region that haven't ended yet, ordered by pokemon and end of raid, with sign ups and groups
+     * fetched in the same round trip. Used to render raid overviews and lists.
+     */
+    List<RaidEntity> findActiveByRegion(String region, LocalDateTime now);
+
+    /**
+     * Raids at any of the gyms in the region that haven't ended yet, ordered by end of raid.
+     */
+    List<RaidEntity> findActiveByGymsAndRegion(Collection<String> gyms, String region, LocalDateTime now);
+
+    List<RaidEntity> findAll();
+
+    RaidEntity save(RaidEntity raidEntity);
+
+    void delete(RaidEntity raidEntity);
+
+    List<RaidGroup> findGroupsForServer(String server);
+
+    /**
+     * Checks if there is a raid at the gym that hasn't ended yet, without loading it.
+     * @param includeExRaids if false, only normal raids are considered
+     */
+    boolean existsActiveRaidAt(String gym, String region, LocalDateTime now, boolean includeExRaids);
+
+    /**
+     * Removes all raids that ended before the given time, along with their sign ups and groups.
+     * @return number of raids removed
+     */
+    int deleteRaidsEndedBefore(LocalDateTime now);
+
+    static RaidStore create(Mode mode, RaidEntityRepository raidEntityRepository) {
+        switch (mode) {
+            case JPA:
+                return new JpaRaidStore(raidEntityRepository);
+            case MEMORY:
+                return new InMemoryRaidStore(raidEntityRepository);
+            default:
+                throw new IllegalArgumentException("Unknown raid store mode: " + mode);
+        }
+    }
+}
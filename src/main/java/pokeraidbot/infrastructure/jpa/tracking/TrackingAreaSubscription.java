@@ -0,0 +1,75 @@
+package pokeraidbot.infrastructure.jpa.tracking;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.persistence.*;
+import java.util.UUID;
+
+@Entity
+@Table(indexes = {@Index(name = "idx_tracking_area_subscription_user", columnList = "userId")})
+public class TrackingAreaSubscription {
+    @Id
+    @Column(nullable = false)
+    private String id;
+    @Column(nullable = false)
+    private String userId;
+    @Column(nullable = false)
+    private String region;
+    // See TrackingArea for the format
+    @Column(nullable = false, length = 2000)
+    private String area;
+
+    // JPA
+    protected TrackingAreaSubscription() {
+    }
+
+    public TrackingAreaSubscription(String userId, String region, String area) {
+        Validate.notEmpty(userId, "User ID is empty!");
+        Validate.notEmpty(region, "Region is empty!");
+        Validate.notEmpty(area, "Area is empty!");
+        id = UUID.randomUUID().toString();
+        this.userId = userId;
+        this.region = region;
+        this.area = area;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getArea() {
+        return area;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TrackingAreaSubscription)) return false;
+
+        TrackingAreaSubscription that = (TrackingAreaSubscription) o;
+
+        return id != null ? id.equals(that.id) : that.id == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TrackingAreaSubscription{" +
+                "userId='" + userId + '\'' +
+                ", region='" + region + '\'' +
+                ", area='" + area + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package pokeraidbot.infrastructure.jpa.tracking;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public interface TrackingAreaSubscriptionRepository extends JpaRepository<TrackingAreaSubscription, String> {
+    List<TrackingAreaSubscription> findByUserId(String userId);
+    @Modifying
+    @Query(value = "delete from TrackingAreaSubscription s where s.userId=:userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
@@ -0,0 +1,67 @@
+package pokeraidbot.infrastructure.jpa.tracking;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.persistence.*;
+import java.util.UUID;
+
+@Entity
+@Table(indexes = {@Index(name = "idx_tracking_subscription_pokemon", columnList = "pokemonNumber"),
+        @Index(name = "idx_tracking_subscription_user", columnList = "userId")},
+        uniqueConstraints = @UniqueConstraint(columnNames = {"userId", "pokemonNumber"}))
+public class TrackingSubscription {
+    @Id
+    @Column(nullable = false)
+    private String id;
+    @Column(nullable = false)
+    private String userId;
+    @Column(nullable = false)
+    private Integer pokemonNumber;
+
+    // JPA
+    protected TrackingSubscription() {
+    }
+
+    public TrackingSubscription(String userId, Integer pokemonNumber) {
+        Validate.notEmpty(userId, "User ID is empty!");
+        Validate.notNull(pokemonNumber, "Pokemon number is null!");
+        id = UUID.randomUUID().toString();
+        this.userId = userId;
+        this.pokemonNumber = pokemonNumber;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Integer getPokemonNumber() {
+        return pokemonNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TrackingSubscription)) return false;
+
+        TrackingSubscription that = (TrackingSubscription) o;
+
+        return id != null ? id.equals(that.id) : that.id == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TrackingSubscription{" +
+                "userId='" + userId + '\'' +
+                ", pokemonNumber=" + pokemonNumber +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package pokeraidbot.infrastructure.jpa.tracking;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public interface TrackingSubscriptionRepository extends JpaRepository<TrackingSubscription, String> {
+    @Modifying
+    @Query(value = "delete from TrackingSubscription s where s.userId=:userId and s.pokemonNumber=:pokemonNumber")
+    int deleteByUserIdAndPokemonNumber(@Param("userId") String userId, @Param("pokemonNumber") Integer pokemonNumber);
+    @Modifying
+    @Query(value = "delete from TrackingSubscription s where s.userId=:userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
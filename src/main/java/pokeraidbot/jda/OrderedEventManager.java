@@ -0,0 +1,105 @@
+package pokeraidbot.jda;
+
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.MessageChannel;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.core.events.message.GenericMessageEvent;
+import net.dv8tion.jda.core.hooks.InterfacedEventManager;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands JDA events to a few worker threads, so listeners doing database work don't hold up JDA's websocket thread
+ * and with it the events of every other server.
+ *
+ * Events are spread over stripes by server (by channel for private messages), each with one thread and a bounded
+ * queue, so events from a server are still handled in the order they came in. Events that don't belong to a server
+ * all go to the first stripe. If a stripe's queue is full, the event is dropped.
+ */
+public class OrderedEventManager extends InterfacedEventManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderedEventManager.class);
+    public static final String EVENTS_QUEUED = "events.queued";
+    public static final String EVENTS_WAIT = "events.wait";
+    public static final String EVENTS_HANDLE_TIME = "events.handleTime";
+    public static final String EVENTS_REJECTED = "events.rejected";
+
+    private final ExecutorService[] stripes;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public OrderedEventManager(int numberOfStripes, int queueCapacityPerStripe) {
+        Validate.isTrue(numberOfStripes > 0, "Number of stripes must be positive");
+        Validate.isTrue(queueCapacityPerStripe > 0, "Queue capacity must be positive");
+        this.stripes = new ExecutorService[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            final String threadName = "event-handler-" + i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacityPerStripe), runnable -> {
+                final Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void handle(Event event) {
+        final long queuedAt = System.currentTimeMillis();
+        BotMetrics.setGauge(EVENTS_QUEUED, queued.incrementAndGet());
+        try {
+            stripeFor(orderingKey(event)).execute(() -> {
+                BotMetrics.setGauge(EVENTS_QUEUED, queued.decrementAndGet());
+                final long startedAt = System.currentTimeMillis();
+                BotMetrics.recordTime(EVENTS_WAIT, startedAt - queuedAt);
+                // Calls every listener, catching and logging what they throw
+                super.handle(event);
+                BotMetrics.recordTime(EVENTS_HANDLE_TIME, System.currentTimeMillis() - startedAt);
+            });
+        } catch (RejectedExecutionException e) {
+            BotMetrics.setGauge(EVENTS_QUEUED, queued.decrementAndGet());
+            BotMetrics.increment(EVENTS_REJECTED);
+            LOGGER.warn("Dropped " + event.getClass().getSimpleName() + ", too many events waiting to be handled.");
+        }
+    }
+
+    public void shutdown() {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    private ExecutorService stripeFor(String orderingKey) {
+        if (orderingKey == null) {
+            return stripes[0];
+        }
+        return stripes[(orderingKey.hashCode() & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    // Events with the same key are handled in order, null if the event doesn't belong to a server or channel
+    static String orderingKey(Event event) {
+        Guild guild = null;
+        MessageChannel channel = null;
+        if (event instanceof GenericGuildEvent) {
+            guild = ((GenericGuildEvent) event).getGuild();
+        } else if (event instanceof GenericMessageEvent) {
+            guild = ((GenericMessageEvent) event).getGuild();
+            channel = ((GenericMessageEvent) event).getChannel();
+        }
+        if (guild != null) {
+            return guild.getId();
+        } else if (channel != null) {
+            return channel.getId();
+        } else {
+            return null;
+        }
+    }
+}
@@ -16,49 +16,41 @@ import pokeraidbot.commands.NewRaidGroupCommand;
 import pokeraidbot.commands.RaidOverviewCommand;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.PokemonRepository;
-import pokeraidbot.domain.raid.PokemonRaidStrategyService;
 import pokeraidbot.domain.raid.Raid;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.domain.raid.signup.EmoticonSignUpMessageListener;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.raid.RaidGroup;
 
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class StartUpEventListener implements EventListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(StartUpEventListener.class);
-    private ServerConfigRepository serverConfigRepository;
+    private ServerConfigService serverConfigService;
     private final RaidRepository raidRepository;
     private final LocaleService localeService;
     private final ClockService clockService;
-    private final ExecutorService executorService;
     private final BotService botService;
     private final GymRepository gymRepository;
     private final PokemonRepository pokemonRepository;
-    private final PokemonRaidStrategyService pokemonRaidStrategyService;
 
-    public StartUpEventListener(ServerConfigRepository serverConfigRepository,
+    public StartUpEventListener(ServerConfigService serverConfigService,
                                 RaidRepository raidRepository, LocaleService localeService,
-                                ClockService clockService, ExecutorService executorService, BotService botService,
-                                GymRepository gymRepository, PokemonRepository pokemonRepository,
-                                PokemonRaidStrategyService pokemonRaidStrategyService) {
-        this.serverConfigRepository = serverConfigRepository;
+                                ClockService clockService, BotService botService,
+                                GymRepository gymRepository, PokemonRepository pokemonRepository) {
+        this.serverConfigService = serverConfigService;
         this.raidRepository = raidRepository;
         this.localeService = localeService;
         this.clockService = clockService;
-        this.executorService = executorService;
         this.botService = botService;
         this.gymRepository = gymRepository;
         this.pokemonRepository = pokemonRepository;
-        this.pokemonRaidStrategyService = pokemonRaidStrategyService;
     }
 
     @Override
@@ -66,13 +58,12 @@ public class StartUpEventListener implements EventListener {
         if (event instanceof ReadyEvent) {
             final List<Guild> guilds = event.getJDA().getGuilds();
             for (Guild guild : guilds) {
-                Config config = serverConfigRepository.getConfigForServer(guild.getName().trim().toLowerCase());
+                Config config = serverConfigService.getConfigForGuild(guild);
                 if (config != null) {
                     final String messageId = config.getOverviewMessageId();
                     if (!StringUtils.isEmpty(messageId)) {
                         for (MessageChannel channel : guild.getTextChannels()) {
-                            if (attachToOverviewMessageIfExists(guild, config, messageId, channel,
-                                    pokemonRaidStrategyService)) {
+                            if (attachToOverviewMessageIfExists(guild, config, messageId, channel)) {
                                 break;
                             } else {
                                 if (LOGGER.isDebugEnabled()) {
@@ -105,20 +96,16 @@ public class StartUpEventListener implements EventListener {
             final Locale locale = config.getLocale();
             Raid raid = raidRepository.getById(raidGroup.getRaidId());
             final EmoticonSignUpMessageListener emoticonSignUpMessageListener =
-                    new EmoticonSignUpMessageListener(botService, localeService, serverConfigRepository,
+                    new EmoticonSignUpMessageListener(botService, localeService, serverConfigService,
                             raidRepository, pokemonRepository, gymRepository, raid.getId(), raidGroup.getStartsAt(),
                             raidGroup.getCreatorId());
             emoticonSignUpMessageListener.setEmoteMessageId(raidGroup.getEmoteMessageId());
             emoticonSignUpMessageListener.setInfoMessageId(raidGroup.getInfoMessageId());
             final int delayTime = raid.isExRaid() ? 1 : 15;
             final TimeUnit delayTimeUnit = raid.isExRaid() ? TimeUnit.MINUTES : TimeUnit.SECONDS;
-            final Callable<Boolean> groupEditTask =
-                    NewRaidGroupCommand.getMessageRefreshingTaskToSchedule(channel, raid,
-                            emoticonSignUpMessageListener,
-                            raidGroup.getInfoMessageId(), locale, raidRepository,
-                            localeService,
-                            clockService, executorService, botService, delayTimeUnit, delayTime, raidGroup.getId());
-            executorService.submit(groupEditTask);
+            NewRaidGroupCommand.scheduleMessageRefresh(channel, raid, emoticonSignUpMessageListener,
+                    raidGroup.getInfoMessageId(), locale, raidRepository, localeService, clockService, botService,
+                    delayTimeUnit, delayTime, raidGroup.getId());
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Found group message for raid " + raid + " in channel " +
                         (channel == null ? "N/A" : channel.getName()) +
@@ -158,16 +145,13 @@ public class StartUpEventListener implements EventListener {
     }
 
     private boolean attachToOverviewMessageIfExists(Guild guild, Config config, String messageId,
-                                                    MessageChannel channel, PokemonRaidStrategyService raidStrategyService) {
+                                                    MessageChannel channel) {
         try {
             if (channel.getMessageById(messageId).complete() != null) {
                 final Locale locale = config.getLocale();
-                final Callable<Boolean> overviewTask =
-                        RaidOverviewCommand.getMessageRefreshingTaskToSchedule(
-                                null, config.getServer(), messageId, localeService, locale, serverConfigRepository,
-                                raidRepository, clockService, channel,
-                                executorService, raidStrategyService);
-                executorService.submit(overviewTask);
+                RaidOverviewCommand.scheduleOverviewRefresh(botService.getMessageRefreshScheduler(),
+                        botService.getRaidOverviewSnapshots(), config.getServer(), messageId, localeService, locale,
+                        serverConfigService, raidRepository, clockService, channel);
                 LOGGER.info("Found overview message for channel " + channel.getName() +
                         " (server " + guild.getName() + "). Attaching to it.");
                 return true;
@@ -13,11 +13,11 @@ import org.slf4j.LoggerFactory;
 import pokeraidbot.BotService;
 import pokeraidbot.commands.ConfigAwareCommand;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
 import pokeraidbot.domain.emote.Emotes;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.RaidRepository;
 import pokeraidbot.infrastructure.jpa.config.Config;
-import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 
 import java.util.concurrent.TimeUnit;
 
@@ -26,16 +26,16 @@ public class UnsignWithMinusCommandListener implements EventListener {
 
     private final RaidRepository raidRepository;
     private final PokemonRepository pokemonRepository;
-    private final ServerConfigRepository serverConfigRepository;
+    private final ServerConfigService serverConfigService;
     private final BotService botService;
     private final LocaleService localeService;
 
     public UnsignWithMinusCommandListener(RaidRepository raidRepository, PokemonRepository pokemonRepository,
-                                          ServerConfigRepository serverConfigRepository, BotService botService,
+                                          ServerConfigService serverConfigService, BotService botService,
                                           LocaleService localeService) {
         this.raidRepository = raidRepository;
         this.pokemonRepository = pokemonRepository;
-        this.serverConfigRepository = serverConfigRepository;
+        this.serverConfigService = serverConfigService;
         this.botService = botService;
         this.localeService = localeService;
     }
@@ -69,8 +69,7 @@ public class UnsignWithMinusCommandListener implements EventListener {
             LOGGER.debug("Trying to remove " + numberOfPeopleArgument + " from raid, gym " +
                     StringUtils.join(gymArgument, " "));
         }
-        final String guild = guildMessageReceivedEvent.getGuild().getName().trim().toLowerCase();
-        final Config configForServer = serverConfigRepository.getConfigForServer(guild);
+        final Config configForServer = serverConfigService.getConfigForGuild(guildMessageReceivedEvent.getGuild());
         final User user = guildMessageReceivedEvent.getAuthor();
         String message;
         try {
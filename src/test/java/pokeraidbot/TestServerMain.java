@@ -3,11 +3,13 @@ package pokeraidbot;
 import net.dv8tion.jda.core.exceptions.RateLimitedException;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
@@ -16,12 +18,16 @@ import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.PokemonRaidStrategyService;
 import pokeraidbot.domain.raid.RaidRepository;
+import pokeraidbot.domain.tracking.TrackingNotifier;
 import pokeraidbot.domain.tracking.TrackingService;
 import pokeraidbot.infrastructure.CSVGymDataReader;
 import pokeraidbot.infrastructure.jpa.config.Config;
 import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingAreaSubscriptionRepository;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingSubscriptionRepository;
 import pokeraidbot.infrastructure.jpa.raid.RaidEntityRepository;
+import pokeraidbot.infrastructure.jpa.raid.RaidStore;
 
 import javax.annotation.PostConstruct;
 import javax.security.auth.login.LoginException;
@@ -93,12 +99,20 @@ public class TestServerMain {
         return new GymRepository(gymsPerRegion, localeService);
     }
 
-    @Bean
+    @Bean(initMethod = "loadTracking")
     public TrackingService getTrackingService(LocaleService localeService,
                                               UserConfigRepository userConfigRepository,
-                                              PokemonRepository pokemonRepository) {
-        return new TrackingService(localeService, userConfigRepository,
-                pokemonRepository);
+                                              TrackingSubscriptionRepository trackingSubscriptionRepository,
+                                              TrackingAreaSubscriptionRepository areaSubscriptionRepository,
+                                              PokemonRepository pokemonRepository,
+                                              TrackingNotifier trackingNotifier) {
+        return new TrackingService(localeService, userConfigRepository, trackingSubscriptionRepository,
+                areaSubscriptionRepository, pokemonRepository, trackingNotifier);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public TrackingNotifier getTrackingNotifier() {
+        return new TrackingNotifier(5, 0, 20000);
     }
 
     @Bean
@@ -117,10 +131,17 @@ public class TestServerMain {
     }
 
     @Bean
-    public RaidRepository getRaidRepository(LocaleService localeService, RaidEntityRepository entityRepository,
+    public RaidStore getRaidStore(RaidEntityRepository entityRepository,
+                                  @Value("${raidStoreMode:memory}") String raidStoreMode) {
+        return RaidStore.create(RaidStore.Mode.valueOf(raidStoreMode.toUpperCase()), entityRepository);
+    }
+
+    @Bean
+    public RaidRepository getRaidRepository(LocaleService localeService, RaidStore raidStore,
                                             PokemonRepository pokemonRepository, GymRepository gymRepository,
-                                            ClockService clockService, TrackingService trackingService) {
-        return new RaidRepository(clockService, localeService, entityRepository, pokemonRepository, gymRepository,
-                trackingService);
+                                            ClockService clockService, TrackingService trackingService,
+                                            PlatformTransactionManager transactionManager) {
+        return new RaidRepository(clockService, localeService, raidStore, pokemonRepository, gymRepository,
+                trackingService, transactionManager);
     }
 }
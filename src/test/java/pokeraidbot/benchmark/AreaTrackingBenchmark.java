@@ -0,0 +1,103 @@
+package pokeraidbot.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pokeraidbot.domain.tracking.AreaTracking;
+import pokeraidbot.domain.tracking.AreaTrackingIndex;
+import pokeraidbot.domain.tracking.TrackingArea;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching a new raid's gym against the area trackings of its region, checking every area versus checking the
+ * areas in the gym's cell of the index. Areas are circles and polygons of up to a few km, spread over a region of
+ * roughly 40 x 40 km.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=pokeraidbot.benchmark.AreaTrackingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AreaTrackingBenchmark {
+    private static final String REGION = "uppsala";
+    private static final double MIN_LATITUDE = 59.67;
+    private static final double MIN_LONGITUDE = 17.3;
+    private static final double SIZE_IN_DEGREES = 0.36;
+    private static final int NUMBER_OF_GYMS = 64;
+
+    @Param({"1000", "10000"})
+    public int numberOfAreas;
+
+    private List<AreaTracking> trackings;
+    private AreaTrackingIndex index;
+    private double[][] gyms;
+    private int nextGym = 0;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        trackings = new ArrayList<>(numberOfAreas);
+        index = new AreaTrackingIndex();
+        for (int i = 0; i < numberOfAreas; i++) {
+            final double latitude = MIN_LATITUDE + random.nextDouble() * SIZE_IN_DEGREES;
+            final double longitude = MIN_LONGITUDE + random.nextDouble() * SIZE_IN_DEGREES;
+            final TrackingArea area;
+            if (random.nextBoolean()) {
+                area = TrackingArea.circle(latitude, longitude, 0.5 + random.nextDouble() * 3);
+            } else {
+                final int corners = 3 + random.nextInt(6);
+                final double[] latitudes = new double[corners];
+                final double[] longitudes = new double[corners];
+                for (int corner = 0; corner < corners; corner++) {
+                    final double angle = 2 * Math.PI * corner / corners;
+                    final double radius = 0.005 + random.nextDouble() * 0.03;
+                    latitudes[corner] = latitude + radius * Math.sin(angle);
+                    longitudes[corner] = longitude + 2 * radius * Math.cos(angle);
+                }
+                area = TrackingArea.polygon(latitudes, longitudes);
+            }
+            final AreaTracking tracking = new AreaTracking(String.valueOf(i), REGION, area);
+            trackings.add(tracking);
+            index.add(tracking);
+        }
+        gyms = new double[NUMBER_OF_GYMS][];
+        for (int i = 0; i < NUMBER_OF_GYMS; i++) {
+            gyms[i] = new double[]{MIN_LATITUDE + random.nextDouble() * SIZE_IN_DEGREES,
+                    MIN_LONGITUDE + random.nextDouble() * SIZE_IN_DEGREES};
+        }
+    }
+
+    @Benchmark
+    public Set<String> checkAllAreas() {
+        final double[] gym = nextGym();
+        Set<String> userIds = new LinkedHashSet<>();
+        for (AreaTracking tracking : trackings) {
+            if (tracking.getArea().contains(gym[0], gym[1])) {
+                userIds.add(tracking.getUserId());
+            }
+        }
+        return userIds;
+    }
+
+    @Benchmark
+    public Set<String> lookUpIndex() {
+        final double[] gym = nextGym();
+        return index.getUserIdsTracking(REGION, gym[0], gym[1]);
+    }
+
+    private double[] nextGym() {
+        nextGym = (nextGym + 1) % NUMBER_OF_GYMS;
+        return gyms[nextGym];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AreaTrackingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+package pokeraidbot.benchmark;
+
+import me.xdrop.fuzzywuzzy.model.ExtractedResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pokeraidbot.domain.gym.GymSearchIndex;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static me.xdrop.fuzzywuzzy.FuzzySearch.extractTop;
+
+/**
+ * Fuzzy gym search for a misspelled gym name, scoring all names in the region versus scoring the candidates from
+ * the trigram index.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=pokeraidbot.benchmark.GymSearchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GymSearchBenchmark {
+    private static final String[] WORDS = {"kyrka", "park", "staty", "torget", "bron", "skolan", "fontän", "stenen",
+            "konst", "muralen", "tornet", "lekplats", "kapell", "minnessten", "paviljong", "museum", "station",
+            "gamla", "norra", "södra", "stora", "lilla", "östra", "västra", "sankt", "eriks", "olof", "gränd",
+            "hästen", "fågel", "vattentorn", "ängen", "backen", "allén", "kvarnen", "slottet"};
+    private static final int NUMBER_OF_QUERIES = 64;
+
+    @Param({"500", "5000", "50000"})
+    public int numberOfGyms;
+
+    private List<String> names;
+    private GymSearchIndex searchIndex;
+    private String[] queries;
+    private int nextQuery = 0;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        Set<String> uniqueNames = new LinkedHashSet<>();
+        while (uniqueNames.size() < numberOfGyms) {
+            final int numberOfWords = 1 + random.nextInt(3);
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < numberOfWords; i++) {
+                final String word = WORDS[random.nextInt(WORDS.length)];
+                name.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+            }
+            name.append(" ").append(random.nextInt(numberOfGyms));
+            uniqueNames.add(name.toString());
+        }
+        names = new ArrayList<>(uniqueNames);
+        searchIndex = new GymSearchIndex(names);
+        queries = new String[NUMBER_OF_QUERIES];
+        for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+            final String name = names.get(random.nextInt(names.size())).toLowerCase();
+            final int typoAt = random.nextInt(name.length());
+            queries[i] = name.substring(0, typoAt) + "x" + name.substring(typoAt + 1);
+        }
+    }
+
+    @Benchmark
+    public List<ExtractedResult> scoreAllNames() {
+        return extractTop(nextQuery(), names, 6, 70);
+    }
+
+    @Benchmark
+    public List<ExtractedResult> scoreIndexCandidates() {
+        return searchIndex.extractTopMatches(nextQuery(), 6, 70);
+    }
+
+    private String nextQuery() {
+        nextQuery = (nextQuery + 1) % NUMBER_OF_QUERIES;
+        return queries[nextQuery];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GymSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
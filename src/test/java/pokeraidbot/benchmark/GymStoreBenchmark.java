@@ -0,0 +1,157 @@
+package pokeraidbot.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pokeraidbot.domain.gym.CompactGymStore;
+import pokeraidbot.domain.gym.Gym;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up a gym by name and by ID in a region, in hash maps of Gym objects like regions used to be kept versus in
+ * the compact gym store, which creates the Gym object for each lookup. See GymStoreHeapUsage for the memory side.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=pokeraidbot.benchmark.GymStoreBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GymStoreBenchmark {
+    private static final String[] WORDS = {"kyrka", "park", "staty", "torget", "bron", "skolan", "fontän", "stenen",
+            "konst", "muralen", "tornet", "lekplats", "kapell", "minnessten", "paviljong", "museum", "station",
+            "gamla", "norra", "södra", "stora", "lilla", "östra", "västra", "sankt", "eriks", "olof", "gränd",
+            "hästen", "fågel", "vattentorn", "ängen", "backen", "allén", "kvarnen", "slottet"};
+    private static final String[] AREAS = {"Uppsala", "Stockholm", "Göteborg", "Malmö", "Umeå", "Luleå", "Gävle",
+            "Norrköping", "Linköping", "Örebro", "Västerås", "Helsingborg", "Jönköping", "Lund", "Borås",
+            "Sundsvall"};
+    private static final int NUMBER_OF_QUERIES = 64;
+
+    @Param({"10000", "100000"})
+    public int numberOfGyms;
+
+    private HashMapGyms hashMapGyms;
+    private CompactGymStore store;
+    private String[] names;
+    private String[] ids;
+    private int nextQuery = 0;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final Set<Gym> gyms = randomGyms(numberOfGyms, random);
+        hashMapGyms = new HashMapGyms(gyms);
+        store = new CompactGymStore(gyms);
+        final List<Gym> gymList = new ArrayList<>(gyms);
+        names = new String[NUMBER_OF_QUERIES];
+        ids = new String[NUMBER_OF_QUERIES];
+        for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+            final Gym gym = gymList.get(random.nextInt(gymList.size()));
+            names[i] = gym.getName().toLowerCase();
+            ids[i] = gym.getId();
+        }
+    }
+
+    @Benchmark
+    public Gym findByNameInHashMaps() {
+        return hashMapGyms.findByName(names[nextQuery()]);
+    }
+
+    @Benchmark
+    public Gym findByNameInCompactStore() {
+        final int index = store.indexOfName(names[nextQuery()]);
+        return index < 0 ? null : store.get(index);
+    }
+
+    @Benchmark
+    public Gym findByIdInHashMaps() {
+        return hashMapGyms.findById(ids[nextQuery()]);
+    }
+
+    @Benchmark
+    public Gym findByIdInCompactStore() {
+        final int index = store.indexOfId(ids[nextQuery()]);
+        return index < 0 ? null : store.get(index);
+    }
+
+    private int nextQuery() {
+        nextQuery = (nextQuery + 1) % NUMBER_OF_QUERIES;
+        return nextQuery;
+    }
+
+    /**
+     * Gyms spread over Sweden, with strings created per gym like CSVGymDataReader does it.
+     */
+    static Set<Gym> randomGyms(int numberOfGyms, Random random) {
+        Set<String> uniqueNames = new HashSet<>();
+        Set<Gym> gyms = new HashSet<>();
+        while (gyms.size() < numberOfGyms) {
+            final int numberOfWords = 1 + random.nextInt(3);
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < numberOfWords; i++) {
+                final String word = WORDS[random.nextInt(WORDS.length)];
+                name.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+            }
+            name.append(" ").append(random.nextInt(numberOfGyms));
+            if (!uniqueNames.add(name.toString())) {
+                continue;
+            }
+            final String id = String.valueOf(1000000 + gyms.size());
+            final String x = String.valueOf(Math.round((55.3 + random.nextDouble() * 13.7) * 1e6) / 1e6);
+            final String y = String.valueOf(Math.round((11.1 + random.nextDouble() * 13.0) * 1e6) / 1e6);
+            final String area = new String(AREAS[random.nextInt(AREAS.length)]);
+            gyms.add(new Gym(name.toString(), id, x, y, area, random.nextInt(20) == 0));
+        }
+        return gyms;
+    }
+
+    /**
+     * The gyms of a region kept like they were before the compact store, a set of Gym objects and maps by case folded
+     * name and by ID.
+     */
+    static class HashMapGyms {
+        private final Set<Gym> gyms;
+        private final Map<String, Gym> gymsByFoldedName;
+        private final Map<String, Gym> gymsById;
+
+        HashMapGyms(Set<Gym> gyms) {
+            this.gyms = Collections.unmodifiableSet(new HashSet<>(gyms));
+            gymsByFoldedName = new HashMap<>(gyms.size() * 2);
+            gymsById = new HashMap<>(gyms.size() * 2);
+            for (Gym gym : this.gyms) {
+                gymsByFoldedName.putIfAbsent(fold(gym.getName()), gym);
+                gymsById.putIfAbsent(gym.getId(), gym);
+            }
+        }
+
+        Gym findByName(String name) {
+            return gymsByFoldedName.get(fold(name));
+        }
+
+        Gym findById(String id) {
+            return gymsById.get(id);
+        }
+
+        int size() {
+            return gyms.size();
+        }
+
+        private static String fold(String name) {
+            final char[] chars = new char[name.length()];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+            }
+            return new String(chars);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GymStoreBenchmark.class.getSimpleName()).build()).run();
+    }
+}
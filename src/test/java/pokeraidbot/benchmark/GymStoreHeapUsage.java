@@ -0,0 +1,48 @@
+package pokeraidbot.benchmark;
+
+import pokeraidbot.domain.gym.CompactGymStore;
+
+import java.util.Random;
+
+/**
+ * Heap used by the gyms of a region, kept in hash maps of Gym objects like regions used to be versus in the compact
+ * gym store. JMH measures time, not retained heap, so this measures used heap after garbage collection instead; run
+ * it with a fixed heap size to keep the numbers steady. The trigram search index is left out of both, it's the same
+ * for each.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=pokeraidbot.benchmark.GymStoreHeapUsage
+ */
+public class GymStoreHeapUsage {
+    private static final int[] NUMBERS_OF_GYMS = {10000, 100000, 250000};
+
+    public static void main(String[] args) throws Exception {
+        for (int numberOfGyms : NUMBERS_OF_GYMS) {
+            long before = usedHeapAfterGc();
+            GymStoreBenchmark.HashMapGyms hashMapGyms =
+                    new GymStoreBenchmark.HashMapGyms(GymStoreBenchmark.randomGyms(numberOfGyms, new Random(42)));
+            final long hashMapBytes = usedHeapAfterGc() - before;
+            System.out.println(hashMapGyms.size() + " gyms in hash maps: " + describe(hashMapBytes, numberOfGyms));
+            hashMapGyms = null;
+
+            before = usedHeapAfterGc();
+            final CompactGymStore store =
+                    new CompactGymStore(GymStoreBenchmark.randomGyms(numberOfGyms, new Random(42)));
+            final long storeBytes = usedHeapAfterGc() - before;
+            System.out.println(store.size() + " gyms in compact store: " + describe(storeBytes, numberOfGyms));
+        }
+    }
+
+    private static String describe(long bytes, int numberOfGyms) {
+        return (bytes / 1024) + " kB, " + (bytes / numberOfGyms) + " bytes per gym";
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
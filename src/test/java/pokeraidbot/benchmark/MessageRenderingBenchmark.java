@@ -0,0 +1,102 @@
+package pokeraidbot.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pokeraidbot.domain.config.LocaleService;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering a raid description (four parameters) and a message without parameters, with a regex replace per
+ * parameter like LocaleService used to do it versus from the precompiled message templates.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=pokeraidbot.benchmark.MessageRenderingBenchmark
+ * Allocations per operation are reported by the gc profiler, see main.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageRenderingBenchmark {
+    private static final String[] RAID_PARAMETERS = {"Mewtwo", "Solna Platform", "09:15", "10:00"};
+    private static final String[] NO_PARAMETERS = {};
+
+    private LocaleService localeService;
+    private final Map<Lookup, String> texts = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        localeService = new LocaleService("sv", null);
+        // Without parameters, we get the text as it is
+        for (String messageKey : new String[]{LocaleService.RAID_TOSTRING, LocaleService.NO_CONFIG}) {
+            texts.put(new Lookup(messageKey, Locale.ENGLISH), localeService.getMessageFor(messageKey, Locale.ENGLISH));
+        }
+    }
+
+    @Benchmark
+    public String raidWithRegexReplace() {
+        return replaceParameters(LocaleService.RAID_TOSTRING, RAID_PARAMETERS);
+    }
+
+    @Benchmark
+    public String raidFromTemplate() {
+        return localeService.getMessageFor(LocaleService.RAID_TOSTRING, Locale.ENGLISH, RAID_PARAMETERS);
+    }
+
+    @Benchmark
+    public String noParametersWithRegexReplace() {
+        return replaceParameters(LocaleService.NO_CONFIG, NO_PARAMETERS);
+    }
+
+    @Benchmark
+    public String noParametersFromTemplate() {
+        return localeService.getMessageFor(LocaleService.NO_CONFIG, Locale.ENGLISH, NO_PARAMETERS);
+    }
+
+    private String replaceParameters(String messageKey, String[] parameters) {
+        String message = texts.get(new Lookup(messageKey.toUpperCase(), Locale.ENGLISH));
+        int i = 1;
+        for (String parameter : parameters) {
+            message = message.replaceAll("[%][" + i + "]", parameter);
+            i++;
+        }
+        return message;
+    }
+
+    private static class Lookup {
+        private final String messageKey;
+        private final Locale locale;
+
+        private Lookup(String messageKey, Locale locale) {
+            this.messageKey = messageKey;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Lookup)) return false;
+            Lookup that = (Lookup) o;
+            return messageKey.equals(that.messageKey) && locale.equals(that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(messageKey, locale);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessageRenderingBenchmark.class.getSimpleName())
+                .addProfiler("gc").build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package pokeraidbot.benchmark;
+
+import net.dv8tion.jda.core.entities.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pokeraidbot.domain.raid.Raid;
+import pokeraidbot.domain.raid.RaidRepository;
+import pokeraidbot.domain.raid.signup.SignUpChange;
+import pokeraidbot.domain.raid.signup.SignUpExecutor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * A storm of 20 signup reactions on one raid, applied one transaction per reaction (direct) versus through the
+ * coalescing SignUpExecutor. Writes are simulated with a per raid lock and a fixed latency, the databaseWrites
+ * counter shows how many writes per second each variant needs.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=pokeraidbot.benchmark.SignUpWriteBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignUpWriteBenchmark {
+    private static final int REACTIONS_PER_STORM = 20;
+    private static final String RAID_ID = "raid";
+
+    @Param({"0", "50", "250"})
+    public long windowInMillis;
+    @Param({"2"})
+    public long writeLatencyInMillis;
+
+    private SimulatedRaidRepository raidRepository;
+    private SignUpExecutor signUpExecutor;
+    private ExecutorService reactingUsers;
+    private List<User> users;
+    private LocalDateTime startAt = LocalDateTime.now().plusMinutes(30);
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Writes {
+        public long databaseWrites;
+    }
+
+    @Setup
+    public void setUp() {
+        raidRepository = new SimulatedRaidRepository(writeLatencyInMillis);
+        signUpExecutor = new SignUpExecutor(raidRepository, 8, windowInMillis);
+        reactingUsers = Executors.newFixedThreadPool(REACTIONS_PER_STORM);
+        users = new ArrayList<>();
+        for (int i = 0; i < REACTIONS_PER_STORM; i++) {
+            users.add(mock(User.class));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        signUpExecutor.shutdown();
+        reactingUsers.shutdownNow();
+    }
+
+    @Benchmark
+    public void direct(Writes writes) throws Exception {
+        final long writesBefore = raidRepository.writes.get();
+        List<Future<Raid>> results = new ArrayList<>();
+        for (User user : users) {
+            results.add(reactingUsers.submit(() ->
+                    raidRepository.modifySignUp(RAID_ID, user, 0, 0, 0, 1, startAt)));
+        }
+        for (Future<Raid> result : results) {
+            result.get();
+        }
+        writes.databaseWrites += raidRepository.writes.get() - writesBefore;
+    }
+
+    @Benchmark
+    public void coalesced(Writes writes) throws Exception {
+        final long writesBefore = raidRepository.writes.get();
+        List<CompletableFuture<Raid>> results = new ArrayList<>();
+        for (User user : users) {
+            results.add(signUpExecutor.submit(RAID_ID,
+                    new SignUpChange(SignUpChange.Type.ADD, user, 0, 0, 0, 1, startAt)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[results.size()])).get();
+        writes.databaseWrites += raidRepository.writes.get() - writesBefore;
+    }
+
+    // Every call is one transaction writing the raid row, so they queue up on the row lock
+    private static class SimulatedRaidRepository extends RaidRepository {
+        private final AtomicLong writes = new AtomicLong();
+        private final long writeLatencyInMillis;
+
+        private SimulatedRaidRepository(long writeLatencyInMillis) {
+            this.writeLatencyInMillis = writeLatencyInMillis;
+        }
+
+        @Override
+        public synchronized Raid modifySignUp(String raidId, User user, int mystic, int instinct, int valor,
+                                              int plebs, LocalDateTime startAt) {
+            write();
+            return null;
+        }
+
+        @Override
+        public synchronized Raid applySignUpChanges(String raidId, List<SignUpChange> changes) {
+            write();
+            return null;
+        }
+
+        private void write() {
+            try {
+                Thread.sleep(writeLatencyInMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writes.incrementAndGet();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SignUpWriteBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package pokeraidbot.benchmark;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.pokemon.Pokemon;
+import pokeraidbot.domain.pokemon.PokemonRepository;
+import pokeraidbot.domain.tracking.PokemonTrackingIndex;
+import pokeraidbot.domain.tracking.PokemonTrackingTarget;
+import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Finding the trackers to notify for a new raid in a server, scanning every tracking target versus looking up the
+ * raid's pokemon in the tracking index. About a third of the trackers are members of the server.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=pokeraidbot.benchmark.TrackingNotifyBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrackingNotifyBenchmark {
+    private static final int NUMBER_OF_RAIDS = 64;
+
+    @Param({"5000", "50000"})
+    public int numberOfTrackers;
+
+    private Set<PokemonTrackingTarget> trackingTargets;
+    private PokemonTrackingIndex trackingIndex;
+    // Stands in for the server's members
+    private Set<String> memberIds;
+    private Pokemon[] raidPokemons;
+    private int nextRaid = 0;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final List<Pokemon> pokemons = new ArrayList<>(new PokemonRepository("/pokemons.csv",
+                new LocaleService("sv", mock(UserConfigRepository.class))).getAll());
+        trackingTargets = new ConcurrentSkipListSet<>();
+        trackingIndex = new PokemonTrackingIndex();
+        memberIds = new HashSet<>();
+        while (trackingTargets.size() < numberOfTrackers) {
+            final String userId = String.valueOf(100000000000000000L + random.nextInt(numberOfTrackers));
+            final Pokemon pokemon = pokemons.get(random.nextInt(pokemons.size()));
+            trackingTargets.add(new PokemonTrackingTarget(userId, pokemon));
+            trackingIndex.add(userId, pokemon);
+            if (random.nextInt(3) == 0) {
+                memberIds.add(userId);
+            }
+        }
+        raidPokemons = new Pokemon[NUMBER_OF_RAIDS];
+        for (int i = 0; i < NUMBER_OF_RAIDS; i++) {
+            raidPokemons[i] = pokemons.get(random.nextInt(pokemons.size()));
+        }
+    }
+
+    @Benchmark
+    public List<String> scanAllTrackers() {
+        final Pokemon raidPokemon = nextRaidPokemon();
+        List<String> toNotify = new ArrayList<>();
+        for (PokemonTrackingTarget t : trackingTargets) {
+            if (memberIds.contains(t.getUserId()) &&
+                    StringUtils.containsIgnoreCase(raidPokemon.getName(), t.getPokemon().getName())) {
+                toNotify.add(t.getUserId());
+            }
+        }
+        return toNotify;
+    }
+
+    @Benchmark
+    public List<String> lookUpIndex() {
+        final Pokemon raidPokemon = nextRaidPokemon();
+        List<String> toNotify = new ArrayList<>();
+        for (String userId : trackingIndex.getUserIdsTracking(raidPokemon)) {
+            if (memberIds.contains(userId)) {
+                toNotify.add(userId);
+            }
+        }
+        return toNotify;
+    }
+
+    private Pokemon nextRaidPokemon() {
+        nextRaid = (nextRaid + 1) % NUMBER_OF_RAIDS;
+        return raidPokemons[nextRaid];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TrackingNotifyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,136 @@
+package pokeraidbot.commands;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CommandExecutorTest {
+    private CommandExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new CommandExecutor(2, 500);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdown();
+    }
+
+    @Test
+    public void commandsInAChannelRunInOrderWhileOtherChannelsGoOn() throws Exception {
+        final CountDownLatch slowCommandBlocked = new CountDownLatch(1);
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        executor.submit("manhattan", () -> {
+            await(slowCommandBlocked);
+            order.add(1);
+        });
+        final CompletableFuture<Void> second = executor.submit("manhattan", () -> order.add(2));
+        executor.submit("uppsala", () -> order.add(3)).get(1, TimeUnit.SECONDS);
+        assertThat(order, is(Collections.singletonList(3)));
+
+        slowCommandBlocked.countDown();
+        second.get(1, TimeUnit.SECONDS);
+        assertThat(order, is(Arrays.asList(3, 1, 2)));
+    }
+
+    @Test
+    public void commandThatTimesOutIsInterruptedAndTheNextOneStarts() throws Exception {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CompletableFuture<Void> slow = executor.submit("manhattan", () -> {
+            try {
+                TimeUnit.SECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        final CompletableFuture<Void> next = executor.submit("manhattan", () -> {
+        });
+        next.get(2, TimeUnit.SECONDS);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS), is(true));
+        try {
+            slow.get();
+            fail("Should have timed out");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        }
+    }
+
+    @Test
+    public void nextCommandWaitsForACommandThatTimedOutToStop() throws Exception {
+        final CountDownLatch ignoringInterrupts = new CountDownLatch(1);
+        final CountDownLatch stop = new CountDownLatch(1);
+        final CompletableFuture<Void> stubborn = executor.submit("manhattan", () -> {
+            boolean stopped = false;
+            while (!stopped) {
+                try {
+                    stopped = stop.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    ignoringInterrupts.countDown();
+                }
+            }
+        });
+        final CompletableFuture<Void> next = executor.submit("manhattan", () -> {
+        });
+        assertThat(ignoringInterrupts.await(2, TimeUnit.SECONDS), is(true));
+        assertThat(stubborn.isCompletedExceptionally(), is(true));
+        assertThat(next.isDone(), is(false));
+
+        stop.countDown();
+        next.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void commandsAfterShutdownFailInsteadOfHanging() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        executor.submit("manhattan", () -> {
+            running.countDown();
+            await(new CountDownLatch(1));
+        });
+        executor.submit("uppsala", () -> await(new CountDownLatch(1)));
+        final CompletableFuture<Void> queued = executor.submit("stockholm", () -> {
+        });
+        final CompletableFuture<Void> next = executor.submit("manhattan", () -> {
+        });
+        assertThat(running.await(1, TimeUnit.SECONDS), is(true));
+
+        executor.shutdown();
+        assertRejected(queued);
+        assertRejected(next);
+        assertRejected(executor.submit("manhattan", () -> {
+        }));
+    }
+
+    private static void assertRejected(CompletableFuture<Void> command) throws Exception {
+        try {
+            command.get(1, TimeUnit.SECONDS);
+            fail("Should have been rejected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package pokeraidbot.commands;
+
+import com.jagrosh.jdautilities.commandclient.CommandEvent;
+import com.jagrosh.jdautilities.commandclient.CommandListener;
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.entities.MessageChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
+import pokeraidbot.infrastructure.jpa.config.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConfigAwareCommandTest {
+    private CommandExecutor commandExecutor;
+    private CommandListener commandListener;
+    private CommandEvent commandEvent;
+
+    @Before
+    public void setUp() throws Exception {
+        commandExecutor = new CommandExecutor(1, 100);
+        commandListener = mock(CommandListener.class);
+        commandEvent = mock(CommandEvent.class);
+        final MessageChannel channel = mock(MessageChannel.class);
+        when(channel.getId()).thenReturn("manhattan");
+        when(commandEvent.getChannel()).thenReturn(channel);
+        final Message message = mock(Message.class);
+        when(message.getContentRaw()).thenReturn("!raid stubborn");
+        when(commandEvent.getMessage()).thenReturn(message);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        commandExecutor.shutdown();
+    }
+
+    @Test
+    public void commandThatFinishesAfterTimingOutGetsNoSuccessFeedback() throws Exception {
+        final ConfigAwareCommand command = new ConfigAwareCommand(mock(ServerConfigService.class), commandListener,
+                mock(LocaleService.class)) {
+            @Override
+            protected void executeWithConfig(CommandEvent commandEvent, Config config) {
+                final long stopAt = System.currentTimeMillis() + 300;
+                while (System.currentTimeMillis() < stopAt) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(stopAt - System.currentTimeMillis());
+                    } catch (InterruptedException e) {
+                        // Doesn't care about being interrupted
+                    }
+                }
+            }
+        };
+        command.executeAsync(commandExecutor);
+        command.execute(commandEvent);
+        // Runs once the timed out command has stopped
+        commandExecutor.submit("manhattan", () -> {
+        }).get(5, TimeUnit.SECONDS);
+
+        verify(commandEvent).reactError();
+        verify(commandListener).onTerminatedCommand(commandEvent, command);
+        verify(commandListener, never()).onCompletedCommand(any(CommandEvent.class), any(ConfigAwareCommand.class));
+    }
+}
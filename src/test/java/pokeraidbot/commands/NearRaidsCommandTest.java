@@ -0,0 +1,107 @@
+package pokeraidbot.commands;
+
+import com.jagrosh.jdautilities.commandclient.CommandEvent;
+import net.dv8tion.jda.core.entities.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import pokeraidbot.Utils;
+import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.config.ServerConfigService;
+import pokeraidbot.domain.gym.Gym;
+import pokeraidbot.domain.gym.GymRepository;
+import pokeraidbot.domain.gym.NearbyGym;
+import pokeraidbot.domain.pokemon.PokemonRepository;
+import pokeraidbot.domain.raid.Raid;
+import pokeraidbot.domain.raid.RaidRepository;
+import pokeraidbot.infrastructure.jpa.config.Config;
+import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class NearRaidsCommandTest {
+    private static final String REGION = "uppsala";
+    private final Gym hasten = new Gym("Hästen", "1", "59.8585", "17.6389", REGION);
+    private final Gym domkyrkan = new Gym("Domkyrkan", "2", "59.8581", "17.6332", REGION);
+    private final Gym faraway = new Gym("Domkyrkan", "3", "63.8258", "20.2630", REGION);
+
+    private GymRepository gymRepository;
+    private RaidRepository raidRepository;
+    private LocaleService localeService;
+    private PokemonRepository pokemonRepository;
+    private NearRaidsCommand command;
+    private Config config;
+    private User user;
+
+    @Before
+    public void setUp() throws Exception {
+        gymRepository = mock(GymRepository.class);
+        raidRepository = mock(RaidRepository.class);
+        localeService = new LocaleService("en", mock(UserConfigRepository.class));
+        pokemonRepository = new PokemonRepository("/pokemons.csv", localeService);
+        command = new NearRaidsCommand(gymRepository, raidRepository, localeService,
+                mock(ServerConfigService.class), null);
+        config = mock(Config.class);
+        when(config.getRegion()).thenReturn(REGION);
+        // Replies as plain text, which is easier to check than an embed
+        when(config.getReplyInDmWhenPossible()).thenReturn(true);
+        user = mock(User.class);
+        when(user.getId()).thenReturn("1");
+        when(gymRepository.search(any(User.class), eq("Hästen"), eq(REGION))).thenReturn(hasten);
+        when(gymRepository.findNear(eq(hasten), anyDouble(), eq(REGION))).thenReturn(Arrays.asList(
+                new NearbyGym(hasten, 0.0), new NearbyGym(domkyrkan, 0.3)));
+    }
+
+    @Test
+    public void raidsAreListedClosestFirst() throws Exception {
+        final LocalDateTime now = Utils.getClockService().getCurrentDateTime();
+        // Ordered by end of raid, like the repository gives them
+        when(raidRepository.getActiveRaidsAt(anyCollectionOf(Gym.class), eq(REGION))).thenReturn(new ArrayList<>(
+                Arrays.asList(raidAt(domkyrkan, now.plusMinutes(10)), raidAt(hasten, now.plusMinutes(40)))));
+
+        final String reply = execute("Hästen");
+        assertThat(reply.startsWith("**Current raids within 2.0 km of Hästen:**"), is(true));
+        assertThat(reply.indexOf("*Hästen* (0.0 km)") < reply.indexOf("*Domkyrkan* (0.3 km)"), is(true));
+        verify(gymRepository).findNear(hasten, NearRaidsCommand.DEFAULT_DISTANCE_IN_KM, REGION);
+    }
+
+    @Test
+    public void distanceCanBeGivenAndIsCapped() throws Exception {
+        when(raidRepository.getActiveRaidsAt(anyCollectionOf(Gym.class), eq(REGION))).thenReturn(new ArrayList<>());
+        execute("Hästen 500");
+        verify(gymRepository).findNear(hasten, NearRaidsCommand.MAX_DISTANCE_IN_KM, REGION);
+    }
+
+    @Test
+    public void raidAtAnotherGymWithTheSameNameIsLeftOut() throws Exception {
+        final LocalDateTime now = Utils.getClockService().getCurrentDateTime();
+        when(raidRepository.getActiveRaidsAt(anyCollectionOf(Gym.class), eq(REGION))).thenReturn(new ArrayList<>(
+                Arrays.asList(raidAt(faraway, now.plusMinutes(10)))));
+
+        assertThat(execute("Hästen"), is("There are currently no active raids within 2.0 km of Hästen."));
+    }
+
+    private Raid raidAt(Gym gym, LocalDateTime endOfRaid) {
+        return new Raid(pokemonRepository.getByName("Entei"), endOfRaid, gym, localeService, REGION);
+    }
+
+    private String execute(String args) {
+        final CommandEvent commandEvent = mock(CommandEvent.class);
+        when(commandEvent.getArgs()).thenReturn(args);
+        when(commandEvent.getAuthor()).thenReturn(user);
+        command.executeWithConfig(commandEvent, config);
+        final ArgumentCaptor<String> reply = ArgumentCaptor.forClass(String.class);
+        verify(commandEvent).replyInDM(reply.capture());
+        return reply.getValue();
+    }
+}
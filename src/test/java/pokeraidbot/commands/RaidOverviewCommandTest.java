@@ -3,6 +3,9 @@ package pokeraidbot.commands;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.entities.MessageEmbed;
 import org.junit.Test;
+import pokeraidbot.domain.raid.RaidChangeEvents;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -45,4 +48,27 @@ public class RaidOverviewCommandTest {
 //            System.out.println("\n\n\n");
 //        }
     }
+
+    @Test
+    public void changeListenerFollowsTheRegionOfTheServer() {
+        final RaidChangeEvents changeEvents = new RaidChangeEvents();
+        final AtomicInteger changes = new AtomicInteger();
+        final RaidOverviewCommand.RegionChangeListener listener =
+                new RaidOverviewCommand.RegionChangeListener(changeEvents, changes::incrementAndGet);
+        listener.listenTo("uppsala");
+        changeEvents.raidsChanged("uppsala");
+        assertThat(changes.get(), is(1));
+
+        listener.listenTo("stockholm");
+        changeEvents.raidsChanged("uppsala");
+        assertThat(changes.get(), is(1));
+        changeEvents.raidsChanged("stockholm");
+        assertThat(changes.get(), is(2));
+
+        listener.stop();
+        listener.listenTo("uppsala");
+        changeEvents.raidsChanged("stockholm");
+        changeEvents.raidsChanged("uppsala");
+        assertThat(changes.get(), is(2));
+    }
 }
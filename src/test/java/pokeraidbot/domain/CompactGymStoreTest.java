@@ -0,0 +1,59 @@
+package pokeraidbot.domain;
+
+import org.junit.Test;
+import pokeraidbot.domain.gym.CompactGymStore;
+import pokeraidbot.domain.gym.Gym;
+import pokeraidbot.infrastructure.CSVGymDataReader;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CompactGymStoreTest {
+    @Test
+    public void gymsFromTheStoreAreEqualToTheGymsItWasBuiltFrom() throws Exception {
+        final Set<Gym> gyms = new CSVGymDataReader("/gyms_uppsala.csv").readAll();
+        final CompactGymStore store = new CompactGymStore(gyms);
+        assertThat(store.size(), is(gyms.size()));
+        assertThat(store.asSet(), is(gyms));
+        for (Gym gym : gyms) {
+            assertThat(store.get(store.indexOf(gym)), is(gym));
+            assertThat(store.nameOf(store.indexOfName(gym.getName().toUpperCase())).equalsIgnoreCase(gym.getName()),
+                    is(true));
+        }
+    }
+
+    @Test
+    public void coordinatesThatAreNotInShortestFormAreKeptAsTheyWere() throws Exception {
+        final Set<Gym> gyms = new LinkedHashSet<>(Arrays.asList(
+                new Gym("Hästen", "3690325", "59.844542", "17.63993", "Uppsala", true),
+                new Gym("Trailing zeros", "1", "59.8446", "17.6400", "Uppsala"),
+                new Gym("Negative", "2", "-0.5", "-73.9857", null),
+                new Gym("Whole degrees", "3", "59", "18.0", "Stockholm"),
+                new Gym("Not a number", "4", "okänt", null, "Stockholm")));
+        final CompactGymStore store = new CompactGymStore(gyms);
+        int index = 0;
+        for (Gym gym : gyms) {
+            final Gym fromStore = store.get(index++);
+            assertThat(fromStore, is(gym));
+            assertThat(fromStore.toStringDetails(), is(gym.toStringDetails()));
+        }
+    }
+
+    @Test
+    public void gymsSharingAnIdCanBeToldApart() throws Exception {
+        final Gym first = new Gym("Första", "42", "59.1", "17.1", "Uppsala");
+        final Gym second = new Gym("Andra", "42", "59.2", "17.2", "Uppsala");
+        final CompactGymStore store = new CompactGymStore(Arrays.asList(first, second));
+        assertThat(store.get(store.indexOfId("42")), is(first));
+        assertThat(store.indexOf(first), is(0));
+        assertThat(store.indexOf(second), is(1));
+        assertThat(store.indexOf(new Gym("Andra", "42", "59.2", "17.2", "Uppsala", true)), is(-1));
+        assertThat(store.indexOfName("andra"), is(1));
+        assertThat(store.indexOfName("Tredje"), is(-1));
+        assertThat(store.indexOfId("43"), is(-1));
+    }
+}
@@ -1,24 +1,34 @@
 package pokeraidbot.domain;
 
+import me.xdrop.fuzzywuzzy.model.ExtractedResult;
 import net.dv8tion.jda.core.entities.User;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import pokeraidbot.TestServerMain;
+import pokeraidbot.Utils;
 import pokeraidbot.domain.config.LocaleService;
 import pokeraidbot.domain.errors.GymNotFoundException;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.gym.GymRepository;
+import pokeraidbot.domain.gym.GymSearchIndex;
+import pokeraidbot.domain.gym.NearbyGym;
+import pokeraidbot.infrastructure.BotMetrics;
 import pokeraidbot.infrastructure.CSVGymDataReader;
 import pokeraidbot.infrastructure.jpa.config.Config;
 import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
 
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import static me.xdrop.fuzzywuzzy.FuzzySearch.extractTop;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -160,6 +170,11 @@ public class GymRepositoryTest {
         assertThat(repo.findByName("Hästen", "uppsala"), is(gym));
     }
 
+    @Test
+    public void findGymByNameIgnoresCase() throws Exception {
+        assertThat(repo.findByName("hÄSTEN", "uppsala"), is(gym));
+    }
+
     @Test
     public void findNonExGym() throws Exception {
         final Gym gym = repo.findByName("Sköldpaddorna", "norrköping");
@@ -188,6 +203,109 @@ public class GymRepositoryTest {
         assertThat(repo.search(user,"hosten", "uppsala"), is(gym));
     }
     
+    @Test
+    public void searchIndexGivesSameMatchesAsScoringAllGyms() throws Exception {
+        for (String region : configMap.keySet()) {
+            final List<String> names = repo.getAllGymsForRegion(region).stream().map(Gym::getName)
+                    .collect(Collectors.toList());
+            final GymSearchIndex searchIndex = new GymSearchIndex(names);
+            for (String name : names) {
+                final String lowerCaseName = name.toLowerCase();
+                final int middle = lowerCaseName.length() / 2;
+                final String[] queries = {
+                        lowerCaseName.substring(0, middle) + "x" + lowerCaseName.substring(middle + 1),
+                        lowerCaseName.substring(0, middle) + lowerCaseName.substring(middle + 1),
+                        lowerCaseName.split(" ")[0],
+                        // Typo in every third letter, so little is left of the trigrams
+                        withTypoInEveryThirdLetter(lowerCaseName)
+                };
+                for (String query : queries) {
+                    assertThat(region + ": " + query, matches(searchIndex.extractTopMatches(query, 6, 70)),
+                            is(matches(extractTop(query, names, 6, 70))));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void searchIndexKeepsMatchesSharingNoTrigram() throws Exception {
+        final List<String> names = Arrays.asList("Axbxcxdxe", "Hästen", "Domkyrkan");
+        final GymSearchIndex searchIndex = new GymSearchIndex(names);
+        assertThat(matches(extractTop("abcde", names, 6, 70)), is(Collections.singletonList(
+                "Axbxcxdxe:71")));
+        assertThat(matches(searchIndex.extractTopMatches("abcde", 6, 70)),
+                is(matches(extractTop("abcde", names, 6, 70))));
+    }
+
+    private static String withTypoInEveryThirdLetter(String name) {
+        final char[] chars = name.toCharArray();
+        for (int i = 1; i < chars.length; i += 3) {
+            chars[i] = 'x';
+        }
+        return new String(chars);
+    }
+
+    // Order among equal scores is up to the fuzzy search, so compare sorted
+    private static List<String> matches(List<ExtractedResult> results) {
+        return results.stream().map(r -> r.getString() + ":" + r.getScore()).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void repeatedFuzzySearchIsServedFromCache() throws Exception {
+        User user = mock(User.class);
+        when(user.getName()).thenReturn("Greger");
+        final long hitsBefore = BotMetrics.getCount("gyms.searchCache.hits");
+        assertThat(repo.search(user, "hosten", "uppsala"), is(gym));
+        assertThat(repo.search(user, "HOSTEN", "uppsala"), is(gym));
+        assertThat(BotMetrics.getCount("gyms.searchCache.hits"), is(hitsBefore + 1));
+    }
+
+    @Test
+    public void addingGymInvalidatesCachedSearches() throws Exception {
+        final User user = mock(User.class);
+        when(user.getName()).thenReturn("User");
+        try {
+            repo.search(user, "Mongoo", "uppsala");
+            fail("Gym should not exist yet.");
+        } catch (GymNotFoundException e) {
+            // Expected
+        }
+        final Gym mongo = new Gym("Mongo", "66666666", "50.0001", "25.00001", "Uppsala", false);
+        repo.addTemporary(user, mongo, "uppsala");
+        assertThat(repo.search(user, "Mongoo", "uppsala"), is(mongo));
+    }
+
+    @Test
+    public void findNearGymsClosestFirstWithinDistance() throws Exception {
+        final List<NearbyGym> nearbyGyms = repo.findNear(gym, 1.0, "uppsala");
+        assertThat(nearbyGyms.get(0).getGym(), is(gym));
+        assertThat(nearbyGyms.get(0).getDistanceInKm(), is(0.0));
+        assertThat(nearbyGyms.size() > 1, is(true));
+        double previousDistance = 0.0;
+        for (NearbyGym nearbyGym : nearbyGyms) {
+            assertThat(nearbyGym.getDistanceInKm() >= previousDistance, is(true));
+            assertThat(nearbyGym.getDistanceInKm() <= 1.0, is(true));
+            previousDistance = nearbyGym.getDistanceInKm();
+        }
+        // Same as checking every gym in the region
+        final long gymsWithinDistance = repo.getAllGymsForRegion("uppsala").stream()
+                .filter(g -> Utils.distanceInKm(59.844542, 17.63993, Double.parseDouble(g.getX()),
+                        Double.parseDouble(g.getY())) <= 1.0)
+                .count();
+        assertThat((long) nearbyGyms.size(), is(gymsWithinDistance));
+    }
+
+    @Test
+    public void temporaryGymIsFoundNearby() throws Exception {
+        final User user = mock(User.class);
+        when(user.getName()).thenReturn("User");
+        final Gym mongo = new Gym("Mongo", "66666666", "59.8446", "17.6400", "Uppsala", false);
+        repo.addTemporary(user, mongo, "uppsala");
+        final List<Gym> nearbyGyms = repo.findNear(gym, 0.1, "uppsala").stream()
+                .map(NearbyGym::getGym).collect(Collectors.toList());
+        assertThat(nearbyGyms.contains(mongo), is(true));
+    }
+
     @Test
     public void findGymById() throws Exception {
         assertThat(repo.findById("3690325", "uppsala"), is(gym));
@@ -218,6 +336,8 @@ public class GymRepositoryTest {
         gym = repo.findByName("Mongo", "uppsala");
         assertThat(gym.getName(), is("Mongo"));
         assertThat(gym.isExGym(), is(false));
+        assertThat(repo.findById("66666666", "uppsala"), is(gym));
+        assertThat(repo.getAllGymsForRegion("uppsala").size(), is(240));
     }
 
     @Test
@@ -1,24 +1,31 @@
 package pokeraidbot.domain;
 
+import net.dv8tion.jda.core.entities.User;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.infrastructure.jpa.config.UserConfig;
 import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
 
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class LocaleServiceTest {
     private LocaleService localeService;
+    private UserConfigRepository userConfigRepository;
 
     @Before
     public void setUp() throws Exception {
-        UserConfigRepository userConfigRepository = Mockito.mock(UserConfigRepository.class);
+        userConfigRepository = Mockito.mock(UserConfigRepository.class);
         when(userConfigRepository.findOne(any(String.class))).thenReturn(null);
         localeService = new LocaleService("sv", userConfigRepository);
     }
@@ -35,4 +42,52 @@ public class LocaleServiceTest {
         assertThat(localeService.getMessageFor("TEST", Locale.ENGLISH, "Hej", "Hopp", "Mupp"),
                 is("Test message Hej Hopp Mupp Mupp wee"));
     }
+
+    @Test
+    public void parametersAreInsertedAsTheyAre() throws Exception {
+        localeService.storeMessage("TEST", Locale.ENGLISH, "%2 costs %1, not %3");
+        assertThat(localeService.getMessageFor("test", Locale.ENGLISH, "$5 \\o/", "%2"),
+                is("%2 costs $5 \\o/, not %3"));
+    }
+
+    @Test
+    public void userLocaleIsCachedUntilInvalidated() throws Exception {
+        User user = mock(User.class);
+        when(user.getId()).thenReturn("1234");
+        when(userConfigRepository.findOne("1234")).thenReturn(new UserConfig("1234", null, null, null,
+                Locale.ENGLISH));
+        assertThat(localeService.getLocaleForUser(user), is(Locale.ENGLISH));
+        assertThat(localeService.getLocaleForUser(user), is(Locale.ENGLISH));
+        verify(userConfigRepository, times(1)).findOne("1234");
+
+        when(userConfigRepository.findOne("1234")).thenReturn(new UserConfig("1234", null, null, null,
+                LocaleService.SWEDISH));
+        localeService.invalidateLocaleForUser("1234");
+        assertThat(localeService.getLocaleForUser(user), is(LocaleService.SWEDISH));
+        verify(userConfigRepository, times(2)).findOne("1234");
+    }
+
+    @Test
+    public void leastRecentlyUsedUserLocaleIsDroppedWhenCacheIsFull() throws Exception {
+        final AtomicInteger userId = new AtomicInteger();
+        User user = mock(User.class);
+        when(user.getId()).thenAnswer(invocation -> String.valueOf(userId.get()));
+        for (int i = 0; i < LocaleService.USER_LOCALE_CACHE_MAX_SIZE; i++) {
+            userId.set(i);
+            localeService.getLocaleForUser(user);
+        }
+        userId.set(0);
+        localeService.getLocaleForUser(user);
+        verify(userConfigRepository, times(1)).findOne("0");
+
+        // User 1 is the least recently used now, so one more user pushes it out
+        userId.set(LocaleService.USER_LOCALE_CACHE_MAX_SIZE);
+        localeService.getLocaleForUser(user);
+        userId.set(0);
+        localeService.getLocaleForUser(user);
+        verify(userConfigRepository, times(1)).findOne("0");
+        userId.set(1);
+        localeService.getLocaleForUser(user);
+        verify(userConfigRepository, times(2)).findOne("1");
+    }
 }
@@ -0,0 +1,86 @@
+package pokeraidbot.domain;
+
+import net.dv8tion.jda.core.entities.Guild;
+import org.junit.Before;
+import org.junit.Test;
+import pokeraidbot.domain.config.ServerConfigService;
+import pokeraidbot.infrastructure.jpa.config.Config;
+import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ServerConfigServiceTest {
+    private ServerConfigRepository serverConfigRepository;
+    private ServerConfigService serverConfigService;
+
+    @Before
+    public void setUp() throws Exception {
+        serverConfigRepository = mock(ServerConfigRepository.class);
+        when(serverConfigRepository.save(any(Config.class))).then(invocation -> invocation.getArguments()[0]);
+        serverConfigService = new ServerConfigService(serverConfigRepository);
+    }
+
+    @Test
+    public void configIsCachedPerGuildAndWrittenThrough() throws Exception {
+        final Config config = new Config("uppsala", "pokeraidbot_test");
+        when(serverConfigRepository.getConfigForServer("pokeraidbot_test")).thenReturn(config);
+        final Guild guild = guild("1234", "Pokeraidbot_test ");
+        assertThat(serverConfigService.getConfigForGuild(guild), is(config));
+        assertThat(serverConfigService.getConfigForGuild(guild), is(config));
+        assertThat(serverConfigService.getConfigForServer("pokeraidbot_test"), is(config));
+        verify(serverConfigRepository, times(1)).getConfigForServer("pokeraidbot_test");
+
+        final Config changedConfig = new Config("luleå", "pokeraidbot_test");
+        serverConfigService.save(changedConfig);
+        assertThat(serverConfigService.getConfigForGuild(guild), is(changedConfig));
+        verify(serverConfigRepository, times(1)).getConfigForServer("pokeraidbot_test");
+    }
+
+    @Test
+    public void configToChangeIsACopyOfTheCachedConfig() throws Exception {
+        final Config cachedConfig = new Config("uppsala", "pokeraidbot_test");
+        final Config configToChange = new Config("uppsala", "pokeraidbot_test");
+        when(serverConfigRepository.getConfigForServer("pokeraidbot_test")).thenReturn(cachedConfig, configToChange);
+        assertThat(serverConfigService.getConfigForServer("pokeraidbot_test"), is(cachedConfig));
+
+        final Config config = serverConfigService.getConfigForServerToChange("pokeraidbot_test");
+        config.setRegion("luleå");
+        assertThat(serverConfigService.getConfigForServer("pokeraidbot_test").getRegion(), is("uppsala"));
+        serverConfigService.save(config);
+        assertThat(serverConfigService.getConfigForServer("pokeraidbot_test").getRegion(), is("luleå"));
+    }
+
+    @Test
+    public void missingConfigIsCachedUntilServerIsInstalled() throws Exception {
+        final Guild guild = guild("5678", "new server");
+        assertThat(serverConfigService.getConfigForGuild(guild), is(nullValue()));
+        assertThat(serverConfigService.getConfigForGuild(guild), is(nullValue()));
+        verify(serverConfigRepository, times(1)).getConfigForServer("new server");
+
+        final Config config = new Config("uppsala", "new server");
+        serverConfigService.save(config);
+        assertThat(serverConfigService.getConfigForGuild(guild), is(config));
+    }
+
+    @Test
+    public void renamedGuildIsLookedUpByItsNewName() throws Exception {
+        final Config config = new Config("uppsala", "renamed server");
+        when(serverConfigRepository.getConfigForServer("renamed server")).thenReturn(config);
+        assertThat(serverConfigService.getConfigForGuild(guild("9012", "old server")), is(nullValue()));
+        assertThat(serverConfigService.getConfigForGuild(guild("9012", "Renamed server")), is(config));
+    }
+
+    private static Guild guild(String id, String name) {
+        final Guild guild = mock(Guild.class);
+        when(guild.getId()).thenReturn(id);
+        when(guild.getName()).thenReturn(name);
+        return guild;
+    }
+}
@@ -0,0 +1,77 @@
+package pokeraidbot.domain.raid;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RaidChangeEventsTest {
+    @Test
+    public void listenersAreToldAboutChangesInTheirRegion() throws Exception {
+        final RaidChangeEvents changeEvents = new RaidChangeEvents();
+        final AtomicInteger uppsala = new AtomicInteger();
+        final AtomicInteger stockholm = new AtomicInteger();
+        final RaidChangeEvents.Listener stockholmListener = region -> stockholm.incrementAndGet();
+        changeEvents.addListener("uppsala", region -> uppsala.incrementAndGet());
+        changeEvents.addListener("stockholm", stockholmListener);
+
+        changeEvents.raidsChanged("uppsala");
+        assertThat(uppsala.get(), is(1));
+        assertThat(stockholm.get(), is(0));
+        changeEvents.raidsChanged(null);
+        assertThat(uppsala.get(), is(2));
+        assertThat(stockholm.get(), is(1));
+
+        changeEvents.removeListener("stockholm", stockholmListener);
+        changeEvents.raidsChanged("stockholm");
+        assertThat(stockholm.get(), is(1));
+    }
+
+    @Test
+    public void listenerAddedWhileAnotherIsRemovedIsNotLost() throws Exception {
+        final RaidChangeEvents changeEvents = new RaidChangeEvents();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2000; i++) {
+                final RaidChangeEvents.Listener leaving = region -> {
+                };
+                final AtomicInteger notified = new AtomicInteger();
+                final RaidChangeEvents.Listener joining = region -> notified.incrementAndGet();
+                changeEvents.addListener("uppsala", leaving);
+                final CountDownLatch go = new CountDownLatch(1);
+                final Future<?> remove = executor.submit(() -> {
+                    await(go);
+                    changeEvents.removeListener("uppsala", leaving);
+                });
+                final Future<?> add = executor.submit(() -> {
+                    await(go);
+                    changeEvents.addListener("uppsala", joining);
+                });
+                go.countDown();
+                remove.get(5, TimeUnit.SECONDS);
+                add.get(5, TimeUnit.SECONDS);
+
+                changeEvents.raidsChanged("uppsala");
+                assertThat("Listener lost in round " + i, notified.get(), is(1));
+                changeEvents.removeListener("uppsala", joining);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package pokeraidbot.domain.raid;
+
+import net.dv8tion.jda.core.events.message.guild.react.GuildMessageReactionAddEvent;
+import org.junit.Before;
+import org.junit.Test;
+import pokeraidbot.BotService;
+import pokeraidbot.domain.raid.signup.EmoticonSignUpMessageListener;
+import pokeraidbot.domain.raid.signup.RaidGroupReactionRouter;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RaidGroupReactionRouterTest {
+    private RaidGroupReactionRouter router;
+
+    @Before
+    public void setUp() throws Exception {
+        router = new RaidGroupReactionRouter();
+    }
+
+    @Test
+    public void reactionIsOnlyPassedToTheGroupOfTheMessage() throws Exception {
+        final EmoticonSignUpMessageListener group = group("message1");
+        final EmoticonSignUpMessageListener otherGroup = group("message2");
+        router.register(group);
+        router.register(otherGroup);
+
+        final GuildMessageReactionAddEvent event = reactionOn("message1");
+        router.onEvent(event);
+        verify(group).onEvent(event);
+        verify(otherGroup, never()).onEvent(event);
+
+        router.unregister(group);
+        final GuildMessageReactionAddEvent laterEvent = reactionOn("message1");
+        router.onEvent(laterEvent);
+        verify(group, never()).onEvent(laterEvent);
+        assertThat(router.getGroups().size(), is(1));
+    }
+
+    @Test
+    public void groupIsRoutedToOnceItsMessageHasBeenSent() throws Exception {
+        final BotService botService = mock(BotService.class);
+        when(botService.getRaidGroupReactionRouter()).thenReturn(router);
+        final EmoticonSignUpMessageListener group = new EmoticonSignUpMessageListener(botService, null, null, null,
+                null, null, "raid", LocalDateTime.now(), "user");
+        assertThat(router.getGroups().contains(group), is(true));
+        assertThat(router.getGroupForEmoteMessage("message1"), is(nullValue()));
+
+        group.setEmoteMessageId("message1");
+        assertThat(router.getGroupForEmoteMessage("message1"), is(group));
+    }
+
+    private static EmoticonSignUpMessageListener group(String emoteMessageId) {
+        final EmoticonSignUpMessageListener group = mock(EmoticonSignUpMessageListener.class);
+        when(group.getEmoteMessageId()).thenReturn(emoteMessageId);
+        return group;
+    }
+
+    private static GuildMessageReactionAddEvent reactionOn(String messageId) {
+        final GuildMessageReactionAddEvent event = mock(GuildMessageReactionAddEvent.class);
+        when(event.getMessageId()).thenReturn(messageId);
+        return event;
+    }
+}
@@ -0,0 +1,101 @@
+package pokeraidbot.domain.raid;
+
+import org.junit.Before;
+import org.junit.Test;
+import pokeraidbot.domain.config.LocaleService;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RaidOverviewSnapshotsTest {
+    private RaidChangeEvents changeEvents;
+    private AtomicInteger renders;
+    private RaidOverviewSnapshots snapshots;
+
+    @Before
+    public void setUp() throws Exception {
+        changeEvents = new RaidChangeEvents();
+        renders = new AtomicInteger();
+        snapshots = new RaidOverviewSnapshots(changeEvents, (region, locale) ->
+                Collections.singletonMap(region, locale + ":" + renders.incrementAndGet()));
+    }
+
+    @Test
+    public void regionIsRenderedOncePerLocaleUntilItChanges() throws Exception {
+        final Map<String, String> uppsala = snapshots.getOverview("uppsala", LocaleService.SWEDISH);
+        assertThat(snapshots.getOverview("uppsala", LocaleService.SWEDISH), is(uppsala));
+        assertThat(renders.get(), is(1));
+        snapshots.getOverview("uppsala", Locale.ENGLISH);
+        snapshots.getOverview("stockholm", LocaleService.SWEDISH);
+        assertThat(renders.get(), is(3));
+
+        changeEvents.raidsChanged("uppsala");
+        assertThat(snapshots.getOverview("uppsala", LocaleService.SWEDISH).get("uppsala"), is("sv:4"));
+        snapshots.getOverview("stockholm", LocaleService.SWEDISH);
+        assertThat(renders.get(), is(4));
+    }
+
+    @Test
+    public void overviewsAreRenderedOutsideTheMapOfSnapshots() throws Exception {
+        final CountDownLatch rendering = new CountDownLatch(1);
+        final CountDownLatch finishRendering = new CountDownLatch(1);
+        final RaidOverviewSnapshots slowSnapshots = new RaidOverviewSnapshots(changeEvents, (region, locale) -> {
+            if (region.equals("uppsala")) {
+                rendering.countDown();
+                try {
+                    finishRendering.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Collections.singletonMap(region, locale + ":" + renders.incrementAndGet());
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Map<String, String>> first =
+                    executor.submit(() -> slowSnapshots.getOverview("uppsala", LocaleService.SWEDISH));
+            assertThat(rendering.await(5, TimeUnit.SECONDS), is(true));
+            final Future<Map<String, String>> second =
+                    executor.submit(() -> slowSnapshots.getOverview("uppsala", LocaleService.SWEDISH));
+            // Other regions don't wait for the slow one
+            assertThat(slowSnapshots.getOverview("stockholm", LocaleService.SWEDISH).get("stockholm"), is("sv:1"));
+
+            finishRendering.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS).get("uppsala"), is("sv:2"));
+            assertThat(second.get(5, TimeUnit.SECONDS), is(first.get()));
+            assertThat(renders.get(), is(2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedRenderIsTriedAgain() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final RaidOverviewSnapshots failingOnce = new RaidOverviewSnapshots(changeEvents, (region, locale) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("Broken");
+            }
+            return Collections.singletonMap(region, "ok");
+        });
+        try {
+            failingOnce.getOverview("uppsala", LocaleService.SWEDISH);
+            fail("Render should have failed");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertThat(failingOnce.getOverview("uppsala", LocaleService.SWEDISH).get("uppsala"), is("ok"));
+        assertThat(attempts.get(), is(2));
+    }
+}
@@ -14,10 +14,12 @@ import pokeraidbot.TestServerMain;
 import pokeraidbot.Utils;
 import pokeraidbot.domain.config.ClockService;
 import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.errors.UserMessedUpException;
 import pokeraidbot.domain.gym.Gym;
 import pokeraidbot.domain.gym.GymRepository;
 import pokeraidbot.domain.pokemon.PokemonRepository;
 import pokeraidbot.domain.raid.signup.SignUp;
+import pokeraidbot.domain.raid.signup.SignUpChange;
 import pokeraidbot.infrastructure.jpa.config.Config;
 import pokeraidbot.infrastructure.jpa.config.ServerConfigRepository;
 import pokeraidbot.infrastructure.jpa.raid.RaidEntity;
@@ -28,7 +30,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
@@ -105,6 +113,40 @@ public class RaidRepositoryTest {
         assertThat(groupsForServer.size(), is(0));
     }
 
+    @Test
+    public void raidSummariesHaveSignUpsPerGroup() throws Exception {
+        clockService.setMockTime(LocalTime.of(10, 0)); // We're not allowed to create signups at night, so mocking time
+        final LocalDateTime now = clockService.getCurrentDateTime();
+        final Gym gym = gymRepository.findByName("Blenda", uppsalaRegion);
+        User user = mock(User.class);
+        when(user.getName()).thenReturn("testUser1");
+        Guild guild = mock(Guild.class);
+        Config config = mock(Config.class);
+        Raid enteiRaid = repo.newRaid(user, new Raid(pokemonRepository.search("Entei", null), now.plusMinutes(45),
+                gym, localeService, uppsalaRegion), guild, config, "test");
+        final LocalDateTime groupStart = now.plusMinutes(30);
+        repo.newGroupForRaid(user, new RaidGroup("testserver", "channel", "infoId", "emoteId", "testUser1",
+                groupStart), enteiRaid, guild, config);
+        repo.addSignUp(user, enteiRaid, new SignUp("testUser1", 2, groupStart.toLocalTime()));
+        User user2 = mock(User.class);
+        when(user2.getName()).thenReturn("testUser2");
+        repo.addSignUp(user2, enteiRaid, new SignUp("testUser2", 1, groupStart.toLocalTime().plusMinutes(5)));
+
+        final List<RaidSummary> summaries = repo.getRaidSummariesForRegion(uppsalaRegion);
+        assertThat(summaries.size(), is(1));
+        final RaidSummary summary = summaries.get(0);
+        assertThat(summary.getRaid().getId(), is(enteiRaid.getId()));
+        assertThat(summary.getNumberOfPeople(), is(3));
+        assertThat(summary.getGroups().size(), is(1));
+        assertThat(summary.getGroups().get(0).getNumberOfPeople(), is(2));
+        assertThat(repo.listGroupsForRaid(summary).endsWith(Utils.printTime(groupStart.toLocalTime()) +
+                " (**2**), -:- (**1**)"), is(true));
+        assertThat(repo.getRaidSummariesForRegionAndPokemon(uppsalaRegion,
+                pokemonRepository.search("Entei", null)).size(), is(1));
+        assertThat(repo.getRaidSummariesForRegionAndPokemon(uppsalaRegion,
+                pokemonRepository.search("Raikou", null)).size(), is(0));
+    }
+
     @Test
     public void testSignUp() throws Exception {
         clockService.setMockTime(LocalTime.of(10, 0)); // We're not allowed to create signups at night, so mocking time
@@ -251,5 +293,136 @@ public class RaidRepositoryTest {
         assertThat(raid.getSignUpsAt(raidGroupTime.toLocalTime()).size(), is(0));
     }
 
+    @Test
+    public void expiredRaidsAreFilteredOnReadAndRemovedBySweep() throws Exception {
+        clockService.setMockTime(LocalTime.of(10, 0)); // We're not allowed to create signups at night, so mocking time
+        LocalDateTime endOfRaid = clockService.getCurrentDateTime().plusMinutes(45);
+        final Gym gym = gymRepository.findByName("Blenda", uppsalaRegion);
+        Raid enteiRaid = new Raid(pokemonRepository.search("Entei", null), endOfRaid, gym, localeService, uppsalaRegion);
+        User user = mock(User.class);
+        when(user.getName()).thenReturn("testUser1");
+        Guild guild = mock(Guild.class);
+        Config config = mock(Config.class);
+        Raid raid = repo.newRaid(user, enteiRaid, guild, config, "test");
+        final LocalDateTime groupTime = endOfRaid.minusMinutes(10);
+        repo.addSignUp(user, raid, new SignUp(user.getName(), 2, groupTime.toLocalTime()));
+        repo.newGroupForRaid(user, new RaidGroup("testserver", "channel", "infoId", "emoteId", "userId",
+                groupTime), raid, guild, config);
+        assertThat(repo.isActiveRaidAt(gym, uppsalaRegion), is(true));
+        assertThat(repo.isActiveOrExRaidAt(gym, uppsalaRegion), is(true));
+        assertThat(repo.isActiveOrExRaidAt(gymRepository.findByName("Hästen", uppsalaRegion), uppsalaRegion),
+                is(false));
+
+        clockService.setMockTime(LocalTime.of(11, 0));
+        assertThat(repo.isActiveRaidAt(gym, uppsalaRegion), is(false));
+        assertThat(repo.getAllRaidsForRegion(uppsalaRegion).size(), is(0));
+        assertThat(repo.isActiveOrExRaidAt(gym, uppsalaRegion), is(false));
+        // Reads never delete
+        assertThat(raidEntityRepository.findOne(raid.getId()) == null, is(false));
+
+        assertThat(repo.removeExpiredRaids(), is(1));
+        assertThat(raidEntityRepository.findOne(raid.getId()) == null, is(true));
+        assertThat(repo.getGroupsForServer("testserver").size(), is(0));
+        assertThat(repo.removeExpiredRaids(), is(0));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void concurrentSignUpsForSameRaidAreNotLost() throws Exception {
+        clockService.setMockTime(LocalTime.of(10, 0)); // We're not allowed to create signups at night, so mocking time
+        LocalDateTime endOfRaid = clockService.getCurrentDateTime().plusMinutes(45);
+        final Gym gym = gymRepository.findByName("Hästen", uppsalaRegion);
+        Raid enteiRaid = new Raid(pokemonRepository.search("Entei", null), endOfRaid, gym, localeService, uppsalaRegion);
+        User user = mock(User.class);
+        when(user.getName()).thenReturn("testUser1");
+        final Raid raid = repo.newRaid(user, enteiRaid, mock(Guild.class), mock(Config.class), "test");
+        final LocalDateTime startAt = endOfRaid.minusMinutes(10);
+        final int numberOfUsers = 10;
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfUsers);
+        try {
+            List<Callable<Raid>> signUps = new ArrayList<>();
+            for (int i = 0; i < numberOfUsers; i++) {
+                final User raider = mock(User.class);
+                when(raider.getName()).thenReturn("User" + i);
+                signUps.add(() -> repo.modifySignUp(raid.getId(), raider, 0, 0, 0, 2, startAt));
+            }
+            for (Future<Raid> signUp : executor.invokeAll(signUps)) {
+                signUp.get();
+            }
+            final Raid raidAfterSignUps = repo.getById(raid.getId());
+            assertThat(raidAfterSignUps.getSignUps().size(), is(numberOfUsers));
+            assertThat(raidAfterSignUps.getNumberOfPeopleSignedUp(), is(numberOfUsers * 2));
+        } finally {
+            executor.shutdownNow();
+            repo.delete(raid);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void changesArePublishedToListenersOfTheRegion() throws Exception {
+        clockService.setMockTime(LocalTime.of(10, 0)); // We're not allowed to create signups at night, so mocking time
+        final List<String> uppsalaChanges = new CopyOnWriteArrayList<>();
+        final List<String> otherChanges = new CopyOnWriteArrayList<>();
+        final RaidChangeEvents.Listener uppsalaListener = uppsalaChanges::add;
+        final RaidChangeEvents.Listener otherListener = otherChanges::add;
+        repo.getChangeEvents().addListener(uppsalaRegion, uppsalaListener);
+        repo.getChangeEvents().addListener("stockholm", otherListener);
+        try {
+            LocalDateTime endOfRaid = clockService.getCurrentDateTime().plusMinutes(45);
+            final Gym gym = gymRepository.findByName("Blenda", uppsalaRegion);
+            User user = mock(User.class);
+            when(user.getName()).thenReturn("testUser1");
+            Raid raid = repo.newRaid(user, new Raid(pokemonRepository.search("Entei", null), endOfRaid, gym,
+                    localeService, uppsalaRegion), mock(Guild.class), mock(Config.class), "test");
+            assertThat(uppsalaChanges.size(), is(1));
+            repo.addSignUp(user, raid, new SignUp(user.getName(), 2, endOfRaid.minusMinutes(10).toLocalTime()));
+            assertThat(uppsalaChanges.size(), is(2));
+            // Nothing to remove, so no change
+            repo.removeFromSignUp(raid.getId(), user, 0, 0, 0, 1, endOfRaid.minusMinutes(20));
+            assertThat(uppsalaChanges.size(), is(2));
+
+            clockService.setMockTime(LocalTime.of(11, 0));
+            repo.removeExpiredRaids();
+            assertThat(uppsalaChanges.size(), is(3));
+            assertThat(otherChanges.size(), is(1));
+            assertThat(uppsalaChanges.get(0), is(uppsalaRegion));
+        } finally {
+            repo.getChangeEvents().removeListener(uppsalaRegion, uppsalaListener);
+            repo.getChangeEvents().removeListener("stockholm", otherListener);
+            raidEntityRepository.deleteAllInBatch();
+        }
+    }
+
+    @Test
+    public void signUpChangesAreAppliedInOrderAndFailingOnesAreSkipped() throws Exception {
+        clockService.setMockTime(LocalTime.of(10, 0)); // We're not allowed to create signups at night, so mocking time
+        LocalDateTime endOfRaid = clockService.getCurrentDateTime().plusMinutes(45);
+        final Gym gym = gymRepository.findByName("Blenda", uppsalaRegion);
+        Raid enteiRaid = new Raid(pokemonRepository.search("Entei", null), endOfRaid, gym, localeService, uppsalaRegion);
+        User user = mock(User.class);
+        when(user.getName()).thenReturn("testUser1");
+        User otherUser = mock(User.class);
+        when(otherUser.getName()).thenReturn("testUser2");
+        final Raid raid = repo.newRaid(user, enteiRaid, mock(Guild.class), mock(Config.class), "test");
+        final LocalDateTime startAt = endOfRaid.minusMinutes(10);
+
+        final SignUpChange add = new SignUpChange(SignUpChange.Type.ADD, user, 0, 0, 0, 3, startAt);
+        final SignUpChange addMore = new SignUpChange(SignUpChange.Type.ADD, user, 0, 0, 0, 2, startAt);
+        final SignUpChange invalidNewSignUp =
+                new SignUpChange(SignUpChange.Type.ADD, otherUser, 0, 0, 0, -1, startAt);
+        final SignUpChange remove = new SignUpChange(SignUpChange.Type.REMOVE, user, 0, 0, 0, 1, startAt);
+        final Raid changedRaid = repo.applySignUpChanges(raid.getId(),
+                Arrays.asList(add, addMore, invalidNewSignUp, remove));
+
+        assertThat(add.getError() == null, is(true));
+        assertThat(addMore.getError() == null, is(true));
+        assertThat(invalidNewSignUp.getError() instanceof UserMessedUpException, is(true));
+        assertThat(remove.getError() == null, is(true));
+        assertThat(changedRaid.getSignUps().size(), is(1));
+        assertThat(changedRaid.getNumberOfPeopleSignedUp(), is(4));
+        assertThat(repo.getById(raid.getId()).getNumberOfPeopleSignedUp(), is(4));
+    }
+
     // todo: testcases for the intricate rules around EX raids
 }
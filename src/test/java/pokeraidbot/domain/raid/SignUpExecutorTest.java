@@ -0,0 +1,117 @@
+package pokeraidbot.domain.raid;
+
+import net.dv8tion.jda.core.entities.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pokeraidbot.domain.errors.UserMessedUpException;
+import pokeraidbot.domain.raid.signup.SignUpChange;
+import pokeraidbot.domain.raid.signup.SignUpExecutor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SignUpExecutorTest {
+    private RaidRepository raidRepository;
+    private Raid raid;
+    private List<List<SignUpChange>> appliedBatches;
+    private SignUpExecutor executor;
+    private LocalDateTime startAt = LocalDateTime.of(2019, 3, 20, 12, 0);
+
+    @Before
+    public void setUp() throws Exception {
+        raidRepository = mock(RaidRepository.class);
+        raid = mock(Raid.class);
+        appliedBatches = new CopyOnWriteArrayList<>();
+        when(raidRepository.applySignUpChanges(anyString(), anyListOf(SignUpChange.class))).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final List<SignUpChange> changes = (List<SignUpChange>) invocation.getArguments()[1];
+            appliedBatches.add(new ArrayList<>(changes));
+            for (SignUpChange change : changes) {
+                if (change.getPlebs() > 5) {
+                    change.setError(new UserMessedUpException(change.getUser(), "Too many"));
+                }
+            }
+            return raid;
+        });
+        executor = new SignUpExecutor(raidRepository, 4, 200);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdown();
+    }
+
+    @Test
+    public void changesWithinWindowAreAppliedTogetherInOrder() throws Exception {
+        List<CompletableFuture<Raid>> results = new ArrayList<>();
+        List<SignUpChange> changes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final SignUpChange change = change(i % 2 == 0 ? SignUpChange.Type.ADD : SignUpChange.Type.REMOVE, 1);
+            changes.add(change);
+            results.add(executor.submit("raid1", change));
+        }
+        for (CompletableFuture<Raid> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS), is(raid));
+        }
+        assertThat(appliedBatches.size(), is(1));
+        assertThat(appliedBatches.get(0), is(changes));
+    }
+
+    @Test
+    public void changesAfterShutdownFail() throws Exception {
+        executor.shutdown();
+        for (int i = 0; i < 2; i++) {
+            try {
+                executor.submit("raid1", change(SignUpChange.Type.ADD, 1)).get(5, TimeUnit.SECONDS);
+                fail("Change should fail after shutdown");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+            }
+        }
+        assertThat(appliedBatches.size(), is(0));
+    }
+
+    @Test
+    public void raidsAreBatchedSeparately() throws Exception {
+        final CompletableFuture<Raid> first = executor.submit("raid1", change(SignUpChange.Type.ADD, 1));
+        final CompletableFuture<Raid> second = executor.submit("raid2", change(SignUpChange.Type.ADD, 1));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(appliedBatches.size(), is(2));
+    }
+
+    @Test
+    public void failingChangeOnlyFailsItself() throws Exception {
+        final CompletableFuture<Raid> ok = executor.submit("raid1", change(SignUpChange.Type.ADD, 1));
+        final CompletableFuture<Raid> tooMany = executor.submit("raid1", change(SignUpChange.Type.ADD, 6));
+        assertThat(ok.get(5, TimeUnit.SECONDS), is(raid));
+        try {
+            tooMany.get(5, TimeUnit.SECONDS);
+            fail("Should have failed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(UserMessedUpException.class));
+        }
+        assertThat(appliedBatches.size(), is(1));
+    }
+
+    private SignUpChange change(SignUpChange.Type type, int plebs) {
+        return new SignUpChange(type, mock(User.class), 0, 0, 0, plebs, startAt);
+    }
+}
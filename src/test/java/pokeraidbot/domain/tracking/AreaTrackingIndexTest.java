@@ -0,0 +1,45 @@
+package pokeraidbot.domain.tracking;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AreaTrackingIndexTest {
+    private AreaTrackingIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new AreaTrackingIndex();
+    }
+
+    @Test
+    public void gymIsMatchedAgainstAreasInItsRegion() throws Exception {
+        // Spans several cells
+        index.add(new AreaTracking("1", "uppsala", TrackingArea.circle(59.858, 17.639, 8)));
+        index.add(new AreaTracking("2", "uppsala", TrackingArea.circle(59.858, 17.639, 1)));
+        index.add(new AreaTracking("3", "stockholm", TrackingArea.circle(59.858, 17.639, 8)));
+
+        assertThat(index.getUserIdsTracking("uppsala", 59.858, 17.639), is(new HashSet<>(Arrays.asList("1", "2"))));
+        assertThat(index.getUserIdsTracking("uppsala", 59.9, 17.7), is(Collections.singleton("1")));
+        assertThat(index.getUserIdsTracking("uppsala", 60.5, 17.7).isEmpty(), is(true));
+        assertThat(index.getUserIdsTracking("umeå", 59.858, 17.639).isEmpty(), is(true));
+    }
+
+    @Test
+    public void removedAreaIsNoLongerMatched() throws Exception {
+        final AreaTracking tracking = new AreaTracking("1", "uppsala", TrackingArea.circle(59.858, 17.639, 8));
+        assertThat(index.add(tracking), is(true));
+        assertThat(index.add(tracking), is(false));
+        assertThat(index.getAreasTrackedBy("1"), is(Collections.singleton(tracking)));
+
+        assertThat(index.remove(tracking), is(true));
+        assertThat(index.getUserIdsTracking("uppsala", 59.9, 17.7).isEmpty(), is(true));
+        assertThat(index.getAreasTrackedBy("1").isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,57 @@
+package pokeraidbot.domain.tracking;
+
+import org.junit.Before;
+import org.junit.Test;
+import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.pokemon.Pokemon;
+import pokeraidbot.domain.pokemon.PokemonRepository;
+import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class PokemonTrackingIndexTest {
+    private PokemonTrackingIndex index;
+    private Pokemon mewtwo;
+    private Pokemon yanma;
+    private Pokemon yanmega;
+
+    @Before
+    public void setUp() throws Exception {
+        final PokemonRepository pokemonRepository = new PokemonRepository("/pokemons.csv",
+                new LocaleService("sv", mock(UserConfigRepository.class)));
+        mewtwo = pokemonRepository.getByName("Mewtwo");
+        yanma = pokemonRepository.getByName("Yanma");
+        yanmega = pokemonRepository.getByName("Yanmega");
+        index = new PokemonTrackingIndex();
+    }
+
+    @Test
+    public void findsUsersTrackingThePokemonOnly() throws Exception {
+        assertThat(index.add("1", mewtwo), is(true));
+        assertThat(index.add("2", mewtwo), is(true));
+        assertThat(index.add("1", mewtwo), is(false));
+        index.add("3", yanma);
+
+        assertThat(index.getUserIdsTracking(mewtwo), is(new HashSet<>(Arrays.asList("1", "2"))));
+        // Tracking Yanma isn't tracking every pokemon with Yanma in its name
+        assertThat(index.getUserIdsTracking(yanmega).isEmpty(), is(true));
+        assertThat(index.getPokemonTrackedBy("1"), is(Collections.singleton(mewtwo)));
+    }
+
+    @Test
+    public void pokemonIsDroppedWithItsLastTracker() throws Exception {
+        index.add("1", mewtwo);
+        index.add("2", mewtwo);
+        assertThat(index.remove("1", mewtwo), is(true));
+        assertThat(index.remove("1", mewtwo), is(false));
+        assertThat(index.contains("2", mewtwo), is(true));
+        assertThat(index.remove("2", mewtwo), is(true));
+        assertThat(index.isEmpty(), is(true));
+    }
+}
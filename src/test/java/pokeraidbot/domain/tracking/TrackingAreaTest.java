@@ -0,0 +1,57 @@
+package pokeraidbot.domain.tracking;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TrackingAreaTest {
+    // From TODO.md, roughly the city of Uppsala
+    private static final String UPPSALA = "59.915873,17.602844 59.849204,17.522850 59.788967,17.589111 " +
+            "59.777044,17.661552 59.851101,17.806777 59.906062,17.716140";
+
+    @Test
+    public void polygonContainsGymsInsideIt() throws Exception {
+        final TrackingArea uppsala = TrackingArea.parse(UPPSALA);
+        // Kronparkens Klockstapel
+        assertThat(uppsala.contains(59.833388, 17.65133), is(true));
+        // The Wooden Man, south of the city
+        assertThat(uppsala.contains(59.750849, 17.789359), is(false));
+        assertThat(TrackingArea.parse(uppsala.toString()), is(uppsala));
+    }
+
+    @Test
+    public void circleContainsGymsWithinTheRadius() throws Exception {
+        final TrackingArea area = TrackingArea.parse(" 59.858,17.639 2 ");
+        assertThat(area.contains(59.858, 17.639), is(true));
+        // About 1.8 km north
+        assertThat(area.contains(59.874, 17.639), is(true));
+        // About 2.2 km north-east, inside the bounding box but outside the circle
+        assertThat(area.contains(59.87, 17.67), is(false));
+        assertThat(TrackingArea.parse(area.toString()), is(area));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooLargeAreaIsRejected() throws Exception {
+        TrackingArea.parse("59.858,17.639 100");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooLargePolygonIsRejected() throws Exception {
+        TrackingArea.parse("59.0,17.0 59.0,19.5 60.0,18.0");
+    }
+
+    @Test
+    public void circleIsOnlyLimitedByItsRadiusFarNorth() throws Exception {
+        // 50 km around Luleå spans more than two degrees of longitude
+        final TrackingArea lulea = TrackingArea.parse("65.584,22.154 50");
+        assertThat(lulea.getMaxLongitude() - lulea.getMinLongitude() > TrackingArea.MAX_SIZE_IN_DEGREES, is(true));
+        // Boden, about 35 km north-west
+        assertThat(lulea.contains(65.825, 21.689), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void areaWithTwoCornersIsRejected() throws Exception {
+        TrackingArea.parse("59.858,17.639 59.9,17.7");
+    }
+}
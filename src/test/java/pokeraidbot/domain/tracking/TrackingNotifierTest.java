@@ -0,0 +1,89 @@
+package pokeraidbot.domain.tracking;
+
+import net.dv8tion.jda.core.entities.PrivateChannel;
+import net.dv8tion.jda.core.entities.User;
+import net.dv8tion.jda.core.requests.RestAction;
+import net.dv8tion.jda.core.requests.restaction.MessageAction;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TrackingNotifierTest {
+    private AtomicLong now;
+    private TrackingNotifier notifier;
+
+    @Before
+    public void setUp() throws Exception {
+        now = new AtomicLong(1000);
+        notifier = new TrackingNotifier(10, 200, 1, now::get);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        notifier.shutdown();
+    }
+
+    @Test
+    public void messagesWithinTheWindowAreSentAsOneDmOnTheCachedChannel() throws Exception {
+        final PrivateChannel channel = mock(PrivateChannel.class);
+        when(channel.sendMessage(anyString())).thenReturn(mock(MessageAction.class));
+        final User user = userWithChannel("1", channel);
+
+        notifier.send(user, "Mewtwo at Gym 1");
+        notifier.send(user, "Mewtwo at Gym 2");
+        notifier.send(user, "Mewtwo at Gym 1");
+        now.addAndGet(199);
+        notifier.sendDueMessages();
+        verify(channel, never()).sendMessage(anyString());
+        now.addAndGet(1);
+        notifier.sendDueMessages();
+        verify(channel).sendMessage("Mewtwo at Gym 1\n\nMewtwo at Gym 2");
+
+        notifier.send(user, "Mewtwo at Gym 3");
+        now.addAndGet(200);
+        notifier.sendDueMessages();
+        verify(channel).sendMessage("Mewtwo at Gym 3");
+        verify(user, times(1)).openPrivateChannel();
+    }
+
+    @Test
+    public void dmIsDroppedWhenTooManyUsersAreWaiting() throws Exception {
+        final long droppedBefore = BotMetrics.getCount(TrackingNotifier.DMS_DROPPED);
+        notifier.send(userWithChannel("1", mock(PrivateChannel.class)), "Mewtwo at Gym 1");
+        notifier.send(userWithChannel("2", mock(PrivateChannel.class)), "Mewtwo at Gym 1");
+        assertThat(BotMetrics.getCount(TrackingNotifier.DMS_DROPPED), is(droppedBefore + 1));
+    }
+
+    @Test
+    public void messagesAreJoinedIntoAsFewDmsAsFit() throws Exception {
+        final String longMessage = StringUtils.repeat("x", 1999);
+        final List<String> contents = TrackingNotifier.joinMessages(Arrays.asList("a", "b", longMessage, "c"));
+        assertThat(contents, is(Arrays.asList("a\n\nb", longMessage, "c")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static User userWithChannel(String id, PrivateChannel channel) {
+        final User user = mock(User.class);
+        when(user.getId()).thenReturn(id);
+        final RestAction<PrivateChannel> openChannel = mock(RestAction.class);
+        doAnswer(invocation -> {
+            ((Consumer<PrivateChannel>) invocation.getArguments()[0]).accept(channel);
+            return null;
+        }).when(openChannel).queue(any(Consumer.class), any(Consumer.class));
+        when(user.openPrivateChannel()).thenReturn(openChannel);
+        return user;
+    }
+}
@@ -0,0 +1,98 @@
+package pokeraidbot.domain.tracking;
+
+import net.dv8tion.jda.core.entities.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import pokeraidbot.domain.config.LocaleService;
+import pokeraidbot.domain.errors.UserMessedUpException;
+import pokeraidbot.domain.pokemon.Pokemon;
+import pokeraidbot.domain.pokemon.PokemonRepository;
+import pokeraidbot.infrastructure.jpa.config.Config;
+import pokeraidbot.infrastructure.jpa.config.UserConfig;
+import pokeraidbot.infrastructure.jpa.config.UserConfigRepository;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingAreaSubscriptionRepository;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingSubscription;
+import pokeraidbot.infrastructure.jpa.tracking.TrackingSubscriptionRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class TrackingServiceTest {
+    private UserConfigRepository userConfigRepository;
+    private TrackingSubscriptionRepository subscriptionRepository;
+    private PokemonRepository pokemonRepository;
+    private TrackingService trackingService;
+
+    @Before
+    public void setUp() throws Exception {
+        userConfigRepository = mock(UserConfigRepository.class);
+        subscriptionRepository = mock(TrackingSubscriptionRepository.class);
+        pokemonRepository = new PokemonRepository("/pokemons.csv", new LocaleService("sv", userConfigRepository));
+        trackingService = new TrackingService(new LocaleService("sv", userConfigRepository), userConfigRepository,
+                subscriptionRepository, mock(TrackingAreaSubscriptionRepository.class), pokemonRepository,
+                mock(TrackingNotifier.class));
+    }
+
+    @Test
+    public void trackingIsLoadedFromSubscriptionsAndOldTrackingColumns() throws Exception {
+        final Pokemon mewtwo = pokemonRepository.getByName("Mewtwo");
+        final Pokemon entei = pokemonRepository.getByName("Entei");
+        when(subscriptionRepository.findAll()).thenReturn(Collections.singletonList(
+                new TrackingSubscription("1", mewtwo.getNumber())));
+        final UserConfig oldConfig = new UserConfig("2", mewtwo, entei, null, null);
+        when(userConfigRepository.findWithTrackingColumns()).thenReturn(Collections.singletonList(oldConfig));
+
+        trackingService.loadTracking();
+
+        assertThat(trackingService.getTrackingTargets(), is(new HashSet<>(Arrays.asList(
+                new PokemonTrackingTarget("1", mewtwo), new PokemonTrackingTarget("2", mewtwo),
+                new PokemonTrackingTarget("2", entei)))));
+        verify(subscriptionRepository, times(2)).save(any(TrackingSubscription.class));
+        assertThat(oldConfig.getTracking1() == null && oldConfig.getTracking2() == null, is(true));
+        verify(userConfigRepository).save(oldConfig);
+    }
+
+    @Test
+    public void usersCanTrackAnyNumberOfPokemon() throws Exception {
+        final User user = mock(User.class);
+        when(user.getId()).thenReturn("1");
+        when(userConfigRepository.exists("1")).thenReturn(true);
+        final Config config = mock(Config.class);
+        final String[] names = {"Mewtwo", "Entei", "Raikou", "Suicune", "Lugia"};
+        for (String name : names) {
+            trackingService.add(pokemonRepository.getByName(name), user, config);
+        }
+        verify(subscriptionRepository, times(names.length)).save(any(TrackingSubscription.class));
+        assertThat(trackingService.getTrackingTargets().size(), is(names.length));
+
+        trackingService.removeAllForUser(user);
+        verify(subscriptionRepository).deleteByUserId("1");
+        assertThat(trackingService.getTrackingTargets().isEmpty(), is(true));
+    }
+
+    @Test
+    public void trackingSavedAtTheSameTimeByAnotherCommandCountsAsAlreadyTracked() throws Exception {
+        final User user = mock(User.class);
+        when(user.getId()).thenReturn("1");
+        when(userConfigRepository.exists("1")).thenReturn(true);
+        when(subscriptionRepository.save(any(TrackingSubscription.class)))
+                .thenThrow(new DataIntegrityViolationException("Unique constraint violated"));
+        final Pokemon mewtwo = pokemonRepository.getByName("Mewtwo");
+        try {
+            trackingService.add(mewtwo, user, mock(Config.class));
+            fail("Should already be tracked");
+        } catch (UserMessedUpException e) {
+            // Expected
+        }
+        assertThat(trackingService.getTrackingTargets(),
+                is(Collections.singleton(new PokemonTrackingTarget("1", mewtwo))));
+    }
+}
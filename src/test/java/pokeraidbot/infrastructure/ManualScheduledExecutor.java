@@ -0,0 +1,159 @@
+package pokeraidbot.infrastructure;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduled executor for tests, running tasks on the test's thread when its clock is advanced. Not thread safe.
+ */
+class ManualScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>(
+            Comparator.comparingLong((Task task) -> task.timeInMillis).thenComparingLong(task -> task.sequence));
+    private long nowInMillis = 0;
+    private long nextSequence = 0;
+    private boolean shutdown = false;
+
+    long currentTimeMillis() {
+        return nowInMillis;
+    }
+
+    /**
+     * Moves the clock forward, running the tasks that are due on the way in order.
+     */
+    void advance(long millis) {
+        final long until = nowInMillis + millis;
+        while (!tasks.isEmpty() && tasks.peek().timeInMillis <= until) {
+            final Task task = tasks.poll();
+            nowInMillis = task.timeInMillis;
+            task.done = true;
+            task.runnable.run();
+        }
+        nowInMillis = until;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Shut down");
+        }
+        final Task task = new Task(command, nowInMillis + unit.toMillis(delay), nextSequence++);
+        tasks.add(task);
+        return task;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        final List<Runnable> notRun = new ArrayList<>();
+        for (Task task : tasks) {
+            notRun.add(task.runnable);
+        }
+        tasks.clear();
+        return notRun;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && tasks.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return isTerminated();
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+                                                     TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    private class Task implements ScheduledFuture<Object> {
+        private final Runnable runnable;
+        private final long timeInMillis;
+        private final long sequence;
+        private boolean done = false;
+        private boolean cancelled = false;
+
+        private Task(Runnable runnable, long timeInMillis, long sequence) {
+            this.runnable = runnable;
+            this.timeInMillis = timeInMillis;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(timeInMillis - nowInMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done) {
+                return false;
+            }
+            done = true;
+            cancelled = true;
+            tasks.remove(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public Object get() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package pokeraidbot.infrastructure;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class MessageRefreshSchedulerTest {
+    private ManualScheduledExecutor executor;
+    private MessageRefreshScheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new ManualScheduledExecutor();
+        scheduler = new MessageRefreshScheduler(executor, executor::currentTimeMillis, 0.0, 1000, 200);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void refreshRunsUntilTaskReturnsFalse() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final MessageRefreshScheduler.ScheduledRefresh refresh = scheduler.schedule("test", 5, TimeUnit.MILLISECONDS,
+                r -> runs.incrementAndGet() < 3);
+        executor.advance(4);
+        assertThat(runs.get(), is(0));
+        executor.advance(1);
+        assertThat(runs.get(), is(1));
+        executor.advance(10);
+        assertThat(runs.get(), is(3));
+        assertThat(refresh.isCancelled(), is(true));
+        assertThat(scheduler.getNumberOfActiveRefreshes(), is(0));
+
+        executor.advance(100);
+        assertThat(runs.get(), is(3));
+    }
+
+    @Test
+    public void networkIssuesBackOffUntilSuccess() throws Exception {
+        final MessageRefreshScheduler.ScheduledRefresh refresh = scheduler.schedule("test", 100, TimeUnit.MILLISECONDS,
+                r -> true);
+        assertThat(refresh.nextDelayInMillis(), is(100L));
+        refresh.failed();
+        assertThat(refresh.nextDelayInMillis(), is(200L));
+        refresh.failed();
+        refresh.failed();
+        refresh.failed();
+        assertThat(refresh.nextDelayInMillis(), is(1000L));
+        refresh.succeeded();
+        assertThat(refresh.nextDelayInMillis(), is(100L));
+        refresh.cancel();
+    }
+
+    @Test
+    public void unchangedContentIsEditedBeforeTheLastEditGetsTooOld() throws Exception {
+        final MessageRefreshScheduler.ScheduledRefresh refresh = scheduler.schedule("test", 50, TimeUnit.MILLISECONDS,
+                r -> true);
+        final long skippedBefore = BotMetrics.getCount(MessageRefreshScheduler.EDITS_SKIPPED);
+        assertThat(refresh.needsEdit(1), is(true));
+        refresh.edited(1);
+        assertThat(refresh.needsEdit(1), is(false));
+        assertThat(refresh.needsEdit(2), is(true));
+        assertThat(BotMetrics.getCount(MessageRefreshScheduler.EDITS_SKIPPED), is(skippedBefore + 1));
+
+        // The next refresh is at most 50 ms away, so at 150 ms it's the last chance to stay within 200 ms
+        executor.advance(149);
+        assertThat(refresh.needsEdit(1), is(false));
+        executor.advance(1);
+        assertThat(refresh.needsEdit(1), is(true));
+        assertThat(scheduler.getMaxUnchangedInMinutes(), is(1L));
+        refresh.cancel();
+    }
+
+    @Test
+    public void refreshSoonRunsOnceForABurstOfRequests() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final MessageRefreshScheduler.ScheduledRefresh refresh = scheduler.schedule("test", 1, TimeUnit.HOURS,
+                r -> runs.incrementAndGet() > 0);
+        final AtomicInteger cancelled = new AtomicInteger();
+        refresh.onCancel(cancelled::incrementAndGet);
+        for (int i = 0; i < 10; i++) {
+            refresh.refreshSoon(50);
+        }
+        executor.advance(49);
+        assertThat(runs.get(), is(0));
+        executor.advance(1);
+        assertThat(runs.get(), is(1));
+        executor.advance(1000);
+        assertThat(runs.get(), is(1));
+
+        refresh.refreshSoon(10);
+        executor.advance(10);
+        assertThat(runs.get(), is(2));
+        refresh.cancel();
+        assertThat(cancelled.get(), is(1));
+    }
+
+    @Test
+    public void cancelListenersRunOnce() throws Exception {
+        final MessageRefreshScheduler.ScheduledRefresh refresh = scheduler.schedule("test", 1, TimeUnit.HOURS,
+                r -> true);
+        final AtomicInteger before = new AtomicInteger();
+        refresh.onCancel(before::incrementAndGet);
+        refresh.cancel();
+        refresh.cancel();
+        assertThat(before.get(), is(1));
+
+        final AtomicInteger after = new AtomicInteger();
+        refresh.onCancel(after::incrementAndGet);
+        refresh.cancel();
+        assertThat(after.get(), is(1));
+        assertThat(before.get(), is(1));
+    }
+
+    @Test
+    public void networkExceptionKeepsRefreshingButOtherExceptionsStopIt() throws Exception {
+        final AtomicInteger timingOutRuns = new AtomicInteger();
+        final MessageRefreshScheduler.ScheduledRefresh timingOut = scheduler.schedule("timing out", 5,
+                TimeUnit.MILLISECONDS, r -> {
+                    timingOutRuns.incrementAndGet();
+                    throw new SocketTimeoutException("Read timed out");
+                });
+        final AtomicInteger brokenRuns = new AtomicInteger();
+        final MessageRefreshScheduler.ScheduledRefresh broken = scheduler.schedule("broken", 5,
+                TimeUnit.MILLISECONDS, r -> {
+                    brokenRuns.incrementAndGet();
+                    throw new IllegalStateException("Broken");
+                });
+        executor.advance(5);
+        assertThat(timingOutRuns.get(), is(1));
+        assertThat(brokenRuns.get(), is(1));
+        assertThat(timingOut.isCancelled(), is(false));
+        assertThat(broken.isCancelled(), is(true));
+
+        // Backed off to twice the period
+        executor.advance(9);
+        assertThat(timingOutRuns.get(), is(1));
+        executor.advance(1);
+        assertThat(timingOutRuns.get(), is(2));
+        assertThat(brokenRuns.get(), is(1));
+
+        timingOut.cancel();
+        assertThat(scheduler.getNumberOfActiveRefreshes(), is(0));
+    }
+}
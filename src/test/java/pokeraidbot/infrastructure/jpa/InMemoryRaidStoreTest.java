@@ -0,0 +1,112 @@
+package pokeraidbot.infrastructure.jpa;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import pokeraidbot.infrastructure.jpa.raid.*;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class InMemoryRaidStoreTest {
+    private static final String uppsalaRegion = "uppsala";
+    private RaidEntityRepository raidEntityRepository;
+    private RaidEntity existingRaid;
+    private LocalDateTime now = LocalDateTime.of(2019, 3, 20, 12, 0);
+
+    @Before
+    public void setUp() throws Exception {
+        raidEntityRepository = mock(RaidEntityRepository.class);
+        existingRaid = newRaid("Entei", "Blenda", now.plusMinutes(30));
+        when(raidEntityRepository.findAll()).thenReturn(Arrays.asList(existingRaid));
+        when(raidEntityRepository.saveAndFlush(any(RaidEntity.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+    }
+
+    @Test
+    public void loadsAllRaidsAndServesReadsFromMemory() throws Exception {
+        InMemoryRaidStore store = new InMemoryRaidStore(raidEntityRepository);
+        assertThat(store.findById(existingRaid.getId()), is(existingRaid));
+        assertThat(store.findByGymAndRegion("Blenda", uppsalaRegion).size(), is(1));
+        assertThat(store.findByGymAndRegion("Blenda", "otherregion").size(), is(0));
+        assertThat(store.findByPokemonAndRegion("Entei", uppsalaRegion).size(), is(1));
+        assertThat(store.findByPokemonAndRegion("Raikou", uppsalaRegion).size(), is(0));
+        verify(raidEntityRepository, times(1)).findAll();
+        verifyNoMoreInteractions(raidEntityRepository);
+    }
+
+    @Test
+    public void writesGoThroughToDatabaseAndUpdateIndexes() throws Exception {
+        InMemoryRaidStore store = new InMemoryRaidStore(raidEntityRepository);
+        final RaidEntity raikou = newRaid("Raikou", "Blenda", now.plusMinutes(10));
+        store.save(raikou);
+        verify(raidEntityRepository).saveAndFlush(raikou);
+
+        final List<RaidEntity> raidsAtGym = store.findByGymAndRegion("Blenda", uppsalaRegion);
+        assertThat(raidsAtGym.size(), is(2));
+        // Ordered by end of raid
+        assertThat(raidsAtGym.get(0).getPokemon(), is("Raikou"));
+        final List<RaidEntity> raidsInRegion = store.findByRegion(uppsalaRegion);
+        // Ordered by pokemon
+        assertThat(raidsInRegion.get(0).getPokemon(), is("Entei"));
+
+        store.delete(raikou);
+        verify(raidEntityRepository).delete(raikou);
+        assertThat(store.findById(raikou.getId()), is(nullValue()));
+        assertThat(store.findByGymAndRegion("Blenda", uppsalaRegion).size(), is(1));
+    }
+
+    @Test
+    public void changesToReturnedRaidsAreNotVisibleUntilSaved() throws Exception {
+        InMemoryRaidStore store = new InMemoryRaidStore(raidEntityRepository);
+        final RaidEntity raid = store.findById(existingRaid.getId());
+        raid.addSignUp(new RaidEntitySignUp("testUser", 3, "12:15"));
+        raid.addGroup(new RaidGroup("server", "channel", "info", "emote", "creator", now.plusMinutes(15)));
+        assertThat(store.findById(existingRaid.getId()).getSignUpsAsSet().size(), is(0));
+        assertThat(store.findGroupsForServer("server").size(), is(0));
+
+        store.save(raid);
+        assertThat(store.findById(existingRaid.getId()).getSignUpsAsSet().size(), is(1));
+        final List<RaidGroup> groups = store.findGroupsForServer("server");
+        assertThat(groups.size(), is(1));
+        assertThat(groups.get(0).getRaidId(), is(existingRaid.getId()));
+    }
+
+    @Test(expected = ObjectOptimisticLockingFailureException.class)
+    public void savingStaleCopyFailsWithoutGoingToDatabase() throws Exception {
+        final RaidEntity raid = newRaid("Raikou", "Blenda", now.plusMinutes(10));
+        ReflectionTestUtils.setField(raid, "version", 1L);
+        final RaidEntity staleRaid = raid.copy();
+        ReflectionTestUtils.setField(staleRaid, "version", 0L);
+        InMemoryRaidStore store = new InMemoryRaidStore(raidEntityRepository);
+        store.save(raid);
+        try {
+            store.save(staleRaid);
+        } finally {
+            verify(raidEntityRepository, times(1)).saveAndFlush(any(RaidEntity.class));
+        }
+    }
+
+    @Test
+    public void presenceChecksDiscriminateExRaidsAndIgnoreEndedRaids() throws Exception {
+        InMemoryRaidStore store = new InMemoryRaidStore(raidEntityRepository);
+        store.save(newRaid("Deoxys", "Sköldpaddan", now.plusDays(2)));
+        assertThat(store.existsActiveRaidAt("Blenda", uppsalaRegion, now, false), is(true));
+        assertThat(store.existsActiveRaidAt("Sköldpaddan", uppsalaRegion, now, false), is(false));
+        assertThat(store.existsActiveRaidAt("Sköldpaddan", uppsalaRegion, now, true), is(true));
+        assertThat(store.existsActiveRaidAt("Blenda", uppsalaRegion, now.plusHours(1), true), is(false));
+        assertThat(store.existsActiveRaidAt("Blenda", "otherregion", now, true), is(false));
+    }
+
+    private static RaidEntity newRaid(String pokemon, String gym, LocalDateTime endOfRaid) {
+        return new RaidEntity(UUID.randomUUID().toString(), pokemon, endOfRaid, gym, "creator", uppsalaRegion);
+    }
+}
@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +31,8 @@ import static pokeraidbot.Utils.printTime;
 @SpringBootTest
 public class RaidEntityRepositoryTest {
     private static final transient Logger LOGGER = LoggerFactory.getLogger(RaidEntityRepositoryTest.class);
+    // Only three threads change the raid, so a change that keeps conflicting this many times is stuck
+    private static final int MAX_ATTEMPTS = 20;
     @Autowired
     RaidEntityRepository entityRepository;
     private static final ExecutorService executorService =
@@ -133,8 +136,26 @@ public class RaidEntityRepositoryTest {
         assertThat(theEntity.getSignUpsAsSet().size(), is(signups));
     }
 
+    // Raids are versioned, so concurrent changes are detected and have to be retried from a fresh read
+    private <T> T retryOnConflict(Callable<T> change) throws Exception {
+        ObjectOptimisticLockingFailureException lastConflict = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                return change.call();
+            } catch (ObjectOptimisticLockingFailureException e) {
+                LOGGER.warn("Conflict, retrying: " + e.getMessage());
+                lastConflict = e;
+            }
+        }
+        throw lastConflict;
+    }
+
+    public int deleteSomeSignUps(String id) throws Exception {
+        return retryOnConflict(() -> tryToDeleteSomeSignUps(id));
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public int deleteSomeSignUps(String id) {
+    public int tryToDeleteSomeSignUps(String id) {
         int numberDeleted = 0;
         final RaidEntity theEntity = entityRepository.findOne(id);
         for (RaidEntitySignUp signUp : theEntity.getSignUpsAsSet()) {
@@ -148,10 +169,16 @@ public class RaidEntityRepositoryTest {
         return numberDeleted;
     }
 
+    public RaidEntitySignUp createSignUp(String id, Integer thread, LocalTime now, Random random, int i)
+            throws Exception {
+        final int numberOfPeople = random.nextInt(4) + 1;
+        return retryOnConflict(() -> tryToCreateSignUp(id, thread, now, numberOfPeople, i));
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public RaidEntitySignUp createSignUp(String id, Integer thread, LocalTime now, Random random, int i) {
+    public RaidEntitySignUp tryToCreateSignUp(String id, Integer thread, LocalTime now, int numberOfPeople, int i) {
         RaidEntitySignUp signUp = new RaidEntitySignUp("Mupp" + thread + "_" + i,
-                random.nextInt(4) + 1, printTime(now));
+                numberOfPeople, printTime(now));
         RaidEntity entity = entityRepository.findOne(id);
         entity.addSignUp(signUp);
         entityRepository.save(entity);
@@ -0,0 +1,114 @@
+package pokeraidbot.jda;
+
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.events.message.guild.react.GuildMessageReactionAddEvent;
+import net.dv8tion.jda.core.hooks.EventListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pokeraidbot.infrastructure.BotMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrderedEventManagerTest {
+    private OrderedEventManager eventManager;
+
+    @Before
+    public void setUp() throws Exception {
+        eventManager = new OrderedEventManager(2, 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        eventManager.shutdown();
+    }
+
+    @Test
+    public void eventsForAServerAreHandledInOrderWhileAnotherServerIsBlocked() throws Exception {
+        final Guild slowGuild = guild("1");
+        final Guild guild = guildOnOtherStripeThan(slowGuild);
+        final CountDownLatch slowGuildBlocked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(5);
+        final List<Event> handled = Collections.synchronizedList(new ArrayList<>());
+        final Event slowEvent = reactionIn(slowGuild);
+        eventManager.register((EventListener) event -> {
+            if (event == slowEvent) {
+                try {
+                    slowGuildBlocked.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            handled.add(event);
+            done.countDown();
+        });
+
+        eventManager.handle(slowEvent);
+        final List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Event event = reactionIn(guild);
+            events.add(event);
+            eventManager.handle(event);
+            // Queue only takes two events at a time
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(handled, is(events));
+
+        slowGuildBlocked.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(handled.get(4), is(slowEvent));
+    }
+
+    @Test
+    public void eventsAreDroppedWhenTheQueueIsFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        eventManager.register((EventListener) event -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        final long rejectedBefore = BotMetrics.getCount(OrderedEventManager.EVENTS_REJECTED);
+        final Guild guild = guild("1");
+        // One handled, two queued and one too many
+        for (int i = 0; i < 4; i++) {
+            eventManager.handle(reactionIn(guild));
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertThat(BotMetrics.getCount(OrderedEventManager.EVENTS_REJECTED), is(rejectedBefore + 1));
+        blocked.countDown();
+    }
+
+    private static Guild guild(String id) {
+        final Guild guild = mock(Guild.class);
+        when(guild.getId()).thenReturn(id);
+        return guild;
+    }
+
+    private static Guild guildOnOtherStripeThan(Guild guild) {
+        final int stripe = guild.getId().hashCode() % 2;
+        for (int id = 2; ; id++) {
+            if (String.valueOf(id).hashCode() % 2 != stripe) {
+                return guild(String.valueOf(id));
+            }
+        }
+    }
+
+    private static Event reactionIn(Guild guild) {
+        final GuildMessageReactionAddEvent event = mock(GuildMessageReactionAddEvent.class);
+        when(event.getGuild()).thenReturn(guild);
+        return event;
+    }
+}